@@ -28,6 +28,8 @@ import java.util.Objects;
  */
 public abstract class AbstractExpression implements Expression {
     private final DomainType type;
+    private int hashCode;
+    private ExpressionAnalysis analysis;
 
     /**
      * Constructs an abstract expression producing the given domain type as result type.
@@ -50,22 +52,65 @@ public abstract class AbstractExpression implements Expression {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
+    public ExpressionAnalysis getAnalysis() {
+        ExpressionAnalysis analysis = this.analysis;
+        if (analysis == null) {
+            analysis = ExpressionAnalysis.analyze(this);
+            // The analysis is immutable, so racing threads at worst compute it multiple times
+            this.analysis = analysis;
+        }
+        return analysis;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public final boolean equals(Object o) {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof AbstractExpression)) {
             return false;
         }
         AbstractExpression that = (AbstractExpression) o;
-        return type.equals(that.type);
+        // Comparing the cached structural hashes first avoids walking the trees of expressions that differ
+        return hashCode() == that.hashCode() && structurallyEquals(that);
     }
 
     /**
-     * {@inheritDoc}
+     * Returns whether the given expression has the same structure as this expression. Subclasses must compare their own state.
+     *
+     * @param o The other expression
+     * @return whether the given expression has the same structure
+     */
+    protected boolean structurallyEquals(AbstractExpression o) {
+        return getClass() == o.getClass() && type.equals(o.type);
+    }
+
+    /**
+     * Returns the structural hash code of this expression.
+     * Since expressions are immutable, the hash code is computed at most once, which makes expressions cheap to use as keys.
+     *
+     * @return the structural hash code
      */
     @Override
-    public int hashCode() {
+    public final int hashCode() {
+        int hashCode = this.hashCode;
+        if (hashCode == 0) {
+            hashCode = computeHashCode();
+            // Racing threads compute the same value, so no synchronization is needed
+            this.hashCode = hashCode;
+        }
+        return hashCode;
+    }
+
+    /**
+     * Computes the structural hash code of this expression from its state. Subclasses must include their own state.
+     *
+     * @return the structural hash code
+     */
+    protected int computeHashCode() {
         return Objects.hash(type);
     }
 }
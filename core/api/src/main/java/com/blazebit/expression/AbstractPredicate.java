@@ -27,7 +27,7 @@ import java.util.Objects;
  * @since 1.0.0
  */
 public abstract class AbstractPredicate extends AbstractExpression implements Predicate {
-    private boolean negated;
+    private final boolean negated;
 
     /**
      * Constructs an abstract predicate producing the given domain type as result type.
@@ -35,7 +35,7 @@ public abstract class AbstractPredicate extends AbstractExpression implements Pr
      * @param type The result type of the predicate
      */
     public AbstractPredicate(DomainType type) {
-        super(type);
+        this(type, false);
     }
 
     /**
@@ -61,22 +61,8 @@ public abstract class AbstractPredicate extends AbstractExpression implements Pr
      * {@inheritDoc}
      */
     @Override
-    public void setNegated(boolean negated) {
-        this.negated = negated;
-    }
-
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
 
@@ -89,7 +75,7 @@ public abstract class AbstractPredicate extends AbstractExpression implements Pr
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), negated);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), negated);
     }
 }
@@ -81,14 +81,8 @@ public class ArithmeticFactor extends AbstractExpression implements ArithmeticEx
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         ArithmeticFactor that = (ArithmeticFactor) o;
@@ -100,7 +94,7 @@ public class ArithmeticFactor extends AbstractExpression implements ArithmeticEx
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), expression, invertSignum);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), expression, invertSignum);
     }
 }
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import com.blazebit.domain.runtime.model.DomainType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Tests a compiled predicate for many root objects by reusing a single interpreter context per thread
+ * that only rebinds the root variable for every object.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class BatchEvaluator {
+
+    // More chunks than processors so that a few slow chunks don't leave the other processors idle
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+    // Below this size the overhead of scheduling a chunk outweighs the parallelism
+    private static final int MINIMUM_CHUNK_SIZE = 256;
+
+    private BatchEvaluator() {
+    }
+
+    /**
+     * Tests the predicate for every root object.
+     *
+     * @param predicate The predicate to test
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @param alias The root variable name to bind the root objects to
+     * @param rootObjects The root objects
+     * @return the indices of the root objects for which the predicate is true
+     */
+    static BitSet testAll(CompiledPredicate predicate, ExpressionInterpreter.Context interpreterContext, String alias, Iterable<?> rootObjects) {
+        BitSet result = new BitSet();
+        RootBindingContext context = new RootBindingContext(interpreterContext, alias, false);
+        int i = 0;
+        for (Object rootObject : rootObjects) {
+            context.root = rootObject;
+            if (predicate.test(context)) {
+                result.set(i);
+            }
+            i++;
+        }
+        return result;
+    }
+
+    /**
+     * Tests the predicate for every root object concurrently on the given executor.
+     *
+     * @param predicate The predicate to test
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @param alias The root variable name to bind the root objects to
+     * @param rootObjects The root objects
+     * @param executor The executor to run the tests on
+     * @return the indices of the root objects for which the predicate is true
+     */
+    static BitSet testAll(final CompiledPredicate predicate, final ExpressionInterpreter.Context interpreterContext, final String alias, final List<?> rootObjects, Executor executor) {
+        int size = rootObjects.size();
+        int chunkCount = Math.min(size / MINIMUM_CHUNK_SIZE, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR);
+        if (chunkCount <= 1) {
+            return testAll(predicate, interpreterContext, alias, rootObjects);
+        }
+        final BitSet[] results = new BitSet[chunkCount];
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            final int chunk = i;
+            final int start = (int) ((long) size * i / chunkCount);
+            final int end = (int) ((long) size * (i + 1) / chunkCount);
+            futures[i] = CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    results[chunk] = testRange(predicate, interpreterContext, alias, rootObjects, start, end);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+        BitSet result = results[0];
+        for (int i = 1; i < chunkCount; i++) {
+            result.or(results[i]);
+        }
+        return result;
+    }
+
+    private static BitSet testRange(CompiledPredicate predicate, ExpressionInterpreter.Context interpreterContext, String alias, List<?> rootObjects, int start, int end) {
+        BitSet result = new BitSet(end);
+        // The chunks share the given context, so each chunk keeps its writes to itself
+        RootBindingContext context = new RootBindingContext(interpreterContext, alias, true);
+        for (int i = start; i < end; i++) {
+            context.root = rootObjects.get(i);
+            if (predicate.test(context)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the root objects at the indices set in the given bit set.
+     *
+     * @param rootObjects The root objects
+     * @param indices The indices of the root objects to return
+     * @param <T> The root object type
+     * @return the selected root objects in iteration order
+     */
+    static <T> List<T> select(Iterable<T> rootObjects, BitSet indices) {
+        List<T> result = new ArrayList<>(indices.cardinality());
+        if (rootObjects instanceof List<?>) {
+            List<T> list = (List<T>) rootObjects;
+            for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+                result.add(list.get(i));
+            }
+        } else {
+            int i = 0;
+            for (T rootObject : rootObjects) {
+                if (indices.get(i++)) {
+                    result.add(rootObject);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * An interpreter context that binds a root variable to an object that can be changed and delegates everything else.
+     * If the writes are local, properties and parameters that are set are kept in this context and shadow the ones of the delegate,
+     * so that the delegate is only ever read.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class RootBindingContext implements ExpressionInterpreter.Context {
+
+        private final ExpressionInterpreter.Context delegate;
+        private final String alias;
+        private final boolean localWrites;
+        private Object root;
+        private Map<String, Object> properties;
+        private Map<String, Object> parameters;
+
+        public RootBindingContext(ExpressionInterpreter.Context delegate, String alias, boolean localWrites) {
+            this.delegate = delegate;
+            this.alias = alias;
+            this.localWrites = localWrites;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X getProperty(String key) {
+            if (properties != null && properties.containsKey(key)) {
+                return (X) properties.get(key);
+            }
+            return delegate.getProperty(key);
+        }
+
+        @Override
+        public void setProperty(String key, Object value) {
+            if (localWrites) {
+                if (properties == null) {
+                    properties = new HashMap<>();
+                }
+                properties.put(key, value);
+            } else {
+                delegate.setProperty(key, value);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X getRoot(String alias) {
+            if (this.alias.equals(alias)) {
+                return (X) root;
+            }
+            return delegate.getRoot(alias);
+        }
+
+        @Override
+        public DomainType getRootDomainType(String alias) {
+            return delegate.getRootDomainType(alias);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X getParameter(String name) {
+            if (parameters != null && parameters.containsKey(name)) {
+                return (X) parameters.get(name);
+            }
+            return delegate.getParameter(name);
+        }
+
+        @Override
+        public void setParameter(String name, Object value) {
+            if (localWrites) {
+                if (parameters == null) {
+                    parameters = new HashMap<>();
+                }
+                parameters.put(name, value);
+            } else {
+                delegate.setParameter(name, value);
+            }
+        }
+    }
+}
@@ -41,7 +41,20 @@ public class BetweenPredicate extends AbstractPredicate {
      * @param lower The lower bound(inclusive)
      */
     public BetweenPredicate(DomainType type, ArithmeticExpression left, ArithmeticExpression upper, ArithmeticExpression lower) {
-        super(type);
+        this(type, left, upper, lower, false);
+    }
+
+    /**
+     * Constructs a new possibly negated between predicate for the given arithmetic expressions returning a result of the given domain type.
+     *
+     * @param type The result domain type
+     * @param left The left or reference expression
+     * @param upper The upper bound(inclusive)
+     * @param lower The lower bound(inclusive)
+     * @param negated <code>true</code> if the predicate should be negated, <code>false</code> otherwise
+     */
+    public BetweenPredicate(DomainType type, ArithmeticExpression left, ArithmeticExpression upper, ArithmeticExpression lower, boolean negated) {
+        super(type, negated);
         this.left = left;
         this.upper = upper;
         this.lower = lower;
@@ -74,6 +87,14 @@ public class BetweenPredicate extends AbstractPredicate {
         return lower;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BetweenPredicate negate() {
+        return new BetweenPredicate(getType(), left, upper, lower, !isNegated());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -94,14 +115,8 @@ public class BetweenPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         BetweenPredicate that = (BetweenPredicate) o;
@@ -114,7 +129,7 @@ public class BetweenPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), left, upper, lower);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), left, upper, lower);
     }
 }
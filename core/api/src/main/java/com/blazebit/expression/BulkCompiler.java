@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Compiles many expression strings by splitting them into contiguous chunks that are compiled concurrently.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class BulkCompiler {
+
+    // More chunks than processors so that a few slow chunks don't leave the other processors idle
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    private BulkCompiler() {
+    }
+
+    /**
+     * Compiles the given predicate strings concurrently on the given executor.
+     *
+     * @param compiler The compiler to use
+     * @param expressionStrings The predicate strings to compile
+     * @param compileContext The compile context to use
+     * @param executor The executor to run the compilation on
+     * @return The compilation results in the iteration order of the given predicate strings
+     */
+    @SuppressWarnings("unchecked")
+    static List<CompilationResult<Predicate>> createPredicates(final ExpressionCompiler compiler, Collection<String> expressionStrings, final ExpressionCompiler.Context compileContext, Executor executor) {
+        final String[] inputs = expressionStrings.toArray(new String[expressionStrings.size()]);
+        final CompilationResult<Predicate>[] results = (CompilationResult<Predicate>[]) new CompilationResult<?>[inputs.length];
+        int chunkCount = Math.min(inputs.length, Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR);
+        if (chunkCount <= 1) {
+            compile(compiler, compileContext, inputs, results, 0, inputs.length);
+            return Arrays.asList(results);
+        }
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            final int start = (int) ((long) inputs.length * i / chunkCount);
+            final int end = (int) ((long) inputs.length * (i + 1) / chunkCount);
+            futures[i] = CompletableFuture.runAsync(new Runnable() {
+                @Override
+                public void run() {
+                    compile(compiler, compileContext, inputs, results, start, end);
+                }
+            }, executor);
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            } else if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+        return Arrays.asList(results);
+    }
+
+    private static void compile(ExpressionCompiler compiler, ExpressionCompiler.Context compileContext, String[] inputs, CompilationResult<Predicate>[] results, int start, int end) {
+        for (int i = start; i < end; i++) {
+            String input = inputs[i];
+            try {
+                results[i] = CompilationResult.success(input, compiler.createPredicate(input, compileContext));
+            } catch (SyntaxErrorException | ExpressionParseException ex) {
+                results[i] = CompilationResult.failure(input, ex);
+            }
+        }
+    }
+}
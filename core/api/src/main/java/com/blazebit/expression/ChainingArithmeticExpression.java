@@ -93,18 +93,13 @@ public class ChainingArithmeticExpression extends AbstractExpression implements
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!(o instanceof ChainingArithmeticExpression)) {
             return false;
         }
         ChainingArithmeticExpression that = (ChainingArithmeticExpression) o;
-        return Objects.equals(left, that.left) &&
+        return getType().equals(that.getType()) &&
+                Objects.equals(left, that.left) &&
                 Objects.equals(right, that.right) &&
                 operator == that.operator;
     }
@@ -113,7 +108,7 @@ public class ChainingArithmeticExpression extends AbstractExpression implements
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), left, right, operator);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), left, right, operator);
     }
 }
\ No newline at end of file
@@ -40,7 +40,20 @@ public class ComparisonPredicate extends AbstractPredicate {
      * @param operator The operator
      */
     public ComparisonPredicate(DomainType type, ArithmeticExpression left, ArithmeticExpression right, ComparisonOperator operator) {
-        super(type);
+        this(type, left, right, operator, false);
+    }
+
+    /**
+     * Creates a new possibly negated comparison predicate from the given operands and the given operator returning a result of the given domain type.
+     *
+     * @param type The result domain type
+     * @param left The left operand
+     * @param right The right operand
+     * @param operator The operator
+     * @param negated <code>true</code> if the predicate should be negated, <code>false</code> otherwise
+     */
+    public ComparisonPredicate(DomainType type, ArithmeticExpression left, ArithmeticExpression right, ComparisonOperator operator, boolean negated) {
+        super(type, negated);
         this.left = left;
         this.right = right;
         this.operator = operator;
@@ -73,6 +86,14 @@ public class ComparisonPredicate extends AbstractPredicate {
         return operator;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ComparisonPredicate negate() {
+        return new ComparisonPredicate(getType(), left, right, operator, !isNegated());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -93,14 +114,8 @@ public class ComparisonPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         ComparisonPredicate that = (ComparisonPredicate) o;
@@ -113,7 +128,7 @@ public class ComparisonPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), left, right, operator);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), left, right, operator);
     }
 }
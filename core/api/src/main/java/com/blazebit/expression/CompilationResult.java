@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression;
+
+/**
+ * The result of compiling a single expression string as part of a bulk compilation.
+ * A result either holds the compiled expression or the exception that was thrown while compiling the expression string.
+ *
+ * @param <T> The expression type
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public final class CompilationResult<T extends Expression> {
+
+    private final String expressionString;
+    private final T expression;
+    private final RuntimeException exception;
+
+    private CompilationResult(String expressionString, T expression, RuntimeException exception) {
+        this.expressionString = expressionString;
+        this.expression = expression;
+        this.exception = exception;
+    }
+
+    /**
+     * Creates a successful compilation result.
+     *
+     * @param expressionString The expression string
+     * @param expression The compiled expression
+     * @param <T> The expression type
+     * @return the compilation result
+     */
+    public static <T extends Expression> CompilationResult<T> success(String expressionString, T expression) {
+        return new CompilationResult<>(expressionString, expression, null);
+    }
+
+    /**
+     * Creates a failed compilation result.
+     *
+     * @param expressionString The expression string
+     * @param exception The exception that was thrown while compiling the expression string
+     * @param <T> The expression type
+     * @return the compilation result
+     */
+    public static <T extends Expression> CompilationResult<T> failure(String expressionString, RuntimeException exception) {
+        return new CompilationResult<>(expressionString, null, exception);
+    }
+
+    /**
+     * Returns the expression string that was compiled.
+     *
+     * @return the expression string
+     */
+    public String getExpressionString() {
+        return expressionString;
+    }
+
+    /**
+     * Returns the compiled expression or <code>null</code> if compilation failed.
+     *
+     * @return the compiled expression or <code>null</code>
+     */
+    public T getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the {@link SyntaxErrorException} or {@link ExpressionParseException} that was thrown while compiling, or <code>null</code> if compilation succeeded.
+     *
+     * @return the exception or <code>null</code>
+     */
+    public RuntimeException getException() {
+        return exception;
+    }
+
+    /**
+     * Returns whether compilation succeeded.
+     *
+     * @return whether compilation succeeded
+     */
+    public boolean isSuccessful() {
+        return exception == null;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccessful() ? expressionString : expressionString + " -> " + exception;
+    }
+}
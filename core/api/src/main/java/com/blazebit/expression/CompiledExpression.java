@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+/**
+ * An expression that was compiled for repeated evaluation with all metadata lookups already resolved.
+ * A compiled expression is thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#compile(Expression)
+ */
+public interface CompiledExpression {
+
+    /**
+     * Returns the expression that was compiled.
+     *
+     * @return the expression
+     */
+    public Expression getExpression();
+
+    /**
+     * Returns the analysis of the expression that was compiled.
+     *
+     * @return the analysis of the expression
+     */
+    public default ExpressionAnalysis getAnalysis() {
+        return getExpression().getAnalysis();
+    }
+
+    /**
+     * Evaluates the expression to the call site defined type based on the given interpreter context.
+     *
+     * @param interpreterContext The interpreter context to evaluate the expression against
+     * @param <T> The result type
+     * @return The evaluation result
+     */
+    public <T> T evaluate(ExpressionInterpreter.Context interpreterContext);
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A predicate that was compiled for repeated evaluation with all metadata lookups already resolved.
+ * A compiled predicate is thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#compile(Predicate)
+ */
+public interface CompiledPredicate extends CompiledExpression {
+
+    /**
+     * Returns the predicate that was compiled.
+     *
+     * @return the predicate
+     */
+    @Override
+    public Predicate getExpression();
+
+    /**
+     * Tests the predicate based on the given interpreter context.
+     * Like {@link ExpressionInterpreter#evaluate(Predicate, ExpressionInterpreter.Context)}, an unknown result is <code>false</code>.
+     *
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @return whether the predicate is true
+     */
+    public boolean test(ExpressionInterpreter.Context interpreterContext);
+
+    /**
+     * Tests the predicate for every root object, binding each of them in turn to the root variable with the given name.
+     * A single interpreter context is reused for all root objects, which delegates everything else to the given interpreter context.
+     *
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @param alias The root variable name to bind the root objects to
+     * @param rootObjects The root objects
+     * @return the indices of the root objects for which the predicate is true
+     */
+    public default BitSet testAll(ExpressionInterpreter.Context interpreterContext, String alias, Iterable<?> rootObjects) {
+        return BatchEvaluator.testAll(this, interpreterContext, alias, rootObjects);
+    }
+
+    /**
+     * Tests the predicate for every root object concurrently on the given executor, binding each of them in turn to the root variable with the given name.
+     * Since the given interpreter context is shared by all threads, it is only read. Properties and parameters that are set during the evaluation
+     * are only visible to the evaluations of the same chunk of root objects and are not written to the given interpreter context.
+     *
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @param alias The root variable name to bind the root objects to
+     * @param rootObjects The root objects
+     * @param executor The executor to run the tests on, like {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * @return the indices of the root objects for which the predicate is true
+     */
+    public default BitSet testAll(ExpressionInterpreter.Context interpreterContext, String alias, List<?> rootObjects, Executor executor) {
+        return BatchEvaluator.testAll(this, interpreterContext, alias, rootObjects, executor);
+    }
+
+    /**
+     * Returns the root objects for which the predicate is true.
+     *
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @param alias The root variable name to bind the root objects to
+     * @param rootObjects The root objects
+     * @param <T> The root object type
+     * @return the root objects for which the predicate is true in iteration order
+     * @see #testAll(ExpressionInterpreter.Context, String, Iterable)
+     */
+    public default <T> List<T> filter(ExpressionInterpreter.Context interpreterContext, String alias, Iterable<T> rootObjects) {
+        return BatchEvaluator.select(rootObjects, testAll(interpreterContext, alias, rootObjects));
+    }
+
+    /**
+     * Returns the root objects for which the predicate is true by testing them concurrently on the given executor.
+     *
+     * @param interpreterContext The interpreter context to test the predicate against
+     * @param alias The root variable name to bind the root objects to
+     * @param rootObjects The root objects
+     * @param executor The executor to run the tests on, like {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * @param <T> The root object type
+     * @return the root objects for which the predicate is true in list order
+     * @see #testAll(ExpressionInterpreter.Context, String, List, Executor)
+     */
+    public default <T> List<T> filter(ExpressionInterpreter.Context interpreterContext, String alias, List<T> rootObjects, Executor executor) {
+        return BatchEvaluator.select(rootObjects, testAll(interpreterContext, alias, rootObjects, executor));
+    }
+}
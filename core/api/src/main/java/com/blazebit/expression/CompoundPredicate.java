@@ -18,6 +18,8 @@ package com.blazebit.expression;
 
 import com.blazebit.domain.runtime.model.DomainType;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -45,6 +47,8 @@ public class CompoundPredicate extends AbstractPredicate {
     /**
      * Creates a new possibly negated compound predicate from the given predicates as conjunction or disjunction returning a result of the given domain type.
      *
+     * The list of predicates is copied, so later modifications of the given list don't affect this predicate.
+     *
      * @param type The result domain type
      * @param predicates The predicates
      * @param conjunction <code>true</code> for conjunction, <code>false</code> for disjunction
@@ -52,7 +56,7 @@ public class CompoundPredicate extends AbstractPredicate {
      */
     public CompoundPredicate(DomainType type, List<Predicate> predicates, boolean conjunction, boolean negated) {
         super(type, negated);
-        this.predicates = predicates;
+        this.predicates = Collections.unmodifiableList(new ArrayList<>(predicates));
         this.conjunction = conjunction;
     }
 
@@ -66,7 +70,7 @@ public class CompoundPredicate extends AbstractPredicate {
     }
 
     /**
-     * Returns the predicates that are part of this compound predicate.
+     * Returns the unmodifiable list of predicates that are part of this compound predicate.
      *
      * @return the predicates that are part of this compound predicate
      */
@@ -74,6 +78,14 @@ public class CompoundPredicate extends AbstractPredicate {
         return predicates;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CompoundPredicate negate() {
+        return new CompoundPredicate(getType(), predicates, conjunction, !isNegated());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -94,14 +106,8 @@ public class CompoundPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (!(o instanceof CompoundPredicate)) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
 
@@ -117,8 +123,8 @@ public class CompoundPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        int result = super.hashCode();
+    protected int computeHashCode() {
+        int result = super.computeHashCode();
         result = 31 * result + (conjunction ? 1 : 0);
         result = 31 * result + getPredicates().hashCode();
         return result;
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression;
+
+/**
+ * The configuration properties that can be passed to {@link Expressions#forModel(com.blazebit.domain.runtime.model.DomainModel, java.util.Map)}
+ * and the compile properties that can be passed to {@link ExpressionCompiler#createContext(java.util.Map, java.util.Map)}.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public final class ConfigurationProperties {
+
+    /**
+     * The maximum number of compiled expressions to keep in the expression cache.
+     * A value of <code>0</code> disables the cache, which is the default.
+     *
+     * When the cache is enabled, compiling the same expression string with the same rule and an equivalent compile context
+     * returns the same expression object, so compiled expressions must not be mutated by callers.
+     *
+     * The value may be an {@link Integer} or a string.
+     */
+    public static final String EXPRESSION_CACHE_MAXIMUM_SIZE = "com.blazebit.expression.expression_cache.maximum_size";
+
+    /**
+     * The maximum total weight of the compiled expressions to keep in the expression cache.
+     * The weight of a cache entry is the length of the expression string. By default, the weight is unbounded.
+     *
+     * The value may be a {@link Long} or a string.
+     */
+    public static final String EXPRESSION_CACHE_MAXIMUM_WEIGHT = "com.blazebit.expression.expression_cache.maximum_weight";
+
+    /**
+     * The strategy for parsing expression strings. Valid values are
+     * <ul>
+     *     <li><code>two_stage</code> - Parse with SLL prediction first and only fall back to full LL prediction on failure. This is the default.</li>
+     *     <li><code>ll</code> - Always parse with full LL prediction</li>
+     * </ul>
+     */
+    public static final String PARSING_STRATEGY = "com.blazebit.expression.parsing_strategy";
+
+    /**
+     * The compiler implementation for expression strings. Valid values are
+     * <ul>
+     *     <li><code>antlr</code> - Compile with the generated parser. This is the default.</li>
+     *     <li><code>pratt</code> - Compile with a hand-written precedence climbing parser that builds the model directly.
+     *     The {@link #PARSING_STRATEGY} does not apply to this compiler.</li>
+     * </ul>
+     */
+    public static final String COMPILER = "com.blazebit.expression.compiler";
+
+    /**
+     * A compile property to enable folding of constant subexpressions at compile time. The default is <code>false</code>.
+     *
+     * Subexpressions that only consist of literals are evaluated once with the interpreter metadata registered in the domain model
+     * and replaced by a literal. Functions are only folded if they are not marked as {@link com.blazebit.expression.spi.FunctionVolatility#STABLE}
+     * or {@link com.blazebit.expression.spi.FunctionVolatility#VOLATILE}. Subexpressions that fail to evaluate or evaluate to <code>null</code> are kept.
+     * Compound predicates are simplified by removing constant operands that don't affect the result.
+     *
+     * The value may be a {@link Boolean} or a string.
+     */
+    public static final String CONSTANT_FOLDING = "com.blazebit.expression.constant_folding";
+
+    /**
+     * A compile property to enable the elimination of common subexpressions at compile time. The default is <code>false</code>.
+     *
+     * Paths, function invocations and arithmetic expressions that occur multiple times in an expression are replaced by a single shared instance,
+     * which the interpreter evaluates at most once per evaluation. The resulting expression is equal to the one compiled without this property.
+     * Subexpressions that invoke a
+     * {@link com.blazebit.expression.spi.FunctionVolatility#VOLATILE} function are not shared.
+     *
+     * The value may be a {@link Boolean} or a string.
+     */
+    public static final String COMMON_SUBEXPRESSION_ELIMINATION = "com.blazebit.expression.common_subexpression_elimination";
+
+    /**
+     * The number of evaluations of an expression compiled via {@link ExpressionInterpreter#compile(Expression)} after which
+     * a JVM class is generated for the expression, that calls the attribute accessors, operator interpreters and function invokers directly.
+     * Like in a tiered JIT, expressions are evaluated by a tree of evaluators with all metadata resolved up front until then,
+     * which avoids paying the cost of class generation for expressions that are only evaluated a few times.
+     * Expressions of the same shape share a generated class, which is unloaded once all expressions using it are discarded.
+     * A value of <code>0</code> generates the class on the first evaluation. By default, no classes are generated.
+     *
+     * The value may be an {@link Integer} or a string.
+     */
+    public static final String COMPILATION_THRESHOLD = "com.blazebit.expression.compilation_threshold";
+
+    /**
+     * The number of evaluations of a compound predicate within an expression compiled via {@link ExpressionInterpreter#compile(Predicate)}
+     * after which its operands are reordered based on the observed cost and short-circuit rate of the operands.
+     * Operands that are cheap and often decide the result are moved to the front, so that expensive operands are evaluated less often.
+     * The default is <code>0</code>, which evaluates the operands in the order in which they were written.
+     *
+     * Since the result of a compound predicate doesn't depend on the order of its operands, the reordering doesn't change results,
+     * but operands must not rely on being guarded by preceding operands to avoid errors.
+     *
+     * The value may be an {@link Integer} or a string.
+     */
+    public static final String PREDICATE_REORDERING_INTERVAL = "com.blazebit.expression.predicate_reordering_interval";
+
+    /**
+     * Whether the compilers of an expression service factory replace structurally equal subtrees of the expressions they compile
+     * by a single shared instance, which reduces the memory footprint when many similar expressions are kept alive.
+     * The canonical instances are only weakly referenced, so they are reclaimed once no expression uses them anymore.
+     * The default is <code>false</code>.
+     *
+     * The value may be a {@link Boolean} or a string.
+     */
+    public static final String EXPRESSION_INTERNING = "com.blazebit.expression.expression_interning";
+
+    private ConfigurationProperties() {
+    }
+}
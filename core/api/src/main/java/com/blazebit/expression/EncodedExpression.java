@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+/**
+ * An expression that is encoded as a linear array of postfix instructions with a side pool for literals, paths and resolved metadata,
+ * which is executed by a stack machine. The encoding needs a fraction of the memory of the expression tree
+ * and evaluates the same as {@link ExpressionInterpreter#evaluate(Expression, ExpressionInterpreter.Context)}.
+ *
+ * Since the expression tree is not retained, {@link #getExpression()} decodes a new, structurally equal expression tree on every call.
+ * An encoded expression is immutable and thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#encode(Expression)
+ */
+public interface EncodedExpression extends CompiledExpression {
+
+    /**
+     * Returns the number of elements of the instruction array, which consists of opcodes and their operands.
+     *
+     * @return the number of elements of the instruction array
+     */
+    public int getCodeLength();
+
+    /**
+     * Returns the number of distinct entries of the constant pool.
+     *
+     * @return the number of constants
+     */
+    public int getConstantCount();
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+/**
+ * A predicate that is encoded as a linear array of postfix instructions which is executed by a stack machine.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#encode(Predicate)
+ */
+public interface EncodedPredicate extends EncodedExpression, CompiledPredicate {
+
+    /**
+     * Decodes the predicate that was encoded.
+     *
+     * @return a new predicate that is structurally equal to the encoded one
+     */
+    @Override
+    public Predicate getExpression();
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A session for evaluating many expressions against the same root variable object assignments.
+ * The values of paths may be cached for the duration of the session, so that paths that are shared by the expressions are only resolved once.
+ * The root objects must therefore not be modified while the session is in use. A session is not thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#createSession(ExpressionInterpreter.Context)
+ */
+public interface EvaluationSession {
+
+    /**
+     * Returns the interpreter context of this session.
+     * Evaluating compiled expressions against this context makes use of the session caches.
+     *
+     * @return the interpreter context
+     */
+    public ExpressionInterpreter.Context getContext();
+
+    /**
+     * Evaluates the given expression to the call site defined type.
+     *
+     * @param expression The expression to evaluate
+     * @param <T> The result type
+     * @return The evaluation result
+     */
+    public <T> T evaluate(Expression expression);
+
+    /**
+     * Evaluates the given predicate.
+     *
+     * @param predicate The predicate to evaluate
+     * @return The evaluation result
+     */
+    public Boolean evaluate(Predicate predicate);
+
+    /**
+     * Evaluates the given compiled expression to the call site defined type.
+     *
+     * @param expression The compiled expression to evaluate
+     * @param <T> The result type
+     * @return The evaluation result
+     */
+    public default <T> T evaluate(CompiledExpression expression) {
+        return expression.evaluate(getContext());
+    }
+
+    /**
+     * Tests the given compiled predicate.
+     *
+     * @param predicate The compiled predicate to test
+     * @return whether the predicate is true
+     */
+    public default boolean test(CompiledPredicate predicate) {
+        return predicate.test(getContext());
+    }
+
+    /**
+     * Tests all given compiled predicates.
+     *
+     * @param predicates The compiled predicates to test
+     * @return the indices of the predicates that are true
+     */
+    public default BitSet testAll(List<? extends CompiledPredicate> predicates) {
+        BitSet result = new BitSet(predicates.size());
+        for (int i = 0; i < predicates.size(); i++) {
+            if (test(predicates.get(i))) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+}
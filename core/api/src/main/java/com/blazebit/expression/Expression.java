@@ -18,7 +18,6 @@ package com.blazebit.expression;
 
 import com.blazebit.domain.runtime.model.DomainType;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -119,6 +118,13 @@ public interface Expression {
          * @param e The expression to visit
          */
         void visit(Literal e);
+
+        /**
+         * Visits the given expression.
+         *
+         * @param e The expression to visit
+         */
+        void visit(Parameter e);
     }
 
     /**
@@ -224,6 +230,14 @@ public interface Expression {
          * @return the result
          */
         T visit(Literal e);
+
+        /**
+         * Visits the given expression and returns a result.
+         *
+         * @param e The expression to visit
+         * @return the result
+         */
+        T visit(Parameter e);
     }
 
     /**
@@ -252,11 +266,19 @@ public interface Expression {
     /**
      * Returns the paths that are used in this expression.
      *
-     * @return the paths that are used
+     * @return the unmodifiable set of paths that are used
      */
     default Set<Path> getUsedPaths() {
-        Set<Path> paths = new HashSet<>();
-        accept(new PathCollectingVisitor(paths));
-        return paths;
+        return getAnalysis().getUsedPaths();
+    }
+
+    /**
+     * Returns the analysis of this expression, which contains derived metadata like the used paths and functions.
+     * The default implementation analyzes the expression on every call, but composite expression nodes cache the analysis.
+     *
+     * @return the analysis of this expression
+     */
+    default ExpressionAnalysis getAnalysis() {
+        return ExpressionAnalysis.analyze(this);
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.expression.spi.FunctionVolatility;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Derived metadata of an expression, like the used paths and functions, that is computed by a single walk over the expression tree.
+ * Expression nodes cache their analysis, so it is available in constant time after it was requested once, see {@link Expression#getAnalysis()}.
+ * An analysis is immutable and thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public final class ExpressionAnalysis {
+
+    private final Set<Path> usedPaths;
+    private final Set<String> usedRootAliases;
+    private final Set<DomainFunction> usedFunctions;
+    private final int nodeCount;
+    private final int depth;
+    private final boolean deterministic;
+    private final boolean pushdownable;
+
+    private ExpressionAnalysis(Analyzer analyzer) {
+        this.usedPaths = unmodifiable(analyzer.usedPaths);
+        this.usedRootAliases = unmodifiable(analyzer.usedRootAliases);
+        this.usedFunctions = unmodifiable(analyzer.usedFunctions);
+        this.nodeCount = analyzer.nodeCount;
+        this.depth = analyzer.maxDepth;
+        this.deterministic = analyzer.deterministic;
+        this.pushdownable = analyzer.pushdownable;
+    }
+
+    private static <T> Set<T> unmodifiable(Set<T> set) {
+        return set.isEmpty() ? Collections.<T>emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Analyzes the given expression. Prefer {@link Expression#getAnalysis()}, which caches the analysis.
+     *
+     * @param expression The expression to analyze
+     * @return the analysis of the expression
+     */
+    public static ExpressionAnalysis analyze(Expression expression) {
+        Analyzer analyzer = new Analyzer();
+        expression.accept(analyzer);
+        return new ExpressionAnalysis(analyzer);
+    }
+
+    /**
+     * Returns the paths that are used in the expression.
+     *
+     * @return the unmodifiable set of used paths
+     */
+    public Set<Path> getUsedPaths() {
+        return usedPaths;
+    }
+
+    /**
+     * Returns the aliases of the root variables that are used in the expression.
+     *
+     * @return the unmodifiable set of used root variable aliases
+     */
+    public Set<String> getUsedRootAliases() {
+        return usedRootAliases;
+    }
+
+    /**
+     * Returns the domain functions that are invoked by the expression.
+     *
+     * @return the unmodifiable set of used domain functions
+     */
+    public Set<DomainFunction> getUsedFunctions() {
+        return usedFunctions;
+    }
+
+    /**
+     * Returns the number of nodes of the expression tree.
+     *
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Returns the depth of the expression tree, which is <code>1</code> for an expression that consists of a single node.
+     *
+     * @return the depth of the expression tree
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns whether the expression produces the same result when it is evaluated multiple times against the same interpreter context,
+     * which is the case if it doesn't invoke a {@link FunctionVolatility#VOLATILE} function.
+     *
+     * @return whether the expression is deterministic
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * Returns whether the expression only invokes {@link FunctionVolatility#IMMUTABLE} functions, so that evaluating it outside the interpreter,
+     * like in a database query produced by an {@link ExpressionSerializer}, produces the same result as the interpreter.
+     * Whether a serializer supports all used functions depends on the serializer specific metadata of the {@link #getUsedFunctions() used functions}.
+     *
+     * @return whether the expression can be pushed down to a different evaluation engine
+     */
+    public boolean isPushdownable() {
+        return pushdownable;
+    }
+
+    /**
+     * A visitor that collects the analysis data in a single walk.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class Analyzer extends VisitorAdapter {
+
+        private final Set<Path> usedPaths = new HashSet<>();
+        private final Set<String> usedRootAliases = new HashSet<>();
+        private final Set<DomainFunction> usedFunctions = new HashSet<>();
+        private int nodeCount;
+        private int depth;
+        private int maxDepth;
+        private boolean deterministic = true;
+        private boolean pushdownable = true;
+
+        private void enter() {
+            nodeCount++;
+            depth++;
+            maxDepth = Math.max(maxDepth, depth);
+        }
+
+        private void exit() {
+            depth--;
+        }
+
+        @Override
+        public void visit(ArithmeticFactor e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(ExpressionPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(BetweenPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(InPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(ChainingArithmeticExpression e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(CompoundPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(ComparisonPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(IsNullPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(IsEmptyPredicate e) {
+            enter();
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(FunctionInvocation e) {
+            enter();
+            usedFunctions.add(e.getFunction());
+            FunctionVolatility volatility = e.getFunction().getMetadata(FunctionVolatility.class);
+            if (volatility == FunctionVolatility.VOLATILE) {
+                deterministic = false;
+            }
+            if (volatility != null && volatility != FunctionVolatility.IMMUTABLE) {
+                pushdownable = false;
+            }
+            super.visit(e);
+            exit();
+        }
+
+        @Override
+        public void visit(Path e) {
+            enter();
+            usedPaths.add(e);
+            usedRootAliases.add(e.getAlias());
+            exit();
+        }
+
+        @Override
+        public void visit(Literal e) {
+            enter();
+            exit();
+        }
+
+        @Override
+        public void visit(Parameter e) {
+            enter();
+            exit();
+        }
+    }
+}
@@ -18,8 +18,12 @@ package com.blazebit.expression;
 
 import com.blazebit.domain.runtime.model.DomainType;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * A compiler for expression strings based on a domain model.
@@ -37,6 +41,32 @@ public interface ExpressionCompiler {
      */
     public Context createContext(Map<String, DomainType> rootDomainTypes);
 
+    /**
+     * Creates a compile context based on the given root variable domain type mapping and compile properties.
+     * The default implementation ignores the compile properties.
+     *
+     * @param rootDomainTypes The root variable domain type mapping
+     * @param properties The compile properties like {@link ConfigurationProperties#CONSTANT_FOLDING}
+     * @return a new compile context
+     */
+    public default Context createContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties) {
+        return createContext(rootDomainTypes);
+    }
+
+    /**
+     * Creates a compile context based on the given root variable domain type mapping, compile properties and parameter domain type mapping.
+     * The types of parameters that are not declared are inferred from their usage.
+     * The default implementation ignores the parameter domain types.
+     *
+     * @param rootDomainTypes The root variable domain type mapping
+     * @param properties The compile properties like {@link ConfigurationProperties#CONSTANT_FOLDING}
+     * @param parameterDomainTypes The parameter domain type mapping
+     * @return a new compile context
+     */
+    public default Context createContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties, Map<String, DomainType> parameterDomainTypes) {
+        return createContext(rootDomainTypes, properties);
+    }
+
     /**
      * Creates and compiles the given expression string with an empty compile context.
      *
@@ -75,6 +105,32 @@ public interface ExpressionCompiler {
      */
     public Predicate createPredicate(String expressionString, Context compileContext);
 
+    /**
+     * Creates and compiles the given predicate strings with the given compile context concurrently on the common fork-join pool.
+     *
+     * @param expressionStrings The predicate strings to compile
+     * @param compileContext The compile context to use
+     * @return The compilation results in the iteration order of the given predicate strings
+     * @see #createPredicates(Collection, Context, Executor)
+     */
+    public default List<CompilationResult<Predicate>> createPredicates(Collection<String> expressionStrings, Context compileContext) {
+        return createPredicates(expressionStrings, compileContext, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates and compiles the given predicate strings with the given compile context concurrently on the given executor.
+     * A {@link SyntaxErrorException} or {@link ExpressionParseException} for a predicate string is captured in its compilation result
+     * instead of failing the whole batch. Any other exception fails the whole batch.
+     *
+     * @param expressionStrings The predicate strings to compile
+     * @param compileContext The compile context to use
+     * @param executor The executor to run the compilation on
+     * @return The compilation results in the iteration order of the given predicate strings
+     */
+    public default List<CompilationResult<Predicate>> createPredicates(Collection<String> expressionStrings, Context compileContext, Executor executor) {
+        return BulkCompiler.createPredicates(this, expressionStrings, compileContext, executor);
+    }
+
     /**
      * Creates and compiles the given expression string with an empty compile context.
      *
@@ -110,5 +166,26 @@ public interface ExpressionCompiler {
          */
         public DomainType getRootDomainType(String alias);
 
+        /**
+         * Returns the compile property value for the given key or <code>null</code>.
+         *
+         * @param key The property key
+         * @param <X> The property type
+         * @return the property value or <code>null</code>
+         */
+        public default <X> X getProperty(String key) {
+            return null;
+        }
+
+        /**
+         * Returns the declared domain type of the parameter with the given name or <code>null</code> if it should be inferred.
+         *
+         * @param name The parameter name
+         * @return the domain type or <code>null</code>
+         */
+        public default DomainType getParameterDomainType(String name) {
+            return null;
+        }
+
     }
 }
@@ -18,7 +18,10 @@ package com.blazebit.expression;
 
 import com.blazebit.domain.runtime.model.DomainType;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -78,6 +81,144 @@ public interface ExpressionInterpreter {
      */
     public Boolean evaluate(Predicate expression, Context interpreterContext);
 
+    /**
+     * Compiles the given expression for repeated evaluation.
+     * The default implementation evaluates the expression with this interpreter.
+     *
+     * @param expression The expression to compile
+     * @return The compiled expression
+     */
+    public default CompiledExpression compile(Expression expression) {
+        return new CompiledExpression() {
+            @Override
+            public Expression getExpression() {
+                return expression;
+            }
+
+            @Override
+            public <T> T evaluate(Context interpreterContext) {
+                return ExpressionInterpreter.this.evaluate(expression, interpreterContext);
+            }
+        };
+    }
+
+    /**
+     * Compiles the given predicate for repeated evaluation.
+     * The default implementation evaluates the predicate with this interpreter.
+     *
+     * @param expression The predicate to compile
+     * @return The compiled predicate
+     */
+    public default CompiledPredicate compile(Predicate expression) {
+        return new CompiledPredicate() {
+            @Override
+            public Predicate getExpression() {
+                return expression;
+            }
+
+            @Override
+            public <T> T evaluate(Context interpreterContext) {
+                return ExpressionInterpreter.this.evaluate((Expression) expression, interpreterContext);
+            }
+
+            @Override
+            public boolean test(Context interpreterContext) {
+                return ExpressionInterpreter.this.evaluate(expression, interpreterContext);
+            }
+        };
+    }
+
+    /**
+     * Creates an evaluation session for evaluating many expressions against the given interpreter context.
+     * The default implementation evaluates expressions with this interpreter and doesn't cache anything.
+     *
+     * @param interpreterContext The interpreter context to evaluate expressions against
+     * @return a new evaluation session
+     */
+    public default EvaluationSession createSession(Context interpreterContext) {
+        return new EvaluationSession() {
+            @Override
+            public Context getContext() {
+                return interpreterContext;
+            }
+
+            @Override
+            public <T> T evaluate(Expression expression) {
+                return ExpressionInterpreter.this.evaluate(expression, interpreterContext);
+            }
+
+            @Override
+            public Boolean evaluate(Predicate predicate) {
+                return ExpressionInterpreter.this.evaluate(predicate, interpreterContext);
+            }
+        };
+    }
+
+    /**
+     * Creates a rule index for the given predicates.
+     * The default implementation compiles the predicates and tests all of them on every match.
+     *
+     * @param predicates The predicates to index
+     * @return a new rule index
+     */
+    public default RuleIndex createRuleIndex(List<? extends Predicate> predicates) {
+        final List<Predicate> indexedPredicates = Collections.unmodifiableList(new ArrayList<Predicate>(predicates));
+        final List<CompiledPredicate> compiledPredicates = new ArrayList<>(indexedPredicates.size());
+        for (Predicate predicate : indexedPredicates) {
+            compiledPredicates.add(compile(predicate));
+        }
+        return new RuleIndex() {
+            @Override
+            public List<Predicate> getPredicates() {
+                return indexedPredicates;
+            }
+
+            @Override
+            public BitSet match(Context interpreterContext) {
+                return createSession(interpreterContext).testAll(compiledPredicates);
+            }
+        };
+    }
+
+    /**
+     * Creates a profile for the given expression that records statistics for every node and domain function while evaluating through it.
+     * Evaluations of the expression through other means are not profiled.
+     * The default implementation does not support profiling.
+     *
+     * @param expression The expression to profile
+     * @return a new expression profile
+     * @throws UnsupportedOperationException if the interpreter does not support profiling
+     */
+    public default ExpressionProfile createProfile(Expression expression) {
+        throw new UnsupportedOperationException("Profiling is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Encodes the given expression as a linear array of postfix instructions that is executed by a stack machine,
+     * which retains much less memory than the expression tree.
+     * The default implementation does not support encoding.
+     *
+     * @param expression The expression to encode
+     * @return the encoded expression
+     * @throws UnsupportedOperationException if the interpreter does not support encoding
+     */
+    public default EncodedExpression encode(Expression expression) {
+        throw new UnsupportedOperationException("Encoding is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Encodes the given predicate as a linear array of postfix instructions that is executed by a stack machine,
+     * which retains much less memory than the predicate tree.
+     * The default implementation does not support encoding.
+     *
+     * @param predicate The predicate to encode
+     * @return the encoded predicate
+     * @throws UnsupportedOperationException if the interpreter does not support encoding
+     */
+    public default EncodedPredicate encode(Predicate predicate) {
+        throw new UnsupportedOperationException("Encoding is not supported by " + getClass().getName());
+    }
+
     /**
      * An interpreter context that gives access to root variable domain type mappings, root variable object assignments and configuration properties.
      *
@@ -120,5 +261,28 @@ public interface ExpressionInterpreter {
          */
         public DomainType getRootDomainType(String alias);
 
+        /**
+         * Returns the value bound to the parameter with the given name or <code>null</code>.
+         * The default implementation returns <code>null</code> for contexts that don't support parameters.
+         *
+         * @param name The parameter name
+         * @param <X> The return type
+         * @return the parameter value or <code>null</code>
+         */
+        public default <X> X getParameter(String name) {
+            return null;
+        }
+
+        /**
+         * Binds the given value to the parameter with the given name.
+         * The default implementation throws an {@link UnsupportedOperationException} for contexts that don't support parameters.
+         *
+         * @param name The parameter name
+         * @param value The parameter value to bind
+         */
+        public default void setParameter(String name, Object value) {
+            throw new UnsupportedOperationException("Parameters are not supported by this context");
+        }
+
     }
 }
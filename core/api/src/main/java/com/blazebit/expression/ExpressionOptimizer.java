@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import com.blazebit.expression.spi.OptimizationRule;
+
+import java.util.List;
+
+/**
+ * An optimizer that rewrites compiled predicates into an equivalent form that is cheaper to evaluate and serialize
+ * by applying a pipeline of {@link OptimizationRule}s.
+ *
+ * Optimization never mutates the given predicate, so it is safe to optimize cached predicates.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public interface ExpressionOptimizer {
+
+    /**
+     * Returns the optimization rules in the order they are applied.
+     *
+     * @return the optimization rules
+     */
+    public List<OptimizationRule> getRules();
+
+    /**
+     * Applies the optimization rules to the given predicate and returns the optimized predicate.
+     *
+     * @param predicate The predicate to optimize
+     * @return the optimized predicate, which might be the given predicate if no rule applied
+     */
+    public Predicate optimize(Predicate predicate);
+
+    /**
+     * Optimizes the given predicate and returns a human readable description of the predicate tree
+     * before and after optimization along with the estimated evaluation costs and the rules that changed the tree.
+     *
+     * @param predicate The predicate to explain
+     * @return the explanation
+     */
+    public String explain(Predicate predicate);
+}
@@ -50,6 +50,14 @@ public class ExpressionPredicate extends AbstractPredicate {
         return expression;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExpressionPredicate negate() {
+        return new ExpressionPredicate(getType(), expression, !isNegated());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -70,14 +78,8 @@ public class ExpressionPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         ExpressionPredicate that = (ExpressionPredicate) o;
@@ -88,7 +90,7 @@ public class ExpressionPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), expression);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), expression);
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A profiled expression that records the number of invocations, the cumulative time and the outcomes of every node of the expression
+ * and of every invoked domain function while it is evaluated. Only evaluations through this object are profiled,
+ * so a single expression can be profiled in production without slowing down the evaluation of other expressions.
+ * A profiled expression is thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#createProfile(Expression)
+ */
+public interface ExpressionProfile extends CompiledExpression {
+
+    /**
+     * Returns the profile node of the root of the expression.
+     *
+     * @return the profile node of the root
+     */
+    public Node getRoot();
+
+    /**
+     * Returns the statistics of the domain functions invoked by the expression.
+     *
+     * @return the statistics per domain function
+     */
+    public Map<DomainFunction, Statistics> getFunctionStatistics();
+
+    /**
+     * Resets all recorded statistics.
+     */
+    public void reset();
+
+    /**
+     * Returns a report of the recorded statistics as tree of the serialized expression nodes, followed by the function statistics.
+     *
+     * @return the report
+     */
+    public String getReport();
+
+    /**
+     * The statistics of evaluations recorded for a node or a domain function.
+     * The time of a node includes the time for evaluating its children.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    public static interface Statistics {
+
+        /**
+         * Returns the number of evaluations.
+         *
+         * @return the number of evaluations
+         */
+        public long getInvocationCount();
+
+        /**
+         * Returns the cumulative time of all evaluations in nanoseconds.
+         *
+         * @return the cumulative time in nanoseconds
+         */
+        public long getTotalNanos();
+
+        /**
+         * Returns the number of evaluations that produced <code>null</code>.
+         *
+         * @return the number of <code>null</code> results
+         */
+        public long getNullCount();
+
+        /**
+         * Returns the number of evaluations that produced <code>true</code>.
+         *
+         * @return the number of <code>true</code> results
+         */
+        public long getTrueCount();
+
+        /**
+         * Returns the number of evaluations that produced <code>false</code>.
+         *
+         * @return the number of <code>false</code> results
+         */
+        public long getFalseCount();
+    }
+
+    /**
+     * The statistics of a node of the profiled expression.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    public static interface Node extends Statistics {
+
+        /**
+         * Returns the expression node.
+         *
+         * @return the expression node
+         */
+        public Expression getExpression();
+
+        /**
+         * Returns the serialized form of the expression node that identifies it in the report.
+         *
+         * @return the serialized form of the expression node
+         */
+        public String getExpressionString();
+
+        /**
+         * Returns the profile nodes of the child expressions.
+         *
+         * @return the profile nodes of the children
+         */
+        public List<Node> getChildren();
+    }
+}
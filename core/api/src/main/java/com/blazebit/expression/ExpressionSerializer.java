@@ -35,6 +35,30 @@ public interface ExpressionSerializer<T> {
      */
     public Context createContext(Map<String, Object> contextParameters);
 
+    /**
+     * Creates a serialization context based on the given context parameter map and parameter values.
+     * The default implementation wraps the context created by {@link #createContext(Map)} to return the given parameter values.
+     *
+     * @param contextParameters The context parameters
+     * @param parameters The values bound to the parameters of serialized expressions
+     * @return a new serialization context
+     */
+    public default Context createContext(Map<String, Object> contextParameters, final Map<String, Object> parameters) {
+        final Context context = createContext(contextParameters);
+        return new Context() {
+            @Override
+            public <X> X getContextParameter(String contextParameterName) {
+                return context.getContextParameter(contextParameterName);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <X> X getParameter(String name) {
+                return (X) parameters.get(name);
+            }
+        };
+    }
+
     /**
      * Serializes the given expression without a serialization context to the given target.
      *
@@ -67,6 +91,17 @@ public interface ExpressionSerializer<T> {
          * @return the context parameter value for the given context parameter name or <code>null</code>
          */
         public <X> X getContextParameter(String contextParameterName);
+
+        /**
+         * Returns the value bound to the parameter with the given name or <code>null</code>.
+         *
+         * @param name The parameter name
+         * @param <X> The return type
+         * @return the parameter value or <code>null</code>
+         */
+        public default <X> X getParameter(String name) {
+            return null;
+        }
     }
 
 }
@@ -17,6 +17,9 @@
 package com.blazebit.expression;
 
 import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.spi.OptimizationRule;
+
+import java.util.List;
 
 /**
  * A factory for expression related functionality based on a domain model.
@@ -42,13 +45,33 @@ public interface ExpressionServiceFactory {
 
     /**
      * Creates and returns an expression interpreter to interpret a compiled expression.
+     * The interpreter is stateless and may be shared by multiple threads.
      *
      * @return the expression interpreter
      */
     public ExpressionInterpreter createInterpreter();
 
+    /**
+     * Creates and returns a predicate optimizer with the default optimization rules.
+     * The default rules flatten nested compound predicates, push negations down to the leaves,
+     * eliminate duplicate operands and order operands of compound predicates by their estimated evaluation cost.
+     *
+     * @return the predicate optimizer
+     */
+    public ExpressionOptimizer createOptimizer();
+
+    /**
+     * Creates and returns a predicate optimizer with the given optimization rules that are applied in the given order.
+     * The default rules can be obtained through {@link ExpressionOptimizer#getRules()} of the default optimizer.
+     *
+     * @param rules The optimization rules
+     * @return the predicate optimizer
+     */
+    public ExpressionOptimizer createOptimizer(List<OptimizationRule> rules);
+
     /**
      * Creates and returns an expression serializer to serialize a compiled expression.
+     * The implementation supports {@link StringBuilder} for the string form and {@link java.io.DataOutput} for a compact binary form.
      *
      * @param serializationTarget The serialization target type
      * @param <T> The serialization target type
@@ -56,6 +79,19 @@ public interface ExpressionServiceFactory {
      */
     public <T> ExpressionSerializer<T> createSerializer(Class<T> serializationTarget);
 
+    /**
+     * Creates and returns an expression deserializer that reads expressions from the given serialization source type.
+     * The implementation supports {@link java.io.DataInput} for the binary form written by the {@link java.io.DataOutput} serializer.
+     *
+     * @param serializationSource The serialization source type
+     * @param <T> The serialization source type
+     * @return the expression deserializer
+     * @throws UnsupportedOperationException if the serialization source type is not supported
+     */
+    public default <T> ExpressionDeserializer<T> createDeserializer(Class<T> serializationSource) {
+        throw new UnsupportedOperationException("Deserialization from " + serializationSource.getName() + " is not supported");
+    }
+
     /**
      * Serializes the given compiled expression to a string.
      *
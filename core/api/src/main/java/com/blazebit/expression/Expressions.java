@@ -20,6 +20,7 @@ import com.blazebit.domain.runtime.model.DomainModel;
 import com.blazebit.expression.spi.ExpressionServiceFactoryProvider;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.ServiceLoader;
 
 /**
@@ -45,6 +46,17 @@ public final class Expressions {
         return getDefaultProvider().create(model);
     }
 
+    /**
+     * Creates a {@linkplain ExpressionServiceFactory} based on the given model and configuration properties with the {@link #getDefaultProvider()}.
+     *
+     * @param model The domain model to use
+     * @param properties The configuration properties as defined in {@link ConfigurationProperties}
+     * @return the expression service factory
+     */
+    public static ExpressionServiceFactory forModel(DomainModel model, Map<String, Object> properties) {
+        return getDefaultProvider().create(model, properties);
+    }
+
     /**
      * Returns the first {@linkplain ExpressionServiceFactoryProvider} that is found.
      *
@@ -19,6 +19,8 @@ import com.blazebit.domain.runtime.model.DomainFunction;
 import com.blazebit.domain.runtime.model.DomainFunctionArgument;
 import com.blazebit.domain.runtime.model.DomainType;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -32,9 +34,12 @@ public class FunctionInvocation implements ArithmeticExpression {
     private final DomainFunction function;
     private final Map<DomainFunctionArgument, Expression> arguments;
     private final DomainType type;
+    private int hashCode;
+    private ExpressionAnalysis analysis;
 
     /**
      * Creates a new function invocation expression from the given domain function and function argument assignments returning a result of the given domain type.
+     * The argument map is copied, so later modifications of the given map don't affect this expression.
      *
      * @param function The domain function
      * @param arguments The function argument assignments
@@ -42,7 +47,7 @@ public class FunctionInvocation implements ArithmeticExpression {
      */
     public FunctionInvocation(DomainFunction function, Map<DomainFunctionArgument, Expression> arguments, DomainType type) {
         this.function = function;
-        this.arguments = arguments;
+        this.arguments = Collections.unmodifiableMap(new LinkedHashMap<>(arguments));
         this.type = type;
     }
 
@@ -56,7 +61,7 @@ public class FunctionInvocation implements ArithmeticExpression {
     }
 
     /**
-     * Returns the function argument assignments.
+     * Returns the unmodifiable function argument assignments.
      *
      * @return the function argument assignments
      */
@@ -72,6 +77,20 @@ public class FunctionInvocation implements ArithmeticExpression {
         return type;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ExpressionAnalysis getAnalysis() {
+        ExpressionAnalysis analysis = this.analysis;
+        // The function invocation is immutable, so racing threads at worst analyze it multiple times
+        if (analysis == null) {
+            analysis = ExpressionAnalysis.analyze(this);
+            this.analysis = analysis;
+        }
+        return analysis;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -96,11 +115,12 @@ public class FunctionInvocation implements ArithmeticExpression {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof FunctionInvocation)) {
             return false;
         }
         FunctionInvocation that = (FunctionInvocation) o;
-        return function.equals(that.function) &&
+        return hashCode() == that.hashCode() &&
+                function.equals(that.function) &&
                 arguments.equals(that.arguments) &&
                 type.equals(that.type);
     }
@@ -110,6 +130,12 @@ public class FunctionInvocation implements ArithmeticExpression {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(function, arguments, type);
+        int result = hashCode;
+        // The function invocation is immutable, so the hash code is computed at most once
+        if (result == 0) {
+            result = Objects.hash(function, arguments, type);
+            hashCode = result;
+        }
+        return result;
     }
 }
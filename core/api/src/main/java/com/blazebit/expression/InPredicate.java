@@ -17,7 +17,10 @@
 package com.blazebit.expression;
 
 import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.spi.ImmutableInItems;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -33,6 +36,7 @@ public class InPredicate extends AbstractPredicate {
 
     /**
      * Constructs a new possibly negated in predicate for the given expressions returning a result of the given domain type.
+     * The list of in items is copied unless it is {@link ImmutableInItems}, so later modifications of the given list don't affect this predicate.
      *
      * @param type The result domain type
      * @param left The left or reference expression
@@ -40,9 +44,13 @@ public class InPredicate extends AbstractPredicate {
      * @param negated <code>true</code> if the predicate should be negated, <code>false</code> otherwise
      */
     public InPredicate(DomainType type, ArithmeticExpression left, List<ArithmeticExpression> inItems, boolean negated) {
+        this(type, left, negated, inItems instanceof ImmutableInItems ? inItems : Collections.unmodifiableList(new ArrayList<>(inItems)));
+    }
+
+    private InPredicate(DomainType type, ArithmeticExpression left, boolean negated, List<ArithmeticExpression> immutableInItems) {
         super(type, negated);
         this.left = left;
-        this.inItems = inItems;
+        this.inItems = immutableInItems;
     }
 
     /**
@@ -55,7 +63,7 @@ public class InPredicate extends AbstractPredicate {
     }
 
     /**
-     * Returns the in item expressions.
+     * Returns the unmodifiable in item expressions.
      *
      * @return the in item expressions
      */
@@ -63,6 +71,14 @@ public class InPredicate extends AbstractPredicate {
         return inItems;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InPredicate negate() {
+        return new InPredicate(getType(), left, !isNegated(), inItems);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -83,14 +99,8 @@ public class InPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         InPredicate that = (InPredicate) o;
@@ -102,7 +112,7 @@ public class InPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), left, inItems);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), left, inItems);
     }
 }
@@ -50,6 +50,14 @@ public class IsEmptyPredicate extends AbstractPredicate {
         return left;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IsEmptyPredicate negate() {
+        return new IsEmptyPredicate(getType(), left, !isNegated());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -70,14 +78,8 @@ public class IsEmptyPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         IsEmptyPredicate that = (IsEmptyPredicate) o;
@@ -88,7 +90,7 @@ public class IsEmptyPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), left);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), left);
     }
 }
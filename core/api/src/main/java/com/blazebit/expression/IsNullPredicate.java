@@ -50,6 +50,14 @@ public class IsNullPredicate extends AbstractPredicate {
         return left;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public IsNullPredicate negate() {
+        return new IsNullPredicate(getType(), left, !isNegated());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -70,14 +78,8 @@ public class IsNullPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public boolean equals(Object o) {
-        if (this == o) {
-            return true;
-        }
-        if (o == null || getClass() != o.getClass()) {
-            return false;
-        }
-        if (!super.equals(o)) {
+    protected boolean structurallyEquals(AbstractExpression o) {
+        if (!super.structurallyEquals(o)) {
             return false;
         }
         IsNullPredicate that = (IsNullPredicate) o;
@@ -88,7 +90,7 @@ public class IsNullPredicate extends AbstractPredicate {
      * {@inheritDoc}
      */
     @Override
-    public int hashCode() {
-        return Objects.hash(super.hashCode(), left);
+    protected int computeHashCode() {
+        return Objects.hash(super.computeHashCode(), left);
     }
 }
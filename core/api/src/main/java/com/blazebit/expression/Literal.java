@@ -30,6 +30,7 @@ import java.util.Objects;
 public class Literal implements ArithmeticExpression {
 
     private final ResolvedLiteral resolvedLiteral;
+    private int hashCode;
 
     /**
      * Creates a new literal expression from the given resolved literal.
@@ -85,7 +86,7 @@ public class Literal implements ArithmeticExpression {
             return false;
         }
         Literal literal = (Literal) o;
-        return Objects.equals(resolvedLiteral, literal.resolvedLiteral);
+        return hashCode() == literal.hashCode() && Objects.equals(resolvedLiteral, literal.resolvedLiteral);
     }
 
     /**
@@ -93,6 +94,12 @@ public class Literal implements ArithmeticExpression {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(resolvedLiteral);
+        int result = hashCode;
+        // The literal is immutable, so the hash code of possibly large collection values is computed at most once
+        if (result == 0) {
+            result = Objects.hash(resolvedLiteral);
+            hashCode = result;
+        }
+        return result;
     }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import com.blazebit.domain.runtime.model.DomainType;
+
+import java.util.Objects;
+
+/**
+ * A named parameter expression like <code>:name</code> whose value is bound at evaluation or serialization time.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class Parameter implements ArithmeticExpression {
+
+    private final String name;
+    private final DomainType type;
+
+    /**
+     * Creates a new parameter expression with the given name and type.
+     *
+     * @param name The parameter name
+     * @param type The parameter type
+     */
+    public Parameter(String name, DomainType type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    /**
+     * Returns the parameter name.
+     *
+     * @return the parameter name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DomainType getType() {
+        return type;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void accept(Visitor visitor) {
+        visitor.visit(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <T> T accept(ResultVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Parameter parameter = (Parameter) o;
+        return name.equals(parameter.name) && Objects.equals(type, parameter.type);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, type);
+    }
+}
@@ -19,6 +19,8 @@ package com.blazebit.expression;
 import com.blazebit.domain.runtime.model.DomainType;
 import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -31,9 +33,11 @@ public class Path implements ArithmeticExpression {
     private final String alias;
     private final List<EntityDomainTypeAttribute> attributes;
     private final DomainType type;
+    private int hashCode;
 
     /**
      * Creates a new path expression from the given root alias and attribute dereference chain returning a result of the given domain type.
+     * The list of attributes is copied, so later modifications of the given list don't affect this expression.
      *
      * @param alias The root alias
      * @param attributes The entity attribute dereference chain
@@ -41,7 +45,7 @@ public class Path implements ArithmeticExpression {
      */
     public Path(String alias, List<EntityDomainTypeAttribute> attributes, DomainType type) {
         this.alias = alias;
-        this.attributes = attributes;
+        this.attributes = Collections.unmodifiableList(new ArrayList<>(attributes));
         this.type = type;
     }
 
@@ -55,7 +59,7 @@ public class Path implements ArithmeticExpression {
     }
 
     /**
-     * Returns the entity attribute dereference chain.
+     * Returns the unmodifiable entity attribute dereference chain.
      *
      * @return the entity attribute dereference chain
      */
@@ -101,7 +105,7 @@ public class Path implements ArithmeticExpression {
 
         Path path = (Path) o;
 
-        if (!getAlias().equals(path.getAlias())) {
+        if (hashCode() != path.hashCode() || !getAlias().equals(path.getAlias())) {
             return false;
         }
         if (!getType().equals(path.getType())) {
@@ -115,9 +119,14 @@ public class Path implements ArithmeticExpression {
      */
     @Override
     public int hashCode() {
-        int result = getAlias().hashCode();
-        result = 31 * result + getType().hashCode();
-        result = 31 * result + getAttributes().hashCode();
+        int result = hashCode;
+        // The path is immutable, so the hash code is computed at most once
+        if (result == 0) {
+            result = getAlias().hashCode();
+            result = 31 * result + getType().hashCode();
+            result = 31 * result + getAttributes().hashCode();
+            hashCode = result;
+        }
         return result;
     }
 }
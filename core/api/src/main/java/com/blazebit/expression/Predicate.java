@@ -31,10 +31,23 @@ public interface Predicate extends Expression {
      */
     boolean isNegated();
 
+    /**
+     * Returns a copy of this predicate with the negation toggled.
+     *
+     * @return the negated copy
+     */
+    Predicate negate();
+
     /**
      * Sets the negation of the predicate as defined by the given boolean.
+     * Predicates are immutable, so this is unsupported. Use {@link #negate()} to get a negated copy instead.
      *
      * @param negated Whether the predicate should be negated
+     * @throws UnsupportedOperationException always
+     * @deprecated Predicates are immutable, use {@link #negate()} instead. This method will be removed in the next release.
      */
-    void setNegated(boolean negated);
+    @Deprecated
+    default void setNegated(boolean negated) {
+        throw new UnsupportedOperationException("Predicates are immutable, use negate() to get a negated copy");
+    }
 }
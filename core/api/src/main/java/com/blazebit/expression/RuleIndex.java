@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * An index over a set of predicates, often called rules, that determines which of the predicates are true for given root objects.
+ * An implementation may skip the evaluation of predicates that can't be true based on selective conjuncts, like the equality of a path to a literal.
+ * Since the predicates are analyzed when the index is created, changes to the predicates afterwards are not reflected by the index.
+ * A rule index is thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ * @see ExpressionInterpreter#createRuleIndex(List)
+ */
+public interface RuleIndex {
+
+    /**
+     * Returns the indexed predicates.
+     *
+     * @return the indexed predicates
+     */
+    public List<Predicate> getPredicates();
+
+    /**
+     * Returns the indices of the predicates that are true for the given interpreter context.
+     *
+     * @param interpreterContext The interpreter context to test the predicates against
+     * @return the indices of the predicates that are true
+     */
+    public BitSet match(ExpressionInterpreter.Context interpreterContext);
+}
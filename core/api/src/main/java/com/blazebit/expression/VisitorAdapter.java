@@ -98,4 +98,9 @@ public abstract class VisitorAdapter implements Expression.Visitor {
     public void visit(Literal e) {
 
     }
+
+    @Override
+    public void visit(Parameter e) {
+
+    }
 }
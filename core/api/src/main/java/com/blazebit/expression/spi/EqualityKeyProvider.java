@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.spi;
+
+import com.blazebit.domain.runtime.model.DomainType;
+
+/**
+ * An optional extension of a {@link ComparisonOperatorInterpreter} that maps values to keys whose {@link Object#equals(Object)} and {@link Object#hashCode()}
+ * agree with the {@link com.blazebit.expression.ComparisonOperator#EQUAL} comparison of the interpreter.
+ * The interpreter uses these keys to check the membership in large lists of literals with a hash lookup instead of comparing every element.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public interface EqualityKeyProvider {
+
+    /**
+     * Returns the equality key for the given non-null value of the given domain type or <code>null</code> if the value has no equality key,
+     * in which case the values are compared with the comparison operator interpreter.
+     *
+     * @param domainType The domain type of the value
+     * @param value The value
+     * @return the equality key or <code>null</code>
+     */
+    public Object getEqualityKey(DomainType domainType, Object value);
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.spi;
+
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+
+/**
+ * Metadata for domain functions and entity attributes that gives a hint about the relative cost of evaluating
+ * a function invocation or de-referencing an attribute. The optimizer evaluates cheap predicates first.
+ *
+ * Without this metadata, a function invocation costs {@link #DEFAULT_FUNCTION_COST}, a direct attribute of a root variable
+ * costs {@link #DEFAULT_ATTRIBUTE_COST} and an attribute of an associated entity costs {@link #DEFAULT_ASSOCIATION_ATTRIBUTE_COST}.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public final class EvaluationCost implements MetadataDefinition<EvaluationCost> {
+
+    /**
+     * The default cost of a function invocation, excluding the cost of the arguments.
+     */
+    public static final int DEFAULT_FUNCTION_COST = 10;
+    /**
+     * The default cost of de-referencing an attribute of a root variable.
+     */
+    public static final int DEFAULT_ATTRIBUTE_COST = 1;
+    /**
+     * The default cost of de-referencing an attribute of an associated entity, which usually requires a join.
+     */
+    public static final int DEFAULT_ASSOCIATION_ATTRIBUTE_COST = 5;
+
+    private final int cost;
+
+    private EvaluationCost(int cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * Returns the evaluation cost metadata for the given cost.
+     *
+     * @param cost The non-negative relative cost
+     * @return the evaluation cost metadata
+     */
+    public static EvaluationCost of(int cost) {
+        if (cost < 0) {
+            throw new IllegalArgumentException("Invalid negative cost: " + cost);
+        }
+        return new EvaluationCost(cost);
+    }
+
+    /**
+     * Returns the relative cost.
+     *
+     * @return the relative cost
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public Class<EvaluationCost> getJavaType() {
+        return EvaluationCost.class;
+    }
+
+    @Override
+    public EvaluationCost build(MetadataDefinitionHolder<?> definitionHolder) {
+        return this;
+    }
+}
@@ -19,6 +19,8 @@ package com.blazebit.expression.spi;
 import com.blazebit.domain.runtime.model.DomainModel;
 import com.blazebit.expression.ExpressionServiceFactory;
 
+import java.util.Map;
+
 /**
  * Interface implemented by the expression implementation provider.
  *
@@ -37,4 +39,15 @@ public interface ExpressionServiceFactoryProvider {
      */
     public ExpressionServiceFactory create(DomainModel model);
 
+    /**
+     * Creates an expression service factory based on the given domain model and configuration properties.
+     *
+     * @param model The domain model to use for expression services
+     * @param properties The configuration properties as defined in {@link com.blazebit.expression.ConfigurationProperties}
+     * @return the expression service factory
+     */
+    public default ExpressionServiceFactory create(DomainModel model, Map<String, Object> properties) {
+        return create(model);
+    }
+
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.spi;
+
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+
+/**
+ * Function metadata that describes whether a function returns the same result for the same arguments.
+ * A function without this metadata is considered {@link #IMMUTABLE}.
+ *
+ * The constants are metadata definitions for themselves, so they can be passed to
+ * {@link com.blazebit.domain.boot.model.DomainFunctionBuilder#withMetadata(MetadataDefinition)} directly.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public enum FunctionVolatility implements MetadataDefinition<FunctionVolatility> {
+
+    /**
+     * The function always returns the same result for the same arguments, so it may be evaluated at compile time.
+     */
+    IMMUTABLE,
+    /**
+     * The function returns the same result for the same arguments within one interpreter context, like <code>CURRENT_TIMESTAMP</code>.
+     */
+    STABLE,
+    /**
+     * The function may return a different result on every invocation, like <code>RANDOM</code>.
+     */
+    VOLATILE;
+
+    @Override
+    public Class<FunctionVolatility> getJavaType() {
+        return FunctionVolatility.class;
+    }
+
+    @Override
+    public FunctionVolatility build(MetadataDefinitionHolder<?> definitionHolder) {
+        return this;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.spi;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.expression.ExpressionInterpreter;
+
+import java.util.Map;
+
+/**
+ * A function invoker that receives the argument values positionally in an array instead of a map,
+ * which avoids building and hashing a map for every invocation.
+ * The interpreter prefers {@link #invoke(ExpressionInterpreter.Context, DomainFunction, Object[])} over the map based variant.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public interface IndexedFunctionInvoker extends FunctionInvoker {
+
+    /**
+     * Interprets the domain function as applied on the given arguments for the given interpreter context.
+     *
+     * The argument value at index <code>i</code> is the value for the domain function argument at position <code>i</code>.
+     * The array length is the position of the last assigned argument plus one, so optional arguments that were not passed are beyond the array length.
+     * Arguments within the array length that were not assigned are <code>null</code>. The array must not be retained after the invocation.
+     *
+     * @param context The interpreter context
+     * @param function The domain function to invoke
+     * @param arguments The domain function argument values by position
+     * @return the function invocation result
+     */
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments);
+
+    /**
+     * Interprets the domain function by converting the argument assignments to an array
+     * and invoking {@link #invoke(ExpressionInterpreter.Context, DomainFunction, Object[])}.
+     *
+     * @param context The interpreter context
+     * @param function The domain function to invoke
+     * @param arguments The domain function argument assignments
+     * @return the function invocation result
+     */
+    @Override
+    public default Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+        int length = 0;
+        for (DomainFunctionArgument argument : arguments.keySet()) {
+            length = Math.max(length, argument.getPosition() + 1);
+        }
+        Object[] argumentValues = new Object[length];
+        for (Map.Entry<DomainFunctionArgument, Object> entry : arguments.entrySet()) {
+            argumentValues[entry.getKey().getPosition()] = entry.getValue();
+        }
+        return invoke(context, function, argumentValues);
+    }
+}
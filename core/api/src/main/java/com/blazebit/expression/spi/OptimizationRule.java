@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.spi;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.Predicate;
+
+/**
+ * A rule of the {@link com.blazebit.expression.ExpressionOptimizer} pipeline that rewrites a predicate into an equivalent predicate.
+ *
+ * Rules must not mutate the given predicate but create new nodes for the parts that change.
+ * Rules may assume that evaluating a predicate has no side effects and that compound predicates
+ * follow the three-valued logic of SQL, so operands may be reordered.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public interface OptimizationRule {
+
+    /**
+     * Returns the name of the rule that is used in the explain output.
+     *
+     * @return the name of the rule
+     */
+    public String getName();
+
+    /**
+     * Rewrites the given predicate and returns the result.
+     *
+     * @param domainModel The domain model of the predicate
+     * @param predicate The predicate to rewrite
+     * @return the rewritten predicate or the given predicate if the rule does not apply
+     */
+    public Predicate apply(DomainModel domainModel, Predicate predicate);
+}
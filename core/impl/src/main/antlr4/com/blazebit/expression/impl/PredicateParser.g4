@@ -38,6 +38,7 @@ expression
     | literal                                                                                   # LiteralExpression
     | path                                                                                      # PathExpression
     | functionInvocation                                                                        # FunctionExpression
+    | parameter                                                                                 # ParameterExpression
     ;
 
 predicate
@@ -57,6 +58,7 @@ predicate
     | lhs=expression NOT? BETWEEN start=expression AND end=expression                           # BetweenPredicate
     | functionInvocation                                                                        # BooleanFunction
     | path                                                                                      # PathPredicate
+    | parameter                                                                                 # ParameterPredicate
     ;
 
 predicateOrExpression
@@ -73,6 +75,10 @@ path
     : identifier (DOT identifier)*
     ;
 
+parameter
+    : COLON identifier
+    ;
+
 literal
     : NUMERIC_LITERAL
     | STRING_LITERAL
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for visitors that transform an expression tree. By default, every node is transformed into a copy with transformed children,
+ * but nodes whose children didn't change are returned as they are, so that a transformation that changes nothing doesn't allocate.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+abstract class AbstractExpressionTransformer implements Expression.ResultVisitor<Expression> {
+
+    /**
+     * Transforms the given expression.
+     *
+     * @param expression The expression to transform
+     * @return the transformed expression, which might be the given expression
+     */
+    public Expression transform(Expression expression) {
+        return expression.accept(this);
+    }
+
+    @Override
+    public Expression visit(ArithmeticFactor e) {
+        ArithmeticExpression expression = (ArithmeticExpression) e.getExpression().accept(this);
+        if (expression == e.getExpression()) {
+            return e;
+        }
+        return new ArithmeticFactor(e.getType(), expression, e.isInvertSignum());
+    }
+
+    @Override
+    public Expression visit(ExpressionPredicate e) {
+        Expression expression = e.getExpression().accept(this);
+        if (expression == e.getExpression()) {
+            return e;
+        }
+        return new ExpressionPredicate(e.getType(), expression, e.isNegated());
+    }
+
+    @Override
+    public Expression visit(BetweenPredicate e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        ArithmeticExpression lower = (ArithmeticExpression) e.getLower().accept(this);
+        ArithmeticExpression upper = (ArithmeticExpression) e.getUpper().accept(this);
+        if (left == e.getLeft() && lower == e.getLower() && upper == e.getUpper()) {
+            return e;
+        }
+        return new BetweenPredicate(e.getType(), left, upper, lower, e.isNegated());
+    }
+
+    @Override
+    public Expression visit(InPredicate e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        List<ArithmeticExpression> inItems = e.getInItems();
+        List<ArithmeticExpression> newInItems = inItems;
+        for (int i = 0; i < inItems.size(); i++) {
+            ArithmeticExpression inItem = inItems.get(i);
+            ArithmeticExpression newInItem = (ArithmeticExpression) inItem.accept(this);
+            if (newInItem != inItem) {
+                if (newInItems == inItems) {
+                    newInItems = new ArrayList<>(inItems);
+                }
+                newInItems.set(i, newInItem);
+            }
+        }
+        if (left == e.getLeft() && newInItems == inItems) {
+            return e;
+        }
+        return new InPredicate(e.getType(), left, newInItems, e.isNegated());
+    }
+
+    @Override
+    public Expression visit(ChainingArithmeticExpression e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        ArithmeticExpression right = (ArithmeticExpression) e.getRight().accept(this);
+        if (left == e.getLeft() && right == e.getRight()) {
+            return e;
+        }
+        return new ChainingArithmeticExpression(e.getType(), left, right, e.getOperator());
+    }
+
+    @Override
+    public Expression visit(CompoundPredicate e) {
+        List<Predicate> predicates = e.getPredicates();
+        List<Predicate> newPredicates = predicates;
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate predicate = predicates.get(i);
+            Predicate newPredicate = (Predicate) predicate.accept(this);
+            if (newPredicate != predicate) {
+                if (newPredicates == predicates) {
+                    newPredicates = new ArrayList<>(predicates);
+                }
+                newPredicates.set(i, newPredicate);
+            }
+        }
+        if (newPredicates == predicates) {
+            return e;
+        }
+        return new CompoundPredicate(e.getType(), newPredicates, e.isConjunction(), e.isNegated());
+    }
+
+    @Override
+    public Expression visit(ComparisonPredicate e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        ArithmeticExpression right = (ArithmeticExpression) e.getRight().accept(this);
+        if (left == e.getLeft() && right == e.getRight()) {
+            return e;
+        }
+        return new ComparisonPredicate(e.getType(), left, right, e.getOperator(), e.isNegated());
+    }
+
+    @Override
+    public Expression visit(IsNullPredicate e) {
+        Expression left = e.getLeft().accept(this);
+        if (left == e.getLeft()) {
+            return e;
+        }
+        return new IsNullPredicate(e.getType(), left, e.isNegated());
+    }
+
+    @Override
+    public Expression visit(IsEmptyPredicate e) {
+        Expression left = e.getLeft().accept(this);
+        if (left == e.getLeft()) {
+            return e;
+        }
+        return new IsEmptyPredicate(e.getType(), left, e.isNegated());
+    }
+
+    @Override
+    public Expression visit(Path e) {
+        return e;
+    }
+
+    @Override
+    public Expression visit(FunctionInvocation e) {
+        Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
+        Map<DomainFunctionArgument, Expression> newArguments = arguments;
+        for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
+            Expression argument = entry.getValue();
+            Expression newArgument = argument.accept(this);
+            if (newArgument != argument) {
+                if (newArguments == arguments) {
+                    newArguments = new LinkedHashMap<>(arguments);
+                }
+                newArguments.put(entry.getKey(), newArgument);
+            }
+        }
+        if (newArguments == arguments) {
+            return e;
+        }
+        return new FunctionInvocation(e.getFunction(), newArguments, e.getType());
+    }
+
+    @Override
+    public Expression visit(Literal e) {
+        return e;
+    }
+
+    @Override
+    public Expression visit(Parameter e) {
+        return e;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.OptimizationRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for optimization rules that rewrite compound predicates bottom-up.
+ * Since only compound predicates contain other predicates, all other predicates are left as they are.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+abstract class AbstractOptimizationRule implements OptimizationRule {
+
+    private final String name;
+
+    protected AbstractOptimizationRule(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Predicate apply(DomainModel domainModel, Predicate predicate) {
+        if (!(predicate instanceof CompoundPredicate)) {
+            return predicate;
+        }
+        CompoundPredicate compoundPredicate = (CompoundPredicate) predicate;
+        List<Predicate> predicates = compoundPredicate.getPredicates();
+        List<Predicate> newPredicates = predicates;
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate oldPredicate = predicates.get(i);
+            Predicate newPredicate = apply(domainModel, oldPredicate);
+            if (newPredicate != oldPredicate) {
+                if (newPredicates == predicates) {
+                    newPredicates = new ArrayList<>(predicates);
+                }
+                newPredicates.set(i, newPredicate);
+            }
+        }
+        if (newPredicates != predicates) {
+            compoundPredicate = withPredicates(compoundPredicate, newPredicates);
+        }
+        return rewrite(domainModel, compoundPredicate);
+    }
+
+    /**
+     * Rewrites the given compound predicate whose operands were already rewritten.
+     *
+     * @param domainModel The domain model
+     * @param compoundPredicate The compound predicate to rewrite
+     * @return the rewritten predicate or the given compound predicate if the rule does not apply
+     */
+    protected abstract Predicate rewrite(DomainModel domainModel, CompoundPredicate compoundPredicate);
+
+    protected static CompoundPredicate withPredicates(CompoundPredicate compoundPredicate, List<Predicate> predicates) {
+        return new CompoundPredicate(compoundPredicate.getType(), predicates, compoundPredicate.isConjunction(), compoundPredicate.isNegated());
+    }
+
+    /**
+     * Returns the predicate that replaces a compound predicate with the given single operand.
+     *
+     * @param compoundPredicate The compound predicate
+     * @param predicate The single operand
+     * @return the replacement predicate
+     */
+    protected static Predicate unwrap(CompoundPredicate compoundPredicate, Predicate predicate) {
+        return compoundPredicate.isNegated() ? negate(predicate) : predicate;
+    }
+
+    /**
+     * Returns a copy of the given predicate with the negation toggled.
+     *
+     * @param predicate The predicate to negate
+     * @return the negated copy
+     */
+    protected static Predicate negate(Predicate predicate) {
+        return predicate.negate();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
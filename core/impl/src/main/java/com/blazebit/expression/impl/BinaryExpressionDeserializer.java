@@ -0,0 +1,406 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.CollectionDomainType;
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.domain.runtime.model.EnumDomainType;
+import com.blazebit.domain.runtime.model.ResolvedLiteral;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.ArithmeticOperatorType;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.DomainModelException;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionDeserializer;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.blazebit.expression.impl.BinaryExpressionFormat.FLAG_CONJUNCTION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.FLAG_NEGATED;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.LITERAL_OFFSET;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.MAGIC;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_ARITHMETIC;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_BETWEEN;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_COMPARISON;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_COMPOUND;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_EXPRESSION_PREDICATE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_FACTOR;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_FUNCTION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_IN;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_IS_EMPTY;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_IS_NULL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_PARAMETER;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_PATH;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.SYMBOL_NEW;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.SYMBOL_NULL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.SYMBOL_REFERENCE_OFFSET;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_BOOLEAN;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_COLLECTION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_NAMED;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_NULL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_BIG_DECIMAL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_BIG_INTEGER;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_DOUBLE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_ENUM;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_FALSE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_FLOAT;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_INSTANT;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_INTEGER;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_INTERVAL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_LONG;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_RENDERED;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_STRING;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_TRUE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VERSION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.fingerprint;
+
+/**
+ * Reads expressions written by the {@link BinaryExpressionSerializer} in a single linear pass without parsing.
+ * Types, functions and attributes are looked up by name in the domain model and literals are resolved
+ * through the literal resolvers of the domain model, so the result is equal to the compiled expression.
+ * Only entity and collection literals are stored in their string form and compiled when read.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class BinaryExpressionDeserializer implements ExpressionDeserializer<DataInput> {
+
+    private static final ArithmeticOperatorType[] ARITHMETIC_OPERATORS = ArithmeticOperatorType.values();
+    private static final ComparisonOperator[] COMPARISON_OPERATORS = ComparisonOperator.values();
+
+    private final DomainModel domainModel;
+    private final LiteralFactory literalFactory;
+    private final ExpressionServiceFactory expressionServiceFactory;
+    private final ExpressionInterner interner;
+    private final DomainType booleanType;
+    private final long modelFingerprint;
+    private final List<String> symbols = new ArrayList<>();
+    private ExpressionCompiler compiler;
+    private DataInput in;
+
+    public BinaryExpressionDeserializer(DomainModel domainModel, LiteralFactory literalFactory, ExpressionServiceFactory expressionServiceFactory, ExpressionInterner interner) {
+        this.domainModel = domainModel;
+        this.literalFactory = literalFactory;
+        this.expressionServiceFactory = expressionServiceFactory;
+        this.interner = interner;
+        this.booleanType = domainModel.getType(Boolean.class);
+        this.modelFingerprint = fingerprint(domainModel);
+    }
+
+    @Override
+    public Expression deserialize(DataInput source) {
+        if (in != null) {
+            throw new IllegalStateException("The binary deserializer is not reentrant");
+        }
+        in = source;
+        try {
+            int magic = in.readInt();
+            if (magic != MAGIC) {
+                throw new IllegalArgumentException("The source does not contain a serialized expression");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported binary expression format version " + version + ", expected " + VERSION);
+            }
+            if (in.readLong() != modelFingerprint) {
+                throw new DomainModelException("The expression was serialized against a different domain model");
+            }
+            Expression expression = readNode();
+            return interner == null ? expression : interner.intern(expression);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            in = null;
+            symbols.clear();
+        }
+    }
+
+    private Expression readNode() throws IOException {
+        byte tag = in.readByte();
+        if (tag > LITERAL_OFFSET) {
+            return readLiteral(tag - LITERAL_OFFSET);
+        } else if (tag == NODE_PATH) {
+            return readPath();
+        }
+        DomainType type = readType();
+        switch (tag) {
+            case NODE_PARAMETER:
+                return new Parameter(readSymbol(), type);
+            case NODE_FUNCTION:
+                return readFunction(type);
+            case NODE_FACTOR:
+                boolean invertSignum = (in.readByte() & FLAG_NEGATED) != 0;
+                return new ArithmeticFactor(type, (ArithmeticExpression) readNode(), invertSignum);
+            case NODE_ARITHMETIC:
+                ArithmeticOperatorType arithmeticOperator = ARITHMETIC_OPERATORS[in.readByte()];
+                ArithmeticExpression arithmeticLeft = (ArithmeticExpression) readNode();
+                return new ChainingArithmeticExpression(type, arithmeticLeft, (ArithmeticExpression) readNode(), arithmeticOperator);
+            case NODE_EXPRESSION_PREDICATE:
+                boolean negated = isNegated(in.readByte());
+                return new ExpressionPredicate(type, readNode(), negated);
+            case NODE_BETWEEN:
+                return readBetween(type);
+            case NODE_IN:
+                return readIn(type);
+            case NODE_COMPOUND:
+                return readCompound(type);
+            case NODE_COMPARISON:
+                byte comparisonFlags = in.readByte();
+                boolean comparisonNegated = isNegated(comparisonFlags);
+                ComparisonOperator comparisonOperator = COMPARISON_OPERATORS[comparisonFlags >> 1];
+                ArithmeticExpression comparisonLeft = (ArithmeticExpression) readNode();
+                return new ComparisonPredicate(type, comparisonLeft, (ArithmeticExpression) readNode(), comparisonOperator, comparisonNegated);
+            case NODE_IS_NULL:
+                boolean isNullNegated = isNegated(in.readByte());
+                return new IsNullPredicate(type, readNode(), isNullNegated);
+            case NODE_IS_EMPTY:
+                boolean isEmptyNegated = isNegated(in.readByte());
+                return new IsEmptyPredicate(type, readNode(), isEmptyNegated);
+            default:
+                throw new IllegalArgumentException("Invalid node tag " + tag);
+        }
+    }
+
+    private Path readPath() throws IOException {
+        String alias = readSymbol();
+        int sizeAndFlag = readVarInt();
+        DomainType type = (sizeAndFlag & 1) == 0 ? null : readType();
+        int size = sizeAndFlag >>> 1;
+        List<EntityDomainTypeAttribute> attributes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String ownerName = readSymbol();
+            String attributeName = readSymbol();
+            EntityDomainType owner = domainModel.getEntityType(ownerName);
+            EntityDomainTypeAttribute attribute = owner == null ? null : owner.getAttribute(attributeName);
+            if (attribute == null) {
+                throw new DomainModelException("The attribute '" + attributeName + "' of the entity type '" + ownerName + "' does not exist");
+            }
+            attributes.add(attribute);
+        }
+        if ((sizeAndFlag & 1) == 0) {
+            type = attributes.get(size - 1).getType();
+        }
+        return new Path(alias, attributes, type);
+    }
+
+    private FunctionInvocation readFunction(DomainType type) throws IOException {
+        String functionName = readSymbol();
+        DomainFunction function = domainModel.getFunction(functionName);
+        if (function == null) {
+            throw new DomainModelException("The function '" + functionName + "' does not exist");
+        }
+        int size = readVarInt();
+        Map<DomainFunctionArgument, Expression> arguments = new LinkedHashMap<>(size);
+        for (int i = 0; i < size; i++) {
+            DomainFunctionArgument argument = function.getArgument(readVarInt());
+            arguments.put(argument, readNode());
+        }
+        return new FunctionInvocation(function, arguments, type);
+    }
+
+    private BetweenPredicate readBetween(DomainType type) throws IOException {
+        boolean negated = isNegated(in.readByte());
+        ArithmeticExpression left = (ArithmeticExpression) readNode();
+        ArithmeticExpression lower = (ArithmeticExpression) readNode();
+        ArithmeticExpression upper = (ArithmeticExpression) readNode();
+        return new BetweenPredicate(type, left, upper, lower, negated);
+    }
+
+    private InPredicate readIn(DomainType type) throws IOException {
+        boolean negated = isNegated(in.readByte());
+        ArithmeticExpression left = (ArithmeticExpression) readNode();
+        int size = readVarInt();
+        List<ArithmeticExpression> inItems = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            inItems.add((ArithmeticExpression) readNode());
+        }
+        return new InPredicate(type, left, inItems, negated);
+    }
+
+    private CompoundPredicate readCompound(DomainType type) throws IOException {
+        byte flags = in.readByte();
+        int size = readVarInt();
+        List<Predicate> predicates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            predicates.add((Predicate) readNode());
+        }
+        return new CompoundPredicate(type, predicates, (flags & FLAG_CONJUNCTION) != 0, isNegated(flags));
+    }
+
+    private Expression readLiteral(int valueTag) throws IOException {
+        ResolvedLiteral literal;
+        switch (valueTag) {
+            case VALUE_FALSE:
+                literal = literalFactory.ofBoolean(false);
+                break;
+            case VALUE_TRUE:
+                literal = literalFactory.ofBoolean(true);
+                break;
+            case VALUE_STRING:
+                literal = literalFactory.ofString(readString());
+                break;
+            case VALUE_INTEGER:
+                literal = literalFactory.ofNumber((int) unZigZag(readVarLong()));
+                break;
+            case VALUE_LONG:
+                literal = literalFactory.ofNumber(unZigZag(readVarLong()));
+                break;
+            case VALUE_BIG_INTEGER:
+                literal = literalFactory.ofNumber(new BigInteger(readBytes()));
+                break;
+            case VALUE_BIG_DECIMAL:
+                int scale = (int) unZigZag(readVarLong());
+                literal = literalFactory.ofNumber(new BigDecimal(new BigInteger(readBytes()), scale));
+                break;
+            case VALUE_DOUBLE:
+                literal = literalFactory.ofNumber(in.readDouble());
+                break;
+            case VALUE_FLOAT:
+                literal = literalFactory.ofNumber(in.readFloat());
+                break;
+            case VALUE_INSTANT:
+                long epochSecond = unZigZag(readVarLong());
+                literal = literalFactory.ofInstant(Instant.ofEpochSecond(epochSecond, readVarInt()));
+                break;
+            case VALUE_INTERVAL:
+                literal = literalFactory.ofTemporalAmounts(readVarInt(), readVarInt(), readVarInt(), readVarInt(), readVarInt(), readVarInt());
+                break;
+            case VALUE_ENUM:
+                DomainType type = readType();
+                if (!(type instanceof EnumDomainType)) {
+                    throw new DomainModelException("The type '" + type + "' is not an enum type");
+                }
+                literal = literalFactory.ofEnumValue((EnumDomainType) type, readSymbol());
+                break;
+            case VALUE_RENDERED:
+                if (compiler == null) {
+                    compiler = expressionServiceFactory.createCompiler();
+                }
+                return compiler.createExpression(readString());
+            default:
+                throw new IllegalArgumentException("Invalid literal value tag " + valueTag);
+        }
+        return new Literal(literal);
+    }
+
+    private DomainType readType() throws IOException {
+        byte typeTag = in.readByte();
+        switch (typeTag) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_BOOLEAN:
+                return booleanType;
+            case TYPE_COLLECTION:
+                DomainType elementType = readType();
+                CollectionDomainType collectionType = domainModel.getCollectionType(elementType);
+                if (collectionType == null) {
+                    throw new DomainModelException("The collection type for the element type '" + elementType + "' does not exist");
+                }
+                return collectionType;
+            case TYPE_NAMED:
+                String typeName = readSymbol();
+                DomainType type = domainModel.getType(typeName);
+                if (type == null) {
+                    throw new DomainModelException("The type '" + typeName + "' does not exist");
+                }
+                return type;
+            default:
+                throw new IllegalArgumentException("Invalid type tag " + typeTag);
+        }
+    }
+
+    private static boolean isNegated(byte flags) {
+        return (flags & FLAG_NEGATED) != 0;
+    }
+
+    private String readSymbol() throws IOException {
+        int reference = readVarInt();
+        if (reference == SYMBOL_NULL) {
+            return null;
+        } else if (reference == SYMBOL_NEW) {
+            String symbol = readString();
+            symbols.add(symbol);
+            return symbol;
+        }
+        return symbols.get(reference - SYMBOL_REFERENCE_OFFSET);
+    }
+
+    private String readString() throws IOException {
+        return new String(readBytes(), StandardCharsets.UTF_8);
+    }
+
+    private byte[] readBytes() throws IOException {
+        byte[] bytes = new byte[readVarInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            if (shift > 63) {
+                throw new IllegalArgumentException("Malformed variable length integer");
+            }
+            b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.domain.runtime.model.EnumDomainType;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The constants of the versioned binary expression format and the domain model fingerprint that guards it.
+ *
+ * Every expression is written as a header consisting of {@link #MAGIC}, {@link #VERSION} and the model fingerprint,
+ * followed by the nodes in prefix order. Each node starts with a node tag, nodes other than literals and paths continue with their type.
+ * Types, functions, attributes, aliases and parameter names are symbols, which are written as variable length integer references.
+ * A reference of 0 stands for <code>null</code>, 1 introduces a new symbol whose string follows and which is then assigned the next id,
+ * any other value references the symbol with the id <code>reference - 2</code>. Symbol ids are scoped to a single expression,
+ * so every expression can be decoded on its own.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class BinaryExpressionFormat {
+
+    /**
+     * The magic number with which every serialized expression starts, the ASCII characters "BXPR".
+     */
+    static final int MAGIC = 0x42585052;
+    /**
+     * The version of the format. Any change to the layout of nodes or the numbering of tags must increment the version.
+     */
+    static final byte VERSION = 1;
+
+    static final int SYMBOL_NULL = 0;
+    static final int SYMBOL_NEW = 1;
+    static final int SYMBOL_REFERENCE_OFFSET = 2;
+
+    // type: tag [symbol name | type element]
+    static final byte TYPE_NULL = 0;
+    static final byte TYPE_NAMED = 1;
+    static final byte TYPE_COLLECTION = 2;
+    // The boolean type that predicates usually have
+    static final byte TYPE_BOOLEAN = 3;
+
+    // type, symbol name
+    static final byte NODE_PARAMETER = 2;
+    // symbol alias, count << 1 | explicit type, [type], count * (symbol owner, symbol attribute)
+    // The type is omitted if it is the type of the last attribute
+    static final byte NODE_PATH = 3;
+    // type, symbol function, count, count * (position, node)
+    static final byte NODE_FUNCTION = 4;
+    // type, flags, node
+    static final byte NODE_FACTOR = 5;
+    // type, operator ordinal, node left, node right
+    static final byte NODE_ARITHMETIC = 6;
+    // type, flags, node
+    static final byte NODE_EXPRESSION_PREDICATE = 7;
+    // type, flags, node left, node lower, node upper
+    static final byte NODE_BETWEEN = 8;
+    // type, flags, node left, count, count * node
+    static final byte NODE_IN = 9;
+    // type, flags, count, count * node
+    static final byte NODE_COMPOUND = 10;
+    // type, operator ordinal << 1 | flags, node left, node right
+    static final byte NODE_COMPARISON = 11;
+    // type, flags, node
+    static final byte NODE_IS_NULL = 12;
+    // type, flags, node
+    static final byte NODE_IS_EMPTY = 13;
+
+    static final int FLAG_NEGATED = 1;
+    static final int FLAG_CONJUNCTION = 2;
+
+    // Literals are written as a single node tag LITERAL_OFFSET + value tag followed by the value payload
+    static final byte LITERAL_OFFSET = 32;
+    static final byte VALUE_FALSE = 1;
+    static final byte VALUE_TRUE = 2;
+    // length, UTF-8 bytes
+    static final byte VALUE_STRING = 3;
+    // zig-zag encoded variable length integer
+    static final byte VALUE_INTEGER = 4;
+    // zig-zag encoded variable length long
+    static final byte VALUE_LONG = 5;
+    // length, two's complement bytes
+    static final byte VALUE_BIG_INTEGER = 6;
+    // zig-zag scale, length, two's complement bytes of the unscaled value
+    static final byte VALUE_BIG_DECIMAL = 7;
+    static final byte VALUE_DOUBLE = 8;
+    static final byte VALUE_FLOAT = 9;
+    // zig-zag epoch seconds, nanos
+    static final byte VALUE_INSTANT = 10;
+    // years, months, days, hours, minutes, seconds
+    static final byte VALUE_INTERVAL = 11;
+    // type, symbol value
+    static final byte VALUE_ENUM = 12;
+    // string form of the literal as produced by the string serializer, which is compiled when reading
+    static final byte VALUE_RENDERED = 13;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private BinaryExpressionFormat() {
+    }
+
+    /**
+     * Computes a fingerprint over the parts of the domain model that serialized expressions refer to,
+     * which are the types with their attributes or enum values and the functions with their arguments.
+     * The fingerprint does not depend on the iteration order of the domain model.
+     *
+     * @param domainModel The domain model
+     * @return the fingerprint of the domain model
+     */
+    static long fingerprint(DomainModel domainModel) {
+        long hash = FNV_OFFSET_BASIS;
+        for (Map.Entry<String, DomainType> entry : new TreeMap<>(domainModel.getTypes()).entrySet()) {
+            DomainType type = entry.getValue();
+            hash = hash(hash, entry.getKey());
+            hash = hash(hash, type.getKind().name());
+            if (type instanceof EntityDomainType) {
+                for (EntityDomainTypeAttribute attribute : new TreeMap<>(((EntityDomainType) type).getAttributes()).values()) {
+                    hash = hash(hash, attribute.getName());
+                    hash = hash(hash, typeName(attribute.getType()));
+                }
+            } else if (type instanceof EnumDomainType) {
+                for (String value : new TreeMap<>(((EnumDomainType) type).getEnumValues()).keySet()) {
+                    hash = hash(hash, value);
+                }
+            }
+        }
+        for (DomainFunction function : new TreeMap<>(domainModel.getFunctions()).values()) {
+            hash = hash(hash, function.getName());
+            hash = hash(hash, typeName(function.getResultType()));
+            for (DomainFunctionArgument argument : function.getArguments()) {
+                hash = hash(hash, argument.getName());
+                hash = hash(hash, typeName(argument.getType()));
+            }
+        }
+        return hash;
+    }
+
+    private static String typeName(DomainType type) {
+        return type == null ? null : type.getName();
+    }
+
+    private static long hash(long hash, String string) {
+        if (string == null) {
+            hash = (hash ^ 0xFFFE) * FNV_PRIME;
+        } else {
+            for (int i = 0; i < string.length(); i++) {
+                hash = (hash ^ string.charAt(i)) * FNV_PRIME;
+            }
+        }
+        // Terminate every string so that adjacent strings can't shift into each other
+        return (hash ^ 0xFFFF) * FNV_PRIME;
+    }
+}
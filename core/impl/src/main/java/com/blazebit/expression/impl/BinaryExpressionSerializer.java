@@ -0,0 +1,427 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.CollectionDomainType;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.domain.runtime.model.EnumDomainTypeValue;
+import com.blazebit.domain.runtime.model.TemporalInterval;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.ExpressionSerializer;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.blazebit.expression.impl.BinaryExpressionFormat.FLAG_CONJUNCTION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.FLAG_NEGATED;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.LITERAL_OFFSET;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.MAGIC;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_ARITHMETIC;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_BETWEEN;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_COMPARISON;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_COMPOUND;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_EXPRESSION_PREDICATE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_FACTOR;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_FUNCTION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_IN;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_IS_EMPTY;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_IS_NULL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_PARAMETER;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.NODE_PATH;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.SYMBOL_NEW;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.SYMBOL_NULL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.SYMBOL_REFERENCE_OFFSET;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_BOOLEAN;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_COLLECTION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_NAMED;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.TYPE_NULL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_BIG_DECIMAL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_BIG_INTEGER;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_DOUBLE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_ENUM;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_FALSE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_FLOAT;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_INSTANT;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_INTEGER;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_INTERVAL;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_LONG;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_RENDERED;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_STRING;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VALUE_TRUE;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.VERSION;
+import static com.blazebit.expression.impl.BinaryExpressionFormat.fingerprint;
+
+/**
+ * Serializes expressions into the compact binary form described in {@link BinaryExpressionFormat}.
+ * The serializer computes the domain model fingerprint once on construction, so it should be reused for many expressions.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class BinaryExpressionSerializer implements Expression.Visitor, ExpressionSerializer<DataOutput> {
+
+    private final DomainModel domainModel;
+    private final LiteralFactory literalFactory;
+    private final DomainType booleanType;
+    private final long modelFingerprint;
+    private final Map<String, Integer> symbols = new HashMap<>();
+    private DataOutput out;
+
+    public BinaryExpressionSerializer(DomainModel domainModel, LiteralFactory literalFactory) {
+        this.domainModel = domainModel;
+        this.literalFactory = literalFactory;
+        this.booleanType = domainModel.getType(Boolean.class);
+        this.modelFingerprint = fingerprint(domainModel);
+    }
+
+    @Override
+    public Context createContext(Map<String, Object> contextParameters) {
+        return createContext(contextParameters, Collections.<String, Object>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, Object> contextParameters, Map<String, Object> parameters) {
+        return new Context() {
+            @Override
+            public Object getContextParameter(String contextParameterName) {
+                return contextParameters.get(contextParameterName);
+            }
+
+            @Override
+            public Object getParameter(String name) {
+                return parameters.get(name);
+            }
+        };
+    }
+
+    @Override
+    public void serializeTo(Expression expression, DataOutput target) {
+        serializeTo(null, expression, target);
+    }
+
+    @Override
+    public void serializeTo(Context context, Expression expression, DataOutput target) {
+        if (out != null) {
+            throw new IllegalStateException("The binary serializer is not reentrant");
+        }
+        out = target;
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(modelFingerprint);
+            expression.accept(this);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            out = null;
+            symbols.clear();
+        }
+    }
+
+    @Override
+    public void visit(FunctionInvocation e) {
+        writeNode(NODE_FUNCTION, e.getType());
+        writeSymbol(e.getFunction().getName());
+        writeVarInt(e.getArguments().size());
+        for (Map.Entry<DomainFunctionArgument, Expression> entry : e.getArguments().entrySet()) {
+            writeVarInt(entry.getKey().getPosition());
+            entry.getValue().accept(this);
+        }
+    }
+
+    @Override
+    public void visit(Parameter e) {
+        writeNode(NODE_PARAMETER, e.getType());
+        writeSymbol(e.getName());
+    }
+
+    @Override
+    public void visit(Literal e) {
+        Object value = e.getValue();
+        DomainType type = e.getType();
+        try {
+            switch (type.getKind()) {
+                case ENUM:
+                    writeByte(LITERAL_OFFSET + VALUE_ENUM);
+                    writeType(type);
+                    writeSymbol(((EnumDomainTypeValue) value).getValue());
+                    return;
+                case BASIC:
+                    if (writeBasicValue(value)) {
+                        return;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            // Entity and collection literals or custom basic values can only be reconstructed through their string form
+            StringBuilder sb = new StringBuilder();
+            new ExpressionSerializerImpl(domainModel, literalFactory, sb).serializeTo(e, sb);
+            out.writeByte(LITERAL_OFFSET + VALUE_RENDERED);
+            writeString(sb.toString());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private boolean writeBasicValue(Object value) throws IOException {
+        if (value instanceof Boolean) {
+            out.writeByte(LITERAL_OFFSET + ((Boolean) value ? VALUE_TRUE : VALUE_FALSE));
+        } else if (value instanceof String) {
+            out.writeByte(LITERAL_OFFSET + VALUE_STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(LITERAL_OFFSET + VALUE_INTEGER);
+            writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LITERAL_OFFSET + VALUE_LONG);
+            writeVarLong(zigZag((Long) value));
+        } else if (value instanceof BigInteger) {
+            out.writeByte(LITERAL_OFFSET + VALUE_BIG_INTEGER);
+            writeBytes(((BigInteger) value).toByteArray());
+        } else if (value instanceof BigDecimal) {
+            BigDecimal bigDecimal = (BigDecimal) value;
+            out.writeByte(LITERAL_OFFSET + VALUE_BIG_DECIMAL);
+            writeVarLong(zigZag(bigDecimal.scale()));
+            writeBytes(bigDecimal.unscaledValue().toByteArray());
+        } else if (value instanceof Double) {
+            out.writeByte(LITERAL_OFFSET + VALUE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(LITERAL_OFFSET + VALUE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Instant) {
+            Instant instant = (Instant) value;
+            out.writeByte(LITERAL_OFFSET + VALUE_INSTANT);
+            writeVarLong(zigZag(instant.getEpochSecond()));
+            writeVarInt(instant.getNano());
+        } else if (value instanceof TemporalInterval) {
+            TemporalInterval interval = (TemporalInterval) value;
+            out.writeByte(LITERAL_OFFSET + VALUE_INTERVAL);
+            writeVarInt(interval.getYears());
+            writeVarInt(interval.getMonths());
+            writeVarInt(interval.getDays());
+            writeVarInt(interval.getHours());
+            writeVarInt(interval.getMinutes());
+            writeVarInt(interval.getSeconds());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void visit(Path e) {
+        writeByte(NODE_PATH);
+        writeSymbol(e.getAlias());
+        List<EntityDomainTypeAttribute> attributes = e.getAttributes();
+        if (!attributes.isEmpty() && attributes.get(attributes.size() - 1).getType() == e.getType()) {
+            writeVarInt(attributes.size() << 1);
+        } else {
+            writeVarInt(attributes.size() << 1 | 1);
+            writeType(e.getType());
+        }
+        for (int i = 0; i < attributes.size(); i++) {
+            EntityDomainTypeAttribute attribute = attributes.get(i);
+            writeSymbol(attribute.getOwner().getName());
+            writeSymbol(attribute.getName());
+        }
+    }
+
+    @Override
+    public void visit(ArithmeticFactor e) {
+        writeNode(NODE_FACTOR, e.getType());
+        writeByte(e.isInvertSignum() ? FLAG_NEGATED : 0);
+        e.getExpression().accept(this);
+    }
+
+    @Override
+    public void visit(ExpressionPredicate e) {
+        writeNode(NODE_EXPRESSION_PREDICATE, e.getType());
+        writeByte(flags(e));
+        e.getExpression().accept(this);
+    }
+
+    @Override
+    public void visit(ChainingArithmeticExpression e) {
+        writeNode(NODE_ARITHMETIC, e.getType());
+        writeByte(e.getOperator().ordinal());
+        e.getLeft().accept(this);
+        e.getRight().accept(this);
+    }
+
+    @Override
+    public void visit(BetweenPredicate e) {
+        writeNode(NODE_BETWEEN, e.getType());
+        writeByte(flags(e));
+        e.getLeft().accept(this);
+        e.getLower().accept(this);
+        e.getUpper().accept(this);
+    }
+
+    @Override
+    public void visit(InPredicate e) {
+        writeNode(NODE_IN, e.getType());
+        writeByte(flags(e));
+        e.getLeft().accept(this);
+        List<ArithmeticExpression> inItems = e.getInItems();
+        writeVarInt(inItems.size());
+        for (int i = 0; i < inItems.size(); i++) {
+            inItems.get(i).accept(this);
+        }
+    }
+
+    @Override
+    public void visit(CompoundPredicate e) {
+        writeNode(NODE_COMPOUND, e.getType());
+        writeByte(flags(e) | (e.isConjunction() ? FLAG_CONJUNCTION : 0));
+        List<Predicate> predicates = e.getPredicates();
+        writeVarInt(predicates.size());
+        for (int i = 0; i < predicates.size(); i++) {
+            predicates.get(i).accept(this);
+        }
+    }
+
+    @Override
+    public void visit(ComparisonPredicate e) {
+        writeNode(NODE_COMPARISON, e.getType());
+        writeByte(e.getOperator().ordinal() << 1 | flags(e));
+        e.getLeft().accept(this);
+        e.getRight().accept(this);
+    }
+
+    @Override
+    public void visit(IsNullPredicate e) {
+        writeNode(NODE_IS_NULL, e.getType());
+        writeByte(flags(e));
+        e.getLeft().accept(this);
+    }
+
+    @Override
+    public void visit(IsEmptyPredicate e) {
+        writeNode(NODE_IS_EMPTY, e.getType());
+        writeByte(flags(e));
+        e.getLeft().accept(this);
+    }
+
+    private static int flags(Predicate predicate) {
+        return predicate.isNegated() ? FLAG_NEGATED : 0;
+    }
+
+    private void writeNode(byte tag, DomainType type) {
+        writeByte(tag);
+        writeType(type);
+    }
+
+    private void writeType(DomainType type) {
+        if (type == null) {
+            writeByte(TYPE_NULL);
+        } else if (type == booleanType) {
+            writeByte(TYPE_BOOLEAN);
+        } else if (type instanceof CollectionDomainType) {
+            writeByte(TYPE_COLLECTION);
+            writeType(((CollectionDomainType) type).getElementType());
+        } else {
+            writeByte(TYPE_NAMED);
+            writeSymbol(type.getName());
+        }
+    }
+
+    private void writeSymbol(String symbol) {
+        if (symbol == null) {
+            writeVarInt(SYMBOL_NULL);
+            return;
+        }
+        Integer id = symbols.get(symbol);
+        if (id == null) {
+            symbols.put(symbol, symbols.size());
+            writeVarInt(SYMBOL_NEW);
+            writeString(symbol);
+        } else {
+            writeVarInt(id + SYMBOL_REFERENCE_OFFSET);
+        }
+    }
+
+    private void writeString(String string) {
+        writeBytes(string.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        try {
+            out.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeByte(int value) {
+        try {
+            out.writeByte(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    private void writeVarLong(long value) {
+        try {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
@@ -0,0 +1,926 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainOperator;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
+import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
+import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.TypeAdapter;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.blazebit.expression.impl.ClassFileWriter.AALOAD;
+import static com.blazebit.expression.impl.ClassFileWriter.AASTORE;
+import static com.blazebit.expression.impl.ClassFileWriter.ACC_PROTECTED;
+import static com.blazebit.expression.impl.ClassFileWriter.ACC_PUBLIC;
+import static com.blazebit.expression.impl.ClassFileWriter.ACONST_NULL;
+import static com.blazebit.expression.impl.ClassFileWriter.ALOAD;
+import static com.blazebit.expression.impl.ClassFileWriter.ANEWARRAY;
+import static com.blazebit.expression.impl.ClassFileWriter.ARETURN;
+import static com.blazebit.expression.impl.ClassFileWriter.ASTORE;
+import static com.blazebit.expression.impl.ClassFileWriter.CHECKCAST;
+import static com.blazebit.expression.impl.ClassFileWriter.DUP;
+import static com.blazebit.expression.impl.ClassFileWriter.GETFIELD;
+import static com.blazebit.expression.impl.ClassFileWriter.GETSTATIC;
+import static com.blazebit.expression.impl.ClassFileWriter.GOTO;
+import static com.blazebit.expression.impl.ClassFileWriter.IFEQ;
+import static com.blazebit.expression.impl.ClassFileWriter.IFNE;
+import static com.blazebit.expression.impl.ClassFileWriter.IFNONNULL;
+import static com.blazebit.expression.impl.ClassFileWriter.IFNULL;
+import static com.blazebit.expression.impl.ClassFileWriter.IF_ACMPNE;
+import static com.blazebit.expression.impl.ClassFileWriter.ILOAD;
+import static com.blazebit.expression.impl.ClassFileWriter.INVOKEINTERFACE;
+import static com.blazebit.expression.impl.ClassFileWriter.INVOKESPECIAL;
+import static com.blazebit.expression.impl.ClassFileWriter.INVOKESTATIC;
+import static com.blazebit.expression.impl.ClassFileWriter.INVOKEVIRTUAL;
+import static com.blazebit.expression.impl.ClassFileWriter.ISTORE;
+import static com.blazebit.expression.impl.ClassFileWriter.NEW;
+import static com.blazebit.expression.impl.ClassFileWriter.POP;
+import static com.blazebit.expression.impl.ClassFileWriter.PUTFIELD;
+import static com.blazebit.expression.impl.ClassFileWriter.RETURN;
+
+/**
+ * Compiles an expression to a generated JVM class with the same semantics as the evaluators of {@link EvaluatorCompiler}.
+ * The generated code calls the attribute accessors, type adapters, operator interpreters and function invokers of the domain model
+ * through interface call sites of its own and propagates <code>null</code> values with jumps, so the JIT sees a single method
+ * per expression that it can inline the registered implementations into, instead of megamorphic calls between evaluator nodes.
+ *
+ * The metadata is passed to the generated class as constructor arguments, so expressions of the same shape share a class.
+ * Every class is defined by a class loader of its own and only weakly cached, so that it is unloaded once all expressions using it are discarded.
+ * Compound predicates with reordered operands, collection literals and large <code>IN</code> lists are evaluated by embedded evaluators.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class BytecodeCompiler implements Expression.ResultVisitor<Integer> {
+
+    // HotSpot doesn't JIT compile methods that are larger, so such expressions are better off with the evaluators
+    private static final int MAX_CODE_LENGTH = 8000;
+    private static final int MAX_INLINED_IN_ITEMS = 16;
+    private static final int MAX_INLINED_STRING_LENGTH = 1024;
+    private static final int MAX_CACHED_CLASSES = 1024;
+    private static final String GENERATED_CLASS_NAME = "com.blazebit.expression.impl.generated.GeneratedEvaluator";
+    private static final String GENERATED_INTERNAL_NAME = GENERATED_CLASS_NAME.replace('.', '/');
+    private static final String SUPER_NAME = internalName(BytecodeEvaluator.class);
+    private static final int CONTEXT = 1;
+    private static final int SHARED_VALUES = 2;
+    private static final int PATH_VALUE_CACHE = 3;
+    private static final int FRAME = 4;
+    private static final ClassCache CLASS_CACHE = new ClassCache(MAX_CACHED_CLASSES);
+
+    private final int reorderingInterval;
+    private final SharedSlots sharedSlots;
+    private final ClassFileWriter classFileWriter;
+    private final ClassFileWriter.MethodWriter code;
+    private final List<Object> constants = new ArrayList<>();
+    private final List<Class<?>> constantTypes = new ArrayList<>();
+    private int nextLocal = FRAME + 1;
+
+    private BytecodeCompiler(Expression expression, int reorderingInterval) {
+        this.reorderingInterval = reorderingInterval;
+        this.sharedSlots = SharedSlots.of(expression);
+        this.classFileWriter = new ClassFileWriter(GENERATED_INTERNAL_NAME, SUPER_NAME);
+        this.code = classFileWriter.addMethod(
+                ACC_PROTECTED,
+                "evaluate",
+                methodDescriptor(Object.class, ExpressionInterpreter.Context.class, Object[].class, Object.class, Object.class)
+        );
+    }
+
+    /**
+     * Compiles the given expression to a generated class.
+     *
+     * @param expression The expression to compile
+     * @param reorderingInterval The number of evaluations after which compound predicate operands are reordered or <code>0</code>
+     * @return the compiled expression or <code>null</code> if the expression is too large for a generated method
+     */
+    public static CompiledExpression compile(Expression expression, int reorderingInterval) {
+        BytecodeCompiler compiler = new BytecodeCompiler(expression, reorderingInterval);
+        Evaluator evaluator = compiler.generate(expression);
+        if (evaluator == null) {
+            return null;
+        }
+        return new CompiledExpressionImpl(expression, evaluator, compiler.getSharedSlotCount());
+    }
+
+    /**
+     * Compiles the given predicate to a generated class.
+     *
+     * @param predicate The predicate to compile
+     * @param reorderingInterval The number of evaluations after which compound predicate operands are reordered or <code>0</code>
+     * @return the compiled predicate or <code>null</code> if the predicate is too large for a generated method
+     */
+    public static CompiledPredicate compile(Predicate predicate, int reorderingInterval) {
+        BytecodeCompiler compiler = new BytecodeCompiler(predicate, reorderingInterval);
+        Evaluator evaluator = compiler.generate(predicate);
+        if (evaluator == null) {
+            return null;
+        }
+        return new CompiledExpressionImpl.CompiledPredicateImpl(predicate, evaluator, compiler.getSharedSlotCount());
+    }
+
+    private int getSharedSlotCount() {
+        return sharedSlots.size();
+    }
+
+    private Evaluator generate(Expression expression) {
+        code.local(ALOAD, expression.accept(this));
+        code.op(ARETURN, -1);
+        if (code.length() > MAX_CODE_LENGTH) {
+            return null;
+        }
+        ClassFileWriter.MethodWriter constructor = classFileWriter.addMethod(ACC_PUBLIC, "<init>", methodDescriptor(void.class, Object[].class, TypeAdapter.class));
+        constructor.local(ALOAD, 0);
+        constructor.local(ALOAD, 2);
+        constructor.invoke(INVOKESPECIAL, SUPER_NAME, "<init>", methodDescriptor(void.class, TypeAdapter.class));
+        for (int i = 0; i < constants.size(); i++) {
+            Class<?> type = constantTypes.get(i);
+            classFileWriter.addField("c" + i, descriptor(type));
+            constructor.local(ALOAD, 0);
+            constructor.local(ALOAD, 1);
+            constructor.push(i);
+            constructor.op(AALOAD, -1);
+            if (type != Object.class) {
+                constructor.type(CHECKCAST, internalName(type));
+            }
+            constructor.field(PUTFIELD, GENERATED_INTERNAL_NAME, "c" + i, descriptor(type));
+        }
+        constructor.op(RETURN, 0);
+        Class<?> generatedClass = CLASS_CACHE.getClass(classFileWriter.toByteArray());
+        try {
+            return (Evaluator) generatedClass.getConstructor(Object[].class, TypeAdapter.class).newInstance(constants.toArray(), getTypeAdapter(expression));
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not instantiate the generated evaluator for: " + expression, ex);
+        }
+    }
+
+    @Override
+    public Integer visit(ArithmeticFactor e) {
+        int operand = e.getExpression().accept(this);
+        if (!e.isInvertSignum()) {
+            return operand;
+        }
+        DomainType type = e.getType();
+        int result = nullLocal();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        code.local(ALOAD, operand);
+        code.jump(IFNULL, end);
+        DomainOperatorInterpreter domainOperatorInterpreter = type.getMetadata(DomainOperatorInterpreter.class);
+        if (domainOperatorInterpreter == null) {
+            fail("No domain operator interpreter available for type: " + type);
+        } else {
+            loadConstant(domainOperatorInterpreter, DomainOperatorInterpreter.class);
+            loadConstant(type, DomainType.class);
+            loadConstant(type, DomainType.class);
+            code.op(ACONST_NULL, 1);
+            code.local(ALOAD, operand);
+            code.op(ACONST_NULL, 1);
+            loadEnum(DomainOperator.UNARY_MINUS);
+            invoke(INVOKEINTERFACE, DomainOperatorInterpreter.class, "interpret", Object.class, DomainType.class, DomainType.class, DomainType.class, Object.class, Object.class, DomainOperator.class);
+        }
+        code.local(ASTORE, result);
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(ExpressionPredicate e) {
+        int operand = e.getExpression().accept(this);
+        int result = nullLocal();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        code.local(ALOAD, operand);
+        code.jump(IFNULL, end);
+        code.local(ALOAD, operand);
+        code.type(CHECKCAST, internalName(Boolean.class));
+        invoke(INVOKEVIRTUAL, Boolean.class, "booleanValue", boolean.class);
+        storeBoolean(result, e.isNegated());
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(BetweenPredicate e) {
+        DomainType leftType = e.getLeft().getType();
+        // Mirrors the evaluators, which return the negation flag as soon as a bound comparison is equal to it
+        boolean testValue = e.isNegated();
+        int testOpcode = testValue ? IFNE : IFEQ;
+        int result = nullLocal();
+        ClassFileWriter.Label decided = new ClassFileWriter.Label();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int left = nonNull(e.getLeft(), end);
+        int lower = nonNull(e.getLower(), end);
+        int upper = nonNull(e.getUpper(), end);
+        int compare = compare(leftType, e.getLower().getType(), left, lower, ComparisonOperator.GREATER_OR_EQUAL);
+        code.local(ALOAD, compare);
+        code.jump(IFNULL, end);
+        code.local(ALOAD, compare);
+        invoke(INVOKEVIRTUAL, Boolean.class, "booleanValue", boolean.class);
+        code.jump(testOpcode, decided);
+        compare = compare(leftType, e.getUpper().getType(), left, upper, ComparisonOperator.LOWER_OR_EQUAL);
+        code.local(ALOAD, compare);
+        code.jump(IFNULL, end);
+        code.local(ALOAD, compare);
+        invoke(INVOKEVIRTUAL, Boolean.class, "booleanValue", boolean.class);
+        code.jump(testOpcode, decided);
+        loadBoolean(true);
+        code.local(ASTORE, result);
+        code.jump(GOTO, end);
+        code.bind(decided);
+        loadBoolean(testValue);
+        code.local(ASTORE, result);
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(InPredicate e) {
+        List<ArithmeticExpression> inItems = e.getInItems();
+        if (inItems.size() > MAX_INLINED_IN_ITEMS) {
+            return embed(e);
+        }
+        DomainType leftType = e.getLeft().getType();
+        int result = nullLocal();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int left = nonNull(e.getLeft(), end);
+        if (inItems instanceof LiteralInItems) {
+            ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+            if (comparisonOperatorInterpreter instanceof EqualityKeyProvider) {
+                EqualityKeyProvider equalityKeyProvider = (EqualityKeyProvider) comparisonOperatorInterpreter;
+                ClassFileWriter.Label compareItems = new ClassFileWriter.Label();
+                int key = newLocal();
+                loadConstant(equalityKeyProvider, EqualityKeyProvider.class);
+                loadConstant(leftType, DomainType.class);
+                code.local(ALOAD, left);
+                invoke(INVOKEINTERFACE, EqualityKeyProvider.class, "getEqualityKey", Object.class, DomainType.class, Object.class);
+                code.local(ASTORE, key);
+                code.local(ALOAD, key);
+                code.jump(IFNULL, compareItems);
+                loadConstant(((LiteralInItems) inItems).getEqualityKeys(equalityKeyProvider), Set.class);
+                code.local(ALOAD, key);
+                invoke(INVOKEINTERFACE, Set.class, "contains", boolean.class, Object.class);
+                storeBoolean(result, e.isNegated());
+                code.jump(GOTO, end);
+                code.bind(compareItems);
+            }
+        }
+        int unknown = newLocal();
+        code.push(0);
+        code.local(ISTORE, unknown);
+        for (int i = 0; i < inItems.size(); i++) {
+            ArithmeticExpression item = inItems.get(i);
+            ClassFileWriter.Label unknownItem = new ClassFileWriter.Label();
+            ClassFileWriter.Label next = new ClassFileWriter.Label();
+            int value = nonNull(item, unknownItem);
+            int compare = compare(leftType, item.getType(), left, value, ComparisonOperator.EQUAL);
+            code.local(ALOAD, compare);
+            code.jump(IFNULL, unknownItem);
+            code.local(ALOAD, compare);
+            invoke(INVOKEVIRTUAL, Boolean.class, "booleanValue", boolean.class);
+            code.jump(IFEQ, next);
+            loadBoolean(!e.isNegated());
+            code.local(ASTORE, result);
+            code.jump(GOTO, end);
+            code.bind(unknownItem);
+            code.push(1);
+            code.local(ISTORE, unknown);
+            code.bind(next);
+        }
+        code.local(ILOAD, unknown);
+        code.jump(IFNE, end);
+        loadBoolean(e.isNegated());
+        code.local(ASTORE, result);
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(ChainingArithmeticExpression e) {
+        int slot = sharedSlots.getSlot(e);
+        if (slot == -1) {
+            return arithmetic(e);
+        }
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int result = loadShared(slot, end);
+        storeShared(slot, arithmetic(e), result, end);
+        return result;
+    }
+
+    private int arithmetic(ChainingArithmeticExpression e) {
+        DomainType type = e.getType();
+        int result = nullLocal();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int left = nonNull(e.getLeft(), end);
+        int right = nonNull(e.getRight(), end);
+        DomainOperatorInterpreter domainOperatorInterpreter = type.getMetadata(DomainOperatorInterpreter.class);
+        if (domainOperatorInterpreter == null) {
+            fail("No domain operator interpreter available for type: " + type);
+        } else {
+            loadConstant(domainOperatorInterpreter, DomainOperatorInterpreter.class);
+            loadConstant(type, DomainType.class);
+            loadConstant(e.getLeft().getType(), DomainType.class);
+            loadConstant(e.getRight().getType(), DomainType.class);
+            code.local(ALOAD, left);
+            code.local(ALOAD, right);
+            loadEnum(e.getOperator().getDomainOperator());
+            invoke(INVOKEINTERFACE, DomainOperatorInterpreter.class, "interpret", Object.class, DomainType.class, DomainType.class, DomainType.class, Object.class, Object.class, DomainOperator.class);
+        }
+        code.local(ASTORE, result);
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(CompoundPredicate e) {
+        List<Predicate> predicates = e.getPredicates();
+        if (reorderingInterval > 0 && predicates.size() > 1) {
+            return embed(e);
+        }
+        boolean conjunction = e.isConjunction();
+        boolean negated = e.isNegated();
+        int result = newLocal();
+        if (predicates.isEmpty()) {
+            loadBoolean(conjunction == negated);
+            code.local(ASTORE, result);
+            return result;
+        }
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int unknown = newLocal();
+        code.push(0);
+        code.local(ISTORE, unknown);
+        for (int i = 0; i < predicates.size(); i++) {
+            ClassFileWriter.Label unknownOperand = new ClassFileWriter.Label();
+            ClassFileWriter.Label next = new ClassFileWriter.Label();
+            int operand = nonNull(predicates.get(i), unknownOperand);
+            loadBoolean(true);
+            code.local(ALOAD, operand);
+            invoke(INVOKEVIRTUAL, Boolean.class, "equals", boolean.class, Object.class);
+            // Operands that don't decide the result continue with the next operand
+            code.jump(conjunction ? IFNE : IFEQ, next);
+            loadBoolean(conjunction == negated);
+            code.local(ASTORE, result);
+            code.jump(GOTO, end);
+            code.bind(unknownOperand);
+            code.push(1);
+            code.local(ISTORE, unknown);
+            code.bind(next);
+        }
+        code.op(ACONST_NULL, 1);
+        code.local(ASTORE, result);
+        code.local(ILOAD, unknown);
+        code.jump(IFNE, end);
+        loadBoolean(conjunction != negated);
+        code.local(ASTORE, result);
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(ComparisonPredicate e) {
+        int result = nullLocal();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int left = nonNull(e.getLeft(), end);
+        int right = nonNull(e.getRight(), end);
+        int compare = compare(e.getLeft().getType(), e.getRight().getType(), left, right, e.getOperator());
+        code.local(ALOAD, compare);
+        code.jump(IFNULL, end);
+        code.local(ALOAD, compare);
+        invoke(INVOKEVIRTUAL, Boolean.class, "booleanValue", boolean.class);
+        storeBoolean(result, e.isNegated());
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(IsNullPredicate e) {
+        int operand = e.getLeft().accept(this);
+        int result = newLocal();
+        ClassFileWriter.Label isFalse = new ClassFileWriter.Label();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        code.local(ALOAD, operand);
+        code.jump(e.isNegated() ? IFNULL : IFNONNULL, isFalse);
+        loadBoolean(true);
+        code.local(ASTORE, result);
+        code.jump(GOTO, end);
+        code.bind(isFalse);
+        loadBoolean(false);
+        code.local(ASTORE, result);
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(IsEmptyPredicate e) {
+        int result = nullLocal();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int operand = nonNull(e.getLeft(), end);
+        code.local(ALOAD, operand);
+        code.type(CHECKCAST, internalName(Iterable.class));
+        invoke(INVOKEINTERFACE, Iterable.class, "iterator", Iterator.class);
+        invoke(INVOKEINTERFACE, Iterator.class, "hasNext", boolean.class);
+        storeBoolean(result, !e.isNegated());
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(Path e) {
+        int slot = sharedSlots.getSlot(e);
+        if (slot == -1) {
+            return path(e);
+        }
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int result = loadShared(slot, end);
+        storeShared(slot, path(e), result, end);
+        return result;
+    }
+
+    private int path(Path e) {
+        List<EntityDomainTypeAttribute> attributes = e.getAttributes();
+        int result = newLocal();
+        if (attributes.isEmpty()) {
+            loadRoot(e.getAlias());
+            code.local(ASTORE, result);
+            return result;
+        }
+        ClassFileWriter.Label resolve = new ClassFileWriter.Label();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        code.local(ALOAD, PATH_VALUE_CACHE);
+        code.jump(IFNULL, resolve);
+        code.local(ALOAD, PATH_VALUE_CACHE);
+        code.local(ALOAD, CONTEXT);
+        code.push(e.getAlias());
+        loadConstant(attributes, List.class);
+        invoke(INVOKESTATIC, BytecodeEvaluator.class, "getCachedPathValue", Object.class, Object.class, ExpressionInterpreter.Context.class, String.class, List.class);
+        code.local(ASTORE, result);
+        code.jump(GOTO, end);
+        code.bind(resolve);
+        loadRoot(e.getAlias());
+        code.local(ASTORE, result);
+        for (int i = 0; i < attributes.size(); i++) {
+            EntityDomainTypeAttribute attribute = attributes.get(i);
+            code.local(ALOAD, result);
+            code.jump(IFNULL, end);
+            AttributeAccessor attributeAccessor = attribute.getMetadata(AttributeAccessor.class);
+            if (attributeAccessor == null) {
+                fail("No attribute accessor available for attribute: " + attribute);
+                code.local(ASTORE, result);
+                break;
+            }
+            loadConstant(attributeAccessor, AttributeAccessor.class);
+            code.local(ALOAD, result);
+            loadConstant(attribute, EntityDomainTypeAttribute.class);
+            invoke(INVOKEINTERFACE, AttributeAccessor.class, "getAttribute", Object.class, Object.class, EntityDomainTypeAttribute.class);
+            code.local(ASTORE, result);
+            TypeAdapter<?, ?> typeAdapter = attribute.getMetadata(TypeAdapter.class);
+            if (typeAdapter != null) {
+                adapt(typeAdapter, "toInternalType", result, attribute.getType());
+            }
+        }
+        code.bind(end);
+        return result;
+    }
+
+    @Override
+    public Integer visit(FunctionInvocation e) {
+        int slot = sharedSlots.getSlot(e);
+        if (slot == -1) {
+            return function(e);
+        }
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        int result = loadShared(slot, end);
+        storeShared(slot, function(e), result, end);
+        return result;
+    }
+
+    private int function(FunctionInvocation e) {
+        DomainFunction function = e.getFunction();
+        FunctionInvoker functionInvoker = function.getMetadata(FunctionInvoker.class);
+        int result = newLocal();
+        if (functionInvoker == null) {
+            fail("No function invoker available for function: " + function);
+            code.local(ASTORE, result);
+            return result;
+        }
+        Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
+        boolean indexed = functionInvoker instanceof IndexedFunctionInvoker;
+        int argumentValues = newLocal();
+        if (indexed) {
+            int argumentArrayLength = 0;
+            for (DomainFunctionArgument argument : arguments.keySet()) {
+                argumentArrayLength = Math.max(argumentArrayLength, argument.getPosition() + 1);
+            }
+            code.push(argumentArrayLength);
+            code.type(ANEWARRAY, internalName(Object.class));
+        } else if (arguments.isEmpty()) {
+            invoke(INVOKESTATIC, Collections.class, "emptyMap", Map.class);
+        } else {
+            code.type(NEW, internalName(LinkedHashMap.class));
+            code.op(DUP, 1);
+            code.push(arguments.size());
+            invoke(INVOKESPECIAL, LinkedHashMap.class, "<init>", void.class, int.class);
+        }
+        code.local(ASTORE, argumentValues);
+        for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
+            DomainFunctionArgument argument = entry.getKey();
+            int value = argument(argument, entry.getValue());
+            code.local(ALOAD, argumentValues);
+            if (indexed) {
+                code.push(argument.getPosition());
+                code.local(ALOAD, value);
+                code.op(AASTORE, -3);
+            } else {
+                loadConstant(argument, DomainFunctionArgument.class);
+                code.local(ALOAD, value);
+                invoke(INVOKEINTERFACE, Map.class, "put", Object.class, Object.class, Object.class);
+                code.op(POP, -1);
+            }
+        }
+        if (indexed) {
+            loadConstant(functionInvoker, IndexedFunctionInvoker.class);
+            code.local(ALOAD, CONTEXT);
+            loadConstant(function, DomainFunction.class);
+            code.local(ALOAD, argumentValues);
+            invoke(INVOKEINTERFACE, IndexedFunctionInvoker.class, "invoke", Object.class, ExpressionInterpreter.Context.class, DomainFunction.class, Object[].class);
+        } else {
+            loadConstant(functionInvoker, FunctionInvoker.class);
+            code.local(ALOAD, CONTEXT);
+            loadConstant(function, DomainFunction.class);
+            code.local(ALOAD, argumentValues);
+            invoke(INVOKEINTERFACE, FunctionInvoker.class, "invoke", Object.class, ExpressionInterpreter.Context.class, DomainFunction.class, Map.class);
+        }
+        code.local(ASTORE, result);
+        return result;
+    }
+
+    private int argument(DomainFunctionArgument argument, Expression expression) {
+        int value = expression.accept(this);
+        TypeAdapter<Object, Object> valueAdapter = getTypeAdapter(expression);
+        if (valueAdapter != null) {
+            adapt(valueAdapter, "toInternalType", value, argument.getType());
+        }
+        TypeAdapter<?, ?> argumentAdapter = argument.getMetadata(TypeAdapter.class);
+        if (argumentAdapter != null) {
+            adapt(argumentAdapter, "toModelType", value, argument.getType());
+        }
+        return value;
+    }
+
+    @Override
+    public Integer visit(Literal e) {
+        if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
+            return embed(e);
+        }
+        Object value = e.getValue();
+        int result = newLocal();
+        if (value == null) {
+            code.op(ACONST_NULL, 1);
+        } else {
+            // Strings are loaded as constants too, so that expressions differing only in literal values share a class
+            loadConstant(value, Object.class);
+        }
+        code.local(ASTORE, result);
+        return result;
+    }
+
+    @Override
+    public Integer visit(Parameter e) {
+        int result = newLocal();
+        code.local(ALOAD, CONTEXT);
+        code.push(e.getName());
+        invoke(INVOKEINTERFACE, ExpressionInterpreter.Context.class, "getParameter", Object.class, String.class);
+        code.local(ASTORE, result);
+        return result;
+    }
+
+    private int newLocal() {
+        return nextLocal++;
+    }
+
+    private int nullLocal() {
+        int local = newLocal();
+        code.op(ACONST_NULL, 1);
+        code.local(ASTORE, local);
+        return local;
+    }
+
+    private int nonNull(Expression expression, ClassFileWriter.Label nullLabel) {
+        int value = expression.accept(this);
+        code.local(ALOAD, value);
+        code.jump(IFNULL, nullLabel);
+        return value;
+    }
+
+    private int embed(Expression expression) {
+        int result = newLocal();
+        loadConstant(EvaluatorCompiler.compileEvaluator(expression, reorderingInterval, sharedSlots), Object.class);
+        code.local(ALOAD, FRAME);
+        invoke(INVOKESTATIC, BytecodeEvaluator.class, "evaluateEmbedded", Object.class, Object.class, Object.class);
+        code.local(ASTORE, result);
+        return result;
+    }
+
+    private int compare(DomainType leftType, DomainType rightType, int left, int right, ComparisonOperator operator) {
+        int result = newLocal();
+        ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+        if (comparisonOperatorInterpreter == null) {
+            fail("No comparison operator interpreter available for type: " + leftType);
+            code.type(CHECKCAST, internalName(Boolean.class));
+        } else {
+            loadConstant(comparisonOperatorInterpreter, ComparisonOperatorInterpreter.class);
+            loadConstant(leftType, DomainType.class);
+            loadConstant(rightType, DomainType.class);
+            code.local(ALOAD, left);
+            code.local(ALOAD, right);
+            loadEnum(operator);
+            invoke(INVOKEINTERFACE, ComparisonOperatorInterpreter.class, "interpret", Boolean.class, DomainType.class, DomainType.class, Object.class, Object.class, ComparisonOperator.class);
+        }
+        code.local(ASTORE, result);
+        return result;
+    }
+
+    private void adapt(TypeAdapter<?, ?> typeAdapter, String method, int local, DomainType type) {
+        loadConstant(typeAdapter, TypeAdapter.class);
+        code.local(ALOAD, CONTEXT);
+        code.local(ALOAD, local);
+        loadConstant(type, DomainType.class);
+        invoke(INVOKEINTERFACE, TypeAdapter.class, method, Object.class, ExpressionInterpreter.Context.class, Object.class, DomainType.class);
+        code.local(ASTORE, local);
+    }
+
+    private int loadShared(int slot, ClassFileWriter.Label end) {
+        ClassFileWriter.Label compute = new ClassFileWriter.Label();
+        int result = newLocal();
+        code.local(ALOAD, SHARED_VALUES);
+        code.push(slot);
+        code.op(AALOAD, -1);
+        code.local(ASTORE, result);
+        code.local(ALOAD, result);
+        code.jump(IFNULL, compute);
+        code.local(ALOAD, result);
+        code.field(GETSTATIC, SUPER_NAME, "NULL_VALUE", descriptor(Object.class));
+        code.jump(IF_ACMPNE, end);
+        code.op(ACONST_NULL, 1);
+        code.local(ASTORE, result);
+        code.jump(GOTO, end);
+        code.bind(compute);
+        return result;
+    }
+
+    private void storeShared(int slot, int value, int result, ClassFileWriter.Label end) {
+        code.local(ALOAD, value);
+        code.local(ASTORE, result);
+        code.local(ALOAD, SHARED_VALUES);
+        code.push(slot);
+        code.local(ALOAD, value);
+        code.op(AASTORE, -3);
+        code.local(ALOAD, value);
+        code.jump(IFNONNULL, end);
+        code.local(ALOAD, SHARED_VALUES);
+        code.push(slot);
+        code.field(GETSTATIC, SUPER_NAME, "NULL_VALUE", descriptor(Object.class));
+        code.op(AASTORE, -3);
+        code.bind(end);
+    }
+
+    private void loadRoot(String alias) {
+        code.local(ALOAD, CONTEXT);
+        code.push(alias);
+        invoke(INVOKEINTERFACE, ExpressionInterpreter.Context.class, "getRoot", Object.class, String.class);
+    }
+
+    private void loadConstant(Object value, Class<?> type) {
+        int index = -1;
+        for (int i = 0; i < constants.size(); i++) {
+            if (constants.get(i) == value && constantTypes.get(i) == type) {
+                index = i;
+                break;
+            }
+        }
+        if (index == -1) {
+            index = constants.size();
+            constants.add(value);
+            constantTypes.add(type);
+        }
+        code.local(ALOAD, 0);
+        code.field(GETFIELD, GENERATED_INTERNAL_NAME, "c" + index, descriptor(type));
+    }
+
+    private void loadEnum(Enum<?> value) {
+        code.field(GETSTATIC, internalName(value.getDeclaringClass()), value.name(), descriptor(value.getDeclaringClass()));
+    }
+
+    private void loadBoolean(boolean value) {
+        code.field(GETSTATIC, internalName(Boolean.class), value ? "TRUE" : "FALSE", descriptor(Boolean.class));
+    }
+
+    /**
+     * Stores <code>TRUE</code> if the boolean on the operand stack differs from the given negation flag and <code>FALSE</code> otherwise.
+     */
+    private void storeBoolean(int result, boolean negated) {
+        ClassFileWriter.Label isFalse = new ClassFileWriter.Label();
+        ClassFileWriter.Label end = new ClassFileWriter.Label();
+        code.jump(negated ? IFNE : IFEQ, isFalse);
+        loadBoolean(true);
+        code.local(ASTORE, result);
+        code.jump(GOTO, end);
+        code.bind(isFalse);
+        loadBoolean(false);
+        code.local(ASTORE, result);
+        code.bind(end);
+    }
+
+    private void fail(String message) {
+        code.push(message.length() <= MAX_INLINED_STRING_LENGTH ? message : message.substring(0, MAX_INLINED_STRING_LENGTH));
+        invoke(INVOKESTATIC, BytecodeEvaluator.class, "fail", Object.class, String.class);
+    }
+
+    private void invoke(int opcode, Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+        code.invoke(opcode, internalName(owner), name, methodDescriptor(returnType, parameterTypes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TypeAdapter<Object, Object> getTypeAdapter(Expression expression) {
+        // Mirrors the type adapters of the evaluators, which only paths with attributes and function invocations have
+        if (expression instanceof Path) {
+            List<EntityDomainTypeAttribute> attributes = ((Path) expression).getAttributes();
+            return attributes.isEmpty() ? null : attributes.get(attributes.size() - 1).getMetadata(TypeAdapter.class);
+        } else if (expression instanceof FunctionInvocation) {
+            return ((FunctionInvocation) expression).getFunction().getMetadata(TypeAdapter.class);
+        }
+        return null;
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        if (type == void.class) {
+            return "V";
+        } else if (type == boolean.class) {
+            return "Z";
+        } else if (type == int.class) {
+            return "I";
+        } else if (type.isArray()) {
+            return internalName(type);
+        }
+        return "L" + internalName(type) + ";";
+    }
+
+    private static String methodDescriptor(Class<?> returnType, Class<?>... parameterTypes) {
+        StringBuilder sb = new StringBuilder("(");
+        for (Class<?> parameterType : parameterTypes) {
+            sb.append(descriptor(parameterType));
+        }
+        sb.append(')');
+        sb.append(descriptor(returnType));
+        return sb.toString();
+    }
+
+    /**
+     * A bounded cache of generated classes by their class files, so that expressions of the same shape share a class.
+     * The classes are weakly referenced, so that a class and its class loader are unloaded once all evaluators of the class are discarded.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ClassCache {
+
+        private final Map<ClassFile, WeakReference<Class<?>>> classes;
+
+        public ClassCache(int maxSize) {
+            this.classes = new LruMap<>(maxSize);
+        }
+
+        public synchronized Class<?> getClass(byte[] bytes) {
+            ClassFile classFile = new ClassFile(bytes);
+            WeakReference<Class<?>> reference = classes.get(classFile);
+            Class<?> generatedClass = reference == null ? null : reference.get();
+            if (generatedClass == null) {
+                generatedClass = new GeneratedClassLoader(BytecodeCompiler.class.getClassLoader()).define(bytes);
+                classes.put(classFile, new WeakReference<Class<?>>(generatedClass));
+            }
+            return generatedClass;
+        }
+    }
+
+    /**
+     * A map in access order that evicts the least recently used entry once it grows beyond its maximum size.
+     *
+     * @param <K> The key type
+     * @param <V> The value type
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        public LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+    }
+
+    /**
+     * The bytes of a class file as cache key.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ClassFile {
+
+        private final byte[] bytes;
+        private final int hashCode;
+
+        public ClassFile(byte[] bytes) {
+            this.bytes = bytes;
+            this.hashCode = Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ClassFile && Arrays.equals(bytes, ((ClassFile) o).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A class loader for a single generated class, so that the class can be unloaded independently of other generated classes.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        public GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        public Class<?> define(byte[] bytes) {
+            return defineClass(GENERATED_CLASS_NAME, bytes, 0, bytes.length, BytecodeCompiler.class.getProtectionDomain());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.spi.TypeAdapter;
+
+import java.util.List;
+
+/**
+ * The super class of the evaluators that {@link BytecodeCompiler} generates. Generated classes are defined by their own class loaders,
+ * so they can't access package-private types and only refer to the internal state of an evaluation through this class.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public abstract class BytecodeEvaluator extends Evaluator {
+
+    /**
+     * The value stored in a shared value slot for a value that was computed to be <code>null</code>.
+     */
+    protected static final Object NULL_VALUE = EvaluatorCompiler.NULL_VALUE;
+
+    private final TypeAdapter<Object, Object> typeAdapter;
+
+    /**
+     * Creates a new evaluator.
+     *
+     * @param typeAdapter The type adapter to convert the result to the model representation or <code>null</code>
+     */
+    protected BytecodeEvaluator(TypeAdapter<Object, Object> typeAdapter) {
+        this.typeAdapter = typeAdapter;
+    }
+
+    @Override
+    public final Object evaluate(Frame frame) {
+        return evaluate(frame.getContext(), frame.getSharedValues(), frame.getPathValueCache(), frame);
+    }
+
+    /**
+     * Evaluates the expression to its internal representation.
+     *
+     * @param context The interpreter context
+     * @param sharedValues The shared value slots or <code>null</code>
+     * @param pathValueCache The path value cache of the evaluation session or <code>null</code>
+     * @param frame The evaluation frame for evaluating embedded evaluators
+     * @return the value in internal representation
+     */
+    protected abstract Object evaluate(ExpressionInterpreter.Context context, Object[] sharedValues, Object pathValueCache, Object frame);
+
+    @Override
+    public TypeAdapter<Object, Object> getTypeAdapter() {
+        return typeAdapter;
+    }
+
+    /**
+     * Returns the value of the given path from the given path value cache.
+     *
+     * @param pathValueCache The path value cache
+     * @param context The interpreter context
+     * @param alias The root variable name
+     * @param attributes The attributes of the path
+     * @return the path value
+     */
+    protected static Object getCachedPathValue(Object pathValueCache, ExpressionInterpreter.Context context, String alias, List<EntityDomainTypeAttribute> attributes) {
+        return ((PathValueCache) pathValueCache).getValue(context, alias, attributes);
+    }
+
+    /**
+     * Evaluates an embedded evaluator for a part of the expression that is not generated.
+     *
+     * @param evaluator The evaluator
+     * @param frame The evaluation frame
+     * @return the value in internal representation
+     */
+    protected static Object evaluateEmbedded(Object evaluator, Object frame) {
+        return ((Evaluator) evaluator).evaluate((Frame) frame);
+    }
+
+    /**
+     * Throws an {@link IllegalArgumentException} for metadata that is missing. The return type allows generated code to store the result,
+     * so that the verifier sees an assigned value on all paths.
+     *
+     * @param message The message
+     * @return never returns
+     */
+    protected static Object fail(String message) {
+        throw new IllegalArgumentException(message);
+    }
+}
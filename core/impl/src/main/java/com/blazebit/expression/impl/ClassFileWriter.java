@@ -0,0 +1,536 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer for class files that supports just what {@link BytecodeCompiler} needs, i.e. final fields and methods
+ * with straight-line code and 16 bit jumps. The classes use the class file version 49, which the JVM verifies by type inference,
+ * so no stack map frames have to be computed.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class ClassFileWriter {
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_PROTECTED = 0x0004;
+    static final int ACC_FINAL = 0x0010;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ALOAD = 0x19;
+    static final int ILOAD = 0x15;
+    static final int ASTORE = 0x3a;
+    static final int ISTORE = 0x36;
+    static final int AALOAD = 0x32;
+    static final int AASTORE = 0x53;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9a;
+    static final int IF_ACMPNE = 0xa6;
+    static final int GOTO = 0xa7;
+    static final int ARETURN = 0xb0;
+    static final int RETURN = 0xb1;
+    static final int GETSTATIC = 0xb2;
+    static final int GETFIELD = 0xb4;
+    static final int PUTFIELD = 0xb5;
+    static final int INVOKEVIRTUAL = 0xb6;
+    static final int INVOKESPECIAL = 0xb7;
+    static final int INVOKESTATIC = 0xb8;
+    static final int INVOKEINTERFACE = 0xb9;
+    static final int NEW = 0xbb;
+    static final int ANEWARRAY = 0xbd;
+    static final int CHECKCAST = 0xc0;
+    static final int IFNULL = 0xc6;
+    static final int IFNONNULL = 0xc7;
+
+    private static final int CLASS_FILE_VERSION = 49;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ICONST_0 = 0x03;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int WIDE = 0xc4;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteVector constantPool = new ByteVector();
+    private final Map<String, Integer> constantIndexes = new HashMap<>();
+    private final List<ByteVector> fields = new ArrayList<>();
+    private final List<MethodWriter> methods = new ArrayList<>();
+    private final int thisClass;
+    private final int superClass;
+    private int constantCount = 1;
+
+    /**
+     * Creates a writer for a public final class.
+     *
+     * @param name The internal name of the class
+     * @param superName The internal name of the super class
+     */
+    public ClassFileWriter(String name, String superName) {
+        this.thisClass = classConstant(name);
+        this.superClass = classConstant(superName);
+    }
+
+    /**
+     * Adds a private final field.
+     *
+     * @param name The field name
+     * @param descriptor The field descriptor
+     */
+    public void addField(String name, String descriptor) {
+        ByteVector field = new ByteVector();
+        field.putShort(ACC_PRIVATE | ACC_FINAL);
+        field.putShort(utf8Constant(name));
+        field.putShort(utf8Constant(descriptor));
+        field.putShort(0);
+        fields.add(field);
+    }
+
+    /**
+     * Adds a method and returns the writer for its code.
+     *
+     * @param access The access flags
+     * @param name The method name
+     * @param descriptor The method descriptor
+     * @return the method writer
+     */
+    public MethodWriter addMethod(int access, String name, String descriptor) {
+        MethodWriter method = new MethodWriter(access, utf8Constant(name), utf8Constant(descriptor), argumentSlots(descriptor) + 1);
+        methods.add(method);
+        return method;
+    }
+
+    /**
+     * Returns the class file.
+     *
+     * @return the class file
+     */
+    public byte[] toByteArray() {
+        int code = utf8Constant("Code");
+        ByteVector out = new ByteVector();
+        out.putInt(0xCAFEBABE);
+        out.putShort(0);
+        out.putShort(CLASS_FILE_VERSION);
+        out.putShort(constantCount);
+        out.putBytes(constantPool);
+        out.putShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.putShort(thisClass);
+        out.putShort(superClass);
+        out.putShort(0);
+        out.putShort(fields.size());
+        for (ByteVector field : fields) {
+            out.putBytes(field);
+        }
+        out.putShort(methods.size());
+        for (MethodWriter method : methods) {
+            method.write(out, code);
+        }
+        out.putShort(0);
+        return out.toByteArray();
+    }
+
+    private int utf8Constant(String value) {
+        Integer index = constantIndexes.get("U" + value);
+        if (index == null) {
+            ByteVector bytes = new ByteVector();
+            for (int i = 0; i < value.length(); i++) {
+                // The class file format uses the modified UTF-8 encoding that encodes the null character with two bytes
+                char c = value.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    bytes.putByte(c);
+                } else if (c < 0x800) {
+                    bytes.putByte(0xC0 | c >> 6);
+                    bytes.putByte(0x80 | c & 0x3F);
+                } else {
+                    bytes.putByte(0xE0 | c >> 12);
+                    bytes.putByte(0x80 | c >> 6 & 0x3F);
+                    bytes.putByte(0x80 | c & 0x3F);
+                }
+            }
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("Constant too long: " + value.length() + " characters");
+            }
+            constantPool.putByte(CONSTANT_UTF8);
+            constantPool.putShort(bytes.length);
+            constantPool.putBytes(bytes);
+            index = addConstant("U" + value, 1);
+        }
+        return index;
+    }
+
+    private int classConstant(String internalName) {
+        return constant(CONSTANT_CLASS, "C" + internalName, utf8Constant(internalName));
+    }
+
+    private int stringConstant(String value) {
+        return constant(CONSTANT_STRING, "S" + value, utf8Constant(value));
+    }
+
+    private int integerConstant(int value) {
+        Integer index = constantIndexes.get("I" + value);
+        if (index == null) {
+            constantPool.putByte(CONSTANT_INTEGER);
+            constantPool.putInt(value);
+            index = addConstant("I" + value, 1);
+        }
+        return index;
+    }
+
+    private int memberConstant(int tag, String owner, String name, String descriptor) {
+        int nameAndType = constant(CONSTANT_NAME_AND_TYPE, "N" + name + ' ' + descriptor, utf8Constant(name), utf8Constant(descriptor));
+        return constant(tag, "M" + tag + owner + '.' + name + ' ' + descriptor, classConstant(owner), nameAndType);
+    }
+
+    private int constant(int tag, String key, int... references) {
+        Integer index = constantIndexes.get(key);
+        if (index == null) {
+            constantPool.putByte(tag);
+            for (int reference : references) {
+                constantPool.putShort(reference);
+            }
+            index = addConstant(key, 1);
+        }
+        return index;
+    }
+
+    private int addConstant(String key, int slots) {
+        int index = constantCount;
+        if (index + slots > 0xFFFF) {
+            throw new IllegalStateException("Constant pool too large");
+        }
+        constantCount += slots;
+        constantIndexes.put(key, index);
+        return index;
+    }
+
+    private static int argumentSlots(String descriptor) {
+        int slots = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            boolean array = false;
+            char c = descriptor.charAt(i);
+            while (c == '[') {
+                array = true;
+                c = descriptor.charAt(++i);
+            }
+            if (c == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            slots += !array && (c == 'J' || c == 'D') ? 2 : 1;
+            i++;
+        }
+        return slots;
+    }
+
+    private static int returnSlots(String descriptor) {
+        char c = descriptor.charAt(descriptor.indexOf(')') + 1);
+        if (c == 'V') {
+            return 0;
+        }
+        return c == 'J' || c == 'D' ? 2 : 1;
+    }
+
+    /**
+     * A position in the code of a method that jumps can refer to before it is bound.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class Label {
+
+        private int position = -1;
+        private int[] references = new int[4];
+        private int referenceCount;
+
+        private void addReference(int instructionPosition, int offsetPosition) {
+            if (referenceCount == references.length) {
+                references = Arrays.copyOf(references, referenceCount * 2);
+            }
+            references[referenceCount++] = instructionPosition;
+            references[referenceCount++] = offsetPosition;
+        }
+    }
+
+    /**
+     * A writer for the code of a method that tracks the operand stack depth and the number of used local variable slots.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    final class MethodWriter {
+
+        private final int access;
+        private final int name;
+        private final int descriptor;
+        private final ByteVector code = new ByteVector();
+        private int stack;
+        private int maxStack;
+        private int maxLocals;
+
+        private MethodWriter(int access, int name, int descriptor, int maxLocals) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * Returns the length of the code written so far.
+         *
+         * @return the code length
+         */
+        public int length() {
+            return code.length;
+        }
+
+        /**
+         * Writes an instruction without operands.
+         *
+         * @param opcode The opcode
+         * @param stackDelta The change of the operand stack depth
+         */
+        public void op(int opcode, int stackDelta) {
+            code.putByte(opcode);
+            adjustStack(stackDelta);
+        }
+
+        /**
+         * Writes an instruction that loads or stores a local variable.
+         *
+         * @param opcode One of <code>ALOAD</code>, <code>ILOAD</code>, <code>ASTORE</code> or <code>ISTORE</code>
+         * @param local The local variable slot
+         */
+        public void local(int opcode, int local) {
+            if (local > 0xFF) {
+                code.putByte(WIDE);
+                code.putByte(opcode);
+                code.putShort(local);
+            } else {
+                code.putByte(opcode);
+                code.putByte(local);
+            }
+            maxLocals = Math.max(maxLocals, local + 1);
+            adjustStack(opcode == ALOAD || opcode == ILOAD ? 1 : -1);
+        }
+
+        /**
+         * Writes an instruction that pushes the given int.
+         *
+         * @param value The value
+         */
+        public void push(int value) {
+            if (value >= -1 && value <= 5) {
+                code.putByte(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                code.putByte(BIPUSH);
+                code.putByte(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                code.putByte(SIPUSH);
+                code.putShort(value);
+            } else {
+                ldc(integerConstant(value));
+                return;
+            }
+            adjustStack(1);
+        }
+
+        /**
+         * Writes an instruction that pushes the given string.
+         *
+         * @param value The value
+         */
+        public void push(String value) {
+            ldc(stringConstant(value));
+        }
+
+        private void ldc(int index) {
+            if (index > 0xFF) {
+                code.putByte(LDC_W);
+                code.putShort(index);
+            } else {
+                code.putByte(LDC);
+                code.putByte(index);
+            }
+            adjustStack(1);
+        }
+
+        /**
+         * Writes an instruction with a class operand.
+         *
+         * @param opcode One of <code>NEW</code>, <code>ANEWARRAY</code> or <code>CHECKCAST</code>
+         * @param internalName The internal name of the class
+         */
+        public void type(int opcode, String internalName) {
+            code.putByte(opcode);
+            code.putShort(classConstant(internalName));
+            adjustStack(opcode == NEW ? 1 : 0);
+        }
+
+        /**
+         * Writes a field access instruction.
+         *
+         * @param opcode One of <code>GETSTATIC</code>, <code>GETFIELD</code> or <code>PUTFIELD</code>
+         * @param owner The internal name of the class declaring the field
+         * @param name The field name
+         * @param descriptor The field descriptor
+         */
+        public void field(int opcode, String owner, String name, String descriptor) {
+            code.putByte(opcode);
+            code.putShort(memberConstant(CONSTANT_FIELDREF, owner, name, descriptor));
+            adjustStack(opcode == GETSTATIC ? 1 : opcode == GETFIELD ? 0 : -2);
+        }
+
+        /**
+         * Writes a method invocation instruction.
+         *
+         * @param opcode One of <code>INVOKEVIRTUAL</code>, <code>INVOKESPECIAL</code>, <code>INVOKESTATIC</code> or <code>INVOKEINTERFACE</code>
+         * @param owner The internal name of the class declaring the method
+         * @param name The method name
+         * @param descriptor The method descriptor
+         */
+        public void invoke(int opcode, String owner, String name, String descriptor) {
+            int argumentSlots = argumentSlots(descriptor) + (opcode == INVOKESTATIC ? 0 : 1);
+            code.putByte(opcode);
+            if (opcode == INVOKEINTERFACE) {
+                code.putShort(memberConstant(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor));
+                code.putByte(argumentSlots);
+                code.putByte(0);
+            } else {
+                code.putShort(memberConstant(CONSTANT_METHODREF, owner, name, descriptor));
+            }
+            adjustStack(returnSlots(descriptor) - argumentSlots);
+        }
+
+        /**
+         * Writes a jump instruction to the given label.
+         *
+         * @param opcode The jump opcode
+         * @param label The jump target
+         */
+        public void jump(int opcode, Label label) {
+            int instructionPosition = code.length;
+            code.putByte(opcode);
+            if (label.position == -1) {
+                label.addReference(instructionPosition, code.length);
+                code.putShort(0);
+            } else {
+                code.putShort(label.position - instructionPosition);
+            }
+            adjustStack(opcode == GOTO ? 0 : opcode == IF_ACMPNE ? -2 : -1);
+        }
+
+        /**
+         * Binds the label to the current position.
+         *
+         * @param label The label
+         */
+        public void bind(Label label) {
+            label.position = code.length;
+            for (int i = 0; i < label.referenceCount; i += 2) {
+                // Offsets only overflow for code that is too large for a method anyway
+                code.setShort(label.references[i + 1], label.position - label.references[i]);
+            }
+        }
+
+        private void adjustStack(int delta) {
+            stack += delta;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void write(ByteVector out, int codeAttributeName) {
+            out.putShort(access);
+            out.putShort(name);
+            out.putShort(descriptor);
+            out.putShort(1);
+            out.putShort(codeAttributeName);
+            out.putInt(12 + code.length);
+            out.putShort(maxStack);
+            out.putShort(maxLocals);
+            out.putInt(code.length);
+            out.putBytes(code);
+            out.putShort(0);
+            out.putShort(0);
+        }
+    }
+
+    /**
+     * A growable byte array with big-endian writes.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ByteVector {
+
+        private byte[] bytes = new byte[64];
+        private int length;
+
+        public void putByte(int value) {
+            ensureCapacity(1);
+            bytes[length++] = (byte) value;
+        }
+
+        public void putShort(int value) {
+            ensureCapacity(2);
+            bytes[length++] = (byte) (value >>> 8);
+            bytes[length++] = (byte) value;
+        }
+
+        public void putInt(int value) {
+            putShort(value >>> 16);
+            putShort(value);
+        }
+
+        public void putBytes(ByteVector vector) {
+            ensureCapacity(vector.length);
+            System.arraycopy(vector.bytes, 0, bytes, length, vector.length);
+            length += vector.length;
+        }
+
+        public void setShort(int position, int value) {
+            bytes[position] = (byte) (value >>> 8);
+            bytes[position + 1] = (byte) value;
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(int size) {
+            if (length + size > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + size));
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.FunctionVolatility;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces structurally equal paths, function invocations and arithmetic expressions that occur multiple times in an expression
+ * by a single instance, which gets a slot in the {@link SharedSlots} of the compiled expression, so that its value is computed at most once per evaluation.
+ *
+ * Subexpressions that invoke a {@link FunctionVolatility#VOLATILE} function are not shared, because every invocation may produce a different result.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class CommonSubexpressionEliminator extends AbstractExpressionTransformer {
+
+    private final Map<Expression, Integer> occurrences;
+    private final Map<Expression, Expression> sharedSubexpressions = new HashMap<>();
+
+    private CommonSubexpressionEliminator(Map<Expression, Integer> occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    /**
+     * Returns whether common subexpression elimination is enabled for the given compile context.
+     *
+     * @param compileContext The compile context
+     * @return whether common subexpression elimination is enabled
+     */
+    public static boolean isEnabled(ExpressionCompiler.Context compileContext) {
+        return ExpressionCompilerImpl.getBooleanProperty(compileContext, ConfigurationProperties.COMMON_SUBEXPRESSION_ELIMINATION);
+    }
+
+    /**
+     * Returns the given expression with common subexpressions replaced by shared subexpressions.
+     *
+     * @param expression The expression
+     * @return the expression with shared subexpression instances or the given expression if there are no common subexpressions
+     */
+    public static Expression eliminate(Expression expression) {
+        OccurrenceCounter counter = new OccurrenceCounter();
+        expression.accept(counter);
+        if (!counter.hasCommonSubexpressions) {
+            return expression;
+        }
+        return new CommonSubexpressionEliminator(counter.occurrences).transform(expression);
+    }
+
+    @Override
+    public Expression visit(Path e) {
+        return share(e, super.visit(e));
+    }
+
+    @Override
+    public Expression visit(FunctionInvocation e) {
+        Expression sharedSubexpression = sharedSubexpressions.get(e);
+        return sharedSubexpression == null ? share(e, super.visit(e)) : sharedSubexpression;
+    }
+
+    @Override
+    public Expression visit(ChainingArithmeticExpression e) {
+        Expression sharedSubexpression = sharedSubexpressions.get(e);
+        return sharedSubexpression == null ? share(e, super.visit(e)) : sharedSubexpression;
+    }
+
+    /**
+     * Returns the instance that replaces all occurrences of the given subexpression, which is the first transformed occurrence if the subexpression is common.
+     */
+    private Expression share(Expression e, Expression transformed) {
+        if (!isCommon(e)) {
+            return transformed;
+        }
+        Expression sharedSubexpression = sharedSubexpressions.get(e);
+        if (sharedSubexpression == null) {
+            sharedSubexpression = transformed;
+            sharedSubexpressions.put(e, sharedSubexpression);
+        }
+        return sharedSubexpression;
+    }
+
+    private boolean isCommon(Expression expression) {
+        Integer count = occurrences.get(expression);
+        return count != null && count > 1;
+    }
+
+    /**
+     * Counts the occurrences of deterministic candidate subexpressions and returns whether a visited subexpression is deterministic.
+     * The children of repeated occurrences are not visited, so that only the outermost common subexpression gets a slot.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class OccurrenceCounter implements Expression.ResultVisitor<Boolean> {
+
+        private final Map<Expression, Integer> occurrences = new HashMap<>();
+        private boolean hasCommonSubexpressions;
+
+        private boolean countRepeated(Expression e) {
+            Integer count = occurrences.get(e);
+            if (count == null) {
+                return false;
+            }
+            occurrences.put(e, count + 1);
+            hasCommonSubexpressions = true;
+            return true;
+        }
+
+        private Boolean countFirst(Expression e, boolean deterministic) {
+            if (deterministic) {
+                occurrences.put(e, 1);
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(ArithmeticFactor e) {
+            return e.getExpression().accept(this);
+        }
+
+        @Override
+        public Boolean visit(ExpressionPredicate e) {
+            return e.getExpression().accept(this);
+        }
+
+        @Override
+        public Boolean visit(BetweenPredicate e) {
+            return e.getLeft().accept(this) & e.getLower().accept(this) & e.getUpper().accept(this);
+        }
+
+        @Override
+        public Boolean visit(InPredicate e) {
+            boolean deterministic = e.getLeft().accept(this);
+            List<ArithmeticExpression> inItems = e.getInItems();
+            for (int i = 0; i < inItems.size(); i++) {
+                deterministic &= inItems.get(i).accept(this);
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(ChainingArithmeticExpression e) {
+            if (countRepeated(e)) {
+                return true;
+            }
+            return countFirst(e, e.getLeft().accept(this) & e.getRight().accept(this));
+        }
+
+        @Override
+        public Boolean visit(CompoundPredicate e) {
+            boolean deterministic = true;
+            List<Predicate> predicates = e.getPredicates();
+            for (int i = 0; i < predicates.size(); i++) {
+                deterministic &= predicates.get(i).accept(this);
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(ComparisonPredicate e) {
+            return e.getLeft().accept(this) & e.getRight().accept(this);
+        }
+
+        @Override
+        public Boolean visit(IsNullPredicate e) {
+            return e.getLeft().accept(this);
+        }
+
+        @Override
+        public Boolean visit(IsEmptyPredicate e) {
+            return e.getLeft().accept(this);
+        }
+
+        @Override
+        public Boolean visit(Path e) {
+            // Root variables are cheap to access and not worth a slot
+            if (!e.getAttributes().isEmpty() && !countRepeated(e)) {
+                countFirst(e, true);
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visit(FunctionInvocation e) {
+            if (countRepeated(e)) {
+                return true;
+            }
+            boolean deterministic = e.getFunction().getMetadata(FunctionVolatility.class) != FunctionVolatility.VOLATILE;
+            for (Map.Entry<DomainFunctionArgument, Expression> entry : e.getArguments().entrySet()) {
+                deterministic &= entry.getValue().accept(this);
+            }
+            return countFirst(e, deterministic);
+        }
+
+        @Override
+        public Boolean visit(Literal e) {
+            return true;
+        }
+
+        @Override
+        public Boolean visit(Parameter e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.TypeAdapter;
+
+/**
+ * A compiled expression that evaluates a tree of evaluators.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+class CompiledExpressionImpl implements CompiledExpression {
+
+    private final Expression expression;
+    private final Evaluator evaluator;
+    private final TypeAdapter<Object, Object> typeAdapter;
+    private final DomainType type;
+    private final int sharedSlots;
+
+    public CompiledExpressionImpl(Expression expression, Evaluator evaluator, int sharedSlots) {
+        this.expression = expression;
+        this.evaluator = evaluator;
+        this.typeAdapter = evaluator.getTypeAdapter();
+        this.type = expression.getType();
+        this.sharedSlots = sharedSlots;
+    }
+
+    @Override
+    public Expression getExpression() {
+        return expression;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T evaluate(ExpressionInterpreter.Context interpreterContext) {
+        Object value = evaluator.evaluate(new Evaluator.Frame(interpreterContext, sharedSlots));
+        if (typeAdapter != null) {
+            value = typeAdapter.toModelType(interpreterContext, value, type);
+        }
+        return (T) value;
+    }
+
+    /**
+     * A compiled predicate that evaluates a tree of evaluators.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class CompiledPredicateImpl extends CompiledExpressionImpl implements CompiledPredicate {
+
+        public CompiledPredicateImpl(Predicate predicate, Evaluator evaluator, int sharedSlots) {
+            super(predicate, evaluator, sharedSlots);
+        }
+
+        @Override
+        public Predicate getExpression() {
+            return (Predicate) super.getExpression();
+        }
+
+        @Override
+        public boolean test(ExpressionInterpreter.Context interpreterContext) {
+            return Boolean.TRUE.equals(evaluate(interpreterContext));
+        }
+    }
+}
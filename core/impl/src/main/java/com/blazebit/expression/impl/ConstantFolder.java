@@ -0,0 +1,389 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EnumDomainTypeValue;
+import com.blazebit.domain.runtime.model.ResolvedLiteral;
+import com.blazebit.domain.runtime.model.TemporalInterval;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.DomainModelException;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.FunctionVolatility;
+import com.blazebit.expression.spi.TypeAdapter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces subexpressions that only consist of literals by the literal they evaluate to and removes constant operands
+ * from compound predicates that don't affect the result.
+ *
+ * Nodes are only rebuilt if one of their children changed. Subexpressions that fail to evaluate or evaluate to <code>null</code>
+ * are kept, so that the error or the <code>null</code> handling happens at runtime just like without folding.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class ConstantFolder implements Expression.ResultVisitor<Expression> {
+
+    private final ExpressionModelFactory modelFactory;
+    private final ExpressionInterpreterImpl interpreter;
+    private final ExpressionInterpreter.Context interpreterContext;
+
+    public ConstantFolder(ExpressionModelFactory modelFactory) {
+        this.modelFactory = modelFactory;
+        this.interpreter = new ExpressionInterpreterImpl(modelFactory.getDomainModel());
+        this.interpreterContext = interpreter.createContext(Collections.<String, DomainType>emptyMap(), Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Returns whether constant folding is enabled for the given compile context.
+     *
+     * @param compileContext The compile context
+     * @return whether constant folding is enabled
+     */
+    public static boolean isEnabled(ExpressionCompiler.Context compileContext) {
+        return ExpressionCompilerImpl.getBooleanProperty(compileContext, ConfigurationProperties.CONSTANT_FOLDING);
+    }
+
+    /**
+     * Returns the given expression with all constant subexpressions folded.
+     *
+     * @param expression The expression to fold
+     * @return the folded expression, which might be the given expression
+     */
+    public Expression fold(Expression expression) {
+        return expression.accept(this);
+    }
+
+    @Override
+    public Expression visit(ArithmeticFactor e) {
+        ArithmeticExpression expression = (ArithmeticExpression) e.getExpression().accept(this);
+        if (expression != e.getExpression()) {
+            e = new ArithmeticFactor(e.getType(), expression, e.isInvertSignum());
+        }
+        if (expression instanceof Literal) {
+            return evaluate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(ChainingArithmeticExpression e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        ArithmeticExpression right = (ArithmeticExpression) e.getRight().accept(this);
+        if (left != e.getLeft() || right != e.getRight()) {
+            e = new ChainingArithmeticExpression(e.getType(), left, right, e.getOperator());
+        }
+        if (left instanceof Literal && right instanceof Literal) {
+            return evaluate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(FunctionInvocation e) {
+        Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
+        Map<DomainFunctionArgument, Expression> foldedArguments = arguments;
+        boolean constant = isFoldable(e.getFunction());
+        for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
+            Expression argument = entry.getValue();
+            Expression foldedArgument = argument.accept(this);
+            if (foldedArgument != argument) {
+                if (foldedArguments == arguments) {
+                    foldedArguments = new LinkedHashMap<>(arguments);
+                }
+                foldedArguments.put(entry.getKey(), foldedArgument);
+            }
+            constant = constant && foldedArgument instanceof Literal && entry.getKey().getMetadata(TypeAdapter.class) == null;
+        }
+        if (foldedArguments != arguments) {
+            e = new FunctionInvocation(e.getFunction(), foldedArguments, e.getType());
+        }
+        if (constant) {
+            return evaluate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(Literal e) {
+        return e;
+    }
+
+    @Override
+    public Expression visit(Parameter e) {
+        return e;
+    }
+
+    @Override
+    public Expression visit(Path e) {
+        return e;
+    }
+
+    @Override
+    public Expression visit(ExpressionPredicate e) {
+        Expression expression = e.getExpression().accept(this);
+        if (expression instanceof Literal && ((Literal) expression).getValue() instanceof Boolean) {
+            return constant(e.isNegated() != (Boolean) ((Literal) expression).getValue());
+        }
+        if (expression != e.getExpression()) {
+            return new ExpressionPredicate(e.getType(), expression, e.isNegated());
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(BetweenPredicate e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        ArithmeticExpression lower = (ArithmeticExpression) e.getLower().accept(this);
+        ArithmeticExpression upper = (ArithmeticExpression) e.getUpper().accept(this);
+        if (left != e.getLeft() || lower != e.getLower() || upper != e.getUpper()) {
+            e = new BetweenPredicate(e.getType(), left, upper, lower, e.isNegated());
+        }
+        if (left instanceof Literal && lower instanceof Literal && upper instanceof Literal) {
+            return evaluatePredicate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(InPredicate e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        List<ArithmeticExpression> inItems = e.getInItems();
+        List<ArithmeticExpression> foldedInItems = inItems;
+        boolean constant = left instanceof Literal;
+        for (int i = 0; i < inItems.size(); i++) {
+            ArithmeticExpression inItem = inItems.get(i);
+            ArithmeticExpression foldedInItem = (ArithmeticExpression) inItem.accept(this);
+            if (foldedInItem != inItem) {
+                if (foldedInItems == inItems) {
+                    foldedInItems = new ArrayList<>(inItems);
+                }
+                foldedInItems.set(i, foldedInItem);
+            }
+            constant = constant && foldedInItem instanceof Literal;
+        }
+        if (left != e.getLeft() || foldedInItems != inItems) {
+            e = new InPredicate(e.getType(), left, foldedInItems, e.isNegated());
+        }
+        if (constant) {
+            return evaluatePredicate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(ComparisonPredicate e) {
+        ArithmeticExpression left = (ArithmeticExpression) e.getLeft().accept(this);
+        ArithmeticExpression right = (ArithmeticExpression) e.getRight().accept(this);
+        if (left != e.getLeft() || right != e.getRight()) {
+            e = new ComparisonPredicate(e.getType(), left, right, e.getOperator(), e.isNegated());
+        }
+        if (left instanceof Literal && right instanceof Literal) {
+            return evaluatePredicate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(IsNullPredicate e) {
+        Expression left = e.getLeft().accept(this);
+        if (left instanceof Literal) {
+            // A literal is never null
+            return constant(e.isNegated());
+        }
+        if (left != e.getLeft()) {
+            return new IsNullPredicate(e.getType(), left, e.isNegated());
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(IsEmptyPredicate e) {
+        Expression left = e.getLeft().accept(this);
+        if (left != e.getLeft()) {
+            e = new IsEmptyPredicate(e.getType(), left, e.isNegated());
+        }
+        if (left instanceof Literal) {
+            return evaluatePredicate(e);
+        }
+        return e;
+    }
+
+    @Override
+    public Expression visit(CompoundPredicate e) {
+        List<Predicate> predicates = e.getPredicates();
+        List<Predicate> foldedPredicates = new ArrayList<>(predicates.size());
+        boolean changed = false;
+        boolean conjunction = e.isConjunction();
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate predicate = predicates.get(i);
+            Predicate foldedPredicate = (Predicate) predicate.accept(this);
+            Boolean value = getConstantValue(foldedPredicate);
+            if (value == null) {
+                foldedPredicates.add(foldedPredicate);
+                changed |= foldedPredicate != predicate;
+            } else if (value == conjunction) {
+                // The identity element, TRUE for a conjunction and FALSE for a disjunction, can be dropped
+                changed = true;
+            } else {
+                // The absorbing element, FALSE for a conjunction and TRUE for a disjunction, determines the result
+                return constant(value != e.isNegated());
+            }
+        }
+        if (foldedPredicates.isEmpty()) {
+            return constant(conjunction != e.isNegated());
+        }
+        if (foldedPredicates.size() == 1) {
+            Predicate predicate = foldedPredicates.get(0);
+            Boolean value = getConstantValue(predicate);
+            if (value != null) {
+                return constant(value != e.isNegated());
+            }
+            if (e.isNegated()) {
+                return predicate.negate();
+            }
+            return predicate;
+        }
+        if (changed) {
+            return new CompoundPredicate(e.getType(), foldedPredicates, conjunction, e.isNegated());
+        }
+        return e;
+    }
+
+    private static boolean isFoldable(DomainFunction function) {
+        FunctionVolatility volatility = function.getMetadata(FunctionVolatility.class);
+        return (volatility == null || volatility == FunctionVolatility.IMMUTABLE)
+            && function.getMetadata(FunctionInvoker.class) != null
+            && function.getMetadata(TypeAdapter.class) == null;
+    }
+
+    private Expression evaluate(Expression expression) {
+        DomainType.DomainTypeKind kind = expression.getType().getKind();
+        if (kind == DomainType.DomainTypeKind.COLLECTION || kind == DomainType.DomainTypeKind.ENTITY) {
+            return expression;
+        }
+        Object value;
+        try {
+            value = interpreter.evaluate(expression, interpreterContext);
+        } catch (RuntimeException ex) {
+            // Keep the expression so that the error is reported when the expression is actually evaluated
+            return expression;
+        }
+        if (value == null) {
+            return expression;
+        }
+        return new Literal(resolveLiteral(expression.getType(), value));
+    }
+
+    private ResolvedLiteral resolveLiteral(DomainType type, Object value) {
+        // Resolve through the domain model like the parser does, so that folded literals are equal to written ones
+        ResolvedLiteral literal = resolveLiteral(value);
+        if (literal != null && type.equals(literal.getType())) {
+            return literal;
+        }
+        if (value instanceof BigDecimal && ((BigDecimal) value).scale() <= 0) {
+            // A fractional result like 4.0 / 2.0 may be integral, but it must keep its declared type,
+            // which also requires a scale so that it is written and read back as a fractional number
+            literal = resolveLiteral(((BigDecimal) value).setScale(1));
+            if (literal != null && type.equals(literal.getType())) {
+                return literal;
+            }
+        }
+        return new DefaultResolvedLiteral(type, value);
+    }
+
+    private ResolvedLiteral resolveLiteral(Object value) {
+        LiteralFactory literalFactory = modelFactory.getLiteralFactory();
+        try {
+            if (value instanceof Boolean) {
+                return literalFactory.ofBoolean((Boolean) value);
+            } else if (value instanceof Number) {
+                return literalFactory.ofNumber((Number) value);
+            } else if (value instanceof String) {
+                return literalFactory.ofString((String) value);
+            } else if (value instanceof Instant) {
+                return literalFactory.ofInstant((Instant) value);
+            } else if (value instanceof TemporalInterval) {
+                TemporalInterval interval = (TemporalInterval) value;
+                return literalFactory.ofTemporalAmounts(interval.getYears(), interval.getMonths(), interval.getDays(), interval.getHours(), interval.getMinutes(), interval.getSeconds());
+            } else if (value instanceof EnumDomainTypeValue) {
+                EnumDomainTypeValue enumValue = (EnumDomainTypeValue) value;
+                return literalFactory.ofEnumValue(enumValue.getOwner(), enumValue.getValue());
+            }
+        } catch (DomainModelException ex) {
+            // No resolver for this kind of literal
+        }
+        return null;
+    }
+
+    private Expression evaluatePredicate(Predicate predicate) {
+        Object value;
+        try {
+            value = interpreter.evaluate((Expression) predicate, interpreterContext);
+        } catch (RuntimeException ex) {
+            // Keep the predicate so that the error is reported when the predicate is actually evaluated
+            return predicate;
+        }
+        if (value instanceof Boolean) {
+            return constant((Boolean) value);
+        }
+        return predicate;
+    }
+
+    private Predicate constant(boolean value) {
+        return new ExpressionPredicate(modelFactory.getBooleanDomainType(), modelFactory.getBooleanLiteral(value), false);
+    }
+
+    private static Boolean getConstantValue(Predicate predicate) {
+        if (predicate instanceof ExpressionPredicate) {
+            Expression expression = ((ExpressionPredicate) predicate).getExpression();
+            if (expression instanceof Literal && ((Literal) expression).getValue() instanceof Boolean) {
+                return predicate.isNegated() != (Boolean) ((Literal) expression).getValue();
+            }
+        }
+        return null;
+    }
+}
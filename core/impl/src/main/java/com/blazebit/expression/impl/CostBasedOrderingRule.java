@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Orders the operands of compound predicates by their estimated evaluation cost, so that cheap operands like comparisons
+ * of direct attributes are evaluated before function invocations and association paths. Operands with the same cost keep their order.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class CostBasedOrderingRule extends AbstractOptimizationRule {
+
+    public CostBasedOrderingRule() {
+        super("cost-ordering");
+    }
+
+    @Override
+    protected Predicate rewrite(DomainModel domainModel, CompoundPredicate compoundPredicate) {
+        List<Predicate> predicates = compoundPredicate.getPredicates();
+        int size = predicates.size();
+        if (size < 2) {
+            return compoundPredicate;
+        }
+        final long[] costs = new long[size];
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            costs[i] = EvaluationCostEstimator.estimate(predicates.get(i));
+            order[i] = i;
+        }
+        // Arrays.sort is stable for objects
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(costs[o1], costs[o2]);
+            }
+        });
+        List<Predicate> orderedPredicates = null;
+        for (int i = 0; i < size; i++) {
+            if (orderedPredicates == null && order[i] != i) {
+                orderedPredicates = new ArrayList<>(predicates.subList(0, i));
+            }
+            if (orderedPredicates != null) {
+                orderedPredicates.add(predicates.get(order[i]));
+            }
+        }
+        if (orderedPredicates == null) {
+            return compoundPredicate;
+        }
+        return withPredicates(compoundPredicate, orderedPredicates);
+    }
+}
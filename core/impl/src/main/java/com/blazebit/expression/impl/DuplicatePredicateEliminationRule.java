@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.VisitorAdapter;
+import com.blazebit.expression.spi.FunctionVolatility;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes operands of compound predicates that are equal to a preceding operand, so that
+ * <code>a AND b AND a</code> becomes <code>a AND b</code>. Operands that invoke a {@link FunctionVolatility#VOLATILE} function are kept.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class DuplicatePredicateEliminationRule extends AbstractOptimizationRule {
+
+    public DuplicatePredicateEliminationRule() {
+        super("duplicate-elimination");
+    }
+
+    @Override
+    protected Predicate rewrite(DomainModel domainModel, CompoundPredicate compoundPredicate) {
+        List<Predicate> predicates = compoundPredicate.getPredicates();
+        if (predicates.size() < 2) {
+            return compoundPredicate;
+        }
+        Set<Predicate> seenPredicates = new HashSet<>(predicates.size());
+        List<Predicate> uniquePredicates = null;
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate predicate = predicates.get(i);
+            if (!seenPredicates.add(predicate) && !VolatileFunctionDetector.containsVolatileFunction(predicate)) {
+                if (uniquePredicates == null) {
+                    uniquePredicates = new ArrayList<>(predicates.subList(0, i));
+                }
+            } else if (uniquePredicates != null) {
+                uniquePredicates.add(predicate);
+            }
+        }
+        if (uniquePredicates == null) {
+            return compoundPredicate;
+        }
+        if (uniquePredicates.size() == 1) {
+            return unwrap(compoundPredicate, uniquePredicates.get(0));
+        }
+        return withPredicates(compoundPredicate, uniquePredicates);
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class VolatileFunctionDetector extends VisitorAdapter {
+
+        private boolean found;
+
+        public static boolean containsVolatileFunction(Predicate predicate) {
+            VolatileFunctionDetector detector = new VolatileFunctionDetector();
+            predicate.accept(detector);
+            return detector.found;
+        }
+
+        @Override
+        public void visit(FunctionInvocation e) {
+            if (e.getFunction().getMetadata(FunctionVolatility.class) == FunctionVolatility.VOLATILE) {
+                found = true;
+            } else {
+                super.visit(e);
+            }
+        }
+    }
+}
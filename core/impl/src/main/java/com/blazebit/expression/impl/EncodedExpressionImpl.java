@@ -0,0 +1,790 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainOperator;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.ArithmeticOperatorType;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.EncodedExpression;
+import com.blazebit.expression.EncodedPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionAnalysis;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
+import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
+import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.TypeAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.blazebit.expression.impl.ExpressionEncoder.AND_ITEM;
+import static com.blazebit.expression.impl.ExpressionEncoder.ARGUMENT;
+import static com.blazebit.expression.impl.ExpressionEncoder.ARITHMETIC;
+import static com.blazebit.expression.impl.ExpressionEncoder.BETWEEN;
+import static com.blazebit.expression.impl.ExpressionEncoder.COLLECTION;
+import static com.blazebit.expression.impl.ExpressionEncoder.COMPARE;
+import static com.blazebit.expression.impl.ExpressionEncoder.COMPOUND_END;
+import static com.blazebit.expression.impl.ExpressionEncoder.COMPOUND_START;
+import static com.blazebit.expression.impl.ExpressionEncoder.FACTOR;
+import static com.blazebit.expression.impl.ExpressionEncoder.INVOKE;
+import static com.blazebit.expression.impl.ExpressionEncoder.IN_END;
+import static com.blazebit.expression.impl.ExpressionEncoder.IN_ITEM;
+import static com.blazebit.expression.impl.ExpressionEncoder.IN_LITERALS;
+import static com.blazebit.expression.impl.ExpressionEncoder.IN_START;
+import static com.blazebit.expression.impl.ExpressionEncoder.IS_EMPTY;
+import static com.blazebit.expression.impl.ExpressionEncoder.IS_NULL;
+import static com.blazebit.expression.impl.ExpressionEncoder.JUMP_IF_NULL;
+import static com.blazebit.expression.impl.ExpressionEncoder.LITERAL;
+import static com.blazebit.expression.impl.ExpressionEncoder.OR_ITEM;
+import static com.blazebit.expression.impl.ExpressionEncoder.PARAMETER;
+import static com.blazebit.expression.impl.ExpressionEncoder.PATH;
+import static com.blazebit.expression.impl.ExpressionEncoder.PREDICATE;
+import static com.blazebit.expression.impl.ExpressionEncoder.SHARED_LOAD;
+import static com.blazebit.expression.impl.ExpressionEncoder.SHARED_STORE;
+
+/**
+ * An expression encoded by {@link ExpressionEncoder}, which is evaluated by a stack machine that executes the instructions in a single loop.
+ * Metadata like attribute accessors, type adapters, operator interpreters and function invokers is resolved when encoding,
+ * but missing metadata is reported when an instruction is executed, like with {@link EvaluatorCompiler}.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+class EncodedExpressionImpl implements EncodedExpression {
+
+    private static final Object NULL_VALUE = new Object();
+    private static final Object INCOMPLETE_PATH = new Object();
+    private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+    private static final ArithmeticOperatorType[] ARITHMETIC_OPERATORS = ArithmeticOperatorType.values();
+    private static final ComparisonOperator[] COMPARISON_OPERATORS = ComparisonOperator.values();
+
+    private final int[] code;
+    private final Object[] constants;
+    private final DomainType type;
+    private final int maxStack;
+    private final int sharedSlots;
+    private ExpressionAnalysis analysis;
+
+    public EncodedExpressionImpl(int[] code, Object[] constants, DomainType type, int maxStack, int sharedSlots) {
+        this.code = code;
+        this.constants = constants;
+        this.type = type;
+        this.maxStack = maxStack;
+        this.sharedSlots = sharedSlots;
+    }
+
+    @Override
+    public Expression getExpression() {
+        return decode();
+    }
+
+    @Override
+    public ExpressionAnalysis getAnalysis() {
+        ExpressionAnalysis analysis = this.analysis;
+        // Since every decoding produces a new expression tree, the analysis is cached here
+        if (analysis == null) {
+            analysis = decode().getAnalysis();
+            this.analysis = analysis;
+        }
+        return analysis;
+    }
+
+    @Override
+    public int getCodeLength() {
+        return code.length;
+    }
+
+    @Override
+    public int getConstantCount() {
+        return constants.length;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T evaluate(ExpressionInterpreter.Context interpreterContext) {
+        final int[] code = this.code;
+        final Object[] constants = this.constants;
+        final Object[] stack = new Object[maxStack];
+        final Object[] sharedValues = sharedSlots == 0 ? null : new Object[sharedSlots];
+        final TypeAdapter<Object, Object>[] sharedTypeAdapters = sharedSlots == 0 ? null : newTypeAdapters(sharedSlots);
+        final PathValueCache pathValueCache = EvaluationSessionImpl.getPathValueCache(interpreterContext);
+        TypeAdapter<Object, Object> typeAdapter = null;
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc]) {
+                case LITERAL:
+                    stack[sp++] = ((Literal) constants[code[pc + 1]]).getValue();
+                    typeAdapter = null;
+                    pc += 2;
+                    break;
+                case COLLECTION: {
+                    int size = code[pc + 2];
+                    sp -= size;
+                    stack[sp] = size == 0 ? Collections.emptyList() : new ArrayList<>(Arrays.asList(stack).subList(sp, sp + size));
+                    sp++;
+                    typeAdapter = null;
+                    pc += 3;
+                    break;
+                }
+                case PARAMETER:
+                    stack[sp++] = interpreterContext.getParameter(((Parameter) constants[code[pc + 1]]).getName());
+                    typeAdapter = null;
+                    pc += 2;
+                    break;
+                case PATH: {
+                    ResolvedPath path = (ResolvedPath) constants[code[pc + 1]];
+                    Object value = interpreterContext.getRoot(path.alias);
+                    EntityDomainTypeAttribute[] attributes = path.attributes;
+                    if (attributes.length == 0) {
+                        typeAdapter = null;
+                    } else if (pathValueCache != null) {
+                        value = pathValueCache.getValue(interpreterContext, path.alias, path.path.getAttributes());
+                        typeAdapter = path.typeAdapter;
+                    } else {
+                        value = path.getValue(interpreterContext, value);
+                        // Like the interpreter, a null value in the middle of a path leaves the type adapter untouched
+                        if (value == INCOMPLETE_PATH) {
+                            value = null;
+                        } else {
+                            typeAdapter = path.typeAdapter;
+                        }
+                    }
+                    stack[sp++] = value;
+                    pc += 2;
+                    break;
+                }
+                case ARGUMENT: {
+                    ResolvedFunction function = (ResolvedFunction) constants[code[pc + 1]];
+                    stack[sp - 1] = function.convertArgument(interpreterContext, code[pc + 2], stack[sp - 1], typeAdapter);
+                    pc += 3;
+                    break;
+                }
+                case INVOKE: {
+                    ResolvedFunction function = (ResolvedFunction) constants[code[pc + 1]];
+                    sp -= function.arguments.length;
+                    stack[sp] = function.invoke(interpreterContext, stack, sp);
+                    sp++;
+                    typeAdapter = function.typeAdapter;
+                    pc += 3;
+                    break;
+                }
+                case FACTOR: {
+                    Object value = stack[sp - 1];
+                    if (value != null && code[pc + 2] != 0) {
+                        DomainType factorType = (DomainType) constants[code[pc + 1]];
+                        stack[sp - 1] = arithmetic((DomainOperatorInterpreter) constants[code[pc + 3]],
+                            factorType, factorType, null, value, null, DomainOperator.UNARY_MINUS);
+                    }
+                    typeAdapter = null;
+                    pc += 4;
+                    break;
+                }
+                case ARITHMETIC: {
+                    Object right = stack[--sp];
+                    if (right != null) {
+                        stack[sp - 1] = arithmetic((DomainOperatorInterpreter) constants[code[pc + 5]], (DomainType) constants[code[pc + 1]],
+                            (DomainType) constants[code[pc + 2]], (DomainType) constants[code[pc + 3]], stack[sp - 1], right, ARITHMETIC_OPERATORS[code[pc + 4]].getDomainOperator());
+                    } else {
+                        stack[sp - 1] = null;
+                    }
+                    typeAdapter = null;
+                    pc += 6;
+                    break;
+                }
+                case COMPARE: {
+                    Object right = stack[--sp];
+                    Boolean result = null;
+                    if (right != null) {
+                        result = compare((ComparisonOperatorInterpreter) constants[code[pc + 6]], (DomainType) constants[code[pc + 2]],
+                            (DomainType) constants[code[pc + 3]], stack[sp - 1], right, COMPARISON_OPERATORS[code[pc + 4]]);
+                        if (result != null && code[pc + 5] != 0) {
+                            result = !result;
+                        }
+                    }
+                    stack[sp - 1] = result;
+                    typeAdapter = null;
+                    pc += 7;
+                    break;
+                }
+                case BETWEEN: {
+                    sp -= 2;
+                    stack[sp - 1] = between((ComparisonOperatorInterpreter) constants[code[pc + 6]], (DomainType) constants[code[pc + 2]],
+                        (DomainType) constants[code[pc + 3]], (DomainType) constants[code[pc + 4]], stack[sp - 1], stack[sp], stack[sp + 1], code[pc + 5] != 0);
+                    typeAdapter = null;
+                    pc += 7;
+                    break;
+                }
+                case IN_LITERALS: {
+                    Boolean contained = containsKey((EqualityKeyProvider) constants[code[pc + 5]],
+                        (DomainType) constants[code[pc + 2]], stack[sp - 1], (LiteralInItems) constants[code[pc + 1]]);
+                    if (contained != null) {
+                        stack[sp - 1] = contained != (code[pc + 3] != 0);
+                        typeAdapter = null;
+                        pc = code[pc + 4];
+                    } else {
+                        pc += 6;
+                    }
+                    break;
+                }
+                case IN_START:
+                case COMPOUND_START:
+                    stack[sp++] = Boolean.FALSE;
+                    pc++;
+                    break;
+                case IN_ITEM: {
+                    Object value = stack[--sp];
+                    Boolean result = value == null ? null : compare((ComparisonOperatorInterpreter) constants[code[pc + 5]],
+                        (DomainType) constants[code[pc + 1]], (DomainType) constants[code[pc + 2]], stack[sp - 2], value, ComparisonOperator.EQUAL);
+                    if (result == null) {
+                        stack[sp - 1] = Boolean.TRUE;
+                    } else if (result) {
+                        // Three-valued logic like in SQL: a match wins over an unknown comparison
+                        stack[--sp - 1] = code[pc + 3] == 0;
+                        typeAdapter = null;
+                        pc = code[pc + 4];
+                        break;
+                    }
+                    pc += 6;
+                    break;
+                }
+                case IN_END: {
+                    Object unknown = stack[--sp];
+                    stack[sp - 1] = unknown == Boolean.TRUE ? null : Boolean.valueOf(code[pc + 2] != 0);
+                    typeAdapter = null;
+                    pc += 5;
+                    break;
+                }
+                case AND_ITEM: {
+                    Object result = stack[--sp];
+                    if (result == null) {
+                        stack[sp - 1] = Boolean.TRUE;
+                    } else if (!Boolean.TRUE.equals(result)) {
+                        stack[sp - 1] = code[pc + 1] != 0;
+                        typeAdapter = null;
+                        pc = code[pc + 2];
+                        break;
+                    }
+                    pc += 3;
+                    break;
+                }
+                case OR_ITEM: {
+                    Object result = stack[--sp];
+                    if (result == null) {
+                        stack[sp - 1] = Boolean.TRUE;
+                    } else if (Boolean.TRUE.equals(result)) {
+                        stack[sp - 1] = code[pc + 1] == 0;
+                        typeAdapter = null;
+                        pc = code[pc + 2];
+                        break;
+                    }
+                    pc += 3;
+                    break;
+                }
+                case COMPOUND_END: {
+                    boolean conjunction = code[pc + 2] != 0;
+                    boolean negated = code[pc + 3] != 0;
+                    if (code[pc + 4] == 0) {
+                        stack[sp - 1] = conjunction == negated;
+                    } else if (stack[sp - 1] == Boolean.TRUE) {
+                        stack[sp - 1] = null;
+                    } else {
+                        stack[sp - 1] = conjunction != negated;
+                    }
+                    typeAdapter = null;
+                    pc += 5;
+                    break;
+                }
+                case IS_NULL:
+                    stack[sp - 1] = (stack[sp - 1] != null) == (code[pc + 2] != 0) ? Boolean.TRUE : Boolean.FALSE;
+                    typeAdapter = null;
+                    pc += 3;
+                    break;
+                case IS_EMPTY: {
+                    Object value = stack[sp - 1];
+                    if (value != null) {
+                        boolean hasNext = ((Iterable<?>) value).iterator().hasNext();
+                        stack[sp - 1] = code[pc + 2] != 0 ? hasNext : !hasNext;
+                    }
+                    typeAdapter = null;
+                    pc += 3;
+                    break;
+                }
+                case PREDICATE: {
+                    Boolean value = (Boolean) stack[sp - 1];
+                    if (value != null) {
+                        stack[sp - 1] = (code[pc + 2] != 0) != value;
+                    }
+                    typeAdapter = null;
+                    pc += 3;
+                    break;
+                }
+                case JUMP_IF_NULL:
+                    if (stack[sp - 1] == null) {
+                        sp -= code[pc + 1];
+                        stack[sp - 1] = null;
+                        typeAdapter = null;
+                        pc = code[pc + 2];
+                    } else {
+                        pc += 3;
+                    }
+                    break;
+                case SHARED_LOAD: {
+                    int slot = code[pc + 1];
+                    Object value = sharedValues[slot];
+                    if (value != null) {
+                        stack[sp++] = value == NULL_VALUE ? null : value;
+                        typeAdapter = sharedTypeAdapters[slot];
+                        pc = code[pc + 2];
+                    } else {
+                        pc += 3;
+                    }
+                    break;
+                }
+                case SHARED_STORE: {
+                    int slot = code[pc + 1];
+                    Object value = stack[sp - 1];
+                    sharedValues[slot] = value == null ? NULL_VALUE : value;
+                    sharedTypeAdapters[slot] = typeAdapter;
+                    pc += 2;
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Invalid opcode " + code[pc] + " at " + pc);
+            }
+        }
+        Object value = stack[0];
+        if (typeAdapter != null) {
+            value = typeAdapter.toModelType(interpreterContext, value, type);
+        }
+        return (T) value;
+    }
+
+    private Expression decode() {
+        final int[] code = this.code;
+        final Object[] constants = this.constants;
+        // The operands of compound and IN predicates stay on the node stack while their values are consumed one by one,
+        // so the node stack can grow beyond the value stack, but every node is produced by an instruction with at least one operand
+        final Expression[] nodes = new Expression[code.length / 2];
+        int sp = 0;
+        int pc = 0;
+        while (pc < code.length) {
+            switch (code[pc]) {
+                case LITERAL:
+                    nodes[sp++] = (Literal) constants[code[pc + 1]];
+                    pc += 2;
+                    break;
+                case COLLECTION:
+                    // The literal already contains the element expressions
+                    sp -= code[pc + 2];
+                    nodes[sp++] = (Literal) constants[code[pc + 1]];
+                    pc += 3;
+                    break;
+                case PARAMETER:
+                    nodes[sp++] = (Parameter) constants[code[pc + 1]];
+                    pc += 2;
+                    break;
+                case PATH:
+                    nodes[sp++] = ((ResolvedPath) constants[code[pc + 1]]).path;
+                    pc += 2;
+                    break;
+                case INVOKE: {
+                    ResolvedFunction function = (ResolvedFunction) constants[code[pc + 1]];
+                    DomainFunctionArgument[] arguments = function.arguments;
+                    sp -= arguments.length;
+                    Map<DomainFunctionArgument, Expression> argumentExpressions = new LinkedHashMap<>(arguments.length);
+                    for (int i = 0; i < arguments.length; i++) {
+                        argumentExpressions.put(arguments[i], nodes[sp + i]);
+                    }
+                    nodes[sp++] = new FunctionInvocation(function.function, argumentExpressions, (DomainType) constants[code[pc + 2]]);
+                    pc += 3;
+                    break;
+                }
+                case FACTOR:
+                    nodes[sp - 1] = new ArithmeticFactor((DomainType) constants[code[pc + 1]], (ArithmeticExpression) nodes[sp - 1], code[pc + 2] != 0);
+                    pc += 4;
+                    break;
+                case ARITHMETIC: {
+                    ArithmeticExpression right = (ArithmeticExpression) nodes[--sp];
+                    nodes[sp - 1] = new ChainingArithmeticExpression(
+                        (DomainType) constants[code[pc + 1]],
+                        (ArithmeticExpression) nodes[sp - 1],
+                        right,
+                        ARITHMETIC_OPERATORS[code[pc + 4]]
+                    );
+                    pc += 6;
+                    break;
+                }
+                case COMPARE: {
+                    ArithmeticExpression right = (ArithmeticExpression) nodes[--sp];
+                    nodes[sp - 1] = new ComparisonPredicate(
+                        (DomainType) constants[code[pc + 1]],
+                        (ArithmeticExpression) nodes[sp - 1],
+                        right,
+                        COMPARISON_OPERATORS[code[pc + 4]],
+                        code[pc + 5] != 0
+                    );
+                    pc += 7;
+                    break;
+                }
+                case BETWEEN: {
+                    ArithmeticExpression upper = (ArithmeticExpression) nodes[--sp];
+                    ArithmeticExpression lower = (ArithmeticExpression) nodes[--sp];
+                    nodes[sp - 1] = new BetweenPredicate((DomainType) constants[code[pc + 1]], (ArithmeticExpression) nodes[sp - 1], upper, lower, code[pc + 5] != 0);
+                    pc += 7;
+                    break;
+                }
+                case IN_END: {
+                    int size = code[pc + 3];
+                    sp -= size;
+                    List<ArithmeticExpression> inItems;
+                    if (code[pc + 4] == -1) {
+                        List<ArithmeticExpression> items = new ArrayList<>(size);
+                        for (int i = 0; i < size; i++) {
+                            items.add((ArithmeticExpression) nodes[sp + i]);
+                        }
+                        inItems = LiteralInItems.of(items);
+                    } else {
+                        // Reusing the literal items also retains the hash set of their equality keys
+                        @SuppressWarnings("unchecked")
+                        List<ArithmeticExpression> literalInItems = (List<ArithmeticExpression>) constants[code[pc + 4]];
+                        inItems = literalInItems;
+                    }
+                    nodes[sp - 1] = new InPredicate((DomainType) constants[code[pc + 1]], (ArithmeticExpression) nodes[sp - 1], inItems, code[pc + 2] != 0);
+                    pc += 5;
+                    break;
+                }
+                case COMPOUND_END: {
+                    int size = code[pc + 4];
+                    sp -= size;
+                    List<Predicate> predicates = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        predicates.add((Predicate) nodes[sp + i]);
+                    }
+                    nodes[sp++] = new CompoundPredicate((DomainType) constants[code[pc + 1]], predicates, code[pc + 2] != 0, code[pc + 3] != 0);
+                    pc += 5;
+                    break;
+                }
+                case IS_NULL:
+                    nodes[sp - 1] = new IsNullPredicate((DomainType) constants[code[pc + 1]], nodes[sp - 1], code[pc + 2] != 0);
+                    pc += 3;
+                    break;
+                case IS_EMPTY:
+                    nodes[sp - 1] = new IsEmptyPredicate((DomainType) constants[code[pc + 1]], nodes[sp - 1], code[pc + 2] != 0);
+                    pc += 3;
+                    break;
+                case PREDICATE:
+                    nodes[sp - 1] = new ExpressionPredicate((DomainType) constants[code[pc + 1]], nodes[sp - 1], code[pc + 2] != 0);
+                    pc += 3;
+                    break;
+                // The control flow instructions don't contribute to the expression tree
+                case IN_START:
+                case COMPOUND_START:
+                    pc++;
+                    break;
+                case SHARED_STORE:
+                    pc += 2;
+                    break;
+                case ARGUMENT:
+                case AND_ITEM:
+                case OR_ITEM:
+                case JUMP_IF_NULL:
+                case SHARED_LOAD:
+                    pc += 3;
+                    break;
+                case IN_LITERALS:
+                case IN_ITEM:
+                    pc += 6;
+                    break;
+                default:
+                    throw new IllegalStateException("Invalid opcode " + code[pc] + " at " + pc);
+            }
+        }
+        return nodes[0];
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static TypeAdapter<Object, Object>[] newTypeAdapters(int length) {
+        return new TypeAdapter[length];
+    }
+
+    private static Boolean between(ComparisonOperatorInterpreter comparisonOperatorInterpreter, DomainType leftType, DomainType lowerType, DomainType upperType, Object left,
+                                   Object lower, Object upper, boolean negated) {
+        Boolean testValue = negated ? Boolean.TRUE : Boolean.FALSE;
+        Boolean compare = compare(comparisonOperatorInterpreter, leftType, lowerType, left, lower, ComparisonOperator.GREATER_OR_EQUAL);
+        if (compare == null) {
+            return null;
+        } else if (testValue.equals(compare)) {
+            return testValue;
+        }
+        compare = compare(comparisonOperatorInterpreter, leftType, upperType, left, upper, ComparisonOperator.LOWER_OR_EQUAL);
+        if (compare == null) {
+            return null;
+        } else if (testValue.equals(compare)) {
+            return testValue;
+        }
+        return Boolean.TRUE;
+    }
+
+    private static Boolean containsKey(EqualityKeyProvider equalityKeyProvider, DomainType leftType, Object left, LiteralInItems inItems) {
+        Object key = equalityKeyProvider.getEqualityKey(leftType, left);
+        if (key == null) {
+            return null;
+        }
+        Set<Object> keys = inItems.getEqualityKeys(equalityKeyProvider);
+        if (keys == null) {
+            return null;
+        }
+        return keys.contains(key);
+    }
+
+    private static Boolean compare(ComparisonOperatorInterpreter comparisonOperatorInterpreter, DomainType leftType, DomainType rightType, Object left, Object right, ComparisonOperator operator) {
+        if (comparisonOperatorInterpreter == null) {
+            throw new IllegalArgumentException("No comparison operator interpreter available for type: " + leftType);
+        }
+        return comparisonOperatorInterpreter.interpret(leftType, rightType, left, right, operator);
+    }
+
+    private static Object arithmetic(DomainOperatorInterpreter domainOperatorInterpreter, DomainType targetType, DomainType leftType, DomainType rightType, Object left, Object right, DomainOperator operator) {
+        if (domainOperatorInterpreter == null) {
+            throw new IllegalArgumentException("No domain operator interpreter available for type: " + targetType);
+        }
+        return domainOperatorInterpreter.interpret(targetType, leftType, rightType, left, right, operator);
+    }
+
+    /**
+     * A path constant with the resolved attribute accessors and type adapters of its attributes.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class ResolvedPath {
+
+        private final Path path;
+        private final String alias;
+        private final EntityDomainTypeAttribute[] attributes;
+        private final AttributeAccessor[] attributeAccessors;
+        private final TypeAdapter<Object, Object>[] typeAdapters;
+        private final TypeAdapter<Object, Object> typeAdapter;
+
+        @SuppressWarnings("unchecked")
+        public ResolvedPath(Path path) {
+            List<EntityDomainTypeAttribute> attributes = path.getAttributes();
+            this.path = path;
+            this.alias = path.getAlias();
+            this.attributes = attributes.toArray(new EntityDomainTypeAttribute[attributes.size()]);
+            this.attributeAccessors = new AttributeAccessor[this.attributes.length];
+            this.typeAdapters = newTypeAdapters(this.attributes.length);
+            for (int i = 0; i < this.attributes.length; i++) {
+                attributeAccessors[i] = this.attributes[i].getMetadata(AttributeAccessor.class);
+                typeAdapters[i] = this.attributes[i].getMetadata(TypeAdapter.class);
+            }
+            this.typeAdapter = this.attributes.length == 0 ? null : typeAdapters[typeAdapters.length - 1];
+        }
+
+        /**
+         * Returns the value of the path for the given root object by invoking the attribute accessors, or {@link #INCOMPLETE_PATH} if an intermediate value is <code>null</code>.
+         *
+         * @param interpreterContext The interpreter context
+         * @param root The root object
+         * @return the path value or {@link #INCOMPLETE_PATH}
+         */
+        public Object getValue(ExpressionInterpreter.Context interpreterContext, Object root) {
+            Object value = root;
+            for (int i = 0; i < attributes.length; i++) {
+                if (value == null) {
+                    return INCOMPLETE_PATH;
+                }
+                AttributeAccessor attributeAccessor = attributeAccessors[i];
+                if (attributeAccessor == null) {
+                    throw new IllegalArgumentException("No attribute accessor available for attribute: " + attributes[i]);
+                }
+                value = attributeAccessor.getAttribute(value, attributes[i]);
+                TypeAdapter<Object, Object> adapter = typeAdapters[i];
+                if (adapter != null) {
+                    value = adapter.toInternalType(interpreterContext, value, attributes[i].getType());
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o || o instanceof ResolvedPath && path.equals(((ResolvedPath) o).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+
+    /**
+     * A function constant with the arguments of an invocation in invocation order and the resolved function invoker and type adapters.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class ResolvedFunction {
+
+        private final DomainFunction function;
+        private final DomainFunctionArgument[] arguments;
+        private final FunctionInvoker invoker;
+        private final IndexedFunctionInvoker indexedInvoker;
+        private final TypeAdapter<Object, Object> typeAdapter;
+        private final TypeAdapter<Object, Object>[] argumentTypeAdapters;
+        private final int argumentsLength;
+
+        @SuppressWarnings("unchecked")
+        public ResolvedFunction(DomainFunction function, DomainFunctionArgument[] arguments) {
+            this.function = function;
+            this.arguments = arguments;
+            this.invoker = function.getMetadata(FunctionInvoker.class);
+            this.indexedInvoker = invoker instanceof IndexedFunctionInvoker ? (IndexedFunctionInvoker) invoker : null;
+            this.typeAdapter = function.getMetadata(TypeAdapter.class);
+            this.argumentTypeAdapters = newTypeAdapters(arguments.length);
+            int length = 0;
+            for (int i = 0; i < arguments.length; i++) {
+                argumentTypeAdapters[i] = arguments[i].getMetadata(TypeAdapter.class);
+                length = Math.max(length, arguments[i].getPosition() + 1);
+            }
+            this.argumentsLength = length;
+        }
+
+        /**
+         * Converts the value of the argument with the given index like the interpreter does.
+         *
+         * @param interpreterContext The interpreter context
+         * @param index The index of the argument in invocation order
+         * @param value The argument value
+         * @param valueTypeAdapter The type adapter of the argument expression or <code>null</code>
+         * @return the converted argument value
+         */
+        public Object convertArgument(ExpressionInterpreter.Context interpreterContext, int index, Object value, TypeAdapter<Object, Object> valueTypeAdapter) {
+            DomainFunctionArgument argument = arguments[index];
+            Object argumentValue = value;
+            if (valueTypeAdapter != null) {
+                argumentValue = valueTypeAdapter.toInternalType(interpreterContext, argumentValue, argument.getType());
+            }
+            TypeAdapter<Object, Object> argumentAdapter = argumentTypeAdapters[index];
+            if (argumentAdapter != null) {
+                argumentValue = argumentAdapter.toModelType(interpreterContext, argumentValue, argument.getType());
+            }
+            return argumentValue;
+        }
+
+        /**
+         * Invokes the function with the argument values that are stored in invocation order in the given stack, starting at the given index.
+         *
+         * @param interpreterContext The interpreter context
+         * @param stack The stack
+         * @param start The index of the first argument value
+         * @return the function result
+         */
+        public Object invoke(ExpressionInterpreter.Context interpreterContext, Object[] stack, int start) {
+            if (invoker == null) {
+                throw new IllegalArgumentException("No function invoker available for function: " + function);
+            }
+            if (indexedInvoker != null) {
+                Object[] argumentValues = argumentsLength == 0 ? EMPTY_ARGUMENTS : new Object[argumentsLength];
+                for (int i = 0; i < arguments.length; i++) {
+                    argumentValues[arguments[i].getPosition()] = stack[start + i];
+                }
+                return indexedInvoker.invoke(interpreterContext, function, argumentValues);
+            }
+            Map<DomainFunctionArgument, Object> argumentValues;
+            if (arguments.length == 0) {
+                argumentValues = Collections.emptyMap();
+            } else {
+                argumentValues = new LinkedHashMap<>(arguments.length);
+                for (int i = 0; i < arguments.length; i++) {
+                    argumentValues.put(arguments[i], stack[start + i]);
+                }
+            }
+            return invoker.invoke(interpreterContext, function, argumentValues);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ResolvedFunction)) {
+                return false;
+            }
+            ResolvedFunction that = (ResolvedFunction) o;
+            return function.equals(that.function) && Arrays.equals(arguments, that.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * function.hashCode() + Arrays.hashCode(arguments);
+        }
+    }
+
+    /**
+     * An encoded predicate.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class EncodedPredicateImpl extends EncodedExpressionImpl implements EncodedPredicate {
+
+        public EncodedPredicateImpl(int[] code, Object[] constants, DomainType type, int maxStack, int sharedSlots) {
+            super(code, constants, type, maxStack, sharedSlots);
+        }
+
+        @Override
+        public Predicate getExpression() {
+            return (Predicate) super.getExpression();
+        }
+
+        @Override
+        public boolean test(ExpressionInterpreter.Context interpreterContext) {
+            return Boolean.TRUE.equals(evaluate(interpreterContext));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.EvaluationCost;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Estimates the relative cost of evaluating an expression based on the {@link EvaluationCost} metadata of functions and attributes.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class EvaluationCostEstimator implements Expression.ResultVisitor<Long> {
+
+    private static final EvaluationCostEstimator INSTANCE = new EvaluationCostEstimator();
+
+    private EvaluationCostEstimator() {
+    }
+
+    /**
+     * Returns the estimated relative cost of evaluating the given expression.
+     *
+     * @param expression The expression
+     * @return the estimated cost
+     */
+    public static long estimate(Expression expression) {
+        return expression.accept(INSTANCE);
+    }
+
+    @Override
+    public Long visit(ArithmeticFactor e) {
+        return (e.isInvertSignum() ? 1L : 0L) + e.getExpression().accept(this);
+    }
+
+    @Override
+    public Long visit(ExpressionPredicate e) {
+        return e.getExpression().accept(this);
+    }
+
+    @Override
+    public Long visit(BetweenPredicate e) {
+        return 2L + e.getLeft().accept(this) + e.getLower().accept(this) + e.getUpper().accept(this);
+    }
+
+    @Override
+    public Long visit(InPredicate e) {
+        long cost = e.getLeft().accept(this);
+        List<ArithmeticExpression> inItems = e.getInItems();
+        for (int i = 0; i < inItems.size(); i++) {
+            cost += 1L + inItems.get(i).accept(this);
+        }
+        return cost;
+    }
+
+    @Override
+    public Long visit(ChainingArithmeticExpression e) {
+        return 1L + e.getLeft().accept(this) + e.getRight().accept(this);
+    }
+
+    @Override
+    public Long visit(CompoundPredicate e) {
+        long cost = 0L;
+        List<Predicate> predicates = e.getPredicates();
+        for (int i = 0; i < predicates.size(); i++) {
+            cost += predicates.get(i).accept(this);
+        }
+        return cost;
+    }
+
+    @Override
+    public Long visit(ComparisonPredicate e) {
+        return 1L + e.getLeft().accept(this) + e.getRight().accept(this);
+    }
+
+    @Override
+    public Long visit(IsNullPredicate e) {
+        return 1L + e.getLeft().accept(this);
+    }
+
+    @Override
+    public Long visit(IsEmptyPredicate e) {
+        return 1L + e.getLeft().accept(this);
+    }
+
+    @Override
+    public Long visit(Path e) {
+        long cost = 0L;
+        List<EntityDomainTypeAttribute> attributes = e.getAttributes();
+        for (int i = 0; i < attributes.size(); i++) {
+            EvaluationCost evaluationCost = attributes.get(i).getMetadata(EvaluationCost.class);
+            if (evaluationCost != null) {
+                cost += evaluationCost.getCost();
+            } else if (i == 0) {
+                cost += EvaluationCost.DEFAULT_ATTRIBUTE_COST;
+            } else {
+                cost += EvaluationCost.DEFAULT_ASSOCIATION_ATTRIBUTE_COST;
+            }
+        }
+        return cost;
+    }
+
+    @Override
+    public Long visit(FunctionInvocation e) {
+        EvaluationCost evaluationCost = e.getFunction().getMetadata(EvaluationCost.class);
+        long cost = evaluationCost == null ? EvaluationCost.DEFAULT_FUNCTION_COST : evaluationCost.getCost();
+        for (Expression argument : e.getArguments().values()) {
+            cost += argument.accept(this);
+        }
+        return cost;
+    }
+
+    @Override
+    public Long visit(Literal e) {
+        long cost = 0L;
+        if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
+            for (Object element : (Collection<?>) e.getValue()) {
+                cost += ((Expression) element).accept(this);
+            }
+        }
+        return cost;
+    }
+
+    @Override
+    public Long visit(Parameter e) {
+        return 0L;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.EvaluationSession;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.Predicate;
+
+/**
+ * An evaluation session that caches path values in its interpreter context.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class EvaluationSessionImpl implements EvaluationSession {
+
+    private final ExpressionInterpreter interpreter;
+    private final SessionContext context;
+
+    public EvaluationSessionImpl(ExpressionInterpreter interpreter, ExpressionInterpreter.Context context) {
+        this.interpreter = interpreter;
+        this.context = new SessionContext(context);
+    }
+
+    /**
+     * Returns the path value cache of the given interpreter context or <code>null</code> if it is not the context of a session.
+     *
+     * @param context The interpreter context
+     * @return the path value cache or <code>null</code>
+     */
+    static PathValueCache getPathValueCache(ExpressionInterpreter.Context context) {
+        if (context instanceof SessionContext) {
+            return ((SessionContext) context).pathValueCache;
+        }
+        return null;
+    }
+
+    @Override
+    public ExpressionInterpreter.Context getContext() {
+        return context;
+    }
+
+    @Override
+    public <T> T evaluate(Expression expression) {
+        return interpreter.evaluate(expression, context);
+    }
+
+    @Override
+    public Boolean evaluate(Predicate predicate) {
+        return interpreter.evaluate(predicate, context);
+    }
+
+    /**
+     * An interpreter context that delegates to another context and holds the session caches.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class SessionContext implements ExpressionInterpreter.Context {
+
+        private final ExpressionInterpreter.Context delegate;
+        private final PathValueCache pathValueCache = new PathValueCache();
+
+        public SessionContext(ExpressionInterpreter.Context delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public <X> X getProperty(String key) {
+            return delegate.getProperty(key);
+        }
+
+        @Override
+        public void setProperty(String key, Object value) {
+            delegate.setProperty(key, value);
+        }
+
+        @Override
+        public <X> X getRoot(String alias) {
+            return delegate.getRoot(alias);
+        }
+
+        @Override
+        public DomainType getRootDomainType(String alias) {
+            return delegate.getRootDomainType(alias);
+        }
+
+        @Override
+        public <X> X getParameter(String name) {
+            return delegate.getParameter(name);
+        }
+
+        @Override
+        public void setParameter(String name, Object value) {
+            delegate.setParameter(name, value);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.spi.TypeAdapter;
+
+/**
+ * A node of a compiled expression that evaluates a single expression node with all metadata already resolved.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+abstract class Evaluator {
+
+    /**
+     * Evaluates the node in the given frame to its internal representation.
+     *
+     * @param frame The evaluation frame
+     * @return the value in internal representation
+     */
+    public abstract Object evaluate(Frame frame);
+
+    /**
+     * Returns the type adapter to convert the result to the model representation or <code>null</code>.
+     *
+     * @return the type adapter or <code>null</code>
+     */
+    public TypeAdapter<Object, Object> getTypeAdapter() {
+        return null;
+    }
+
+    /**
+     * The state of a single evaluation of a compiled expression.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class Frame {
+
+        private final ExpressionInterpreter.Context context;
+        private final Object[] sharedValues;
+        private final PathValueCache pathValueCache;
+
+        public Frame(ExpressionInterpreter.Context context, int sharedSlots) {
+            this.context = context;
+            this.sharedValues = sharedSlots == 0 ? null : new Object[sharedSlots];
+            this.pathValueCache = EvaluationSessionImpl.getPathValueCache(context);
+        }
+
+        public ExpressionInterpreter.Context getContext() {
+            return context;
+        }
+
+        public Object[] getSharedValues() {
+            return sharedValues;
+        }
+
+        public PathValueCache getPathValueCache() {
+            return pathValueCache;
+        }
+    }
+}
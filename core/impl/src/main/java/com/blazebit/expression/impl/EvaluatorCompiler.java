@@ -0,0 +1,1014 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainOperator;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
+import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
+import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.TypeAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles an expression to a tree of evaluators that resolve all metadata like attribute accessors, type adapters,
+ * operator interpreters and function invokers once, instead of on every evaluation like {@link ExpressionInterpreterImpl}.
+ *
+ * The evaluators have the same semantics as the interpreter. Missing metadata is reported when a node is evaluated,
+ * so that a branch that is never evaluated doesn't fail. Since the negation of predicates is captured when compiling,
+ * changes to a predicate after it was compiled are not reflected in the compiled form.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class EvaluatorCompiler implements Expression.ResultVisitor<Evaluator> {
+
+    static final Object NULL_VALUE = new Object();
+    private static final Object[] EMPTY_ARGUMENTS = new Object[0];
+
+    private final int reorderingInterval;
+    private final SharedSlots sharedSlots;
+
+    private EvaluatorCompiler(int reorderingInterval, SharedSlots sharedSlots) {
+        this.reorderingInterval = reorderingInterval;
+        this.sharedSlots = sharedSlots;
+    }
+
+    /**
+     * Compiles the given expression.
+     *
+     * @param expression The expression to compile
+     * @return the compiled expression
+     */
+    public static CompiledExpression compile(Expression expression) {
+        return compile(expression, 0);
+    }
+
+    /**
+     * Compiles the given expression and reorders the operands of compound predicates after the given number of evaluations.
+     *
+     * @param expression The expression to compile
+     * @param reorderingInterval The number of evaluations after which compound predicate operands are reordered or <code>0</code>
+     * @return the compiled expression
+     */
+    public static CompiledExpression compile(Expression expression, int reorderingInterval) {
+        SharedSlots sharedSlots = SharedSlots.of(expression);
+        Evaluator evaluator = compileEvaluator(expression, reorderingInterval, sharedSlots);
+        return new CompiledExpressionImpl(expression, evaluator, sharedSlots.size());
+    }
+
+    /**
+     * Compiles the given predicate.
+     *
+     * @param predicate The predicate to compile
+     * @return the compiled predicate
+     */
+    public static CompiledPredicate compile(Predicate predicate) {
+        return compile(predicate, 0);
+    }
+
+    /**
+     * Compiles the given predicate and reorders the operands of compound predicates after the given number of evaluations.
+     *
+     * @param predicate The predicate to compile
+     * @param reorderingInterval The number of evaluations after which compound predicate operands are reordered or <code>0</code>
+     * @return the compiled predicate
+     */
+    public static CompiledPredicate compile(Predicate predicate, int reorderingInterval) {
+        SharedSlots sharedSlots = SharedSlots.of(predicate);
+        Evaluator evaluator = compileEvaluator(predicate, reorderingInterval, sharedSlots);
+        return new CompiledExpressionImpl.CompiledPredicateImpl(predicate, evaluator, sharedSlots.size());
+    }
+
+    /**
+     * Compiles the given expression to an evaluator that shares values through the given slots.
+     *
+     * @param expression The expression to compile
+     * @param reorderingInterval The number of evaluations after which compound predicate operands are reordered or <code>0</code>
+     * @param sharedSlots The slots of the expression the given expression is part of
+     * @return the evaluator
+     */
+    static Evaluator compileEvaluator(Expression expression, int reorderingInterval, SharedSlots sharedSlots) {
+        return expression.accept(new EvaluatorCompiler(reorderingInterval, sharedSlots));
+    }
+
+    private Evaluator[] compileAll(List<? extends Expression> expressions) {
+        Evaluator[] evaluators = new Evaluator[expressions.size()];
+        for (int i = 0; i < evaluators.length; i++) {
+            evaluators[i] = expressions.get(i).accept(this);
+        }
+        return evaluators;
+    }
+
+    private Evaluator compileShared(Expression e, Evaluator evaluator) {
+        int slot = sharedSlots.getSlot(e);
+        if (slot == -1) {
+            return evaluator;
+        }
+        return new SharedEvaluator(evaluator, slot);
+    }
+
+    @Override
+    public Evaluator visit(ArithmeticFactor e) {
+        Evaluator operand = e.getExpression().accept(this);
+        if (e.isInvertSignum()) {
+            return new UnaryMinusEvaluator(operand, e.getType());
+        }
+        return new ArithmeticFactorEvaluator(operand);
+    }
+
+    @Override
+    public Evaluator visit(ExpressionPredicate e) {
+        return new ExpressionPredicateEvaluator(e.getExpression().accept(this), e.isNegated());
+    }
+
+    @Override
+    public Evaluator visit(BetweenPredicate e) {
+        return new BetweenEvaluator(
+                e.getLeft().accept(this),
+                e.getLower().accept(this),
+                e.getUpper().accept(this),
+                e.getLeft().getType(),
+                e.getLower().getType(),
+                e.getUpper().getType(),
+                e.isNegated()
+        );
+    }
+
+    @Override
+    public Evaluator visit(InPredicate e) {
+        List<ArithmeticExpression> inItems = e.getInItems();
+        DomainType leftType = e.getLeft().getType();
+        DomainType[] itemTypes = new DomainType[inItems.size()];
+        for (int i = 0; i < itemTypes.length; i++) {
+            itemTypes[i] = inItems.get(i).getType();
+        }
+        EqualityKeyProvider equalityKeyProvider = null;
+        Set<Object> keys = null;
+        if (inItems instanceof LiteralInItems) {
+            ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+            if (comparisonOperatorInterpreter instanceof EqualityKeyProvider) {
+                equalityKeyProvider = (EqualityKeyProvider) comparisonOperatorInterpreter;
+                keys = ((LiteralInItems) inItems).getEqualityKeys(equalityKeyProvider);
+            }
+        }
+        return new InEvaluator(e.getLeft().accept(this), compileAll(inItems), leftType, itemTypes, keys == null ? null : equalityKeyProvider, keys, e.isNegated());
+    }
+
+    @Override
+    public Evaluator visit(ChainingArithmeticExpression e) {
+        Evaluator evaluator = new ArithmeticEvaluator(
+                e.getLeft().accept(this),
+                e.getRight().accept(this),
+                e.getType(),
+                e.getLeft().getType(),
+                e.getRight().getType(),
+                e.getOperator().getDomainOperator()
+        );
+        return compileShared(e, evaluator);
+    }
+
+    @Override
+    public Evaluator visit(CompoundPredicate e) {
+        Evaluator[] operands = compileAll(e.getPredicates());
+        if (reorderingInterval > 0 && operands.length > 1) {
+            return new AdaptiveCompoundEvaluator(operands, e.isConjunction(), e.isNegated(), reorderingInterval);
+        }
+        if (e.isConjunction()) {
+            return new ConjunctionEvaluator(operands, e.isNegated());
+        }
+        return new DisjunctionEvaluator(operands, e.isNegated());
+    }
+
+    @Override
+    public Evaluator visit(ComparisonPredicate e) {
+        return new ComparisonEvaluator(
+                e.getLeft().accept(this),
+                e.getRight().accept(this),
+                e.getLeft().getType(),
+                e.getRight().getType(),
+                e.getOperator(),
+                e.isNegated()
+        );
+    }
+
+    @Override
+    public Evaluator visit(IsNullPredicate e) {
+        return new IsNullEvaluator(e.getLeft().accept(this), e.isNegated());
+    }
+
+    @Override
+    public Evaluator visit(IsEmptyPredicate e) {
+        return new IsEmptyEvaluator(e.getLeft().accept(this), e.isNegated());
+    }
+
+    @Override
+    public Evaluator visit(Path e) {
+        Evaluator evaluator;
+        if (e.getAttributes().isEmpty()) {
+            evaluator = new RootEvaluator(e.getAlias());
+        } else {
+            evaluator = new PathEvaluator(e.getAlias(), e.getAttributes());
+        }
+        return compileShared(e, evaluator);
+    }
+
+    @Override
+    public Evaluator visit(FunctionInvocation e) {
+        Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
+        DomainFunctionArgument[] domainFunctionArguments = new DomainFunctionArgument[arguments.size()];
+        Evaluator[] argumentEvaluators = new Evaluator[arguments.size()];
+        int i = 0;
+        for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
+            domainFunctionArguments[i] = entry.getKey();
+            argumentEvaluators[i] = entry.getValue().accept(this);
+            i++;
+        }
+        Evaluator evaluator = new FunctionEvaluator(e.getFunction(), domainFunctionArguments, argumentEvaluators);
+        return compileShared(e, evaluator);
+    }
+
+    @Override
+    public Evaluator visit(Literal e) {
+        if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
+            @SuppressWarnings("unchecked")
+            Collection<Expression> collection = (Collection<Expression>) e.getValue();
+            return new CollectionLiteralEvaluator(compileAll(new ArrayList<>(collection)));
+        }
+        return new LiteralEvaluator(e.getValue());
+    }
+
+    @Override
+    public Evaluator visit(Parameter e) {
+        return new ParameterEvaluator(e.getName());
+    }
+
+    private static Boolean compare(ComparisonOperatorInterpreter comparisonOperatorInterpreter, DomainType leftType, DomainType rightType, Object left, Object right, ComparisonOperator operator) {
+        if (comparisonOperatorInterpreter == null) {
+            throw new IllegalArgumentException("No comparison operator interpreter available for type: " + leftType);
+        }
+        return comparisonOperatorInterpreter.interpret(leftType, rightType, left, right, operator);
+    }
+
+    private static Object arithmetic(DomainOperatorInterpreter domainOperatorInterpreter, DomainType targetType, DomainType leftType, DomainType rightType, Object left, Object right, DomainOperator operator) {
+        if (domainOperatorInterpreter == null) {
+            throw new IllegalArgumentException("No domain operator interpreter available for type: " + targetType);
+        }
+        return domainOperatorInterpreter.interpret(targetType, leftType, rightType, left, right, operator);
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class LiteralEvaluator extends Evaluator {
+        private final Object value;
+
+        public LiteralEvaluator(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            return value;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class CollectionLiteralEvaluator extends Evaluator {
+        private final Evaluator[] elements;
+
+        public CollectionLiteralEvaluator(Evaluator[] elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            if (elements.length == 0) {
+                return Collections.emptyList();
+            }
+            List<Object> resolved = new ArrayList<>(elements.length);
+            for (int i = 0; i < elements.length; i++) {
+                resolved.add(elements[i].evaluate(frame));
+            }
+            return resolved;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ParameterEvaluator extends Evaluator {
+        private final String name;
+
+        public ParameterEvaluator(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            return frame.getContext().getParameter(name);
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class RootEvaluator extends Evaluator {
+        private final String alias;
+
+        public RootEvaluator(String alias) {
+            this.alias = alias;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            return frame.getContext().getRoot(alias);
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class PathEvaluator extends Evaluator {
+        private final String alias;
+        private final List<EntityDomainTypeAttribute> attributeList;
+        private final EntityDomainTypeAttribute[] attributes;
+        private final AttributeAccessor[] attributeAccessors;
+        private final TypeAdapter<Object, Object>[] typeAdapters;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public PathEvaluator(String alias, List<EntityDomainTypeAttribute> attributes) {
+            this.alias = alias;
+            this.attributeList = attributes;
+            this.attributes = attributes.toArray(new EntityDomainTypeAttribute[attributes.size()]);
+            this.attributeAccessors = new AttributeAccessor[this.attributes.length];
+            this.typeAdapters = new TypeAdapter[this.attributes.length];
+            for (int i = 0; i < this.attributes.length; i++) {
+                attributeAccessors[i] = this.attributes[i].getMetadata(AttributeAccessor.class);
+                typeAdapters[i] = this.attributes[i].getMetadata(TypeAdapter.class);
+            }
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            PathValueCache pathValueCache = frame.getPathValueCache();
+            if (pathValueCache != null) {
+                return pathValueCache.getValue(frame.getContext(), alias, attributeList);
+            }
+            Object value = frame.getContext().getRoot(alias);
+            for (int i = 0; i < attributes.length; i++) {
+                if (value == null) {
+                    return null;
+                }
+                AttributeAccessor attributeAccessor = attributeAccessors[i];
+                if (attributeAccessor == null) {
+                    throw new IllegalArgumentException("No attribute accessor available for attribute: " + attributes[i]);
+                }
+                value = attributeAccessor.getAttribute(value, attributes[i]);
+                if (typeAdapters[i] != null) {
+                    value = typeAdapters[i].toInternalType(frame.getContext(), value, attributes[i].getType());
+                }
+            }
+            return value;
+        }
+
+        @Override
+        public TypeAdapter<Object, Object> getTypeAdapter() {
+            return typeAdapters[typeAdapters.length - 1];
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class FunctionEvaluator extends Evaluator {
+        private final DomainFunction function;
+        private final FunctionInvoker functionInvoker;
+        private final TypeAdapter<Object, Object> typeAdapter;
+        private final DomainFunctionArgument[] arguments;
+        private final Evaluator[] argumentEvaluators;
+        private final TypeAdapter<Object, Object>[] argumentValueAdapters;
+        private final TypeAdapter<Object, Object>[] argumentAdapters;
+        private final int argumentArrayLength;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        public FunctionEvaluator(DomainFunction function, DomainFunctionArgument[] arguments, Evaluator[] argumentEvaluators) {
+            this.function = function;
+            this.functionInvoker = function.getMetadata(FunctionInvoker.class);
+            int argumentArrayLength = 0;
+            for (int i = 0; i < arguments.length; i++) {
+                argumentArrayLength = Math.max(argumentArrayLength, arguments[i].getPosition() + 1);
+            }
+            this.argumentArrayLength = argumentArrayLength;
+            this.typeAdapter = function.getMetadata(TypeAdapter.class);
+            this.arguments = arguments;
+            this.argumentEvaluators = argumentEvaluators;
+            this.argumentValueAdapters = new TypeAdapter[arguments.length];
+            this.argumentAdapters = new TypeAdapter[arguments.length];
+            for (int i = 0; i < arguments.length; i++) {
+                argumentValueAdapters[i] = argumentEvaluators[i].getTypeAdapter();
+                argumentAdapters[i] = arguments[i].getMetadata(TypeAdapter.class);
+            }
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            if (functionInvoker == null) {
+                throw new IllegalArgumentException("No function invoker available for function: " + function);
+            }
+            if (functionInvoker instanceof IndexedFunctionInvoker) {
+                Object[] argumentValues = argumentArrayLength == 0 ? EMPTY_ARGUMENTS : new Object[argumentArrayLength];
+                for (int i = 0; i < arguments.length; i++) {
+                    argumentValues[arguments[i].getPosition()] = evaluateArgument(frame, i);
+                }
+                return ((IndexedFunctionInvoker) functionInvoker).invoke(frame.getContext(), function, argumentValues);
+            }
+            Map<DomainFunctionArgument, Object> argumentValues;
+            if (arguments.length == 0) {
+                argumentValues = Collections.emptyMap();
+            } else {
+                argumentValues = new LinkedHashMap<>(arguments.length);
+                for (int i = 0; i < arguments.length; i++) {
+                    argumentValues.put(arguments[i], evaluateArgument(frame, i));
+                }
+            }
+            return functionInvoker.invoke(frame.getContext(), function, argumentValues);
+        }
+
+        private Object evaluateArgument(Frame frame, int i) {
+            Object argumentValue = argumentEvaluators[i].evaluate(frame);
+            if (argumentValueAdapters[i] != null) {
+                argumentValue = argumentValueAdapters[i].toInternalType(frame.getContext(), argumentValue, arguments[i].getType());
+            }
+            if (argumentAdapters[i] != null) {
+                argumentValue = argumentAdapters[i].toModelType(frame.getContext(), argumentValue, arguments[i].getType());
+            }
+            return argumentValue;
+        }
+
+        @Override
+        public TypeAdapter<Object, Object> getTypeAdapter() {
+            return typeAdapter;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class SharedEvaluator extends Evaluator {
+        private final Evaluator evaluator;
+        private final int slot;
+
+        public SharedEvaluator(Evaluator evaluator, int slot) {
+            this.evaluator = evaluator;
+            this.slot = slot;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object[] values = frame.getSharedValues();
+            Object value = values[slot];
+            if (value != null) {
+                return value == NULL_VALUE ? null : value;
+            }
+            value = evaluator.evaluate(frame);
+            values[slot] = value == null ? NULL_VALUE : value;
+            return value;
+        }
+
+        @Override
+        public TypeAdapter<Object, Object> getTypeAdapter() {
+            return evaluator.getTypeAdapter();
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ArithmeticFactorEvaluator extends Evaluator {
+        private final Evaluator operand;
+
+        public ArithmeticFactorEvaluator(Evaluator operand) {
+            this.operand = operand;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            return operand.evaluate(frame);
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class UnaryMinusEvaluator extends Evaluator {
+        private final Evaluator operand;
+        private final DomainType type;
+        private final DomainOperatorInterpreter domainOperatorInterpreter;
+
+        public UnaryMinusEvaluator(Evaluator operand, DomainType type) {
+            this.operand = operand;
+            this.type = type;
+            this.domainOperatorInterpreter = type.getMetadata(DomainOperatorInterpreter.class);
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object result = operand.evaluate(frame);
+            if (result == null) {
+                return null;
+            }
+            return arithmetic(domainOperatorInterpreter, type, type, null, result, null, DomainOperator.UNARY_MINUS);
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ArithmeticEvaluator extends Evaluator {
+        private final Evaluator left;
+        private final Evaluator right;
+        private final DomainType type;
+        private final DomainType leftType;
+        private final DomainType rightType;
+        private final DomainOperator operator;
+        private final DomainOperatorInterpreter domainOperatorInterpreter;
+
+        public ArithmeticEvaluator(Evaluator left, Evaluator right, DomainType type, DomainType leftType, DomainType rightType, DomainOperator operator) {
+            this.left = left;
+            this.right = right;
+            this.type = type;
+            this.leftType = leftType;
+            this.rightType = rightType;
+            this.operator = operator;
+            this.domainOperatorInterpreter = type.getMetadata(DomainOperatorInterpreter.class);
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object leftValue = left.evaluate(frame);
+            if (leftValue == null) {
+                return null;
+            }
+            Object rightValue = right.evaluate(frame);
+            if (rightValue == null) {
+                return null;
+            }
+            return arithmetic(domainOperatorInterpreter, type, leftType, rightType, leftValue, rightValue, operator);
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ExpressionPredicateEvaluator extends Evaluator {
+        private final Evaluator operand;
+        private final boolean negated;
+
+        public ExpressionPredicateEvaluator(Evaluator operand, boolean negated) {
+            this.operand = operand;
+            this.negated = negated;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Boolean result = (Boolean) operand.evaluate(frame);
+            if (result == null) {
+                return null;
+            }
+            return negated != result;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ComparisonEvaluator extends Evaluator {
+        private final Evaluator left;
+        private final Evaluator right;
+        private final DomainType leftType;
+        private final DomainType rightType;
+        private final ComparisonOperator operator;
+        private final boolean negated;
+        private final ComparisonOperatorInterpreter comparisonOperatorInterpreter;
+
+        public ComparisonEvaluator(Evaluator left, Evaluator right, DomainType leftType, DomainType rightType, ComparisonOperator operator, boolean negated) {
+            this.left = left;
+            this.right = right;
+            this.leftType = leftType;
+            this.rightType = rightType;
+            this.operator = operator;
+            this.negated = negated;
+            this.comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object leftValue = left.evaluate(frame);
+            if (leftValue == null) {
+                return null;
+            }
+            Object rightValue = right.evaluate(frame);
+            if (rightValue == null) {
+                return null;
+            }
+            Boolean compare = compare(comparisonOperatorInterpreter, leftType, rightType, leftValue, rightValue, operator);
+            if (compare == null) {
+                return null;
+            }
+            return negated != compare;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class BetweenEvaluator extends Evaluator {
+        private final Evaluator left;
+        private final Evaluator lower;
+        private final Evaluator upper;
+        private final DomainType leftType;
+        private final DomainType lowerType;
+        private final DomainType upperType;
+        private final Boolean testValue;
+        private final ComparisonOperatorInterpreter comparisonOperatorInterpreter;
+
+        public BetweenEvaluator(Evaluator left, Evaluator lower, Evaluator upper, DomainType leftType, DomainType lowerType, DomainType upperType, boolean negated) {
+            this.left = left;
+            this.lower = lower;
+            this.upper = upper;
+            this.leftType = leftType;
+            this.lowerType = lowerType;
+            this.upperType = upperType;
+            this.testValue = negated;
+            this.comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object leftValue = left.evaluate(frame);
+            if (leftValue == null) {
+                return null;
+            }
+            Object lowerValue = lower.evaluate(frame);
+            if (lowerValue == null) {
+                return null;
+            }
+            Object upperValue = upper.evaluate(frame);
+            if (upperValue == null) {
+                return null;
+            }
+            Boolean compare = compare(comparisonOperatorInterpreter, leftType, lowerType, leftValue, lowerValue, ComparisonOperator.GREATER_OR_EQUAL);
+            if (compare == null) {
+                return null;
+            } else if (testValue.equals(compare)) {
+                return testValue;
+            }
+            compare = compare(comparisonOperatorInterpreter, leftType, upperType, leftValue, upperValue, ComparisonOperator.LOWER_OR_EQUAL);
+            if (compare == null) {
+                return null;
+            } else if (testValue.equals(compare)) {
+                return testValue;
+            }
+            return Boolean.TRUE;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class InEvaluator extends Evaluator {
+        private final Evaluator left;
+        private final Evaluator[] items;
+        private final DomainType leftType;
+        private final DomainType[] itemTypes;
+        private final EqualityKeyProvider equalityKeyProvider;
+        private final Set<Object> keys;
+        private final boolean negated;
+        private final ComparisonOperatorInterpreter comparisonOperatorInterpreter;
+
+        public InEvaluator(Evaluator left, Evaluator[] items, DomainType leftType, DomainType[] itemTypes, EqualityKeyProvider equalityKeyProvider, Set<Object> keys, boolean negated) {
+            this.left = left;
+            this.items = items;
+            this.leftType = leftType;
+            this.itemTypes = itemTypes;
+            this.equalityKeyProvider = equalityKeyProvider;
+            this.keys = keys;
+            this.negated = negated;
+            this.comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object leftValue = left.evaluate(frame);
+            if (leftValue == null) {
+                return null;
+            }
+            if (keys != null) {
+                Object key = equalityKeyProvider.getEqualityKey(leftType, leftValue);
+                if (key != null) {
+                    return keys.contains(key) != negated;
+                }
+            }
+            boolean unknown = false;
+            for (int i = 0; i < items.length; i++) {
+                Object value = items[i].evaluate(frame);
+                Boolean b = value == null ? null : compare(comparisonOperatorInterpreter, leftType, itemTypes[i], leftValue, value, ComparisonOperator.EQUAL);
+                if (b == null) {
+                    unknown = true;
+                } else if (b) {
+                    return !negated;
+                }
+            }
+            return unknown ? null : negated;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ConjunctionEvaluator extends Evaluator {
+        private final Evaluator[] operands;
+        private final boolean negated;
+
+        public ConjunctionEvaluator(Evaluator[] operands, boolean negated) {
+            this.operands = operands;
+            this.negated = negated;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            if (operands.length == 0) {
+                return negated;
+            }
+            boolean unknown = false;
+            for (int i = 0; i < operands.length; i++) {
+                Object result = operands[i].evaluate(frame);
+                if (result == null) {
+                    unknown = true;
+                } else if (!Boolean.TRUE.equals(result)) {
+                    return negated;
+                }
+            }
+            return unknown ? null : !negated;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class DisjunctionEvaluator extends Evaluator {
+        private final Evaluator[] operands;
+        private final boolean negated;
+
+        public DisjunctionEvaluator(Evaluator[] operands, boolean negated) {
+            this.operands = operands;
+            this.negated = negated;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            if (operands.length == 0) {
+                return !negated;
+            }
+            boolean unknown = false;
+            for (int i = 0; i < operands.length; i++) {
+                Object result = operands[i].evaluate(frame);
+                if (result == null) {
+                    unknown = true;
+                } else if (Boolean.TRUE.equals(result)) {
+                    return !negated;
+                }
+            }
+            return unknown ? null : negated;
+        }
+    }
+
+    /**
+     * A conjunction or disjunction that samples the cost and the short-circuit rate of its operands and periodically
+     * reorders them so that the operands with the lowest cost per decided evaluation are evaluated first.
+     * The result is independent of the operand order, because an operand that determines the result wins over an unknown operand.
+     *
+     * The statistics are updated without synchronization, as lost updates of concurrent evaluations only reduce the sample size.
+     * The order and the statistics of a window are published together, so that a reordering never mixes windows.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class AdaptiveCompoundEvaluator extends Evaluator {
+        // Measuring the time of every evaluation would cost more than cheap operands, so only every 8th evaluation is timed
+        private static final int TIMING_MASK = 7;
+
+        private final Evaluator[] operands;
+        private final boolean conjunction;
+        private final boolean negated;
+        private final int reorderingInterval;
+        private volatile Window window;
+
+        public AdaptiveCompoundEvaluator(Evaluator[] operands, boolean conjunction, boolean negated, int reorderingInterval) {
+            this.operands = operands;
+            this.conjunction = conjunction;
+            this.negated = negated;
+            this.reorderingInterval = reorderingInterval;
+            int[] order = new int[operands.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            this.window = new Window(order);
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Window window = this.window;
+            int evaluation = window.evaluations++;
+            if (evaluation == reorderingInterval) {
+                window = this.window = window.reorder();
+            }
+            boolean timed = (evaluation & TIMING_MASK) == 0;
+            int[] order = window.order;
+            boolean unknown = false;
+            for (int i = 0; i < order.length; i++) {
+                int index = order[i];
+                long start = timed ? System.nanoTime() : 0L;
+                Object result = operands[index].evaluate(frame);
+                if (timed) {
+                    window.nanos[index] += System.nanoTime() - start;
+                    window.timedCounts[index]++;
+                }
+                window.counts[index]++;
+                if (result == null) {
+                    unknown = true;
+                } else if (conjunction != Boolean.TRUE.equals(result)) {
+                    window.decidedCounts[index]++;
+                    return conjunction == negated;
+                }
+            }
+            return unknown ? null : conjunction != negated;
+        }
+
+        /**
+         * The operand order and the operand statistics collected while evaluating with that order.
+         *
+         * @author Christian Beikov
+         * @since 1.0.0
+         */
+        private static final class Window {
+            private final int[] order;
+            private final long[] nanos;
+            private final int[] timedCounts;
+            private final int[] counts;
+            private final int[] decidedCounts;
+            private int evaluations;
+
+            public Window(int[] order) {
+                this.order = order;
+                this.nanos = new long[order.length];
+                this.timedCounts = new int[order.length];
+                this.counts = new int[order.length];
+                this.decidedCounts = new int[order.length];
+            }
+
+            public Window reorder() {
+                // Evaluating an operand with cost c that decides the result with probability p before one with cost c' and probability p'
+                // is cheaper if c / p < c' / p', so sorting by that rank minimizes the expected cost for independent operands
+                final double[] ranks = new double[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    int index = order[i];
+                    if (counts[index] == 0) {
+                        // Operands that were never reached keep their position behind the ones that decided the result
+                        ranks[index] = Double.POSITIVE_INFINITY;
+                    } else {
+                        double cost = timedCounts[index] == 0 ? 1d : 1d + (double) nanos[index] / timedCounts[index];
+                        double decidedRate = (double) decidedCounts[index] / counts[index];
+                        ranks[index] = decidedRate == 0d ? Double.MAX_VALUE : cost / decidedRate;
+                    }
+                }
+                Integer[] newOrder = new Integer[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    newOrder[i] = order[i];
+                }
+                // The sort is stable, so operands with the same rank keep their relative order
+                Arrays.sort(newOrder, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer o1, Integer o2) {
+                        return Double.compare(ranks[o1], ranks[o2]);
+                    }
+                });
+                int[] order = new int[newOrder.length];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = newOrder[i];
+                }
+                return new Window(order);
+            }
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class IsNullEvaluator extends Evaluator {
+        private final Evaluator operand;
+        private final boolean negated;
+
+        public IsNullEvaluator(Evaluator operand, boolean negated) {
+            this.operand = operand;
+            this.negated = negated;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            return (operand.evaluate(frame) != null) == negated ? Boolean.TRUE : Boolean.FALSE;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class IsEmptyEvaluator extends Evaluator {
+        private final Evaluator operand;
+        private final boolean negated;
+
+        public IsEmptyEvaluator(Evaluator operand, boolean negated) {
+            this.operand = operand;
+            this.negated = negated;
+        }
+
+        @Override
+        public Object evaluate(Frame frame) {
+            Object value = operand.evaluate(frame);
+            if (value == null) {
+                return null;
+            }
+            return ((Iterable<?>) value).iterator().hasNext() == negated;
+        }
+    }
+}
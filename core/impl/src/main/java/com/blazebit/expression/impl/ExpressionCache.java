@@ -0,0 +1,275 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.Expression;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe, bounded cache for compiled expressions with LRU eviction.
+ *
+ * The cache is split into segments that are locked independently, so the LRU order and the size and weight bounds are maintained per segment.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a new expression cache with the given bounds.
+     *
+     * @param maximumSize The maximum number of entries
+     * @param maximumWeight The maximum total weight of all entries
+     */
+    public ExpressionCache(int maximumSize, long maximumWeight) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Invalid maximum size: " + maximumSize);
+        }
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Invalid maximum weight: " + maximumWeight);
+        }
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 * MIN_SEGMENT_SIZE <= maximumSize) {
+            segmentCount *= 2;
+        }
+        this.segments = new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        int segmentSize = (maximumSize + segmentCount - 1) / segmentCount;
+        long segmentWeight = maximumWeight == Long.MAX_VALUE ? Long.MAX_VALUE : (maximumWeight + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentSize, segmentWeight);
+        }
+    }
+
+    /**
+     * Returns the cached expression for the given key or <code>null</code>.
+     *
+     * @param key The cache key
+     * @param <T> The expression type
+     * @return the cached expression or <code>null</code>
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Expression> T get(Key key) {
+        Expression expression = segmentFor(key).get(key);
+        if (expression == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return (T) expression;
+    }
+
+    /**
+     * Puts the given expression into the cache for the given key, possibly evicting the least recently used entries.
+     *
+     * @param key The cache key
+     * @param expression The compiled expression
+     */
+    public void put(Key key, Expression expression) {
+        evictionCount.add(segmentFor(key).put(key, expression));
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns the number of cache hits.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of cache misses.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of entries that were evicted because a bound was exceeded.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Returns the current number of entries.
+     *
+     * @return the current number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the current total weight of all entries.
+     *
+     * @return the current total weight
+     */
+    public long weight() {
+        long weight = 0;
+        for (Segment segment : segments) {
+            weight += segment.weight();
+        }
+        return weight;
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        return segments[h & segmentMask];
+    }
+
+    /**
+     * A cache key for a compiled expression.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    public static final class Key {
+
+        private final String expressionString;
+        private final Object rule;
+        private final Object contextSignature;
+        private final int hash;
+
+        /**
+         * Creates a new cache key.
+         *
+         * @param expressionString The expression string
+         * @param rule The parse rule
+         * @param contextSignature The signature of the compile context which must implement equals and hashCode
+         */
+        public Key(String expressionString, Object rule, Object contextSignature) {
+            this.expressionString = expressionString;
+            this.rule = rule;
+            this.contextSignature = contextSignature;
+            int h = expressionString.hashCode();
+            h = 31 * h + rule.hashCode();
+            h = 31 * h + contextSignature.hashCode();
+            this.hash = h;
+        }
+
+        int getWeight() {
+            return expressionString.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash
+                    && rule == key.rule
+                    && expressionString.equals(key.expressionString)
+                    && contextSignature.equals(key.contextSignature);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class Segment {
+
+        private final int maximumSize;
+        private final long maximumWeight;
+        private final LinkedHashMap<Key, Expression> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        public Segment(int maximumSize, long maximumWeight) {
+            this.maximumSize = maximumSize;
+            this.maximumWeight = maximumWeight;
+        }
+
+        public synchronized Expression get(Key key) {
+            return map.get(key);
+        }
+
+        public synchronized int put(Key key, Expression expression) {
+            Expression old = map.put(key, expression);
+            if (old == null) {
+                weight += key.getWeight();
+            }
+            int evicted = 0;
+            Iterator<Map.Entry<Key, Expression>> iterator = map.entrySet().iterator();
+            while ((map.size() > maximumSize || weight > maximumWeight) && iterator.hasNext()) {
+                Map.Entry<Key, Expression> eldest = iterator.next();
+                // Keep the newly added entry even if it exceeds the weight bound on its own
+                if (eldest.getKey() == key && map.size() == 1) {
+                    break;
+                }
+                iterator.remove();
+                weight -= eldest.getKey().getWeight();
+                evicted++;
+            }
+            return evicted;
+        }
+
+        public synchronized void clear() {
+            map.clear();
+            weight = 0;
+        }
+
+        public synchronized int size() {
+            return map.size();
+        }
+
+        public synchronized long weight() {
+            return weight;
+        }
+    }
+}
@@ -23,19 +23,25 @@ import com.blazebit.expression.ExpressionCompiler;
 import com.blazebit.expression.Predicate;
 import com.blazebit.expression.SyntaxErrorException;
 import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.LexerNoViableAltException;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.dfa.DFA;
 import org.antlr.v4.runtime.misc.IntervalSet;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -66,15 +72,49 @@ public class ExpressionCompilerImpl implements ExpressionCompiler {
 
     private final DomainModel domainModel;
     private final LiteralFactory literalFactory;
+    private final ExpressionCache expressionCache;
+    private final ParsingStrategy parsingStrategy;
+    private final TypeResolutionTable typeResolutionTable;
+    private final ExpressionInterner interner;
 
     public ExpressionCompilerImpl(DomainModel domainModel, LiteralFactory literalFactory) {
+        this(domainModel, literalFactory, null);
+    }
+
+    public ExpressionCompilerImpl(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache) {
+        this(domainModel, literalFactory, expressionCache, ParsingStrategy.TWO_STAGE);
+    }
+
+    public ExpressionCompilerImpl(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache, ParsingStrategy parsingStrategy) {
+        this(domainModel, literalFactory, expressionCache, parsingStrategy, new TypeResolutionTable(domainModel));
+    }
+
+    public ExpressionCompilerImpl(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache, ParsingStrategy parsingStrategy, TypeResolutionTable typeResolutionTable) {
+        this(domainModel, literalFactory, expressionCache, parsingStrategy, typeResolutionTable, null);
+    }
+
+    ExpressionCompilerImpl(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache, ParsingStrategy parsingStrategy, TypeResolutionTable typeResolutionTable, ExpressionInterner interner) {
         this.domainModel = domainModel;
         this.literalFactory = literalFactory;
+        this.expressionCache = expressionCache;
+        this.parsingStrategy = parsingStrategy;
+        this.typeResolutionTable = typeResolutionTable;
+        this.interner = interner;
     }
 
     @Override
     public Context createContext(Map<String, DomainType> rootDomainTypes) {
-        return new CompileContext(rootDomainTypes);
+        return new CompileContext(rootDomainTypes, Collections.<String, Object>emptyMap(), Collections.<String, DomainType>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties) {
+        return new CompileContext(rootDomainTypes, properties, Collections.<String, DomainType>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties, Map<String, DomainType> parameterDomainTypes) {
+        return new CompileContext(rootDomainTypes, properties, parameterDomainTypes);
     }
 
     @Override
@@ -96,23 +136,105 @@ public class ExpressionCompilerImpl implements ExpressionCompiler {
         return literalFactory;
     }
 
-    @SuppressWarnings("unchecked")
+    public ExpressionCache getExpressionCache() {
+        return expressionCache;
+    }
+
+    public ParsingStrategy getParsingStrategy() {
+        return parsingStrategy;
+    }
+
+    public TypeResolutionTable getTypeResolutionTable() {
+        return typeResolutionTable;
+    }
+
     <T extends Expression> T parse(String input, RuleInvoker<T> ruleInvoker, Context compileContext) {
+        // Only our own compile context allows to determine the full set of root variables and properties which is part of the cache key
+        if (expressionCache == null || !(compileContext instanceof CompileContext)) {
+            return compile(input, ruleInvoker, compileContext);
+        }
+        T expression = expressionCache.get(new ExpressionCache.Key(input, ruleInvoker, compileContext));
+        if (expression == null) {
+            expression = compile(input, ruleInvoker, compileContext);
+            expressionCache.put(new ExpressionCache.Key(input, ruleInvoker, ((CompileContext) compileContext).copy()), expression);
+        }
+        return expression;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Expression> T compile(String input, RuleInvoker<T> ruleInvoker, Context compileContext) {
         PredicateLexer lexer = new PredicateLexer(CharStreams.fromString(input));
         lexer.removeErrorListeners();
         lexer.addErrorListener(ERROR_LISTENER);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         PredicateParser parser = new PredicateParser(tokens);
         parser.removeErrorListeners();
-        parser.addErrorListener(ERROR_LISTENER);
 
-        ParserRuleContext ctx = ruleInvoker.invokeRule(parser);
+        ParserRuleContext ctx;
+        if (parsingStrategy == ParsingStrategy.TWO_STAGE) {
+            // SLL prediction is sufficient for almost all inputs, so only fall back to full LL prediction if it fails
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(new BailErrorStrategy());
+            try {
+                ctx = ruleInvoker.invokeRule(parser);
+            } catch (ParseCancellationException ex) {
+                parser.reset();
+                parser.addErrorListener(ERROR_LISTENER);
+                parser.setErrorHandler(new DefaultErrorStrategy());
+                parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+                ctx = ruleInvoker.invokeRule(parser);
+            }
+        } else {
+            parser.addErrorListener(ERROR_LISTENER);
+            ctx = ruleInvoker.invokeRule(parser);
+        }
         if (input.length() != ctx.getStop().getStopIndex() + 1) {
             throw new SyntaxErrorException("Parsing stopped at index " + ctx.getStop().getStopIndex() + "! Illegal unexpected suffix: '" + input.substring(ctx.getStop().getStopIndex() + 1) + "'");
         }
 
-        PredicateModelGenerator visitor = new PredicateModelGenerator(domainModel, literalFactory, compileContext);
-        return (T) visitor.visit(ctx);
+        ExpressionModelFactory modelFactory = new ExpressionModelFactory(domainModel, literalFactory, compileContext, typeResolutionTable);
+        return (T) postProcess(new PredicateModelGenerator(modelFactory).visit(ctx), modelFactory, compileContext, interner);
+    }
+
+    /**
+     * Applies the compile time transformations that are enabled in the given compile context to the given compiled expression.
+     *
+     * @param expression The compiled expression
+     * @param modelFactory The model factory that was used to build the expression
+     * @param compileContext The compile context
+     * @param interner The interner for the nodes of the expression or <code>null</code>
+     * @return the transformed expression
+     */
+    static Expression postProcess(Expression expression, ExpressionModelFactory modelFactory, ExpressionCompiler.Context compileContext, ExpressionInterner interner) {
+        modelFactory.requireParameterType(expression);
+        if (ConstantFolder.isEnabled(compileContext)) {
+            expression = new ConstantFolder(modelFactory).fold(expression);
+        }
+        // Interning happens before eliminating common subexpressions, as shared subexpressions are bound to the slots of a single expression
+        if (interner != null) {
+            expression = interner.intern(expression);
+        }
+        if (CommonSubexpressionEliminator.isEnabled(compileContext)) {
+            expression = CommonSubexpressionEliminator.eliminate(expression);
+        }
+        return expression;
+    }
+
+    /**
+     * Returns the value of the boolean compile property with the given key, which may be a {@link Boolean} or a string.
+     *
+     * @param compileContext The compile context
+     * @param key The property key
+     * @return the property value or <code>false</code> if the property is not set
+     */
+    static boolean getBooleanProperty(ExpressionCompiler.Context compileContext, String key) {
+        Object value = compileContext.getProperty(key);
+        if (value == null) {
+            return false;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.parseBoolean(value.toString().trim());
     }
 
     public interface RuleInvoker<T extends Expression> {
@@ -162,17 +284,66 @@ public class ExpressionCompilerImpl implements ExpressionCompiler {
      * @author Christian Beikov
      * @since 1.0.0
      */
-    private static class CompileContext implements ExpressionCompiler.Context {
+    static class CompileContext implements ExpressionCompiler.Context {
 
         private final Map<String, DomainType> rootDomainTypes;
+        private final Map<String, Object> properties;
+        private final Map<String, DomainType> parameterDomainTypes;
 
-        public CompileContext(Map<String, DomainType> rootDomainTypes) {
+        public CompileContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties) {
+            this(rootDomainTypes, properties, Collections.<String, DomainType>emptyMap());
+        }
+
+        public CompileContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties, Map<String, DomainType> parameterDomainTypes) {
             this.rootDomainTypes = rootDomainTypes;
+            this.properties = properties;
+            this.parameterDomainTypes = parameterDomainTypes;
+        }
+
+        /**
+         * Returns a copy of this context that is unaffected by changes to the maps of this context, suitable for use in a cache key.
+         *
+         * @return a copy of this context
+         */
+        public CompileContext copy() {
+            return new CompileContext(
+                    new HashMap<>(rootDomainTypes),
+                    properties.isEmpty() ? Collections.<String, Object>emptyMap() : new HashMap<>(properties),
+                    parameterDomainTypes.isEmpty() ? Collections.<String, DomainType>emptyMap() : new HashMap<>(parameterDomainTypes)
+            );
         }
 
         @Override
         public DomainType getRootDomainType(String alias) {
             return rootDomainTypes.get(alias);
         }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <X> X getProperty(String key) {
+            return (X) properties.get(key);
+        }
+
+        @Override
+        public DomainType getParameterDomainType(String name) {
+            return parameterDomainTypes.get(name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CompileContext)) {
+                return false;
+            }
+            CompileContext that = (CompileContext) o;
+            return rootDomainTypes.equals(that.rootDomainTypes) && properties.equals(that.properties) && parameterDomainTypes.equals(that.parameterDomainTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * rootDomainTypes.hashCode() + properties.hashCode()) + parameterDomainTypes.hashCode();
+        }
     }
 }
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+/**
+ * The implementation used for compiling expression strings.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public enum ExpressionCompilerType {
+
+    /**
+     * Compiles with the generated parser, see {@link ExpressionCompilerImpl}. This is the default.
+     */
+    ANTLR,
+    /**
+     * Compiles with the hand-written parser, see {@link PrattExpressionCompiler}.
+     */
+    PRATT;
+}
@@ -0,0 +1,412 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.EncodedExpression;
+import com.blazebit.expression.EncodedPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
+import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes an expression as a linear array of postfix instructions, which is executed by the stack machine of {@link EncodedExpressionImpl}.
+ * An instruction is an opcode followed by a fixed number of int operands. Operands either are flags, operator ordinals, jump targets
+ * or indexes into a constant pool, which holds the leaf nodes, the types and the metadata resolved at encoding time.
+ *
+ * To keep the semantics of {@link ExpressionInterpreterImpl}, operands that the interpreter doesn't evaluate after a <code>null</code> operand
+ * or after an operand that determines the result of a compound predicate, are skipped by jumps.
+ * Since a jump target always is the end of the enclosing node, the decoder just ignores the control flow instructions.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class ExpressionEncoder implements Expression.Visitor {
+
+    /**
+     * <code>LITERAL literal</code>: pushes the value of a literal.
+     */
+    static final int LITERAL = 0;
+    /**
+     * <code>COLLECTION literal size</code>: pops the values of the elements of a collection literal and pushes a list of them.
+     */
+    static final int COLLECTION = 1;
+    /**
+     * <code>PARAMETER parameter</code>: pushes the value of a parameter.
+     */
+    static final int PARAMETER = 2;
+    /**
+     * <code>PATH path</code>: pushes the value of a path.
+     */
+    static final int PATH = 3;
+    /**
+     * <code>ARGUMENT function index</code>: converts the value of a function argument on top of the stack.
+     */
+    static final int ARGUMENT = 4;
+    /**
+     * <code>INVOKE function type</code>: pops the argument values, invokes the function and pushes the result.
+     */
+    static final int INVOKE = 5;
+    /**
+     * <code>FACTOR type invertSignum interpreter</code>: replaces the value on top of the stack with the value of an arithmetic factor.
+     */
+    static final int FACTOR = 6;
+    /**
+     * <code>ARITHMETIC type leftType rightType operator interpreter</code>: pops two operands and pushes the result of the arithmetic operation.
+     */
+    static final int ARITHMETIC = 7;
+    /**
+     * <code>COMPARE type leftType rightType operator negated interpreter</code>: pops two operands and pushes the result of the comparison.
+     */
+    static final int COMPARE = 8;
+    /**
+     * <code>BETWEEN type leftType lowerType upperType negated interpreter</code>: pops three operands and pushes the result of the between predicate.
+     */
+    static final int BETWEEN = 9;
+    /**
+     * <code>IN_LITERALS items leftType negated target provider</code>: replaces the left operand with the result of a hash lookup in literal IN items and jumps,
+     * if the lookup is possible.
+     */
+    static final int IN_LITERALS = 10;
+    /**
+     * <code>IN_START</code>: pushes the flag that tracks if an IN item comparison was unknown.
+     */
+    static final int IN_START = 11;
+    /**
+     * <code>IN_ITEM leftType itemType negated target interpreter</code>: pops an IN item value and compares it to the left operand. On a match,
+     * replaces the flag and the left operand with the result and jumps.
+     */
+    static final int IN_ITEM = 12;
+    /**
+     * <code>IN_END type negated size items</code>: replaces the flag and the left operand with the result of the IN predicate.
+     */
+    static final int IN_END = 13;
+    /**
+     * <code>COMPOUND_START</code>: pushes the flag that tracks if an operand of a compound predicate was unknown.
+     */
+    static final int COMPOUND_START = 14;
+    /**
+     * <code>AND_ITEM negated target</code>: pops the value of a conjunction operand. If it is false, replaces the flag with the result and jumps.
+     */
+    static final int AND_ITEM = 15;
+    /**
+     * <code>OR_ITEM negated target</code>: pops the value of a disjunction operand. If it is true, replaces the flag with the result and jumps.
+     */
+    static final int OR_ITEM = 16;
+    /**
+     * <code>COMPOUND_END type conjunction negated size</code>: replaces the flag with the result of the compound predicate.
+     */
+    static final int COMPOUND_END = 17;
+    /**
+     * <code>IS_NULL type negated</code>: replaces the value on top of the stack with the result of the null check.
+     */
+    static final int IS_NULL = 18;
+    /**
+     * <code>IS_EMPTY type negated</code>: replaces the value on top of the stack with the result of the empty check.
+     */
+    static final int IS_EMPTY = 19;
+    /**
+     * <code>PREDICATE type negated</code>: replaces the value on top of the stack with the result of an expression predicate.
+     */
+    static final int PREDICATE = 20;
+    /**
+     * <code>JUMP_IF_NULL depth target</code>: if the value on top of the stack is <code>null</code>, drops the given number of values below it and jumps.
+     */
+    static final int JUMP_IF_NULL = 21;
+    /**
+     * <code>SHARED_LOAD slot target</code>: if the value of a shared subexpression was computed already, pushes it and jumps.
+     */
+    static final int SHARED_LOAD = 22;
+    /**
+     * <code>SHARED_STORE slot</code>: stores the value on top of the stack as value of a shared subexpression.
+     */
+    static final int SHARED_STORE = 23;
+
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new HashMap<>();
+    private final SharedSlots sharedSlots;
+    private int[] code = new int[16];
+    private int length;
+    private int depth;
+    private int maxDepth;
+
+    private ExpressionEncoder(SharedSlots sharedSlots) {
+        this.sharedSlots = sharedSlots;
+    }
+
+    /**
+     * Encodes the given expression.
+     *
+     * @param expression The expression to encode
+     * @return the encoded expression
+     */
+    public static EncodedExpression encode(Expression expression) {
+        ExpressionEncoder encoder = new ExpressionEncoder(SharedSlots.of(expression));
+        expression.accept(encoder);
+        return new EncodedExpressionImpl(encoder.getCode(), encoder.getConstants(), expression.getType(), encoder.maxDepth, encoder.getSharedSlotCount());
+    }
+
+    /**
+     * Encodes the given predicate.
+     *
+     * @param predicate The predicate to encode
+     * @return the encoded predicate
+     */
+    public static EncodedPredicate encode(Predicate predicate) {
+        ExpressionEncoder encoder = new ExpressionEncoder(SharedSlots.of(predicate));
+        predicate.accept(encoder);
+        return new EncodedExpressionImpl.EncodedPredicateImpl(encoder.getCode(), encoder.getConstants(), predicate.getType(), encoder.maxDepth, encoder.getSharedSlotCount());
+    }
+
+    private int[] getCode() {
+        return Arrays.copyOf(code, length);
+    }
+
+    private Object[] getConstants() {
+        return constants.toArray();
+    }
+
+    private int getSharedSlotCount() {
+        return sharedSlots.size();
+    }
+
+    private int constant(Object value) {
+        Integer index = constantIndexes.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndexes.put(value, index);
+        }
+        return index;
+    }
+
+    private int emit(int stackEffect, int... instruction) {
+        int position = length;
+        if (position + instruction.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length << 1, position + instruction.length));
+        }
+        System.arraycopy(instruction, 0, code, position, instruction.length);
+        length += instruction.length;
+        depth += stackEffect;
+        maxDepth = Math.max(maxDepth, depth);
+        return position;
+    }
+
+    private int jumpIfNull(int dropDepth) {
+        return emit(0, JUMP_IF_NULL, dropDepth, -1);
+    }
+
+    private void patch(int targetPosition) {
+        code[targetPosition] = length;
+    }
+
+    private int comparisonInterpreter(DomainType type) {
+        return constant(type.getMetadata(ComparisonOperatorInterpreter.class));
+    }
+
+    private int domainOperatorInterpreter(DomainType type) {
+        return constant(type.getMetadata(DomainOperatorInterpreter.class));
+    }
+
+    @Override
+    public void visit(ArithmeticFactor e) {
+        e.getExpression().accept(this);
+        emit(0, FACTOR, constant(e.getType()), e.isInvertSignum() ? 1 : 0, domainOperatorInterpreter(e.getType()));
+    }
+
+    @Override
+    public void visit(ExpressionPredicate e) {
+        e.getExpression().accept(this);
+        emit(0, PREDICATE, constant(e.getType()), e.isNegated() ? 1 : 0);
+    }
+
+    @Override
+    public void visit(BetweenPredicate e) {
+        e.getLeft().accept(this);
+        int leftJump = jumpIfNull(0);
+        e.getLower().accept(this);
+        int lowerJump = jumpIfNull(1);
+        e.getUpper().accept(this);
+        int upperJump = jumpIfNull(2);
+        DomainType leftType = e.getLeft().getType();
+        emit(-2, BETWEEN, constant(e.getType()), constant(leftType), constant(e.getLower().getType()), constant(e.getUpper().getType()), e.isNegated() ? 1 : 0,
+            comparisonInterpreter(leftType));
+        patch(leftJump + 2);
+        patch(lowerJump + 2);
+        patch(upperJump + 2);
+    }
+
+    @Override
+    public void visit(InPredicate e) {
+        e.getLeft().accept(this);
+        int leftJump = jumpIfNull(0);
+        DomainType leftType = e.getLeft().getType();
+        int negated = e.isNegated() ? 1 : 0;
+        List<ArithmeticExpression> inItems = e.getInItems();
+        int items = -1;
+        int literalsJump = -1;
+        if (inItems instanceof LiteralInItems) {
+            items = constant(inItems);
+            ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+            if (comparisonOperatorInterpreter instanceof EqualityKeyProvider) {
+                literalsJump = emit(0, IN_LITERALS, items, constant(leftType), negated, -1, constant(comparisonOperatorInterpreter));
+            }
+        }
+        emit(1, IN_START);
+        int[] itemJumps = new int[inItems.size()];
+        for (int i = 0; i < itemJumps.length; i++) {
+            ArithmeticExpression inItem = inItems.get(i);
+            inItem.accept(this);
+            itemJumps[i] = emit(-1, IN_ITEM, constant(leftType), constant(inItem.getType()), negated, -1, comparisonInterpreter(leftType));
+        }
+        emit(-1, IN_END, constant(e.getType()), negated, itemJumps.length, items);
+        patch(leftJump + 2);
+        if (literalsJump != -1) {
+            patch(literalsJump + 4);
+        }
+        for (int itemJump : itemJumps) {
+            patch(itemJump + 4);
+        }
+    }
+
+    @Override
+    public void visit(ChainingArithmeticExpression e) {
+        int slot = sharedSlots.getSlot(e);
+        int sharedJump = slot == -1 ? -1 : emit(0, SHARED_LOAD, slot, -1);
+        e.getLeft().accept(this);
+        int leftJump = jumpIfNull(0);
+        e.getRight().accept(this);
+        emit(-1, ARITHMETIC, constant(e.getType()), constant(e.getLeft().getType()), constant(e.getRight().getType()), e.getOperator().ordinal(),
+            domainOperatorInterpreter(e.getType()));
+        patch(leftJump + 2);
+        if (slot != -1) {
+            emit(0, SHARED_STORE, slot);
+            patch(sharedJump + 2);
+        }
+    }
+
+    @Override
+    public void visit(CompoundPredicate e) {
+        int negated = e.isNegated() ? 1 : 0;
+        List<Predicate> predicates = e.getPredicates();
+        int[] jumps = new int[predicates.size()];
+        emit(1, COMPOUND_START);
+        for (int i = 0; i < jumps.length; i++) {
+            predicates.get(i).accept(this);
+            jumps[i] = emit(-1, e.isConjunction() ? AND_ITEM : OR_ITEM, negated, -1);
+        }
+        emit(0, COMPOUND_END, constant(e.getType()), e.isConjunction() ? 1 : 0, negated, jumps.length);
+        for (int jump : jumps) {
+            patch(jump + 2);
+        }
+    }
+
+    @Override
+    public void visit(ComparisonPredicate e) {
+        e.getLeft().accept(this);
+        int leftJump = jumpIfNull(0);
+        e.getRight().accept(this);
+        DomainType leftType = e.getLeft().getType();
+        emit(-1, COMPARE, constant(e.getType()), constant(leftType), constant(e.getRight().getType()), e.getOperator().ordinal(), e.isNegated() ? 1 : 0,
+            comparisonInterpreter(leftType));
+        patch(leftJump + 2);
+    }
+
+    @Override
+    public void visit(IsNullPredicate e) {
+        e.getLeft().accept(this);
+        emit(0, IS_NULL, constant(e.getType()), e.isNegated() ? 1 : 0);
+    }
+
+    @Override
+    public void visit(IsEmptyPredicate e) {
+        e.getLeft().accept(this);
+        emit(0, IS_EMPTY, constant(e.getType()), e.isNegated() ? 1 : 0);
+    }
+
+    @Override
+    public void visit(Path e) {
+        int slot = sharedSlots.getSlot(e);
+        int sharedJump = slot == -1 ? -1 : emit(0, SHARED_LOAD, slot, -1);
+        emit(1, PATH, constant(new EncodedExpressionImpl.ResolvedPath(e)));
+        if (slot != -1) {
+            emit(0, SHARED_STORE, slot);
+            patch(sharedJump + 2);
+        }
+    }
+
+    @Override
+    public void visit(FunctionInvocation e) {
+        int slot = sharedSlots.getSlot(e);
+        int sharedJump = slot == -1 ? -1 : emit(0, SHARED_LOAD, slot, -1);
+        Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
+        int function = constant(new EncodedExpressionImpl.ResolvedFunction(e.getFunction(), arguments.keySet().toArray(new DomainFunctionArgument[arguments.size()])));
+        int i = 0;
+        for (Expression argument : arguments.values()) {
+            argument.accept(this);
+            emit(0, ARGUMENT, function, i++);
+        }
+        emit(1 - arguments.size(), INVOKE, function, constant(e.getType()));
+        if (slot != -1) {
+            emit(0, SHARED_STORE, slot);
+            patch(sharedJump + 2);
+        }
+    }
+
+    @Override
+    public void visit(Literal e) {
+        if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
+            Collection<?> collection = (Collection<?>) e.getValue();
+            for (Object element : collection) {
+                ((Expression) element).accept(this);
+            }
+            emit(1 - collection.size(), COLLECTION, constant(e), collection.size());
+        } else {
+            emit(1, LITERAL, constant(e));
+        }
+    }
+
+    @Override
+    public void visit(Parameter e) {
+        emit(1, PARAMETER, constant(e));
+    }
+}
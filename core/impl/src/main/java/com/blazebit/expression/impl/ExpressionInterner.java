@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Replaces every node of an expression tree by a canonical instance, so that structurally equal subtrees of all expressions
+ * that are interned through the same interner share a single instance, including the resolved values of literals.
+ *
+ * The canonical instances are only weakly referenced, so interning does not keep expressions alive that are not used anymore.
+ * Since expression nodes are immutable and cache their hash code, sharing them between expressions and threads is safe and lookups are cheap.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class ExpressionInterner extends AbstractExpressionTransformer {
+
+    private final ConcurrentMap<WeakKey, WeakKey> table = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Expression> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the canonical instance for the given expression, whose subtrees are canonical instances as well.
+     *
+     * @param expression The expression to intern
+     * @return the canonical instance, which might be the given expression
+     */
+    public Expression intern(Expression expression) {
+        purge();
+        return expression.accept(this);
+    }
+
+    /**
+     * Returns the number of canonical instances that are currently held by this interner.
+     *
+     * @return the number of canonical instances
+     */
+    public int size() {
+        purge();
+        return table.size();
+    }
+
+    private void purge() {
+        Reference<? extends Expression> reference;
+        while ((reference = queue.poll()) != null) {
+            table.remove(reference);
+        }
+    }
+
+    private Expression canonicalize(Expression expression) {
+        WeakKey key = new WeakKey(expression, queue);
+        while (true) {
+            WeakKey existing = table.putIfAbsent(key, key);
+            if (existing == null) {
+                return expression;
+            }
+            Expression canonical = existing.get();
+            if (canonical != null) {
+                return canonical;
+            }
+            // The canonical instance was collected but its entry wasn't purged yet
+            table.remove(existing, existing);
+        }
+    }
+
+    @Override
+    public Expression visit(ArithmeticFactor e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(ExpressionPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(BetweenPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(InPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(ChainingArithmeticExpression e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(CompoundPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(ComparisonPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(IsNullPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(IsEmptyPredicate e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(Path e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(FunctionInvocation e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(Literal e) {
+        return canonicalize(super.visit(e));
+    }
+
+    @Override
+    public Expression visit(Parameter e) {
+        return canonicalize(super.visit(e));
+    }
+
+    /**
+     * A weak table key that compares the referenced expressions structurally as long as they are reachable.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class WeakKey extends WeakReference<Expression> {
+
+        private final int hashCode;
+
+        public WeakKey(Expression expression, ReferenceQueue<Expression> queue) {
+            super(expression, queue);
+            this.hashCode = expression.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof WeakKey)) {
+                return false;
+            }
+            WeakKey that = (WeakKey) o;
+            if (hashCode != that.hashCode) {
+                return false;
+            }
+            Expression expression = get();
+            return expression != null && expression.equals(that.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
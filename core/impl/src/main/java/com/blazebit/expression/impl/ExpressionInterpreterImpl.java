@@ -27,21 +27,31 @@ import com.blazebit.expression.BetweenPredicate;
 import com.blazebit.expression.ChainingArithmeticExpression;
 import com.blazebit.expression.ComparisonOperator;
 import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.CompiledPredicate;
 import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.EncodedExpression;
+import com.blazebit.expression.EncodedPredicate;
+import com.blazebit.expression.EvaluationSession;
 import com.blazebit.expression.Expression;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.ExpressionProfile;
 import com.blazebit.expression.FunctionInvocation;
 import com.blazebit.expression.InPredicate;
 import com.blazebit.expression.IsEmptyPredicate;
 import com.blazebit.expression.IsNullPredicate;
 import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
 import com.blazebit.expression.Path;
 import com.blazebit.expression.Predicate;
+import com.blazebit.expression.RuleIndex;
 import com.blazebit.expression.spi.AttributeAccessor;
 import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
 import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
 import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 import com.blazebit.expression.spi.TypeAdapter;
 
 import java.util.ArrayList;
@@ -51,19 +61,36 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * A stateless interpreter that keeps the state of an evaluation in a frame per call, so it can be shared by multiple threads.
+ *
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ExpressionInterpreterImpl implements Expression.ResultVisitor<Object>, ExpressionInterpreter {
+public class ExpressionInterpreterImpl implements ExpressionInterpreter {
+
+    private static final Object NULL_VALUE = new Object();
+    private static final Object[] EMPTY_ARGUMENTS = new Object[0];
 
     private final DomainModel domainModel;
-    private Context context;
-    private TypeAdapter typeAdapter;
+    private final int compilationThreshold;
+    private final int reorderingInterval;
+    private volatile SharedSlots lastSharedSlots;
 
     public ExpressionInterpreterImpl(DomainModel domainModel) {
+        this(domainModel, -1, 0);
+    }
+
+    public ExpressionInterpreterImpl(DomainModel domainModel, int compilationThreshold) {
+        this(domainModel, compilationThreshold, 0);
+    }
+
+    public ExpressionInterpreterImpl(DomainModel domainModel, int compilationThreshold, int reorderingInterval) {
         this.domainModel = domainModel;
+        this.compilationThreshold = compilationThreshold;
+        this.reorderingInterval = reorderingInterval;
     }
 
     @Override
@@ -71,6 +98,7 @@ public class ExpressionInterpreterImpl implements Expression.ResultVisitor<Objec
         return new Context() {
 
             private final Map<String, Object> properties = new HashMap<>();
+            private final Map<String, Object> parameters = new HashMap<>();
 
             @Override
             public Object getProperty(String key) {
@@ -91,325 +119,629 @@ public class ExpressionInterpreterImpl implements Expression.ResultVisitor<Objec
             public DomainType getRootDomainType(String alias) {
                 return rootDomainTypes.get(alias);
             }
+
+            @Override
+            public Object getParameter(String name) {
+                return parameters.get(name);
+            }
+
+            @Override
+            public void setParameter(String name, Object value) {
+                parameters.put(name, value);
+            }
         };
     }
 
     @Override
     public <T> T evaluate(Expression expression, Context interpreterContext) {
-        Context oldContext = context;
-        context = interpreterContext;
-        try {
-            Object value = expression.accept(this);
-            if (typeAdapter != null) {
-                value = typeAdapter.toModelType(context, value, expression.getType());
-            }
-            return (T) value;
-        } finally {
-            context = oldContext;
-            typeAdapter = null;
+        return evaluate(expression, interpreterContext, new Frame(interpreterContext, getSharedSlots(expression)));
+    }
+
+    /**
+     * Evaluates the given expression and records statistics for the nodes in the given profile.
+     *
+     * @param expression The expression to evaluate
+     * @param interpreterContext The interpreter context
+     * @param profile The profile to record statistics in
+     * @param <T> The result type
+     * @return The evaluation result
+     */
+    <T> T evaluate(Expression expression, Context interpreterContext, ExpressionProfileImpl profile) {
+        return evaluate(expression, interpreterContext, new ProfilingFrame(interpreterContext, getSharedSlots(expression), profile));
+    }
+
+    private SharedSlots getSharedSlots(Expression expression) {
+        SharedSlots sharedSlots = lastSharedSlots;
+        if (sharedSlots == null || sharedSlots.getExpression() != expression) {
+            sharedSlots = SharedSlots.of(expression);
+            // The slots are immutable, so remembering the ones of the last expression is safe and spares repeated evaluations of it the search
+            lastSharedSlots = sharedSlots;
+        }
+        return sharedSlots;
+    }
+
+    private static <T> T evaluate(Expression expression, Context interpreterContext, Frame frame) {
+        Object value = expression.accept(frame);
+        if (frame.typeAdapter != null) {
+            value = frame.typeAdapter.toModelType(interpreterContext, value, expression.getType());
         }
+        return (T) value;
     }
 
     @Override
     public Boolean evaluate(Predicate expression, Context interpreterContext) {
-        try {
-            return Boolean.TRUE.equals(evaluate((Expression) expression, interpreterContext));
-        } finally {
-            typeAdapter = null;
-        }
+        return Boolean.TRUE.equals(evaluate((Expression) expression, interpreterContext));
     }
 
     @Override
-    public Object visit(ArithmeticFactor e) {
-        try {
-            Object result = e.getExpression().accept(this);
-            if (result == null) {
-                return null;
-            }
-            if (e.isInvertSignum()) {
-                return arithmetic(e.getType(), e.getType(), null, result, null, DomainOperator.UNARY_MINUS);
-            }
-            return result;
-        } finally {
-            typeAdapter = null;
-        }
+    public EvaluationSession createSession(Context interpreterContext) {
+        return new EvaluationSessionImpl(this, interpreterContext);
     }
 
     @Override
-    public Object visit(ExpressionPredicate e) {
-        try {
-            Boolean result = (Boolean)e.getExpression().accept(this);
-            if (result == null) {
-                return null;
-            }
-            return (e.isNegated() != result);
-        } finally {
-            typeAdapter = null;
-        }
+    public RuleIndex createRuleIndex(List<? extends Predicate> predicates) {
+        return new RuleIndexImpl(this, predicates);
     }
 
     @Override
-    public Object visit(BetweenPredicate e) {
-        try {
-            Object left = e.getLeft().accept(this);
-            if (left == null) {
-                return null;
-            }
-            Object lower = e.getLower().accept(this);
-            if (lower == null) {
-                return null;
-            }
-            Object upper = e.getUpper().accept(this);
-            if (upper == null) {
-                return null;
-            }
+    public ExpressionProfile createProfile(Expression expression) {
+        return new ExpressionProfileImpl(this, domainModel, expression);
+    }
 
-            Boolean testValue = e.isNegated() ? Boolean.TRUE : Boolean.FALSE;
-            Boolean compare = compare(e.getLeft().getType(), e.getLower().getType(), left, lower, ComparisonOperator.GREATER_OR_EQUAL);
-            if (compare == null) {
-                return null;
-            } else if (testValue.equals(compare)) {
-                return testValue;
-            }
-            compare = compare(e.getLeft().getType(), e.getUpper().getType(), left, upper, ComparisonOperator.LOWER_OR_EQUAL);
-            if (compare == null) {
-                return null;
-            } else if (testValue.equals(compare)) {
-                return testValue;
-            }
-            return Boolean.TRUE;
-        } finally {
-            typeAdapter = null;
+    @Override
+    public EncodedExpression encode(Expression expression) {
+        return ExpressionEncoder.encode(expression);
+    }
+
+    @Override
+    public EncodedPredicate encode(Predicate predicate) {
+        return ExpressionEncoder.encode(predicate);
+    }
+
+    @Override
+    public CompiledExpression compile(Expression expression) {
+        CompiledExpression compiledExpression = EvaluatorCompiler.compile(expression, reorderingInterval);
+        if (compilationThreshold < 0) {
+            return compiledExpression;
         }
+        return new TieredCompiledExpression(expression, compiledExpression, compilationThreshold, reorderingInterval);
     }
 
     @Override
-    public Object visit(InPredicate e) {
-        try {
-            Object left = e.getLeft().accept(this);
-            if (left == null) {
-                return null;
-            }
-            List<ArithmeticExpression> inItems = e.getInItems();
-            Boolean testValue = e.isNegated() ? Boolean.TRUE : Boolean.FALSE;
-            for (int i = 0; i < inItems.size(); i++) {
-                ArithmeticExpression inItem = inItems.get(i);
-                Object value = inItem.accept(this);
-                if (value == null) {
+    public CompiledPredicate compile(Predicate expression) {
+        CompiledPredicate compiledPredicate = EvaluatorCompiler.compile(expression, reorderingInterval);
+        if (compilationThreshold < 0) {
+            return compiledPredicate;
+        }
+        return new TieredCompiledExpression.TieredCompiledPredicate(expression, compiledPredicate, compilationThreshold, reorderingInterval);
+    }
+
+    /**
+     * The state of a single evaluation, which makes the interpreter itself stateless, so that it can be shared between threads
+     * and is re-entrant for functions that evaluate expressions.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static class Frame implements Expression.ResultVisitor<Object> {
+
+        private final Context context;
+        private final PathValueCache pathValueCache;
+        private final SharedSlots sharedSlots;
+        private final Object[] sharedValues;
+        private final TypeAdapter[] sharedTypeAdapters;
+        private TypeAdapter typeAdapter;
+
+        public Frame(Context context, SharedSlots sharedSlots) {
+            this.context = context;
+            this.pathValueCache = EvaluationSessionImpl.getPathValueCache(context);
+            this.sharedSlots = sharedSlots;
+            this.sharedValues = sharedSlots.size() == 0 ? null : new Object[sharedSlots.size()];
+            this.sharedTypeAdapters = sharedSlots.size() == 0 ? null : new TypeAdapter[sharedSlots.size()];
+        }
+
+        @Override
+        public Object visit(ArithmeticFactor e) {
+            try {
+                Object result = e.getExpression().accept(this);
+                if (result == null) {
                     return null;
                 }
-                Boolean b = compare(e.getLeft().getType(), inItem.getType(), left, value, ComparisonOperator.EQUAL);
-                if (!testValue.equals(b)) {
-                    return b;
+                if (e.isInvertSignum()) {
+                    return arithmetic(e.getType(), e.getType(), null, result, null, DomainOperator.UNARY_MINUS);
                 }
+                return result;
+            } finally {
+                typeAdapter = null;
             }
+        }
 
-            return testValue;
-        } finally {
-            typeAdapter = null;
+        @Override
+        public Object visit(ExpressionPredicate e) {
+            try {
+                Boolean result = (Boolean)e.getExpression().accept(this);
+                if (result == null) {
+                    return null;
+                }
+                return (e.isNegated() != result);
+            } finally {
+                typeAdapter = null;
+            }
         }
-    }
 
-    @Override
-    public Object visit(ChainingArithmeticExpression e) {
-        try {
-            Object left = e.getLeft().accept(this);
-            if (left == null) {
-                return null;
+        @Override
+        public Object visit(BetweenPredicate e) {
+            try {
+                Object left = e.getLeft().accept(this);
+                if (left == null) {
+                    return null;
+                }
+                Object lower = e.getLower().accept(this);
+                if (lower == null) {
+                    return null;
+                }
+                Object upper = e.getUpper().accept(this);
+                if (upper == null) {
+                    return null;
+                }
+
+                Boolean testValue = e.isNegated() ? Boolean.TRUE : Boolean.FALSE;
+                Boolean compare = compare(e.getLeft().getType(), e.getLower().getType(), left, lower, ComparisonOperator.GREATER_OR_EQUAL);
+                if (compare == null) {
+                    return null;
+                } else if (testValue.equals(compare)) {
+                    return testValue;
+                }
+                compare = compare(e.getLeft().getType(), e.getUpper().getType(), left, upper, ComparisonOperator.LOWER_OR_EQUAL);
+                if (compare == null) {
+                    return null;
+                } else if (testValue.equals(compare)) {
+                    return testValue;
+                }
+                return Boolean.TRUE;
+            } finally {
+                typeAdapter = null;
             }
-            Object right = e.getRight().accept(this);
-            if (right == null) {
-                return null;
+        }
+
+        @Override
+        public Object visit(InPredicate e) {
+            try {
+                Object left = e.getLeft().accept(this);
+                if (left == null) {
+                    return null;
+                }
+                List<ArithmeticExpression> inItems = e.getInItems();
+                if (inItems instanceof LiteralInItems) {
+                    Boolean contained = containsKey(e.getLeft().getType(), left, (LiteralInItems) inItems);
+                    if (contained != null) {
+                        return contained != e.isNegated();
+                    }
+                }
+                // Three-valued logic like in SQL: a match wins over an unknown comparison
+                boolean unknown = false;
+                for (int i = 0; i < inItems.size(); i++) {
+                    ArithmeticExpression inItem = inItems.get(i);
+                    Object value = inItem.accept(this);
+                    Boolean b = value == null ? null : compare(e.getLeft().getType(), inItem.getType(), left, value, ComparisonOperator.EQUAL);
+                    if (b == null) {
+                        unknown = true;
+                    } else if (b) {
+                        return !e.isNegated();
+                    }
+                }
+
+                return unknown ? null : e.isNegated();
+            } finally {
+                typeAdapter = null;
             }
+        }
 
-            return arithmetic(e.getType(), e.getLeft().getType(), e.getRight().getType(), left, right, e.getOperator().getDomainOperator());
-        } finally {
-            typeAdapter = null;
+        @Override
+        public Object visit(ChainingArithmeticExpression e) {
+            int slot = getSharedSlot(e);
+            return slot == -1 ? visitChainingArithmeticExpression(e) : visitShared(e, slot);
         }
-    }
 
-    @Override
-    public Object visit(CompoundPredicate e) {
-        try {
-            List<Predicate> predicates = e.getPredicates();
-            int size = predicates.size();
-            if (e.isConjunction()) {
-                if (size == 0) {
-                    return e.isNegated();
+        private Object visitChainingArithmeticExpression(ChainingArithmeticExpression e) {
+            try {
+                Object left = e.getLeft().accept(this);
+                if (left == null) {
+                    return null;
                 }
-                for (int i = 0; i < predicates.size(); i++) {
-                    Object result = predicates.get(i).accept(this);
-                    if (result == null) {
-                        return null;
-                    } else if (!Boolean.TRUE.equals(result)) {
+                Object right = e.getRight().accept(this);
+                if (right == null) {
+                    return null;
+                }
+
+                return arithmetic(e.getType(), e.getLeft().getType(), e.getRight().getType(), left, right, e.getOperator().getDomainOperator());
+            } finally {
+                typeAdapter = null;
+            }
+        }
+
+        @Override
+        public Object visit(CompoundPredicate e) {
+            try {
+                // Three-valued logic like in SQL: an operand that determines the result wins over an unknown operand,
+                // which makes the result independent of the operand order
+                List<Predicate> predicates = e.getPredicates();
+                int size = predicates.size();
+                boolean unknown = false;
+                if (e.isConjunction()) {
+                    if (size == 0) {
                         return e.isNegated();
                     }
+                    for (int i = 0; i < predicates.size(); i++) {
+                        Object result = predicates.get(i).accept(this);
+                        if (result == null) {
+                            unknown = true;
+                        } else if (!Boolean.TRUE.equals(result)) {
+                            return e.isNegated();
+                        }
+                    }
+                    return unknown ? null : !e.isNegated();
+                } else {
+                    if (size == 0) {
+                        return !e.isNegated();
+                    }
+                    for (int i = 0; i < predicates.size(); i++) {
+                        Object result = predicates.get(i).accept(this);
+                        if (result == null) {
+                            unknown = true;
+                        } else if (Boolean.TRUE.equals(result)) {
+                            return !e.isNegated();
+                        }
+                    }
+                    return unknown ? null : e.isNegated();
                 }
-                return !e.isNegated();
-            } else {
-                if (size == 0) {
-                    return !e.isNegated();
+            } finally {
+                typeAdapter = null;
+            }
+        }
+
+        @Override
+        public Object visit(ComparisonPredicate e) {
+            try {
+                Object left = e.getLeft().accept(this);
+                if (left == null) {
+                    return null;
+                }
+                Object right = e.getRight().accept(this);
+                if (right == null) {
+                    return null;
+                }
+
+                Boolean compare = compare(e.getLeft().getType(), e.getRight().getType(), left, right, e.getOperator());
+                if (compare == null) {
+                    return null;
+                } else if (e.isNegated()) {
+                    return !compare;
+                } else {
+                    return compare;
+                }
+            } finally {
+                typeAdapter = null;
+            }
+        }
+
+        @Override
+        public Object visit(IsNullPredicate e) {
+            // LEFT  NN NOT R
+            // NULL  F   F  T
+            // NULL  F   T  F
+            // VAL   T   F  F
+            // VAL   T   T  T
+            try {
+                return (e.getLeft().accept(this) != null) == e.isNegated() ? Boolean.TRUE : Boolean.FALSE;
+            } finally {
+                typeAdapter = null;
+            }
+        }
+
+        @Override
+        public Object visit(IsEmptyPredicate e) {
+            try {
+                Object left = e.getLeft().accept(this);
+                if (left == null) {
+                    return null;
                 }
-                for (int i = 0; i < predicates.size(); i++) {
-                    Object result = predicates.get(i).accept(this);
-                    if (result == null) {
+                if (e.isNegated()) {
+                    return ((Iterable<?>) left).iterator().hasNext();
+                } else {
+                    return !((Iterable<?>) left).iterator().hasNext();
+                }
+            } finally {
+                typeAdapter = null;
+            }
+        }
+
+        @Override
+        public Object visit(Path e) {
+            int slot = getSharedSlot(e);
+            return slot == -1 ? visitPath(e) : visitShared(e, slot);
+        }
+
+        private Object visitPath(Path e) {
+            Object value = context.getRoot(e.getAlias());
+            List<EntityDomainTypeAttribute> attributes = e.getAttributes();
+            if (attributes.isEmpty()) {
+                typeAdapter = null;
+            } else if (pathValueCache != null) {
+                value = pathValueCache.getValue(context, e.getAlias(), attributes);
+                typeAdapter = attributes.get(attributes.size() - 1).getMetadata(TypeAdapter.class);
+            } else {
+                for (int i = 0; i < attributes.size(); i++) {
+                    if (value == null) {
                         return null;
-                    } else if (Boolean.TRUE.equals(result)) {
-                        return !e.isNegated();
+                    }
+                    EntityDomainTypeAttribute attribute = attributes.get(i);
+                    AttributeAccessor attributeAccessor = attribute.getMetadata(AttributeAccessor.class);
+                    if (attributeAccessor == null) {
+                        throw new IllegalArgumentException("No attribute accessor available for attribute: " + attribute);
+                    }
+                    value = attributeAccessor.getAttribute(value, attribute);
+                    TypeAdapter<Object, Object> adapter = attribute.getMetadata(TypeAdapter.class);
+                    if (adapter != null) {
+                        value = adapter.toInternalType(context, value, attribute.getType());
                     }
                 }
-                return e.isNegated();
+                typeAdapter = attributes.get(attributes.size() - 1).getMetadata(TypeAdapter.class);
             }
-        } finally {
-            typeAdapter = null;
+            return value;
         }
-    }
 
-    @Override
-    public Object visit(ComparisonPredicate e) {
-        try {
-            Object left = e.getLeft().accept(this);
-            if (left == null) {
-                return null;
+        @Override
+        public Object visit(FunctionInvocation e) {
+            int slot = getSharedSlot(e);
+            return slot == -1 ? visitFunctionInvocation(e) : visitShared(e, slot);
+        }
+
+        private Object visitFunctionInvocation(FunctionInvocation e) {
+            FunctionInvoker functionInvoker = e.getFunction().getMetadata(FunctionInvoker.class);
+            if (functionInvoker == null) {
+                throw new IllegalArgumentException("No function invoker available for function: " + e.getFunction());
             }
-            Object right = e.getRight().accept(this);
-            if (right == null) {
-                return null;
+
+            Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
+            if (functionInvoker instanceof IndexedFunctionInvoker) {
+                int length = 0;
+                for (DomainFunctionArgument argument : arguments.keySet()) {
+                    length = Math.max(length, argument.getPosition() + 1);
+                }
+                Object[] argumentValues = length == 0 ? EMPTY_ARGUMENTS : new Object[length];
+                for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
+                    argumentValues[entry.getKey().getPosition()] = visitArgument(entry.getKey(), entry.getValue());
+                }
+                typeAdapter = e.getFunction().getMetadata(TypeAdapter.class);
+                return ((IndexedFunctionInvoker) functionInvoker).invoke(context, e.getFunction(), argumentValues);
             }
 
-            Boolean compare = compare(e.getLeft().getType(), e.getRight().getType(), left, right, e.getOperator());
-            if (compare == null) {
-                return null;
-            } else if (e.isNegated()) {
-                return !compare;
+            Map<DomainFunctionArgument, Object> argumentValues;
+            if (arguments.isEmpty()) {
+                argumentValues = Collections.emptyMap();
             } else {
-                return compare;
+                argumentValues = new LinkedHashMap<>(arguments.size());
+                for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
+                    argumentValues.put(entry.getKey(), visitArgument(entry.getKey(), entry.getValue()));
+                }
             }
-        } finally {
-            typeAdapter = null;
+
+            typeAdapter = e.getFunction().getMetadata(TypeAdapter.class);
+            return functionInvoker.invoke(context, e.getFunction(), argumentValues);
         }
-    }
 
-    @Override
-    public Object visit(IsNullPredicate e) {
-        // LEFT  NN NOT R
-        // NULL  F   F  T
-        // NULL  F   T  F
-        // VAL   T   F  F
-        // VAL   T   T  T
-        try {
-            return (e.getLeft().accept(this) != null) == e.isNegated() ? Boolean.TRUE : Boolean.FALSE;
-        } finally {
-            typeAdapter = null;
+        private Object visitArgument(DomainFunctionArgument argument, Expression expression) {
+            Object argumentValue = expression.accept(this);
+            if (typeAdapter != null) {
+                argumentValue = typeAdapter.toInternalType(context, argumentValue, argument.getType());
+            }
+            TypeAdapter argumentAdapter = argument.getMetadata(TypeAdapter.class);
+            if (argumentAdapter != null) {
+                argumentValue = argumentAdapter.toModelType(context, argumentValue, argument.getType());
+            }
+            return argumentValue;
         }
-    }
 
-    @Override
-    public Object visit(IsEmptyPredicate e) {
-        try {
-            Object left = e.getLeft().accept(this);
-            if (left == null) {
-                return null;
+        private int getSharedSlot(Expression e) {
+            return sharedValues == null ? -1 : sharedSlots.getSlot(e);
+        }
+
+        private Object visitShared(Expression e, int slot) {
+            Object sharedValue = sharedValues[slot];
+            if (sharedValue != null) {
+                typeAdapter = sharedTypeAdapters[slot];
+                return sharedValue == NULL_VALUE ? null : sharedValue;
             }
-            if (e.isNegated()) {
-                return ((Iterable<?>) left).iterator().hasNext();
+            Object value;
+            if (e instanceof Path) {
+                value = visitPath((Path) e);
+            } else if (e instanceof FunctionInvocation) {
+                value = visitFunctionInvocation((FunctionInvocation) e);
             } else {
-                return !((Iterable<?>) left).iterator().hasNext();
+                value = visitChainingArithmeticExpression((ChainingArithmeticExpression) e);
             }
-        } finally {
+            sharedValues[slot] = value == null ? NULL_VALUE : value;
+            sharedTypeAdapters[slot] = typeAdapter;
+            return value;
+        }
+
+        @Override
+        public Object visit(Parameter e) {
             typeAdapter = null;
+            return context.getParameter(e.getName());
         }
-    }
 
-    @Override
-    public Object visit(Path e) {
-        Object value = context.getRoot(e.getAlias());
-        List<EntityDomainTypeAttribute> attributes = e.getAttributes();
-        if (attributes.isEmpty()) {
+        @Override
+        public Object visit(Literal e) {
             typeAdapter = null;
-        } else {
-            for (int i = 0; i < attributes.size(); i++) {
-                if (value == null) {
-                    return null;
-                }
-                EntityDomainTypeAttribute attribute = attributes.get(i);
-                AttributeAccessor attributeAccessor = attribute.getMetadata(AttributeAccessor.class);
-                if (attributeAccessor == null) {
-                    throw new IllegalArgumentException("No attribute accessor available for attribute: " + attribute);
+            if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
+                Collection<Expression> collection = (Collection<Expression>) e.getValue();
+                if (collection.isEmpty()) {
+                    return Collections.emptyList();
                 }
-                value = attributeAccessor.getAttribute(value, attribute);
-                TypeAdapter<Object, Object> adapter = attribute.getMetadata(TypeAdapter.class);
-                if (adapter != null) {
-                    value = adapter.toInternalType(context, value, attribute.getType());
+                List<Object> resolved = new ArrayList<>(collection.size());
+                for (Expression expression : collection) {
+                    resolved.add(expression.accept(this));
                 }
+                return resolved;
+            } else {
+                return e.getValue();
             }
-            typeAdapter = attributes.get(attributes.size() - 1).getMetadata(TypeAdapter.class);
         }
-        return value;
-    }
 
-    @Override
-    public Object visit(FunctionInvocation e) {
-        FunctionInvoker functionInvoker = e.getFunction().getMetadata(FunctionInvoker.class);
-        if (functionInvoker == null) {
-            throw new IllegalArgumentException("No function invoker available for function: " + e.getFunction());
-        }
-
-        Map<DomainFunctionArgument, Expression> arguments = e.getArguments();
-        Map<DomainFunctionArgument, Object> argumentValues;
-
-        if (arguments.isEmpty()) {
-            argumentValues = Collections.emptyMap();
-        } else {
-            argumentValues = new LinkedHashMap<>(arguments.size());
-            for (Map.Entry<DomainFunctionArgument, Expression> entry : arguments.entrySet()) {
-                Object argumentValue = entry.getValue().accept(this);
-                if (typeAdapter != null) {
-                    argumentValue = typeAdapter.toInternalType(context, argumentValue, entry.getKey().getType());
-                }
-                TypeAdapter argumentAdapter = entry.getKey().getMetadata(TypeAdapter.class);
-                if (argumentAdapter != null) {
-                    argumentValue = argumentAdapter.toModelType(context, argumentValue, entry.getKey().getType());
-                }
-                argumentValues.put(entry.getKey(), argumentValue);
+        private Boolean containsKey(DomainType leftType, Object left, LiteralInItems inItems) {
+            ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+            if (!(comparisonOperatorInterpreter instanceof EqualityKeyProvider)) {
+                return null;
+            }
+            EqualityKeyProvider equalityKeyProvider = (EqualityKeyProvider) comparisonOperatorInterpreter;
+            Object key = equalityKeyProvider.getEqualityKey(leftType, left);
+            if (key == null) {
+                return null;
+            }
+            Set<Object> keys = inItems.getEqualityKeys(equalityKeyProvider);
+            if (keys == null) {
+                return null;
             }
+            return keys.contains(key);
         }
 
-        typeAdapter = e.getFunction().getMetadata(TypeAdapter.class);
-        return functionInvoker.invoke(context, e.getFunction(), argumentValues);
-    }
-
-    @Override
-    public Object visit(Literal e) {
-        typeAdapter = null;
-        if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
-            Collection<Expression> collection = (Collection<Expression>) e.getValue();
-            if (collection.isEmpty()) {
-                return Collections.emptyList();
+        private Boolean compare(DomainType leftType, DomainType rightType, Object left, Object right, ComparisonOperator operator) {
+            ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
+            if (comparisonOperatorInterpreter == null) {
+                throw new IllegalArgumentException("No comparison operator interpreter available for type: " + leftType);
             }
-            List<Object> resolved = new ArrayList<>(collection.size());
-            for (Expression expression : collection) {
-                resolved.add(expression.accept(this));
+            return comparisonOperatorInterpreter.interpret(leftType, rightType, left, right, operator);
+        }
+
+        private Object arithmetic(DomainType targetType, DomainType leftType, DomainType rightType, Object left, Object right, DomainOperator operator) {
+            DomainOperatorInterpreter domainOperatorInterpreter = targetType.getMetadata(DomainOperatorInterpreter.class);
+            if (domainOperatorInterpreter == null) {
+                throw new IllegalArgumentException("No domain operator interpreter available for type: " + targetType);
             }
-            return resolved;
-        } else {
-            return e.getValue();
+            return domainOperatorInterpreter.interpret(targetType, leftType, rightType, left, right, operator);
         }
     }
 
-    private Boolean compare(DomainType leftType, DomainType rightType, Object left, Object right, ComparisonOperator operator) {
-        ComparisonOperatorInterpreter comparisonOperatorInterpreter = leftType.getMetadata(ComparisonOperatorInterpreter.class);
-        if (comparisonOperatorInterpreter == null) {
-            throw new IllegalArgumentException("No comparison operator interpreter available for type: " + leftType);
+    /**
+     * A frame that records the number of invocations, the time and the outcome of every visited node in a profile.
+     * Since only profiled evaluations use this frame, profiling has no overhead for other evaluations.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class ProfilingFrame extends Frame {
+
+        private final ExpressionProfileImpl profile;
+
+        public ProfilingFrame(Context context, SharedSlots sharedSlots, ExpressionProfileImpl profile) {
+            super(context, sharedSlots);
+            this.profile = profile;
+        }
+
+        @Override
+        public Object visit(ArithmeticFactor e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
         }
-        return comparisonOperatorInterpreter.interpret(leftType, rightType, left, right, operator);
-    }
 
-    private Object arithmetic(DomainType targetType, DomainType leftType, DomainType rightType, Object left, Object right, DomainOperator operator) {
-        DomainOperatorInterpreter domainOperatorInterpreter = targetType.getMetadata(DomainOperatorInterpreter.class);
-        if (domainOperatorInterpreter == null) {
-            throw new IllegalArgumentException("No domain operator interpreter available for type: " + targetType);
+        @Override
+        public Object visit(ExpressionPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(BetweenPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(InPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(ChainingArithmeticExpression e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(CompoundPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(ComparisonPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(IsNullPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(IsEmptyPredicate e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(Path e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(FunctionInvocation e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(Parameter e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
+        }
+
+        @Override
+        public Object visit(Literal e) {
+            long start = System.nanoTime();
+            Object result = super.visit(e);
+            profile.record(e, start, result);
+            return result;
         }
-        return domainOperatorInterpreter.interpret(targetType, leftType, rightType, left, right, operator);
     }
 }
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.CollectionDomainType;
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainFunctionTypeResolver;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainOperator;
+import com.blazebit.domain.runtime.model.DomainPredicate;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.DomainTypeResolverException;
+import com.blazebit.domain.runtime.model.EntityDomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.domain.runtime.model.EnumDomainType;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.ArithmeticOperatorType;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.DomainModelException;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.SyntaxErrorException;
+import com.blazebit.expression.TypeErrorException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the typed expression model nodes for the syntactic constructs recognized by an expression compiler.
+ *
+ * A factory is bound to a single compilation, as it resolves root variables against the compile context.
+ * Parameters that have no declared type in the compile context get the type of the operand they are compared with
+ * or of the function argument they are passed to, which is then used for all further occurrences of the parameter.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionModelFactory {
+
+    private final DomainModel domainModel;
+    private final LiteralFactory literalFactory;
+    private final ExpressionCompiler.Context compileContext;
+    private final TypeResolutionTable typeResolutionTable;
+    private final TypeResolutionTable.Key probe = new TypeResolutionTable.Key();
+    private DomainType cachedBooleanDomainType;
+    private Literal cachedBooleanTrueLiteral;
+    private Literal cachedBooleanFalseLiteral;
+    private Map<String, DomainType> inferredParameterTypes;
+
+    public ExpressionModelFactory(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCompiler.Context compileContext) {
+        this(domainModel, literalFactory, compileContext, new TypeResolutionTable(domainModel));
+    }
+
+    public ExpressionModelFactory(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCompiler.Context compileContext, TypeResolutionTable typeResolutionTable) {
+        this.domainModel = domainModel;
+        this.literalFactory = literalFactory;
+        this.compileContext = compileContext;
+        this.typeResolutionTable = typeResolutionTable;
+    }
+
+    public DomainModel getDomainModel() {
+        return domainModel;
+    }
+
+    public LiteralFactory getLiteralFactory() {
+        return literalFactory;
+    }
+
+    public Predicate negate(Predicate predicate) {
+        return predicate.negate();
+    }
+
+    public Predicate createDisjunction(Predicate left, Predicate right) {
+        return createCompoundPredicate(left, right, false);
+    }
+
+    public Predicate createConjunction(Predicate left, Predicate right) {
+        return createCompoundPredicate(left, right, true);
+    }
+
+    private Predicate createCompoundPredicate(Predicate left, Predicate right, boolean conjunction) {
+        List<Predicate> predicates;
+        if (left instanceof CompoundPredicate && ((CompoundPredicate) left).isConjunction() == conjunction && !left.isNegated()) {
+            // Compound predicates are immutable, so the operands are flattened into a new predicate
+            List<Predicate> leftPredicates = ((CompoundPredicate) left).getPredicates();
+            predicates = new ArrayList<>(leftPredicates.size() + 1);
+            predicates.addAll(leftPredicates);
+        } else {
+            predicates = new ArrayList<>(2);
+            predicates.add(left);
+        }
+        predicates.add(right);
+        return new CompoundPredicate(getBooleanDomainType(), predicates, conjunction);
+    }
+
+    public Predicate createIsNullPredicate(Expression left, boolean negated) {
+        requireParameterType(left);
+        DomainType domainType = resolvePredicateType(probe.set(DomainPredicate.NULLNESS, left.getType(), null, null));
+        return new IsNullPredicate(domainType, left, negated);
+    }
+
+    public Predicate createIsEmptyPredicate(Expression left, boolean negated) {
+        requireParameterType(left);
+        DomainType domainType = resolvePredicateType(probe.set(DomainPredicate.COLLECTION, left.getType(), null, null));
+        return new IsEmptyPredicate(domainType, left, negated);
+    }
+
+    public Predicate createComparisonPredicate(ArithmeticExpression left, ArithmeticExpression right, ComparisonOperator comparisonOperator) {
+        left = inferParameterType(left, right.getType());
+        right = inferParameterType(right, left.getType());
+        requireParameterType(left);
+        requireParameterType(right);
+        DomainType domainType = resolvePredicateType(probe.set(comparisonOperator.getDomainPredicate(), left.getType(), right.getType(), null));
+        return new ComparisonPredicate(domainType, left, right, comparisonOperator);
+    }
+
+    public Predicate createInPredicate(ArithmeticExpression left, List<ArithmeticExpression> inItems, boolean negated) {
+        for (int i = 0; left.getType() == null && i < inItems.size(); i++) {
+            left = inferParameterType(left, inItems.get(i).getType());
+        }
+        requireParameterType(left);
+        List<DomainType> operandTypes = new ArrayList<>(inItems.size() + 1);
+        operandTypes.add(left.getType());
+        for (int i = 0; i < inItems.size(); i++) {
+            ArithmeticExpression inItem = inferParameterType(inItems.get(i), left.getType());
+            inItems.set(i, inItem);
+            operandTypes.add(inItem.getType());
+        }
+        DomainType domainType = resolvePredicateType(probe.set(DomainPredicate.EQUALITY, operandTypes));
+        return new InPredicate(domainType, left, LiteralInItems.of(inItems), negated);
+    }
+
+    public Predicate createBetweenPredicate(ArithmeticExpression left, ArithmeticExpression lower, ArithmeticExpression upper) {
+        left = inferParameterType(left, lower.getType() == null ? upper.getType() : lower.getType());
+        lower = inferParameterType(lower, left.getType());
+        upper = inferParameterType(upper, left.getType());
+        requireParameterType(left);
+        requireParameterType(lower);
+        requireParameterType(upper);
+        DomainType domainType = resolvePredicateType(probe.set(DomainPredicate.RELATIONAL, left.getType(), lower.getType(), upper.getType()));
+        return new BetweenPredicate(domainType, left, upper, lower);
+    }
+
+    public Predicate createBooleanFunctionPredicate(Expression expression, String text) {
+        if (expression.getType() == getBooleanDomainType()) {
+            if (expression instanceof Predicate) {
+                return (Predicate) expression;
+            }
+
+            return new ExpressionPredicate(getBooleanDomainType(), expression, false);
+        }
+
+        throw new TypeErrorException("Invalid use of non-boolean returning function: " + text);
+    }
+
+    public Predicate createParameterPredicate(Expression expression) {
+        return createPathPredicate(inferParameterType((ArithmeticExpression) expression, getBooleanDomainType()));
+    }
+
+    public Predicate createPathPredicate(Expression expression) {
+        requireParameterType(expression);
+        DomainType type = expression.getType();
+        if (!type.equals(getBooleanDomainType())) {
+            throw unsupportedType(expression.getType().toString());
+        }
+        return new ExpressionPredicate(type, expression, false);
+    }
+
+    public Expression createArithmeticExpression(ArithmeticExpression left, ArithmeticExpression right, ArithmeticOperatorType operator) {
+        requireParameterType(left);
+        requireParameterType(right);
+        DomainType domainType = resolveOperationType(probe.set(operator.getDomainOperator(), left.getType(), right.getType(), null));
+        return new ChainingArithmeticExpression(domainType, left, right, operator);
+    }
+
+    public Expression createUnaryMinusExpression(ArithmeticExpression left) {
+        requireParameterType(left);
+        DomainType domainType = resolveOperationType(probe.set(DomainOperator.UNARY_MINUS, left.getType(), null, null));
+        return new ArithmeticFactor(domainType, left, true);
+    }
+
+    public Expression createUnaryPlusExpression(ArithmeticExpression left) {
+        requireParameterType(left);
+        DomainType domainType = resolveOperationType(probe.set(DomainOperator.UNARY_PLUS, left.getType(), null, null));
+        if (domainType == left.getType()) {
+            // Don't create a wrapper for a unary plus if the type doesn't change
+            return left;
+        }
+        return new ArithmeticFactor(domainType, left, false);
+    }
+
+    private DomainType resolvePredicateType(TypeResolutionTable.Key key) {
+        Object result;
+        try {
+            result = typeResolutionTable.resolve(key);
+        } catch (DomainTypeResolverException ex) {
+            // Resolvers reject invalid operand types by throwing, which is a type error of the expression
+            throw new TypeErrorException(ex.getMessage(), ex);
+        }
+        if (result == TypeResolutionTable.NO_RESOLVER) {
+            throw missingPredicateTypeResolver(key.getOperandTypes().get(0), (DomainPredicate) key.getOperation());
+        } else if (result == TypeResolutionTable.UNRESOLVABLE) {
+            throw cannotResolvePredicateType((DomainPredicate) key.getOperation(), key.getOperandTypes());
+        }
+        return (DomainType) result;
+    }
+
+    private DomainType resolveOperationType(TypeResolutionTable.Key key) {
+        Object result;
+        try {
+            result = typeResolutionTable.resolve(key);
+        } catch (DomainTypeResolverException ex) {
+            // Resolvers reject invalid operand types by throwing, which is a type error of the expression
+            throw new TypeErrorException(ex.getMessage(), ex);
+        }
+        if (result == TypeResolutionTable.NO_RESOLVER) {
+            throw missingOperationTypeResolver(key.getOperandTypes().get(0), (DomainOperator) key.getOperation());
+        } else if (result == TypeResolutionTable.UNRESOLVABLE) {
+            throw cannotResolveOperationType((DomainOperator) key.getOperation(), key.getOperandTypes());
+        }
+        return (DomainType) result;
+    }
+
+    /**
+     * Creates a parameter expression with the type that is declared in the compile context or was inferred for a previous occurrence.
+     * If neither is available, the type of the returned parameter is <code>null</code> until it is inferred from its usage.
+     *
+     * @param name The parameter name
+     * @return the parameter expression
+     */
+    public Parameter createParameter(String name) {
+        DomainType type = compileContext.getParameterDomainType(name);
+        if (type == null && inferredParameterTypes != null) {
+            type = inferredParameterTypes.get(name);
+        }
+        return new Parameter(name, type);
+    }
+
+    private <T extends Expression> T inferParameterType(T expression, DomainType type) {
+        if (type == null || expression.getType() != null || !(expression instanceof Parameter)) {
+            return expression;
+        }
+        String name = ((Parameter) expression).getName();
+        if (inferredParameterTypes == null) {
+            inferredParameterTypes = new HashMap<>();
+        }
+        inferredParameterTypes.put(name, type);
+        @SuppressWarnings("unchecked")
+        T parameter = (T) new Parameter(name, type);
+        return parameter;
+    }
+
+    /**
+     * Throws a {@link TypeErrorException} if the given expression is a parameter whose type is neither declared nor could be inferred.
+     *
+     * @param expression The expression to check
+     */
+    public void requireParameterType(Expression expression) {
+        if (expression instanceof Parameter && expression.getType() == null) {
+            throw new TypeErrorException(String.format("Cannot infer the type of parameter ':%s', it must be declared in the compile context", ((Parameter) expression).getName()));
+        }
+    }
+
+    public Literal createStringLiteral(String value) {
+        return new Literal(literalFactory.ofString(value));
+    }
+
+    public Literal createNumericLiteral(String value) {
+        return new Literal(literalFactory.ofNumericString(value));
+    }
+
+    public Literal createTimestampLiteral(String dateTimeString) {
+        return new Literal(literalFactory.ofDateTimeString(dateTimeString));
+    }
+
+    public Literal createTemporalIntervalLiteral(String years, String months, String days, String hours, String minutes, String seconds) {
+        return new Literal(literalFactory.ofTemporalAmounts(
+                parseTemporalAmount(years, "years"),
+                parseTemporalAmount(months, "months"),
+                parseTemporalAmount(days, "days"),
+                parseTemporalAmount(hours, "hours"),
+                parseTemporalAmount(minutes, "minutes"),
+                parseTemporalAmount(seconds, "seconds")
+        ));
+    }
+
+    private int parseTemporalAmount(String amountString, String field) {
+        if (amountString == null) {
+            return 0;
+        }
+        int amount = 0;
+        NumberFormatException exception = null;
+        try {
+            amount = Integer.parseInt(amountString);
+        } catch (NumberFormatException ex) {
+            exception = ex;
+        }
+        if (exception != null || amount < 0) {
+            throw new SyntaxErrorException("Illegal value given for temporal field '" + field + "': " + amountString, exception);
+        }
+        return amount;
+    }
+
+    public Literal createCollectionLiteral(List<Expression> literalList) {
+        CollectionDomainType collectionDomainType;
+        if (literalList.isEmpty()) {
+            collectionDomainType = domainModel.getCollectionType(null);
+        } else {
+            collectionDomainType = domainModel.getCollectionType(literalList.get(0).getType());
+        }
+
+        return new Literal(literalFactory.ofCollectionValues(collectionDomainType, literalList));
+    }
+
+    public Expression createPathExpression(List<String> identifiers) {
+        int size = identifiers.size();
+        String alias = identifiers.get(0);
+        DomainType type = compileContext.getRootDomainType(alias);
+        if (type == null) {
+            if (size == 2) {
+                type = domainModel.getType(alias);
+                if (type instanceof EnumDomainType) {
+                    return new Literal(literalFactory.ofEnumValue((EnumDomainType) type, identifiers.get(1)));
+                }
+            }
+            throw unknownType(alias);
+        } else {
+            List<EntityDomainTypeAttribute> pathAttributes = new ArrayList<>(size);
+            for (int pathElemIdx = 1; pathElemIdx < size; pathElemIdx++) {
+                String pathElement = identifiers.get(pathElemIdx);
+                if (type instanceof CollectionDomainType) {
+                    type = ((CollectionDomainType) type).getElementType();
+                }
+                if (type instanceof EntityDomainType) {
+                    EntityDomainType entityType = ((EntityDomainType) type);
+                    EntityDomainTypeAttribute attribute = entityType.getAttribute(pathElement);
+                    pathAttributes.add(attribute);
+                    if (attribute == null) {
+                        throw unknownEntityAttribute(entityType, pathElement);
+                    } else {
+                        type = attribute.getType();
+                    }
+                } else {
+                    throw unsupportedType(type.toString());
+                }
+            }
+            return new Path(alias, pathAttributes, type);
+        }
+    }
+
+    /**
+     * Returns the function with the given name or throws a {@link DomainModelException} if there is none.
+     *
+     * @param functionName The function name
+     * @return the function
+     */
+    public DomainFunction resolveFunction(String functionName) {
+        DomainFunction function = domainModel.getFunction(functionName);
+        if (function == null) {
+            throw unknownFunction(functionName);
+        }
+        return function;
+    }
+
+    /**
+     * Returns the entity type with the given name or throws a {@link DomainModelException} if there is none.
+     *
+     * @param typeName The entity type name
+     * @return the entity type
+     */
+    public EntityDomainType resolveEntityType(String typeName) {
+        DomainType type = domainModel.getType(typeName);
+        if (type instanceof EntityDomainType) {
+            return (EntityDomainType) type;
+        }
+        throw unknownType(typeName);
+    }
+
+    /**
+     * Returns the function with the given name, or the entity type if there is no such function,
+     * or throws a {@link DomainModelException} if there is neither.
+     *
+     * @param name The function or entity type name
+     * @return the function or entity type
+     */
+    public Object resolveFunctionOrEntityType(String name) {
+        DomainFunction function = domainModel.getFunction(name);
+        if (function == null) {
+            DomainType type = domainModel.getType(name);
+            if (type instanceof EntityDomainType) {
+                return type;
+            }
+            throw unknownFunction(name);
+        }
+        return function;
+    }
+
+    public Expression createFunctionInvocation(DomainFunction function, List<Expression> literalList) {
+        if (function.getArgumentCount() != -1 && literalList.size() > function.getArgumentCount()) {
+            throw new DomainModelException(String.format("Function '%s' expects at most %d arguments but found %d",
+                    function.getName(),
+                    function.getArgumentCount(),
+                    literalList.size()
+            ));
+        }
+        if (literalList.size() < function.getMinArgumentCount()) {
+            throw new DomainModelException(String.format("Function '%s' expects at least %d arguments but found %d",
+                                                         function.getName(),
+                                                         function.getMinArgumentCount(),
+                                                         literalList.size()
+            ));
+        }
+        Map<DomainFunctionArgument, Expression> arguments = new LinkedHashMap<>(literalList.size());
+        Map<DomainFunctionArgument, DomainType> argumentTypes = new HashMap<>(literalList.size());
+        int i = 0;
+        int lastIdx = function.getArguments().size() - 1;
+        int end = Math.min(lastIdx, literalList.size());
+        for (; i < end; i++) {
+            DomainFunctionArgument domainFunctionArgument = function.getArguments().get(i);
+            literalList.set(i, inferArgumentType(literalList.get(i), domainFunctionArgument));
+            argumentTypes.put(domainFunctionArgument, literalList.get(i).getType());
+            arguments.put(domainFunctionArgument, literalList.get(i));
+        }
+        if (lastIdx != -1) {
+            DomainFunctionArgument domainFunctionArgument = function.getArguments().get(lastIdx);
+            if (function.getArgumentCount() == -1) {
+                // Varargs
+                List<Expression> varArgs = new ArrayList<>(literalList.size() - i);
+                argumentTypes.put(domainFunctionArgument, domainFunctionArgument.getType());
+                for (; i < literalList.size(); i++) {
+                    requireParameterType(literalList.get(i));
+                    varArgs.add(literalList.get(i));
+                }
+                arguments.put(domainFunctionArgument, new Literal(new DefaultResolvedLiteral(domainFunctionArgument.getType(), varArgs)));
+            } else if (i < literalList.size()) {
+                literalList.set(i, inferArgumentType(literalList.get(i), domainFunctionArgument));
+                argumentTypes.put(domainFunctionArgument, literalList.get(i).getType());
+                arguments.put(domainFunctionArgument, literalList.get(i));
+            }
+        }
+        return createFunctionInvocation(function, arguments, argumentTypes);
+    }
+
+    public Expression createNamedFunctionInvocation(DomainFunction function, List<String> argNames, List<Expression> literalList) {
+        if (function.getArgumentCount() != -1 && literalList.size() > function.getArgumentCount()) {
+            throw new DomainModelException(String.format("Function '%s' expects at most %d arguments but found %d",
+                    function.getName(),
+                    function.getArgumentCount(),
+                    literalList.size()
+            ));
+        }
+        if (literalList.size() < function.getMinArgumentCount()) {
+            throw new DomainModelException(String.format("Function '%s' expects at least %d arguments but found %d",
+                                                         function.getName(),
+                                                         function.getMinArgumentCount(),
+                                                         literalList.size()
+            ));
+        }
+        Map<DomainFunctionArgument, Expression> arguments = new LinkedHashMap<>(literalList.size());
+        Map<DomainFunctionArgument, DomainType> argumentTypes = new HashMap<>(literalList.size());
+        for (int i = 0; i < literalList.size(); i++) {
+            DomainFunctionArgument domainFunctionArgument = function.getArgument(argNames.get(i));
+            if (domainFunctionArgument == null) {
+                List<String> argumentNames = new ArrayList<>(function.getArguments().size());
+                for (DomainFunctionArgument argument : function.getArguments()) {
+                    argumentNames.add(argument.getName());
+                }
+                throw new DomainModelException("Invalid argument name '" + argNames.get(i) + "'! Function '" + function.getName() + "' expects the following argument names: " + argumentNames);
+            }
+            literalList.set(i, inferArgumentType(literalList.get(i), domainFunctionArgument));
+            argumentTypes.put(domainFunctionArgument, literalList.get(i).getType());
+            arguments.put(domainFunctionArgument, literalList.get(i));
+        }
+        return createFunctionInvocation(function, arguments, argumentTypes);
+    }
+
+    private Expression inferArgumentType(Expression argument, DomainFunctionArgument domainFunctionArgument) {
+        argument = inferParameterType(argument, domainFunctionArgument.getType());
+        requireParameterType(argument);
+        return argument;
+    }
+
+    private Expression createFunctionInvocation(DomainFunction function, Map<DomainFunctionArgument, Expression> arguments, Map<DomainFunctionArgument, DomainType> argumentTypes) {
+        DomainFunctionTypeResolver functionTypeResolver = domainModel.getFunctionTypeResolver(function.getName());
+        try {
+            DomainType functionType = functionTypeResolver.resolveType(domainModel, function, argumentTypes);
+            return new FunctionInvocation(function, arguments, functionType);
+        } catch (DomainTypeResolverException ex) {
+            throw new DomainModelException(ex.getMessage(), ex);
+        }
+    }
+
+    public Literal createEntityLiteral(EntityDomainType entityDomainType, List<String> argNames, List<Expression> literalList) {
+        Map<EntityDomainTypeAttribute, Expression> arguments = new LinkedHashMap<>(literalList.size());
+        for (int i = 0; i < literalList.size(); i++) {
+            EntityDomainTypeAttribute attribute = entityDomainType.getAttribute(argNames.get(i));
+            if (attribute == null) {
+                throw new DomainModelException("Invalid attribute name '" + argNames.get(i) + "'! Entity '" + entityDomainType.getName() + "' expects the following attribute names: " + entityDomainType.getAttributes().keySet());
+            }
+            Expression argument = inferParameterType(literalList.get(i), attribute.getType());
+            requireParameterType(argument);
+            arguments.put(attribute, argument);
+        }
+        return new Literal(literalFactory.ofEntityAttributeValues(entityDomainType, arguments));
+    }
+
+    public DomainType getBooleanDomainType() {
+        if (cachedBooleanDomainType == null) {
+            cachedBooleanDomainType = domainModel.getType(Boolean.class);
+            if (cachedBooleanDomainType == null) {
+                throw new DomainModelException("No domain type defined for type " + Boolean.class.getName());
+            }
+        }
+        return cachedBooleanDomainType;
+    }
+
+    public Literal getBooleanLiteral(boolean value) {
+        return value ? getBooleanTrueLiteral() : getBooleanFalseLiteral();
+    }
+
+    private Literal getBooleanTrueLiteral() {
+        if (cachedBooleanTrueLiteral == null) {
+            cachedBooleanTrueLiteral = new Literal(literalFactory.ofBoolean(true));
+        }
+        return cachedBooleanTrueLiteral;
+    }
+
+    private Literal getBooleanFalseLiteral() {
+        if (cachedBooleanFalseLiteral == null) {
+            cachedBooleanFalseLiteral = new Literal(literalFactory.ofBoolean(false));
+        }
+        return cachedBooleanFalseLiteral;
+    }
+
+    private DomainModelException missingPredicateTypeResolver(DomainType type, DomainPredicate predicateType) {
+        return new DomainModelException(String.format("Missing predicate type resolver for type %s and predicate %s", type, predicateType));
+    }
+
+    private DomainModelException missingOperationTypeResolver(DomainType type, DomainOperator operator) {
+        return new DomainModelException(String.format("Missing operation type resolver for type %s and operator %s", type, operator));
+    }
+
+    private DomainModelException unknownType(String typeName) {
+        return new DomainModelException(String.format("Undefined type '%s'", typeName));
+    }
+
+    private DomainModelException unknownEntityAttribute(EntityDomainType entityDomainType, String attributeName) {
+        return new DomainModelException(String.format("Attribute %s undefined for entity %s", attributeName, entityDomainType));
+    }
+
+    private DomainModelException unknownFunction(String identifier) {
+        return new DomainModelException(String.format("Undefined function '%s'", identifier));
+    }
+
+    private TypeErrorException unsupportedType(String typeName) {
+        return new TypeErrorException(String.format("Resolved type for identifier %s is not supported", typeName));
+    }
+
+    private TypeErrorException cannotResolvePredicateType(DomainPredicate predicateType, List<DomainType> operandTypes) {
+        return new TypeErrorException(String.format("Cannot resolve predicate type for predicate %s and operand types %s", predicateType, operandTypes));
+    }
+
+    private TypeErrorException cannotResolveOperationType(DomainOperator operator, List<DomainType> operandTypes) {
+        return new TypeErrorException(String.format("Cannot resolve operation type for operator %s and operand types %s", operator, operandTypes));
+    }
+}
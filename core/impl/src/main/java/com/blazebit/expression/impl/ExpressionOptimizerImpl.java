@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ExpressionOptimizer;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.OptimizationRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionOptimizerImpl implements ExpressionOptimizer {
+
+    /**
+     * The default optimization rules in the order they are applied.
+     */
+    public static final List<OptimizationRule> DEFAULT_RULES = Collections.unmodifiableList(Arrays.<OptimizationRule>asList(
+        new NegationPushdownRule(),
+        new FlattenCompoundPredicateRule(),
+        new DuplicatePredicateEliminationRule(),
+        new CostBasedOrderingRule()
+    ));
+
+    private final DomainModel domainModel;
+    private final LiteralFactory literalFactory;
+    private final List<OptimizationRule> rules;
+
+    public ExpressionOptimizerImpl(DomainModel domainModel, LiteralFactory literalFactory) {
+        this(domainModel, literalFactory, DEFAULT_RULES);
+    }
+
+    public ExpressionOptimizerImpl(DomainModel domainModel, LiteralFactory literalFactory, List<OptimizationRule> rules) {
+        this.domainModel = domainModel;
+        this.literalFactory = literalFactory;
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+    }
+
+    @Override
+    public List<OptimizationRule> getRules() {
+        return rules;
+    }
+
+    @Override
+    public Predicate optimize(Predicate predicate) {
+        for (int i = 0; i < rules.size(); i++) {
+            predicate = rules.get(i).apply(domainModel, predicate);
+        }
+        return predicate;
+    }
+
+    @Override
+    public String explain(Predicate predicate) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Before:\n");
+        appendTree(sb, predicate, 1);
+        List<String> appliedRules = new ArrayList<>();
+        for (int i = 0; i < rules.size(); i++) {
+            OptimizationRule rule = rules.get(i);
+            Predicate optimized = rule.apply(domainModel, predicate);
+            if (optimized != predicate) {
+                appliedRules.add(rule.getName());
+                predicate = optimized;
+            }
+        }
+        sb.append("Applied rules: ");
+        if (appliedRules.isEmpty()) {
+            sb.append("none");
+        } else {
+            for (int i = 0; i < appliedRules.size(); i++) {
+                if (i != 0) {
+                    sb.append(", ");
+                }
+                sb.append(appliedRules.get(i));
+            }
+        }
+        sb.append("\nAfter:\n");
+        appendTree(sb, predicate, 1);
+        return sb.toString();
+    }
+
+    private void appendTree(StringBuilder sb, Predicate predicate, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        if (predicate instanceof CompoundPredicate) {
+            CompoundPredicate compoundPredicate = (CompoundPredicate) predicate;
+            if (compoundPredicate.isNegated()) {
+                sb.append("NOT ");
+            }
+            sb.append(compoundPredicate.isConjunction() ? "AND" : "OR");
+            sb.append(" [cost=").append(EvaluationCostEstimator.estimate(predicate)).append("]\n");
+            List<Predicate> predicates = compoundPredicate.getPredicates();
+            for (int i = 0; i < predicates.size(); i++) {
+                appendTree(sb, predicates.get(i), depth + 1);
+            }
+        } else {
+            new ExpressionSerializerImpl(domainModel, literalFactory).serializeTo(predicate, sb);
+            sb.append(" [cost=").append(EvaluationCostEstimator.estimate(predicate)).append("]\n");
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.ExpressionProfile;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.VisitorAdapter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A profiled expression that evaluates the expression with a frame of {@link ExpressionInterpreterImpl} that records statistics per node.
+ * The profile nodes are created up front, so that recording only looks up a node by identity and updates its counters.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionProfileImpl implements ExpressionProfile {
+
+    private final ExpressionInterpreterImpl interpreter;
+    private final Expression expression;
+    private final NodeImpl root;
+    private final Map<Expression, NodeImpl> nodes;
+    private final Map<DomainFunction, StatisticsImpl> functionStatistics;
+
+    public ExpressionProfileImpl(ExpressionInterpreterImpl interpreter, DomainModel domainModel, Expression expression) {
+        this.interpreter = interpreter;
+        this.expression = expression;
+        NodeCollector collector = new NodeCollector(new ExpressionSerializerImpl(domainModel, new LiteralFactory(domainModel)));
+        expression.accept(collector);
+        this.root = collector.root;
+        this.nodes = collector.nodes;
+        this.functionStatistics = collector.functionStatistics;
+    }
+
+    @Override
+    public Expression getExpression() {
+        return expression;
+    }
+
+    @Override
+    public <T> T evaluate(ExpressionInterpreter.Context interpreterContext) {
+        return interpreter.evaluate(expression, interpreterContext, this);
+    }
+
+    /**
+     * Records an evaluation of the given expression node that started at the given time.
+     *
+     * @param e The evaluated expression node
+     * @param startNanos The value of {@link System#nanoTime()} when the evaluation started
+     * @param result The evaluation result
+     */
+    void record(Expression e, long startNanos, Object result) {
+        long nanos = System.nanoTime() - startNanos;
+        NodeImpl node = nodes.get(e);
+        // Nodes that were added to the expression after the profile was created are not profiled
+        if (node != null) {
+            node.record(nanos, result);
+        }
+        if (e instanceof FunctionInvocation) {
+            StatisticsImpl statistics = functionStatistics.get(((FunctionInvocation) e).getFunction());
+            if (statistics != null) {
+                statistics.record(nanos, result);
+            }
+        }
+    }
+
+    @Override
+    public Node getRoot() {
+        return root;
+    }
+
+    @Override
+    public Map<DomainFunction, Statistics> getFunctionStatistics() {
+        return Collections.<DomainFunction, Statistics>unmodifiableMap(functionStatistics);
+    }
+
+    @Override
+    public void reset() {
+        for (NodeImpl node : nodes.values()) {
+            node.reset();
+        }
+        for (StatisticsImpl statistics : functionStatistics.values()) {
+            statistics.reset();
+        }
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder();
+        appendNode(sb, root, 0);
+        if (!functionStatistics.isEmpty()) {
+            sb.append("Functions:\n");
+            for (Map.Entry<DomainFunction, StatisticsImpl> entry : functionStatistics.entrySet()) {
+                sb.append("  ").append(entry.getKey().getName()).append(' ');
+                entry.getValue().appendTo(sb);
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendNode(StringBuilder sb, Node node, int depth) {
+        for (int i = 0; i < depth; i++) {
+            sb.append("  ");
+        }
+        sb.append(node.getExpressionString()).append(' ');
+        ((StatisticsImpl) node).appendTo(sb);
+        sb.append('\n');
+        List<Node> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            appendNode(sb, children.get(i), depth + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+
+    /**
+     * Creates the profile nodes for an expression tree.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class NodeCollector extends VisitorAdapter {
+
+        private final ExpressionSerializerImpl serializer;
+        private final Map<Expression, NodeImpl> nodes = new IdentityHashMap<>();
+        private final Map<DomainFunction, StatisticsImpl> functionStatistics = new LinkedHashMap<>();
+        private final Deque<NodeImpl> parents = new ArrayDeque<>();
+        private NodeImpl root;
+
+        public NodeCollector(ExpressionSerializerImpl serializer) {
+            this.serializer = serializer;
+        }
+
+        private boolean enter(Expression e) {
+            NodeImpl node = nodes.get(e);
+            boolean visitChildren = node == null;
+            if (visitChildren) {
+                StringBuilder sb = new StringBuilder();
+                serializer.serializeTo(e, sb);
+                node = new NodeImpl(e, sb.toString());
+                nodes.put(e, node);
+            }
+            NodeImpl parent = parents.peek();
+            if (parent == null) {
+                root = node;
+            } else {
+                parent.children.add(node);
+            }
+            if (visitChildren) {
+                parents.push(node);
+            }
+            // A node that is shared between parents is only expanded at its first occurrence
+            return visitChildren;
+        }
+
+        private void exit() {
+            parents.pop();
+        }
+
+        @Override
+        public void visit(ArithmeticFactor e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(ExpressionPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(BetweenPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(InPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(ChainingArithmeticExpression e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(CompoundPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(ComparisonPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(IsNullPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(IsEmptyPredicate e) {
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(FunctionInvocation e) {
+            if (!functionStatistics.containsKey(e.getFunction())) {
+                functionStatistics.put(e.getFunction(), new StatisticsImpl());
+            }
+            if (enter(e)) {
+                super.visit(e);
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(Path e) {
+            if (enter(e)) {
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(Literal e) {
+            if (enter(e)) {
+                exit();
+            }
+        }
+
+        @Override
+        public void visit(Parameter e) {
+            if (enter(e)) {
+                exit();
+            }
+        }
+    }
+
+    /**
+     * Thread-safe evaluation statistics.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static class StatisticsImpl implements Statistics {
+
+        private final LongAdder invocationCount = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder nullCount = new LongAdder();
+        private final LongAdder trueCount = new LongAdder();
+        private final LongAdder falseCount = new LongAdder();
+
+        public void record(long nanos, Object result) {
+            invocationCount.increment();
+            totalNanos.add(nanos);
+            if (result == null) {
+                nullCount.increment();
+            } else if (Boolean.TRUE.equals(result)) {
+                trueCount.increment();
+            } else if (Boolean.FALSE.equals(result)) {
+                falseCount.increment();
+            }
+        }
+
+        public void reset() {
+            invocationCount.reset();
+            totalNanos.reset();
+            nullCount.reset();
+            trueCount.reset();
+            falseCount.reset();
+        }
+
+        @Override
+        public long getInvocationCount() {
+            return invocationCount.sum();
+        }
+
+        @Override
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        @Override
+        public long getNullCount() {
+            return nullCount.sum();
+        }
+
+        @Override
+        public long getTrueCount() {
+            return trueCount.sum();
+        }
+
+        @Override
+        public long getFalseCount() {
+            return falseCount.sum();
+        }
+
+        public void appendTo(StringBuilder sb) {
+            sb.append("[invocations=").append(getInvocationCount())
+                    .append(", nanos=").append(getTotalNanos())
+                    .append(", null=").append(getNullCount())
+                    .append(", true=").append(getTrueCount())
+                    .append(", false=").append(getFalseCount())
+                    .append(']');
+        }
+    }
+
+    /**
+     * The statistics of an expression node.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class NodeImpl extends StatisticsImpl implements Node {
+
+        private final Expression expression;
+        private final String expressionString;
+        private final List<Node> children = new ArrayList<>();
+
+        public NodeImpl(Expression expression, String expressionString) {
+            this.expression = expression;
+            this.expressionString = expressionString;
+        }
+
+        @Override
+        public Expression getExpression() {
+            return expression;
+        }
+
+        @Override
+        public String getExpressionString() {
+            return expressionString;
+        }
+
+        @Override
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+    }
+}
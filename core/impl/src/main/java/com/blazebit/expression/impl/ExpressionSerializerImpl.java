@@ -34,11 +34,13 @@ import com.blazebit.expression.InPredicate;
 import com.blazebit.expression.IsEmptyPredicate;
 import com.blazebit.expression.IsNullPredicate;
 import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
 import com.blazebit.expression.Path;
 import com.blazebit.expression.Predicate;
 import com.blazebit.expression.spi.LiteralRenderer;
 
 import java.time.Instant;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -65,11 +67,21 @@ public class ExpressionSerializerImpl implements Expression.Visitor, ExpressionS
 
     @Override
     public Context createContext(Map<String, Object> contextParameters) {
+        return createContext(contextParameters, Collections.<String, Object>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, Object> contextParameters, Map<String, Object> parameters) {
         return new Context() {
             @Override
             public Object getContextParameter(String contextParameterName) {
                 return contextParameters.get(contextParameterName);
             }
+
+            @Override
+            public Object getParameter(String name) {
+                return parameters.get(name);
+            }
         };
     }
 
@@ -111,6 +123,11 @@ public class ExpressionSerializerImpl implements Expression.Visitor, ExpressionS
         sb.append(')');
     }
 
+    @Override
+    public void visit(Parameter e) {
+        sb.append(':').append(e.getName());
+    }
+
     @Override
     public void visit(Literal e) {
         Object value = e.getValue();
@@ -121,13 +138,18 @@ public class ExpressionSerializerImpl implements Expression.Visitor, ExpressionS
             case BASIC:
                 if (e.getType() == domainModel.getType(Boolean.class)) {
                     literalFactory.appendBoolean(sb, (Boolean) value);
+                    break;
                 } else if (value instanceof Number) {
                     literalFactory.appendNumeric(sb, (Number) value);
+                    break;
                 } else if (value instanceof String) {
                     literalFactory.appendString(sb, (String) value);
+                    break;
                 } else if (value instanceof Instant) {
                     literalFactory.appendInstant(sb, (Instant) value);
+                    break;
                 }
+            // Other basic values are rendered by a literal renderer
             //CHECKSTYLE:OFF: FallThrough
             case ENTITY:
             case COLLECTION:
@@ -17,12 +17,21 @@
 package com.blazebit.expression.impl;
 
 import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.ConfigurationProperties;
 import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionDeserializer;
 import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionOptimizer;
 import com.blazebit.expression.ExpressionSerializer;
 import com.blazebit.expression.ExpressionServiceFactory;
 import com.blazebit.expression.spi.ExpressionSerializerFactory;
+import com.blazebit.expression.spi.OptimizationRule;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -34,11 +43,91 @@ public class ExpressionServiceFactoryImpl implements ExpressionServiceFactory {
     private final DomainModel domainModel;
     private final LiteralFactory literalFactory;
     private final Map<Class<?>, ExpressionSerializerFactory> expressionSerializers;
+    private final ExpressionCache expressionCache;
+    private final ParsingStrategy parsingStrategy;
+    private final ExpressionCompilerType compilerType;
+    private final TypeResolutionTable typeResolutionTable;
+    private final ExpressionInterner interner;
+    private final ExpressionInterpreter interpreter;
 
     public ExpressionServiceFactoryImpl(DomainModel domainModel, Map<Class<?>, ExpressionSerializerFactory> expressionSerializers) {
+        this(domainModel, expressionSerializers, Collections.emptyMap());
+    }
+
+    public ExpressionServiceFactoryImpl(DomainModel domainModel, Map<Class<?>, ExpressionSerializerFactory> expressionSerializers, Map<String, Object> properties) {
         this.domainModel = domainModel;
         this.literalFactory = new LiteralFactory(domainModel);
         this.expressionSerializers = expressionSerializers;
+        this.expressionCache = createExpressionCache(properties);
+        this.parsingStrategy = getEnumProperty(properties, ConfigurationProperties.PARSING_STRATEGY, ParsingStrategy.TWO_STAGE);
+        this.compilerType = getEnumProperty(properties, ConfigurationProperties.COMPILER, ExpressionCompilerType.ANTLR);
+        this.typeResolutionTable = new TypeResolutionTable(domainModel);
+        this.interner = getBooleanProperty(properties, ConfigurationProperties.EXPRESSION_INTERNING) ? new ExpressionInterner() : null;
+        this.interpreter = new ExpressionInterpreterImpl(
+                domainModel,
+                // Classes are only generated for compiled expressions if a threshold is configured
+                properties.get(ConfigurationProperties.COMPILATION_THRESHOLD) == null ? -1 : getIntProperty(properties, ConfigurationProperties.COMPILATION_THRESHOLD, 0),
+                getIntProperty(properties, ConfigurationProperties.PREDICATE_REORDERING_INTERVAL, 0)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> E getEnumProperty(Map<String, Object> properties, String key, E defaultValue) {
+        Object value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        } else if (defaultValue.getDeclaringClass().isInstance(value)) {
+            return (E) value;
+        }
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.toString().trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, ex);
+        }
+    }
+
+    private static boolean getBooleanProperty(Map<String, Object> properties, String key) {
+        Object value = properties.get(key);
+        if (value == null) {
+            return false;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        return Boolean.parseBoolean(value.toString().trim());
+    }
+
+    private static ExpressionCache createExpressionCache(Map<String, Object> properties) {
+        long maximumSize = getLongProperty(properties, ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE, 0L);
+        if (maximumSize <= 0L) {
+            return null;
+        }
+        if (maximumSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid value for " + ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_SIZE + ": " + maximumSize);
+        }
+        long maximumWeight = getLongProperty(properties, ConfigurationProperties.EXPRESSION_CACHE_MAXIMUM_WEIGHT, Long.MAX_VALUE);
+        return new ExpressionCache((int) maximumSize, maximumWeight);
+    }
+
+    private static int getIntProperty(Map<String, Object> properties, String key, int defaultValue) {
+        long value = getLongProperty(properties, key, defaultValue);
+        if (value < 0L || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value);
+        }
+        return (int) value;
+    }
+
+    private static long getLongProperty(Map<String, Object> properties, String key, long defaultValue) {
+        Object value = properties.get(key);
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, ex);
+        }
     }
 
     @Override
@@ -46,14 +135,46 @@ public class ExpressionServiceFactoryImpl implements ExpressionServiceFactory {
         return domainModel;
     }
 
+    /**
+     * Returns the expression cache that is shared by all compilers of this factory or <code>null</code> if caching is disabled.
+     *
+     * @return the expression cache or <code>null</code>
+     */
+    public ExpressionCache getExpressionCache() {
+        return expressionCache;
+    }
+
+    /**
+     * Returns the operator and predicate type resolution table that is shared by all compilers of this factory.
+     *
+     * @return the type resolution table
+     */
+    public TypeResolutionTable getTypeResolutionTable() {
+        return typeResolutionTable;
+    }
+
     @Override
     public ExpressionCompiler createCompiler() {
-        return new ExpressionCompilerImpl(domainModel, literalFactory);
+        if (compilerType == ExpressionCompilerType.PRATT) {
+            return new PrattExpressionCompiler(domainModel, literalFactory, expressionCache, typeResolutionTable, interner);
+        }
+        return new ExpressionCompilerImpl(domainModel, literalFactory, expressionCache, parsingStrategy, typeResolutionTable, interner);
     }
 
     @Override
     public ExpressionInterpreter createInterpreter() {
-        return new ExpressionInterpreterImpl(domainModel);
+        // The interpreter is stateless, so all callers can share a single instance
+        return interpreter;
+    }
+
+    @Override
+    public ExpressionOptimizer createOptimizer() {
+        return new ExpressionOptimizerImpl(domainModel, literalFactory);
+    }
+
+    @Override
+    public ExpressionOptimizer createOptimizer(List<OptimizationRule> rules) {
+        return new ExpressionOptimizerImpl(domainModel, literalFactory, rules);
     }
 
     @Override
@@ -61,6 +182,17 @@ public class ExpressionServiceFactoryImpl implements ExpressionServiceFactory {
         if (serializationTarget == StringBuilder.class) {
             return (ExpressionSerializer<T>) new ExpressionSerializerImpl(domainModel, literalFactory);
         }
+        if (serializationTarget == DataOutput.class) {
+            return (ExpressionSerializer<T>) new BinaryExpressionSerializer(domainModel, literalFactory);
+        }
         return (ExpressionSerializer<T>) expressionSerializers.get(serializationTarget).createSerializer(domainModel);
     }
+
+    @Override
+    public <T> ExpressionDeserializer<T> createDeserializer(Class<T> serializationSource) {
+        if (serializationSource == DataInput.class) {
+            return (ExpressionDeserializer<T>) new BinaryExpressionDeserializer(domainModel, literalFactory, this, interner);
+        }
+        return ExpressionServiceFactory.super.createDeserializer(serializationSource);
+    }
 }
@@ -0,0 +1,492 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.SyntaxErrorException;
+
+import java.util.Arrays;
+
+/**
+ * A hand-written tokenizer that produces the same tokens as the generated {@link PredicateLexer}.
+ *
+ * The tokens are stored in parallel arrays, so tokenizing does not allocate an object per token.
+ * Token types are the ones defined by {@link PredicateLexer}, hidden whitespace is skipped.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class ExpressionTokenizer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String input;
+    private int[] types;
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    public ExpressionTokenizer(String input) {
+        this.input = input;
+        int capacity = Math.max(INITIAL_CAPACITY, input.length() >> 2);
+        this.types = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        tokenize();
+    }
+
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Returns the number of tokens, excluding the EOF token.
+     *
+     * @return the number of tokens
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the type of the token at the given index or {@link PredicateLexer#EOF} if the index is out of bounds.
+     *
+     * @param index The token index
+     * @return the token type
+     */
+    public int getType(int index) {
+        return index < size ? types[index] : PredicateLexer.EOF;
+    }
+
+    public int getStart(int index) {
+        return index < size ? starts[index] : input.length();
+    }
+
+    public int getEnd(int index) {
+        return index < size ? ends[index] : input.length();
+    }
+
+    /**
+     * Returns the text of the token at the given index like {@link org.antlr.v4.runtime.Token#getText()} would return it,
+     * which means that the quotes of string literals are removed.
+     *
+     * @param index The token index
+     * @return the token text
+     */
+    public String getText(int index) {
+        if (index >= size) {
+            return "<EOF>";
+        }
+        int start = starts[index];
+        int end = ends[index];
+        if (types[index] == PredicateLexer.STRING_LITERAL) {
+            String text = input.substring(start + 1, end - 1);
+            if (input.charAt(start) == '\'') {
+                return text.replace("''", "'");
+            }
+            return text;
+        }
+        return input.substring(start, end);
+    }
+
+    /**
+     * Returns whether the token at the given index can be used as identifier.
+     *
+     * @param index The token index
+     * @return whether the token is an identifier
+     */
+    public boolean isIdentifier(int index) {
+        switch (getType(index)) {
+            case PredicateLexer.IDENTIFIER:
+            case PredicateLexer.AND:
+            case PredicateLexer.BETWEEN:
+            case PredicateLexer.DAYS:
+            case PredicateLexer.HOURS:
+            case PredicateLexer.IN:
+            case PredicateLexer.IS:
+            case PredicateLexer.MINUTES:
+            case PredicateLexer.MONTHS:
+            case PredicateLexer.NOT:
+            case PredicateLexer.OR:
+            case PredicateLexer.SECONDS:
+            case PredicateLexer.TIMESTAMP:
+            case PredicateLexer.YEARS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Creates a syntax error for the given offset in the input with a message like the one produced for the generated parser.
+     *
+     * @param offset The offset in the input
+     * @param reason The reason for the error
+     * @return the syntax error
+     */
+    public SyntaxErrorException syntaxError(int offset, String reason) {
+        int line = 1;
+        int lineStart = 0;
+        for (int i = 0; i < offset; i++) {
+            if (input.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        return new SyntaxErrorException("Unexpected input at line " + line + ", col " + (offset - lineStart) + ". " + reason);
+    }
+
+    private void tokenize() {
+        String input = this.input;
+        int length = input.length();
+        int i = 0;
+        while (i < length) {
+            char c = input.charAt(i);
+            int start = i;
+            int type;
+            switch (c) {
+                case ' ':
+                case '\t':
+                case '\f':
+                case '\r':
+                case '\n':
+                    i++;
+                    continue;
+                case '"':
+                    i = matchQuoted(i, '"', false);
+                    type = PredicateLexer.STRING_LITERAL;
+                    break;
+                case '\'':
+                    i = matchQuoted(i, '\'', true);
+                    type = PredicateLexer.STRING_LITERAL;
+                    break;
+                case '`':
+                    i = matchQuoted(i, '`', false);
+                    type = PredicateLexer.QUOTED_IDENTIFIER;
+                    break;
+                case '<':
+                    if (i + 1 < length && input.charAt(i + 1) == '=') {
+                        i += 2;
+                        type = PredicateLexer.LESS_EQUAL;
+                    } else if (i + 1 < length && input.charAt(i + 1) == '>') {
+                        i += 2;
+                        type = PredicateLexer.NOT_EQUAL;
+                    } else {
+                        i++;
+                        type = PredicateLexer.LESS;
+                    }
+                    break;
+                case '>':
+                    if (i + 1 < length && input.charAt(i + 1) == '=') {
+                        i += 2;
+                        type = PredicateLexer.GREATER_EQUAL;
+                    } else {
+                        i++;
+                        type = PredicateLexer.GREATER;
+                    }
+                    break;
+                case '!':
+                    if (i + 1 < length && input.charAt(i + 1) == '=') {
+                        i += 2;
+                        type = PredicateLexer.NOT_EQUAL;
+                    } else {
+                        i++;
+                        type = PredicateLexer.EXCLAMATION_MARK;
+                    }
+                    break;
+                case '=':
+                    i++;
+                    type = PredicateLexer.EQUAL;
+                    break;
+                case '+':
+                    i++;
+                    type = PredicateLexer.PLUS;
+                    break;
+                case '-':
+                    i++;
+                    type = PredicateLexer.MINUS;
+                    break;
+                case '*':
+                    i++;
+                    type = PredicateLexer.ASTERISK;
+                    break;
+                case '/':
+                    i++;
+                    type = PredicateLexer.SLASH;
+                    break;
+                case '%':
+                    i++;
+                    type = PredicateLexer.PERCENT;
+                    break;
+                case '(':
+                    i++;
+                    type = PredicateLexer.LP;
+                    break;
+                case ')':
+                    i++;
+                    type = PredicateLexer.RP;
+                    break;
+                case '[':
+                    i++;
+                    type = PredicateLexer.LB;
+                    break;
+                case ']':
+                    i++;
+                    type = PredicateLexer.RB;
+                    break;
+                case ',':
+                    i++;
+                    type = PredicateLexer.COMMA;
+                    break;
+                case '.':
+                    i++;
+                    type = PredicateLexer.DOT;
+                    break;
+                case ':':
+                    i++;
+                    type = PredicateLexer.COLON;
+                    break;
+                default:
+                    if (isDigit(c)) {
+                        if (c == '0' && i + 1 < length && isDigit(input.charAt(i + 1))) {
+                            i = skipDigits(i + 1);
+                            type = PredicateLexer.LEADING_ZERO_NUMERIC_LITERAL;
+                        } else {
+                            i = matchNumericLiteral(i);
+                            type = PredicateLexer.NUMERIC_LITERAL;
+                        }
+                    } else if (isIdentifierStart(c)) {
+                        i++;
+                        while (i < length && isIdentifierPart(input.charAt(i))) {
+                            i++;
+                        }
+                        type = keywordOrIdentifier(start, i);
+                    } else {
+                        throw syntaxError(start, "Unexpected input at '" + c + "'.");
+                    }
+                    break;
+            }
+            addToken(type, start, i);
+        }
+    }
+
+    private void addToken(int type, int start, int end) {
+        if (size == types.length) {
+            int newCapacity = size << 1;
+            types = Arrays.copyOf(types, newCapacity);
+            starts = Arrays.copyOf(starts, newCapacity);
+            ends = Arrays.copyOf(ends, newCapacity);
+        }
+        types[size] = type;
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    private int matchNumericLiteral(int start) {
+        String input = this.input;
+        int length = input.length();
+        int i = input.charAt(start) == '0' ? start + 1 : skipDigits(start);
+        if (i + 1 < length && input.charAt(i) == '.' && isDigit(input.charAt(i + 1))) {
+            i = skipDigits(i + 1);
+        }
+        if (i + 1 < length && (input.charAt(i) == 'e' || input.charAt(i) == 'E')) {
+            char c = input.charAt(i + 1);
+            if (isDigit(c)) {
+                i = skipDigits(i + 1);
+            } else if ((c == '+' || c == '-') && i + 2 < length && isDigit(input.charAt(i + 2))) {
+                i = skipDigits(i + 2);
+            }
+        }
+        return i;
+    }
+
+    private int skipDigits(int i) {
+        String input = this.input;
+        int length = input.length();
+        while (i < length && isDigit(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Returns the end of the longest quoted literal that starts at the given index.
+     * Like the generated lexer, a backslash must be followed by a valid escape sequence and <code>\\"</code> is an escape sequence on its own.
+     *
+     * @param start The index of the opening quote
+     * @param quote The quote character
+     * @param repeatable Whether a quote directly following the closing quote starts another segment of the same literal
+     * @return the end index of the literal
+     */
+    private int matchQuoted(int start, char quote, boolean repeatable) {
+        String input = this.input;
+        int length = input.length();
+        int accepted = -1;
+        int i = start + 1;
+        while (i < length) {
+            char c = input.charAt(i);
+            if (c == quote) {
+                accepted = i + 1;
+                if (repeatable && i + 1 < length && input.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                break;
+            } else if (c == '\\') {
+                if (i + 1 == length) {
+                    break;
+                }
+                char escaped = input.charAt(i + 1);
+                switch (escaped) {
+                    case 'b':
+                    case 't':
+                    case 'n':
+                    case 'f':
+                    case 'r':
+                    case '\'':
+                        i += 2;
+                        break;
+                    case '\\':
+                        if (i + 2 < length && input.charAt(i + 2) == '"') {
+                            // Either the escape sequence \\ followed by the closing quote or the escape sequence \\"
+                            if (quote == '"') {
+                                accepted = i + 3;
+                            }
+                            i += 3;
+                        } else {
+                            i += 2;
+                        }
+                        break;
+                    case 'u':
+                        if (i + 5 < length && isHexDigit(input.charAt(i + 2)) && isHexDigit(input.charAt(i + 3)) && isHexDigit(input.charAt(i + 4)) && isHexDigit(input.charAt(i + 5))) {
+                            i += 6;
+                            break;
+                        }
+                        i = length;
+                        break;
+                    default:
+                        i = length;
+                        break;
+                }
+            } else {
+                i++;
+            }
+        }
+        if (accepted == -1) {
+            throw syntaxError(start, "Unexpected input at '" + quote + "'.");
+        }
+        return accepted;
+    }
+
+    private int keywordOrIdentifier(int start, int end) {
+        switch (end - start) {
+            case 2:
+                if (matches(start, "in")) {
+                    return PredicateLexer.IN;
+                } else if (matches(start, "is")) {
+                    return PredicateLexer.IS;
+                } else if (matches(start, "or")) {
+                    return PredicateLexer.OR;
+                }
+                break;
+            case 3:
+                if (matches(start, "and")) {
+                    return PredicateLexer.AND;
+                } else if (matches(start, "not")) {
+                    return PredicateLexer.NOT;
+                }
+                break;
+            case 4:
+                if (matches(start, "days")) {
+                    return PredicateLexer.DAYS;
+                } else if (matches(start, "null")) {
+                    return PredicateLexer.NULL;
+                } else if (matches(start, "true")) {
+                    return PredicateLexer.TRUE;
+                }
+                break;
+            case 5:
+                if (matches(start, "empty")) {
+                    return PredicateLexer.EMPTY;
+                } else if (matches(start, "false")) {
+                    return PredicateLexer.FALSE;
+                } else if (matches(start, "hours")) {
+                    return PredicateLexer.HOURS;
+                } else if (matches(start, "years")) {
+                    return PredicateLexer.YEARS;
+                }
+                break;
+            case 6:
+                if (matches(start, "months")) {
+                    return PredicateLexer.MONTHS;
+                }
+                break;
+            case 7:
+                if (matches(start, "between")) {
+                    return PredicateLexer.BETWEEN;
+                } else if (matches(start, "minutes")) {
+                    return PredicateLexer.MINUTES;
+                } else if (matches(start, "seconds")) {
+                    return PredicateLexer.SECONDS;
+                }
+                break;
+            case 8:
+                if (matches(start, "interval")) {
+                    return PredicateLexer.INTERVAL;
+                }
+                break;
+            case 9:
+                if (matches(start, "timestamp")) {
+                    return PredicateLexer.TIMESTAMP;
+                }
+                break;
+            default:
+                break;
+        }
+        return PredicateLexer.IDENTIFIER;
+    }
+
+    private boolean matches(int start, String lowerCaseKeyword) {
+        for (int i = 0; i < lowerCaseKeyword.length(); i++) {
+            char c = input.charAt(start + i);
+            // Only ASCII letters are matched case insensitively, just like in the lexer grammar
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + ('a' - 'A'));
+            }
+            if (c != lowerCaseKeyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHexDigit(char c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+
+    private static boolean isIdentifierStart(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c == '_' || c == '$' || c >= '\u0080' && c <= '\ufffe';
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return isIdentifierStart(c) || isDigit(c);
+    }
+}
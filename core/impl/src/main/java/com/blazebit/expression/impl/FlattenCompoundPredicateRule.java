@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the operands of nested compound predicates of the same kind into the parent, so that
+ * <code>a AND (b AND c)</code> becomes <code>a AND b AND c</code>, and replaces compound predicates with a single operand by that operand.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class FlattenCompoundPredicateRule extends AbstractOptimizationRule {
+
+    public FlattenCompoundPredicateRule() {
+        super("flatten");
+    }
+
+    @Override
+    protected Predicate rewrite(DomainModel domainModel, CompoundPredicate compoundPredicate) {
+        List<Predicate> predicates = compoundPredicate.getPredicates();
+        List<Predicate> flattenedPredicates = null;
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate predicate = predicates.get(i);
+            if (isMergeable(compoundPredicate, predicate)) {
+                if (flattenedPredicates == null) {
+                    flattenedPredicates = new ArrayList<>(predicates.subList(0, i));
+                }
+                flattenedPredicates.addAll(((CompoundPredicate) predicate).getPredicates());
+            } else if (flattenedPredicates != null) {
+                flattenedPredicates.add(predicate);
+            }
+        }
+        if (flattenedPredicates != null) {
+            compoundPredicate = withPredicates(compoundPredicate, flattenedPredicates);
+        }
+        if (compoundPredicate.getPredicates().size() == 1) {
+            return unwrap(compoundPredicate, compoundPredicate.getPredicates().get(0));
+        }
+        return compoundPredicate;
+    }
+
+    private static boolean isMergeable(CompoundPredicate parent, Predicate predicate) {
+        // Empty compound predicates are not neutral in the interpreter, so they can't be merged
+        return predicate instanceof CompoundPredicate
+            && !predicate.isNegated()
+            && ((CompoundPredicate) predicate).isConjunction() == parent.isConjunction()
+            && !((CompoundPredicate) predicate).getPredicates().isEmpty();
+    }
+}
@@ -283,6 +283,13 @@ public class LiteralFactory {
         return numericLiteralResolver.resolveLiteral(domainModel, bigDecimal);
     }
 
+    public ResolvedLiteral ofNumber(Number number) {
+        if (numericLiteralResolver == null) {
+            throw new DomainModelException("No literal resolver for numeric literals defined");
+        }
+        return numericLiteralResolver.resolveLiteral(domainModel, number);
+    }
+
     public void appendNumeric(StringBuilder sb, Number value) {
         sb.append(value);
     }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.spi.EqualityKeyProvider;
+import com.blazebit.expression.spi.ImmutableInItems;
+
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * An immutable list of literal IN predicate items that lazily builds a hash set of the equality keys of the items on first use,
+ * so that the membership check of an IN predicate with many items doesn't have to compare every item.
+ *
+ * Since the set is attached to the list, it is retained when an IN predicate is copied with the same items.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class LiteralInItems extends AbstractList<ArithmeticExpression> implements RandomAccess, ImmutableInItems {
+
+    /**
+     * The minimum number of literal items for which a hash lookup is used.
+     */
+    static final int THRESHOLD = 8;
+
+    private final ArithmeticExpression[] items;
+    private volatile EqualityKeys equalityKeys;
+
+    private LiteralInItems(ArithmeticExpression[] items) {
+        this.items = items;
+    }
+
+    /**
+     * Returns a list that supports hash based membership checks if all items are literals and there are enough items, otherwise the given list.
+     *
+     * @param inItems The IN predicate items
+     * @return the IN predicate items to use
+     */
+    public static List<ArithmeticExpression> of(List<ArithmeticExpression> inItems) {
+        if (inItems instanceof LiteralInItems) {
+            return inItems;
+        }
+        if (inItems.size() < THRESHOLD) {
+            return inItems;
+        }
+        for (int i = 0; i < inItems.size(); i++) {
+            if (!(inItems.get(i) instanceof Literal)) {
+                return inItems;
+            }
+        }
+        return new LiteralInItems(inItems.toArray(new ArithmeticExpression[inItems.size()]));
+    }
+
+    @Override
+    public ArithmeticExpression get(int index) {
+        return items[index];
+    }
+
+    @Override
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns the set of equality keys of the items as determined by the given equality key provider
+     * or <code>null</code> if one of the items has no equality key.
+     *
+     * @param equalityKeyProvider The equality key provider
+     * @return the equality keys or <code>null</code>
+     */
+    public Set<Object> getEqualityKeys(EqualityKeyProvider equalityKeyProvider) {
+        EqualityKeys keys = equalityKeys;
+        if (keys == null || keys.equalityKeyProvider != equalityKeyProvider) {
+            // Racing threads compute the same keys, so we don't need to synchronize
+            keys = new EqualityKeys(equalityKeyProvider, computeEqualityKeys(equalityKeyProvider));
+            equalityKeys = keys;
+        }
+        return keys.keys;
+    }
+
+    private Set<Object> computeEqualityKeys(EqualityKeyProvider equalityKeyProvider) {
+        Set<Object> keys = new HashSet<>(items.length * 4 / 3 + 1);
+        for (int i = 0; i < items.length; i++) {
+            Literal literal = (Literal) items[i];
+            Object key = equalityKeyProvider.getEqualityKey(literal.getType(), literal.getValue());
+            if (key == null) {
+                return null;
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class EqualityKeys {
+        private final EqualityKeyProvider equalityKeyProvider;
+        private final Set<Object> keys;
+
+        public EqualityKeys(EqualityKeyProvider equalityKeyProvider, Set<Object> keys) {
+            this.equalityKeyProvider = equalityKeyProvider;
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pushes the negation of compound predicates down to the leaves by applying De Morgan's laws, so that
+ * <code>NOT(a AND b)</code> becomes <code>NOT a OR NOT b</code>.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class NegationPushdownRule extends AbstractOptimizationRule {
+
+    public NegationPushdownRule() {
+        super("negation-pushdown");
+    }
+
+    @Override
+    public Predicate apply(DomainModel domainModel, Predicate predicate) {
+        if (predicate instanceof CompoundPredicate && predicate.isNegated()) {
+            CompoundPredicate compoundPredicate = (CompoundPredicate) predicate;
+            List<Predicate> predicates = compoundPredicate.getPredicates();
+            // The interpreter treats empty compound predicates specially, so we leave them alone
+            if (!predicates.isEmpty()) {
+                List<Predicate> negatedPredicates = new ArrayList<>(predicates.size());
+                for (int i = 0; i < predicates.size(); i++) {
+                    negatedPredicates.add(negate(predicates.get(i)));
+                }
+                predicate = new CompoundPredicate(compoundPredicate.getType(), negatedPredicates, !compoundPredicate.isConjunction(), false);
+            }
+        }
+        return super.apply(domainModel, predicate);
+    }
+
+    @Override
+    protected Predicate rewrite(DomainModel domainModel, CompoundPredicate compoundPredicate) {
+        return compoundPredicate;
+    }
+}
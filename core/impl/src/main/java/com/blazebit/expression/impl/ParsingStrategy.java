@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+/**
+ * The strategy for running the generated parser.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public enum ParsingStrategy {
+
+    /**
+     * Parses with full LL prediction and reports syntax errors as they are encountered.
+     */
+    LL,
+    /**
+     * Parses with the faster SLL prediction and bails out on the first error,
+     * after which the input is parsed again with full LL prediction to either produce the correct parse tree or report the syntax error.
+     * This is the default.
+     */
+    TWO_STAGE;
+}
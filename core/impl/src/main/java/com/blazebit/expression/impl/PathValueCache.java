@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.spi.AttributeAccessor;
+import com.blazebit.expression.spi.TypeAdapter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache for the values of paths that shares the values of common path prefixes, so that every distinct attribute chain
+ * is resolved and adapted at most once. The cache is not thread-safe.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class PathValueCache {
+
+    private final Map<String, Node> roots = new HashMap<>();
+
+    /**
+     * Returns the value of the path with the given alias and attributes in the internal representation,
+     * resolving and caching the values of all prefixes that were not resolved yet.
+     *
+     * @param context The interpreter context
+     * @param alias The root variable name
+     * @param attributes The attributes of the path
+     * @return the path value
+     */
+    public Object getValue(ExpressionInterpreter.Context context, String alias, List<EntityDomainTypeAttribute> attributes) {
+        Node node = roots.get(alias);
+        if (node == null) {
+            node = new Node(context.getRoot(alias));
+            roots.put(alias, node);
+        }
+        for (int i = 0; i < attributes.size(); i++) {
+            if (node.value == null) {
+                return null;
+            }
+            node = node.getChild(context, attributes.get(i));
+        }
+        return node.value;
+    }
+
+    /**
+     * The value of a path prefix along with the values of the paths it is a prefix of.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class Node {
+
+        private final Object value;
+        private Map<EntityDomainTypeAttribute, Node> children;
+
+        public Node(Object value) {
+            this.value = value;
+        }
+
+        public Node getChild(ExpressionInterpreter.Context context, EntityDomainTypeAttribute attribute) {
+            if (children == null) {
+                children = new HashMap<>();
+            } else {
+                Node child = children.get(attribute);
+                if (child != null) {
+                    return child;
+                }
+            }
+            AttributeAccessor attributeAccessor = attribute.getMetadata(AttributeAccessor.class);
+            if (attributeAccessor == null) {
+                throw new IllegalArgumentException("No attribute accessor available for attribute: " + attribute);
+            }
+            Object childValue = attributeAccessor.getAttribute(value, attribute);
+            @SuppressWarnings("unchecked")
+            TypeAdapter<Object, Object> adapter = attribute.getMetadata(TypeAdapter.class);
+            if (adapter != null) {
+                childValue = adapter.toInternalType(context, childValue, attribute.getType());
+            }
+            Node child = new Node(childValue);
+            children.put(attribute, child);
+            return child;
+        }
+    }
+}
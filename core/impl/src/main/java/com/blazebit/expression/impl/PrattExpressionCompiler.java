@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.Predicate;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * An expression compiler that uses a hand-written precedence climbing parser instead of the generated parser.
+ *
+ * It accepts the same language and produces the same expression model as {@link ExpressionCompilerImpl},
+ * but does not allocate a parse tree and tokenizes into primitive arrays.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class PrattExpressionCompiler implements ExpressionCompiler {
+
+    private final DomainModel domainModel;
+    private final LiteralFactory literalFactory;
+    private final ExpressionCache expressionCache;
+    private final TypeResolutionTable typeResolutionTable;
+    private final ExpressionInterner interner;
+
+    public PrattExpressionCompiler(DomainModel domainModel, LiteralFactory literalFactory) {
+        this(domainModel, literalFactory, null);
+    }
+
+    public PrattExpressionCompiler(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache) {
+        this(domainModel, literalFactory, expressionCache, new TypeResolutionTable(domainModel));
+    }
+
+    public PrattExpressionCompiler(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache, TypeResolutionTable typeResolutionTable) {
+        this(domainModel, literalFactory, expressionCache, typeResolutionTable, null);
+    }
+
+    PrattExpressionCompiler(DomainModel domainModel, LiteralFactory literalFactory, ExpressionCache expressionCache, TypeResolutionTable typeResolutionTable, ExpressionInterner interner) {
+        this.domainModel = domainModel;
+        this.literalFactory = literalFactory;
+        this.expressionCache = expressionCache;
+        this.typeResolutionTable = typeResolutionTable;
+        this.interner = interner;
+    }
+
+    @Override
+    public Context createContext(Map<String, DomainType> rootDomainTypes) {
+        return new ExpressionCompilerImpl.CompileContext(rootDomainTypes, Collections.<String, Object>emptyMap(), Collections.<String, DomainType>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties) {
+        return new ExpressionCompilerImpl.CompileContext(rootDomainTypes, properties, Collections.<String, DomainType>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, DomainType> rootDomainTypes, Map<String, Object> properties, Map<String, DomainType> parameterDomainTypes) {
+        return new ExpressionCompilerImpl.CompileContext(rootDomainTypes, properties, parameterDomainTypes);
+    }
+
+    @Override
+    public Expression createExpression(String expressionString, Context compileContext) {
+        return parse(expressionString, PrattExpressionParser.Rule.EXPRESSION, compileContext);
+    }
+
+    @Override
+    public Predicate createPredicate(String expressionString, Context compileContext) {
+        return (Predicate) parse(expressionString, PrattExpressionParser.Rule.PREDICATE, compileContext);
+    }
+
+    @Override
+    public Expression createExpressionOrPredicate(String expressionString, Context compileContext) {
+        return parse(expressionString, PrattExpressionParser.Rule.EXPRESSION_OR_PREDICATE, compileContext);
+    }
+
+    public LiteralFactory getLiteralFactory() {
+        return literalFactory;
+    }
+
+    public ExpressionCache getExpressionCache() {
+        return expressionCache;
+    }
+
+    public TypeResolutionTable getTypeResolutionTable() {
+        return typeResolutionTable;
+    }
+
+    private Expression parse(String input, PrattExpressionParser.Rule rule, Context compileContext) {
+        // Only our own compile context allows to determine the full set of root variables and properties which is part of the cache key
+        if (expressionCache == null || !(compileContext instanceof ExpressionCompilerImpl.CompileContext)) {
+            return compile(input, rule, compileContext);
+        }
+        Expression expression = expressionCache.get(new ExpressionCache.Key(input, rule, compileContext));
+        if (expression == null) {
+            expression = compile(input, rule, compileContext);
+            expressionCache.put(new ExpressionCache.Key(input, rule, ((ExpressionCompilerImpl.CompileContext) compileContext).copy()), expression);
+        }
+        return expression;
+    }
+
+    private Expression compile(String input, PrattExpressionParser.Rule rule, Context compileContext) {
+        ExpressionModelFactory modelFactory = new ExpressionModelFactory(domainModel, literalFactory, compileContext, typeResolutionTable);
+        Expression expression = new PrattExpressionParser(new ExpressionTokenizer(input), modelFactory).parse(rule);
+        return ExpressionCompilerImpl.postProcess(expression, modelFactory, compileContext, interner);
+    }
+}
@@ -0,0 +1,705 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.EntityDomainType;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticOperatorType;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.SyntaxErrorException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hand-written precedence climbing parser for the grammar defined by {@link PredicateParser} that builds the expression model directly.
+ *
+ * The parser resolves ambiguities and operator precedences exactly like the generated parser does.
+ * In particular, every binary arithmetic operator has its own precedence level in the order <code>*</code>, <code>/</code>, <code>%</code>, <code>+</code>, <code>-</code>,
+ * followed by unary minus and unary plus, which apply to the whole following arithmetic expression.
+ *
+ * Since the generated parser reports syntax errors before building the model, a failed parse is repeated without building the model
+ * so that a syntax error is reported in favor of an error that happened while building the model.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class PrattExpressionParser {
+
+    private static final int KIND_PREDICATE = 0;
+    private static final int KIND_EXPRESSION = 1;
+    private static final int KIND_PATH = 2;
+    private static final int KIND_FUNCTION = 3;
+    private static final int KIND_NAMED_INVOCATION = 4;
+    private static final int KIND_PARAMETER = 5;
+
+    private static final int MULTIPLICATION_PRECEDENCE = 10;
+    private static final int DIVISION_PRECEDENCE = 9;
+    private static final int MODULO_PRECEDENCE = 8;
+    private static final int ADDITION_PRECEDENCE = 7;
+    private static final int SUBTRACTION_PRECEDENCE = 6;
+    private static final int UNARY_MINUS_PRECEDENCE = 5;
+    private static final int UNARY_PLUS_PRECEDENCE = 4;
+    private static final int AND_PRECEDENCE = 14;
+    private static final int OR_PRECEDENCE = 13;
+    private static final int NOT_PRECEDENCE = 15;
+
+    private final ExpressionTokenizer tokens;
+    private final ExpressionModelFactory modelFactory;
+    private boolean build = true;
+    private int position;
+    // The syntactic kind of the last parsed construct
+    private int kind;
+    // The token range of the last parsed function invocation
+    private int functionStart;
+    private int functionEnd;
+    // A named invocation that is either an entity literal or a function invocation, depending on the context it is used in
+    private String pendingName;
+    private List<String> pendingArgumentNames;
+    private List<Expression> pendingArguments;
+
+    public PrattExpressionParser(ExpressionTokenizer tokens, ExpressionModelFactory modelFactory) {
+        this.tokens = tokens;
+        this.modelFactory = modelFactory;
+    }
+
+    public Expression parse(Rule rule) {
+        try {
+            return parseRule(rule);
+        } catch (RuntimeException ex) {
+            build = false;
+            position = 0;
+            pendingName = null;
+            parseRule(rule);
+            throw ex;
+        }
+    }
+
+    private Expression parseRule(Rule rule) {
+        Expression expression;
+        switch (rule) {
+            case PREDICATE:
+                expression = parsePredicate(0, false);
+                break;
+            case EXPRESSION:
+                expression = parseExpression(0);
+                break;
+            case EXPRESSION_OR_PREDICATE:
+                expression = toExpression(parsePredicate(0, true));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported rule: " + rule);
+        }
+        if (la(0) != PredicateLexer.EOF) {
+            throw unexpectedToken();
+        }
+        return expression;
+    }
+
+    private Expression parsePredicate(int minPrecedence, boolean allowExpression) {
+        Expression left = parsePredicatePrimary(allowExpression);
+        int type = la(0);
+        if (kind != KIND_PREDICATE) {
+            if (allowExpression && type != PredicateLexer.AND && type != PredicateLexer.OR) {
+                return left;
+            }
+            left = toPredicate(left);
+        }
+        while (true) {
+            type = la(0);
+            if (type == PredicateLexer.AND && minPrecedence <= AND_PRECEDENCE) {
+                position++;
+                Predicate right = (Predicate) parsePredicate(AND_PRECEDENCE + 1, false);
+                left = build ? modelFactory.createConjunction((Predicate) left, right) : null;
+            } else if (type == PredicateLexer.OR && minPrecedence <= OR_PRECEDENCE) {
+                position++;
+                Predicate right = (Predicate) parsePredicate(OR_PRECEDENCE + 1, false);
+                left = build ? modelFactory.createDisjunction((Predicate) left, right) : null;
+            } else {
+                kind = KIND_PREDICATE;
+                return left;
+            }
+        }
+    }
+
+    private Expression parsePredicatePrimary(boolean allowExpression) {
+        int type = la(0);
+        if (type == PredicateLexer.LP) {
+            // Either a grouped predicate or a grouped expression, which is decided by the parenthesized content and what follows
+            position++;
+            Expression expression = parsePredicate(0, true);
+            match(PredicateLexer.RP);
+            if (kind == KIND_PREDICATE) {
+                return expression;
+            }
+            return parsePredicateSuffix(expression);
+        } else if (type == PredicateLexer.EXCLAMATION_MARK || type == PredicateLexer.NOT && isNegation()) {
+            position++;
+            Predicate predicate = (Predicate) parsePredicate(NOT_PRECEDENCE, false);
+            kind = KIND_PREDICATE;
+            return build ? modelFactory.negate(predicate) : null;
+        }
+        return parsePredicateSuffix(parsePrimaryExpression(true));
+    }
+
+    private boolean isNegation() {
+        // NOT is also an identifier, so it is only a negation if it is not followed by something that requires an expression
+        switch (la(1)) {
+            case PredicateLexer.DOT:
+            case PredicateLexer.EQUAL:
+            case PredicateLexer.NOT_EQUAL:
+            case PredicateLexer.GREATER:
+            case PredicateLexer.GREATER_EQUAL:
+            case PredicateLexer.LESS:
+            case PredicateLexer.LESS_EQUAL:
+            case PredicateLexer.ASTERISK:
+            case PredicateLexer.SLASH:
+            case PredicateLexer.PERCENT:
+            case PredicateLexer.IS:
+            case PredicateLexer.AND:
+            case PredicateLexer.OR:
+            case PredicateLexer.RP:
+            case PredicateLexer.COMMA:
+            case PredicateLexer.EOF:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private Expression parsePredicateSuffix(Expression expression) {
+        if (getBinaryOperatorPrecedence(la(0)) != -1) {
+            expression = parseExpressionRest((ArithmeticExpression) toExpression(expression), 0);
+        }
+        ComparisonOperator comparisonOperator;
+        switch (la(0)) {
+            case PredicateLexer.IS:
+                expression = toExpression(expression);
+                position++;
+                boolean negated = accept(PredicateLexer.NOT);
+                kind = KIND_PREDICATE;
+                if (accept(PredicateLexer.NULL)) {
+                    return build ? modelFactory.createIsNullPredicate(expression, negated) : null;
+                } else if (accept(PredicateLexer.EMPTY)) {
+                    return build ? modelFactory.createIsEmptyPredicate(expression, negated) : null;
+                }
+                throw unexpectedToken();
+            case PredicateLexer.NOT:
+                if (la(1) == PredicateLexer.IN) {
+                    position += 2;
+                    return parseInPredicate((ArithmeticExpression) toExpression(expression), true);
+                } else if (la(1) == PredicateLexer.BETWEEN) {
+                    position += 2;
+                    // The generated model generator ignores the negation as well
+                    return parseBetweenPredicate((ArithmeticExpression) toExpression(expression));
+                }
+                return expression;
+            case PredicateLexer.IN:
+                position++;
+                return parseInPredicate((ArithmeticExpression) toExpression(expression), false);
+            case PredicateLexer.BETWEEN:
+                position++;
+                return parseBetweenPredicate((ArithmeticExpression) toExpression(expression));
+            case PredicateLexer.EQUAL:
+                comparisonOperator = ComparisonOperator.EQUAL;
+                break;
+            case PredicateLexer.NOT_EQUAL:
+                comparisonOperator = ComparisonOperator.NOT_EQUAL;
+                break;
+            case PredicateLexer.GREATER:
+                comparisonOperator = ComparisonOperator.GREATER;
+                break;
+            case PredicateLexer.GREATER_EQUAL:
+                comparisonOperator = ComparisonOperator.GREATER_OR_EQUAL;
+                break;
+            case PredicateLexer.LESS:
+                comparisonOperator = ComparisonOperator.LOWER;
+                break;
+            case PredicateLexer.LESS_EQUAL:
+                comparisonOperator = ComparisonOperator.LOWER_OR_EQUAL;
+                break;
+            default:
+                return expression;
+        }
+        ArithmeticExpression left = (ArithmeticExpression) toExpression(expression);
+        position++;
+        ArithmeticExpression right = parseExpression(0);
+        kind = KIND_PREDICATE;
+        return build ? modelFactory.createComparisonPredicate(left, right, comparisonOperator) : null;
+    }
+
+    private Expression parseInPredicate(ArithmeticExpression left, boolean negated) {
+        List<ArithmeticExpression> inItems = new ArrayList<>();
+        if (accept(PredicateLexer.LP)) {
+            do {
+                inItems.add(parseExpression(0));
+            } while (accept(PredicateLexer.COMMA));
+            match(PredicateLexer.RP);
+            if (inItems.size() == 1 && getBinaryOperatorPrecedence(la(0)) != -1) {
+                // Not an item list but a single grouped expression
+                inItems.set(0, parseExpressionRest(inItems.get(0), 0));
+            }
+        } else {
+            inItems.add(parseExpression(0));
+        }
+        kind = KIND_PREDICATE;
+        return build ? modelFactory.createInPredicate(left, inItems, negated) : null;
+    }
+
+    private Expression parseBetweenPredicate(ArithmeticExpression left) {
+        ArithmeticExpression lower = parseExpression(0);
+        match(PredicateLexer.AND);
+        ArithmeticExpression upper = parseExpression(0);
+        kind = KIND_PREDICATE;
+        return build ? modelFactory.createBetweenPredicate(left, lower, upper) : null;
+    }
+
+    private ArithmeticExpression parseExpression(int minPrecedence) {
+        return parseExpressionRest((ArithmeticExpression) parsePrimaryExpression(false), minPrecedence);
+    }
+
+    private ArithmeticExpression parseExpressionRest(ArithmeticExpression left, int minPrecedence) {
+        while (true) {
+            int precedence = getBinaryOperatorPrecedence(la(0));
+            if (precedence == -1 || precedence < minPrecedence) {
+                return left;
+            }
+            ArithmeticOperatorType operator = getBinaryOperator(la(0));
+            position++;
+            ArithmeticExpression right = parseExpression(precedence + 1);
+            left = build ? (ArithmeticExpression) modelFactory.createArithmeticExpression(left, right, operator) : null;
+            kind = KIND_EXPRESSION;
+        }
+    }
+
+    private static int getBinaryOperatorPrecedence(int type) {
+        switch (type) {
+            case PredicateLexer.ASTERISK:
+                return MULTIPLICATION_PRECEDENCE;
+            case PredicateLexer.SLASH:
+                return DIVISION_PRECEDENCE;
+            case PredicateLexer.PERCENT:
+                return MODULO_PRECEDENCE;
+            case PredicateLexer.PLUS:
+                return ADDITION_PRECEDENCE;
+            case PredicateLexer.MINUS:
+                return SUBTRACTION_PRECEDENCE;
+            default:
+                return -1;
+        }
+    }
+
+    private static ArithmeticOperatorType getBinaryOperator(int type) {
+        switch (type) {
+            case PredicateLexer.ASTERISK:
+                return ArithmeticOperatorType.MULTIPLY;
+            case PredicateLexer.SLASH:
+                return ArithmeticOperatorType.DIVIDE;
+            case PredicateLexer.PERCENT:
+                return ArithmeticOperatorType.MODULO;
+            case PredicateLexer.PLUS:
+                return ArithmeticOperatorType.PLUS;
+            case PredicateLexer.MINUS:
+                return ArithmeticOperatorType.MINUS;
+            default:
+                throw new IllegalArgumentException("Not a binary operator: " + type);
+        }
+    }
+
+    private Expression parsePrimaryExpression(boolean deferNamedInvocation) {
+        int type = la(0);
+        switch (type) {
+            case PredicateLexer.LP:
+                position++;
+                ArithmeticExpression expression = parseExpression(0);
+                match(PredicateLexer.RP);
+                kind = KIND_EXPRESSION;
+                return expression;
+            case PredicateLexer.MINUS:
+                position++;
+                ArithmeticExpression negatedOperand = parseExpression(UNARY_MINUS_PRECEDENCE);
+                kind = KIND_EXPRESSION;
+                return build ? modelFactory.createUnaryMinusExpression(negatedOperand) : null;
+            case PredicateLexer.PLUS:
+                position++;
+                ArithmeticExpression operand = parseExpression(UNARY_PLUS_PRECEDENCE);
+                kind = KIND_EXPRESSION;
+                return build ? modelFactory.createUnaryPlusExpression(operand) : null;
+            case PredicateLexer.COLON:
+                return parseParameter();
+            default:
+                if (tokens.isIdentifier(position) && (type != PredicateLexer.TIMESTAMP || la(1) != PredicateLexer.LP || matchTimestampLiteral() == -1)) {
+                    if (la(1) == PredicateLexer.LP) {
+                        return parseInvocation(deferNamedInvocation);
+                    }
+                    return parsePath();
+                }
+                return parseLiteral();
+        }
+    }
+
+    private Expression parseLiteral() {
+        int type = la(0);
+        switch (type) {
+            case PredicateLexer.NUMERIC_LITERAL:
+                kind = KIND_EXPRESSION;
+                position++;
+                return build ? modelFactory.createNumericLiteral(tokens.getText(position - 1)) : null;
+            case PredicateLexer.STRING_LITERAL:
+                kind = KIND_EXPRESSION;
+                position++;
+                return build ? modelFactory.createStringLiteral(tokens.getText(position - 1)) : null;
+            case PredicateLexer.TRUE:
+                kind = KIND_EXPRESSION;
+                position++;
+                return build ? modelFactory.getBooleanLiteral(true) : null;
+            case PredicateLexer.FALSE:
+                kind = KIND_EXPRESSION;
+                position++;
+                return build ? modelFactory.getBooleanLiteral(false) : null;
+            case PredicateLexer.LB:
+                return parseCollectionLiteral();
+            case PredicateLexer.INTERVAL:
+                return parseTemporalIntervalLiteral();
+            case PredicateLexer.TIMESTAMP:
+                return parseTimestampLiteral();
+            default:
+                if (tokens.isIdentifier(position) && la(1) == PredicateLexer.LP) {
+                    int start = position;
+                    String name = tokens.getText(position);
+                    position += 2;
+                    return parseNamedInvocation(start, name, false);
+                }
+                throw unexpectedToken();
+        }
+    }
+
+    private Expression parseCollectionLiteral() {
+        position++;
+        List<Expression> literals = new ArrayList<>();
+        if (la(0) != PredicateLexer.RB) {
+            do {
+                literals.add(parseLiteral());
+            } while (accept(PredicateLexer.COMMA));
+        }
+        match(PredicateLexer.RB);
+        kind = KIND_EXPRESSION;
+        return build ? modelFactory.createCollectionLiteral(literals) : null;
+    }
+
+    private Expression parseTemporalIntervalLiteral() {
+        position++;
+        String years = null;
+        String months = null;
+        String days = null;
+        String hours = null;
+        String minutes = null;
+        String seconds = null;
+        int lastUnit = -1;
+        while (la(0) == PredicateLexer.NUMERIC_LITERAL) {
+            // The units must appear in this order, but each of them is optional
+            int unit;
+            switch (la(1)) {
+                case PredicateLexer.YEARS:
+                    unit = 0;
+                    break;
+                case PredicateLexer.MONTHS:
+                    unit = 1;
+                    break;
+                case PredicateLexer.DAYS:
+                    unit = 2;
+                    break;
+                case PredicateLexer.HOURS:
+                    unit = 3;
+                    break;
+                case PredicateLexer.MINUTES:
+                    unit = 4;
+                    break;
+                case PredicateLexer.SECONDS:
+                    unit = 5;
+                    break;
+                default:
+                    unit = -1;
+                    break;
+            }
+            if (unit <= lastUnit) {
+                break;
+            }
+            String amount = tokens.getText(position);
+            switch (unit) {
+                case 0:
+                    years = amount;
+                    break;
+                case 1:
+                    months = amount;
+                    break;
+                case 2:
+                    days = amount;
+                    break;
+                case 3:
+                    hours = amount;
+                    break;
+                case 4:
+                    minutes = amount;
+                    break;
+                default:
+                    seconds = amount;
+                    break;
+            }
+            lastUnit = unit;
+            position += 2;
+        }
+        if (lastUnit == -1) {
+            throw unexpectedToken();
+        }
+        kind = KIND_EXPRESSION;
+        return build ? modelFactory.createTemporalIntervalLiteral(years, months, days, hours, minutes, seconds) : null;
+    }
+
+    /**
+     * Returns the index of the closing parenthesis if the current position starts a timestamp literal, otherwise <code>-1</code>.
+     *
+     * @return the index of the closing parenthesis or <code>-1</code>
+     */
+    private int matchTimestampLiteral() {
+        int i = position + 2;
+        if (tokens.getType(i++) != PredicateLexer.NUMERIC_LITERAL
+                || tokens.getType(i++) != PredicateLexer.MINUS
+                || !isNumber(i++)
+                || tokens.getType(i++) != PredicateLexer.MINUS
+                || !isNumber(i++)) {
+            return -1;
+        }
+        if (isNumber(i)) {
+            i++;
+            if (tokens.getType(i++) != PredicateLexer.COLON
+                    || !isNumber(i++)
+                    || tokens.getType(i++) != PredicateLexer.COLON
+                    || !isNumber(i++)) {
+                return -1;
+            }
+            if (tokens.getType(i) == PredicateLexer.DOT) {
+                if (!isNumber(i + 1)) {
+                    return -1;
+                }
+                i += 2;
+            }
+        }
+        return tokens.getType(i) == PredicateLexer.RP ? i : -1;
+    }
+
+    private boolean isNumber(int index) {
+        int type = tokens.getType(index);
+        return type == PredicateLexer.NUMERIC_LITERAL || type == PredicateLexer.LEADING_ZERO_NUMERIC_LITERAL;
+    }
+
+    private Expression parseTimestampLiteral() {
+        int end = la(1) == PredicateLexer.LP ? matchTimestampLiteral() : -1;
+        if (end == -1) {
+            throw unexpectedToken();
+        }
+        StringBuilder sb = new StringBuilder(23);
+        int datePartEnd = position + 7;
+        for (int i = position + 2; i < datePartEnd; i++) {
+            sb.append(tokens.getText(i));
+        }
+        if (datePartEnd != end) {
+            sb.append(' ');
+            for (int i = datePartEnd; i < end; i++) {
+                sb.append(tokens.getText(i));
+            }
+        }
+        position = end + 1;
+        kind = KIND_EXPRESSION;
+        return build ? modelFactory.createTimestampLiteral(sb.toString()) : null;
+    }
+
+    private Expression parsePath() {
+        List<String> identifiers = new ArrayList<>(2);
+        identifiers.add(tokens.getText(position++));
+        while (accept(PredicateLexer.DOT)) {
+            if (!tokens.isIdentifier(position)) {
+                throw unexpectedToken();
+            }
+            identifiers.add(tokens.getText(position++));
+        }
+        kind = KIND_PATH;
+        return build ? modelFactory.createPathExpression(identifiers) : null;
+    }
+
+    private Expression parseParameter() {
+        position++;
+        if (!tokens.isIdentifier(position)) {
+            throw unexpectedToken();
+        }
+        String name = tokens.getText(position++);
+        kind = KIND_PARAMETER;
+        return build ? modelFactory.createParameter(name) : null;
+    }
+
+    private Expression parseInvocation(boolean deferNamedInvocation) {
+        int start = position;
+        String name = tokens.getText(position);
+        position += 2;
+        if (accept(PredicateLexer.RP)) {
+            // Without arguments, the generated parser prefers a named invocation
+            Expression expression = build ? createNamedInvocation(name, Collections.<String>emptyList(), Collections.<Expression>emptyList()) : null;
+            setFunction(start);
+            return expression;
+        }
+        if (tokens.isIdentifier(position) && la(1) == PredicateLexer.EQUAL) {
+            int argumentsStart = position;
+            try {
+                return parseNamedInvocation(start, name, deferNamedInvocation);
+            } catch (SyntaxErrorException ex) {
+                // The first argument might be a comparison predicate of an indexed invocation instead
+                position = argumentsStart;
+            }
+        }
+        DomainFunction function = build ? modelFactory.resolveFunction(name) : null;
+        List<Expression> arguments = new ArrayList<>();
+        do {
+            arguments.add(parseArgument());
+        } while (accept(PredicateLexer.COMMA));
+        match(PredicateLexer.RP);
+        setFunction(start);
+        return build ? modelFactory.createFunctionInvocation(function, arguments) : null;
+    }
+
+    private Expression parseNamedInvocation(int start, String name, boolean deferNamedInvocation) {
+        List<String> argumentNames = new ArrayList<>();
+        List<Expression> arguments = new ArrayList<>();
+        do {
+            if (!tokens.isIdentifier(position) || la(1) != PredicateLexer.EQUAL) {
+                throw unexpectedToken();
+            }
+            argumentNames.add(tokens.getText(position));
+            position += 2;
+            arguments.add(parseArgument());
+        } while (accept(PredicateLexer.COMMA));
+        match(PredicateLexer.RP);
+        if (deferNamedInvocation) {
+            setFunction(start);
+            kind = KIND_NAMED_INVOCATION;
+            pendingName = name;
+            pendingArgumentNames = argumentNames;
+            pendingArguments = arguments;
+            return null;
+        }
+        // In an expression, the generated parser prefers an entity literal over a named function invocation
+        kind = KIND_EXPRESSION;
+        return build ? modelFactory.createEntityLiteral(modelFactory.resolveEntityType(name), argumentNames, arguments) : null;
+    }
+
+    private Expression parseArgument() {
+        return toExpression(parsePredicate(0, true));
+    }
+
+    private Expression createNamedInvocation(String name, List<String> argumentNames, List<Expression> arguments) {
+        Object functionOrEntityType = modelFactory.resolveFunctionOrEntityType(name);
+        if (functionOrEntityType instanceof EntityDomainType) {
+            return modelFactory.createEntityLiteral((EntityDomainType) functionOrEntityType, argumentNames, arguments);
+        }
+        return modelFactory.createNamedFunctionInvocation((DomainFunction) functionOrEntityType, argumentNames, arguments);
+    }
+
+    private void setFunction(int start) {
+        functionStart = start;
+        functionEnd = position;
+        kind = KIND_FUNCTION;
+    }
+
+    private Expression toExpression(Expression expression) {
+        if (kind == KIND_NAMED_INVOCATION) {
+            kind = KIND_EXPRESSION;
+            String name = pendingName;
+            pendingName = null;
+            return build ? modelFactory.createEntityLiteral(modelFactory.resolveEntityType(name), pendingArgumentNames, pendingArguments) : null;
+        }
+        return expression;
+    }
+
+    private Expression toPredicate(Expression expression) {
+        switch (kind) {
+            case KIND_PREDICATE:
+                return expression;
+            case KIND_PATH:
+                kind = KIND_PREDICATE;
+                return build ? modelFactory.createPathPredicate(expression) : null;
+            case KIND_PARAMETER:
+                kind = KIND_PREDICATE;
+                return build ? modelFactory.createParameterPredicate(expression) : null;
+            case KIND_FUNCTION:
+                kind = KIND_PREDICATE;
+                return build ? modelFactory.createBooleanFunctionPredicate(expression, getFunctionText()) : null;
+            case KIND_NAMED_INVOCATION:
+                kind = KIND_PREDICATE;
+                String name = pendingName;
+                pendingName = null;
+                return build ? modelFactory.createBooleanFunctionPredicate(createNamedInvocation(name, pendingArgumentNames, pendingArguments), getFunctionText()) : null;
+            default:
+                throw unexpectedToken();
+        }
+    }
+
+    private String getFunctionText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = functionStart; i < functionEnd; i++) {
+            sb.append(tokens.getText(i));
+        }
+        return sb.toString();
+    }
+
+    private int la(int offset) {
+        return tokens.getType(position + offset);
+    }
+
+    private boolean accept(int type) {
+        if (tokens.getType(position) == type) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void match(int type) {
+        if (tokens.getType(position) != type) {
+            throw unexpectedToken();
+        }
+        position++;
+    }
+
+    private SyntaxErrorException unexpectedToken() {
+        return tokens.syntaxError(tokens.getStart(position), "Unexpected input at '" + tokens.getText(position) + "'.");
+    }
+
+    /**
+     * The grammar rules that can be parsed.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    enum Rule {
+        PREDICATE,
+        EXPRESSION,
+        EXPRESSION_OR_PREDICATE;
+    }
+}
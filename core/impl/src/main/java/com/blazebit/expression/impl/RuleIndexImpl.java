@@ -0,0 +1,442 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ComparisonOperator;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.RuleIndex;
+import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A rule index that picks one conjunct of every predicate that compares a path to literals and indexes the predicate by the literal values.
+ * Equality and <code>IN</code> conjuncts are indexed in hash indexes by the equality keys of the literals,
+ * ordering comparisons and <code>BETWEEN</code> conjuncts are indexed in range indexes that are sorted by the literal values.
+ * A match only tests the predicates for which the indexed conjunct can be true and all predicates that have no indexable conjunct.
+ * The path values are resolved once per match and shared with the evaluation of the predicates.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class RuleIndexImpl implements RuleIndex {
+
+    private final ExpressionInterpreter interpreter;
+    private final List<Predicate> predicates;
+    private final CompiledPredicate[] compiledPredicates;
+    private final BitSet unindexed;
+    private final HashIndex[] hashIndexes;
+    private final RangeIndex[] rangeIndexes;
+
+    public RuleIndexImpl(ExpressionInterpreter interpreter, List<? extends Predicate> predicates) {
+        this.interpreter = interpreter;
+        this.predicates = Collections.unmodifiableList(new ArrayList<Predicate>(predicates));
+        this.compiledPredicates = new CompiledPredicate[predicates.size()];
+        this.unindexed = new BitSet(predicates.size());
+        Map<Path, HashIndexBuilder> hashIndexBuilders = new LinkedHashMap<>();
+        Map<RangeKey, List<RangeEntry>> rangeEntries = new LinkedHashMap<>();
+        List<Predicate> conjuncts = new ArrayList<>();
+        for (int i = 0; i < compiledPredicates.length; i++) {
+            Predicate predicate = this.predicates.get(i);
+            compiledPredicates[i] = interpreter.compile(predicate);
+            conjuncts.clear();
+            collectConjuncts(predicate, conjuncts);
+            if (!addHashIndexEntry(i, conjuncts, hashIndexBuilders) && !addRangeIndexEntry(i, conjuncts, rangeEntries)) {
+                unindexed.set(i);
+            }
+        }
+        this.hashIndexes = new HashIndex[hashIndexBuilders.size()];
+        int i = 0;
+        for (HashIndexBuilder builder : hashIndexBuilders.values()) {
+            hashIndexes[i++] = builder.build();
+        }
+        List<RangeIndex> rangeIndexes = new ArrayList<>(rangeEntries.size());
+        for (Map.Entry<RangeKey, List<RangeEntry>> entry : rangeEntries.entrySet()) {
+            RangeIndex rangeIndex = RangeIndex.create(entry.getKey(), entry.getValue());
+            if (rangeIndex == null) {
+                for (RangeEntry rangeEntry : entry.getValue()) {
+                    unindexed.set(rangeEntry.rule);
+                }
+            } else {
+                rangeIndexes.add(rangeIndex);
+            }
+        }
+        this.rangeIndexes = rangeIndexes.toArray(new RangeIndex[rangeIndexes.size()]);
+    }
+
+    private static void collectConjuncts(Predicate predicate, List<Predicate> conjuncts) {
+        if (predicate instanceof CompoundPredicate && ((CompoundPredicate) predicate).isConjunction() && !predicate.isNegated()) {
+            for (Predicate conjunct : ((CompoundPredicate) predicate).getPredicates()) {
+                collectConjuncts(conjunct, conjuncts);
+            }
+        } else {
+            conjuncts.add(predicate);
+        }
+    }
+
+    private static boolean addHashIndexEntry(int rule, List<Predicate> conjuncts, Map<Path, HashIndexBuilder> hashIndexBuilders) {
+        for (Predicate conjunct : conjuncts) {
+            if (conjunct.isNegated()) {
+                continue;
+            }
+            ArithmeticExpression left;
+            List<? extends ArithmeticExpression> items;
+            if (conjunct instanceof ComparisonPredicate && ((ComparisonPredicate) conjunct).getOperator() == ComparisonOperator.EQUAL) {
+                left = ((ComparisonPredicate) conjunct).getLeft();
+                items = Collections.singletonList(((ComparisonPredicate) conjunct).getRight());
+            } else if (conjunct instanceof InPredicate) {
+                left = ((InPredicate) conjunct).getLeft();
+                items = ((InPredicate) conjunct).getInItems();
+            } else {
+                continue;
+            }
+            if (!(left instanceof Path) || items.isEmpty()) {
+                continue;
+            }
+            ComparisonOperatorInterpreter comparisonOperatorInterpreter = left.getType().getMetadata(ComparisonOperatorInterpreter.class);
+            if (!(comparisonOperatorInterpreter instanceof EqualityKeyProvider)) {
+                continue;
+            }
+            EqualityKeyProvider equalityKeyProvider = (EqualityKeyProvider) comparisonOperatorInterpreter;
+            Object[] keys = new Object[items.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Object value = getLiteralValue(items.get(i));
+                if (value == null || (keys[i] = equalityKeyProvider.getEqualityKey(items.get(i).getType(), value)) == null) {
+                    keys = null;
+                    break;
+                }
+            }
+            if (keys == null) {
+                continue;
+            }
+            Path path = (Path) left;
+            HashIndexBuilder builder = hashIndexBuilders.get(path);
+            if (builder == null) {
+                builder = new HashIndexBuilder(path, equalityKeyProvider);
+                hashIndexBuilders.put(path, builder);
+            }
+            builder.add(rule, keys);
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean addRangeIndexEntry(int rule, List<Predicate> conjuncts, Map<RangeKey, List<RangeEntry>> rangeEntries) {
+        for (Predicate conjunct : conjuncts) {
+            if (conjunct.isNegated()) {
+                continue;
+            }
+            ArithmeticExpression left;
+            ArithmeticExpression bound;
+            ComparisonOperator operator;
+            if (conjunct instanceof ComparisonPredicate) {
+                left = ((ComparisonPredicate) conjunct).getLeft();
+                bound = ((ComparisonPredicate) conjunct).getRight();
+                operator = ((ComparisonPredicate) conjunct).getOperator();
+                if (operator == ComparisonOperator.EQUAL || operator == ComparisonOperator.NOT_EQUAL) {
+                    continue;
+                }
+            } else if (conjunct instanceof BetweenPredicate) {
+                left = ((BetweenPredicate) conjunct).getLeft();
+                bound = ((BetweenPredicate) conjunct).getLower();
+                operator = ComparisonOperator.GREATER_OR_EQUAL;
+            } else {
+                continue;
+            }
+            Object value = getLiteralValue(bound);
+            if (!(left instanceof Path) || value == null || left.getType().getMetadata(ComparisonOperatorInterpreter.class) == null) {
+                continue;
+            }
+            RangeKey key = new RangeKey((Path) left, operator);
+            List<RangeEntry> entries = rangeEntries.get(key);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                rangeEntries.put(key, entries);
+            }
+            entries.add(new RangeEntry(value, bound.getType(), rule));
+            return true;
+        }
+        return false;
+    }
+
+    private static Object getLiteralValue(ArithmeticExpression expression) {
+        if (expression instanceof Literal && expression.getType().getKind() != DomainType.DomainTypeKind.COLLECTION) {
+            return ((Literal) expression).getValue();
+        }
+        return null;
+    }
+
+    @Override
+    public List<Predicate> getPredicates() {
+        return predicates;
+    }
+
+    @Override
+    public BitSet match(ExpressionInterpreter.Context interpreterContext) {
+        EvaluationSessionImpl session = new EvaluationSessionImpl(interpreter, interpreterContext);
+        ExpressionInterpreter.Context context = session.getContext();
+        PathValueCache pathValueCache = EvaluationSessionImpl.getPathValueCache(context);
+        BitSet candidates = (BitSet) unindexed.clone();
+        for (int i = 0; i < hashIndexes.length; i++) {
+            hashIndexes[i].addCandidates(context, pathValueCache, candidates);
+        }
+        for (int i = 0; i < rangeIndexes.length; i++) {
+            rangeIndexes[i].addCandidates(context, pathValueCache, candidates);
+        }
+        BitSet result = new BitSet(compiledPredicates.length);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            if (compiledPredicates[i].test(context)) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the rules by the equality keys of the literals a path is compared to.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class HashIndexBuilder {
+        private final Path path;
+        private final EqualityKeyProvider equalityKeyProvider;
+        private final Map<Object, BitSet> rulesByKey = new HashMap<>();
+        private final BitSet rules = new BitSet();
+
+        public HashIndexBuilder(Path path, EqualityKeyProvider equalityKeyProvider) {
+            this.path = path;
+            this.equalityKeyProvider = equalityKeyProvider;
+        }
+
+        public void add(int rule, Object[] keys) {
+            rules.set(rule);
+            for (Object key : keys) {
+                BitSet keyRules = rulesByKey.get(key);
+                if (keyRules == null) {
+                    keyRules = new BitSet();
+                    rulesByKey.put(key, keyRules);
+                }
+                keyRules.set(rule);
+            }
+        }
+
+        public HashIndex build() {
+            return new HashIndex(path, equalityKeyProvider, rulesByKey, rules);
+        }
+    }
+
+    /**
+     * A hash index from the equality keys of literals to the rules that compare a path to one of the literals.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class HashIndex {
+        private final Path path;
+        private final EqualityKeyProvider equalityKeyProvider;
+        private final Map<Object, BitSet> rulesByKey;
+        private final BitSet rules;
+
+        public HashIndex(Path path, EqualityKeyProvider equalityKeyProvider, Map<Object, BitSet> rulesByKey, BitSet rules) {
+            this.path = path;
+            this.equalityKeyProvider = equalityKeyProvider;
+            this.rulesByKey = rulesByKey;
+            this.rules = rules;
+        }
+
+        public void addCandidates(ExpressionInterpreter.Context context, PathValueCache pathValueCache, BitSet candidates) {
+            Object value = pathValueCache.getValue(context, path.getAlias(), path.getAttributes());
+            if (value == null) {
+                // The comparison with null is unknown, so none of the rules can be true
+                return;
+            }
+            Object key = equalityKeyProvider.getEqualityKey(path.getType(), value);
+            if (key == null) {
+                // The value has no equality key, so we have to test all rules
+                candidates.or(rules);
+            } else {
+                BitSet keyRules = rulesByKey.get(key);
+                if (keyRules != null) {
+                    candidates.or(keyRules);
+                }
+            }
+        }
+    }
+
+    /**
+     * The key of a range index.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class RangeKey {
+        private final Path path;
+        private final ComparisonOperator operator;
+
+        public RangeKey(Path path, ComparisonOperator operator) {
+            this.path = path;
+            this.operator = operator;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RangeKey)) {
+                return false;
+            }
+            RangeKey rangeKey = (RangeKey) o;
+            return path.equals(rangeKey.path) && operator == rangeKey.operator;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * path.hashCode() + operator.hashCode();
+        }
+    }
+
+    /**
+     * A rule that compares a path to a literal bound.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class RangeEntry {
+        private final Object bound;
+        private final DomainType boundType;
+        private final int rule;
+
+        public RangeEntry(Object bound, DomainType boundType, int rule) {
+            this.bound = bound;
+            this.boundType = boundType;
+            this.rule = rule;
+        }
+    }
+
+    /**
+     * A range index of the rules that compare a path with an ordering operator to a literal, sorted ascending by the literal.
+     * Since the comparison of a value with the bounds is monotonic, the rules for which the comparison is true form a prefix
+     * for the greater operators and a suffix for the lower operators, which is found by a binary search.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class RangeIndex {
+        private final Path path;
+        private final ComparisonOperator operator;
+        private final ComparisonOperatorInterpreter comparisonOperatorInterpreter;
+        private final RangeEntry[] entries;
+
+        private RangeIndex(Path path, ComparisonOperator operator, ComparisonOperatorInterpreter comparisonOperatorInterpreter, RangeEntry[] entries) {
+            this.path = path;
+            this.operator = operator;
+            this.comparisonOperatorInterpreter = comparisonOperatorInterpreter;
+            this.entries = entries;
+        }
+
+        /**
+         * Creates a range index for the given entries or returns <code>null</code> if the bounds can't be ordered.
+         *
+         * @param key The range key
+         * @param entries The range entries
+         * @return the range index or <code>null</code>
+         */
+        public static RangeIndex create(RangeKey key, List<RangeEntry> entries) {
+            final ComparisonOperatorInterpreter comparisonOperatorInterpreter = key.path.getType().getMetadata(ComparisonOperatorInterpreter.class);
+            RangeEntry[] sortedEntries = entries.toArray(new RangeEntry[entries.size()]);
+            try {
+                Arrays.sort(sortedEntries, new Comparator<RangeEntry>() {
+                    @Override
+                    public int compare(RangeEntry o1, RangeEntry o2) {
+                        if (isTrue(comparisonOperatorInterpreter.interpret(o1.boundType, o2.boundType, o1.bound, o2.bound, ComparisonOperator.LOWER))) {
+                            return -1;
+                        } else if (isTrue(comparisonOperatorInterpreter.interpret(o1.boundType, o2.boundType, o1.bound, o2.bound, ComparisonOperator.GREATER))) {
+                            return 1;
+                        }
+                        return 0;
+                    }
+                });
+            } catch (RuntimeException ex) {
+                return null;
+            }
+            return new RangeIndex(key.path, key.operator, comparisonOperatorInterpreter, sortedEntries);
+        }
+
+        private static boolean isTrue(Boolean result) {
+            if (result == null) {
+                throw new IllegalArgumentException("Bounds are not comparable");
+            }
+            return result;
+        }
+
+        public void addCandidates(ExpressionInterpreter.Context context, PathValueCache pathValueCache, BitSet candidates) {
+            Object value = pathValueCache.getValue(context, path.getAlias(), path.getAttributes());
+            if (value == null) {
+                // The comparison with null is unknown, so none of the rules can be true
+                return;
+            }
+            boolean prefix = operator == ComparisonOperator.GREATER || operator == ComparisonOperator.GREATER_OR_EQUAL;
+            // Find the first entry for which the comparison is true for the lower operators or false for the greater operators
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                RangeEntry entry = entries[mid];
+                Boolean result = comparisonOperatorInterpreter.interpret(path.getType(), entry.boundType, value, entry.bound, operator);
+                if (result == null) {
+                    // The value is not comparable with the bounds, so we have to test all rules
+                    for (int i = 0; i < entries.length; i++) {
+                        candidates.set(entries[i].rule);
+                    }
+                    return;
+                }
+                if (result == prefix) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            int start = prefix ? 0 : low;
+            int end = prefix ? low : entries.length;
+            for (int i = start; i < end; i++) {
+                candidates.set(entries[i].rule);
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.ArithmeticFactor;
+import com.blazebit.expression.BetweenPredicate;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.IsEmptyPredicate;
+import com.blazebit.expression.IsNullPredicate;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.FunctionVolatility;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The slots for the values of the shared subexpressions of an expression, which are the subexpression instances that are referenced
+ * by multiple parents, like the ones {@link CommonSubexpressionEliminator} produces. The slots are assigned by node identity,
+ * so the expression itself stays a plain tree of the public expression types and is owned by the compiled expression using the slots.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class SharedSlots {
+
+    private final Expression expression;
+    private final Map<Expression, Integer> slots;
+
+    private SharedSlots(Expression expression, Map<Expression, Integer> slots) {
+        this.expression = expression;
+        this.slots = slots;
+    }
+
+    /**
+     * Assigns slots to the shared subexpressions of the given expression.
+     * Only the outermost occurrence of a shared subexpression gets a slot and subexpressions that invoke a {@link FunctionVolatility#VOLATILE}
+     * function are never shared, because every invocation may produce a different result.
+     *
+     * @param expression The expression
+     * @return the slots for the shared subexpressions of the expression
+     */
+    public static SharedSlots of(Expression expression) {
+        SlotAssigner slotAssigner = new SlotAssigner();
+        expression.accept(slotAssigner);
+        return new SharedSlots(expression, slotAssigner.slots);
+    }
+
+    /**
+     * Returns the expression the slots were assigned for.
+     *
+     * @return the expression
+     */
+    public Expression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns the slot index of the given subexpression.
+     *
+     * @param e The subexpression
+     * @return the slot index or <code>-1</code> if the subexpression is not shared
+     */
+    public int getSlot(Expression e) {
+        Integer slot = slots.get(e);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Returns the number of allocated slots.
+     *
+     * @return the number of slots
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Assigns a slot to every deterministic candidate subexpression instance that is visited a second time and returns whether a visited
+     * subexpression is deterministic. The children of repeated occurrences are not visited, so that only the outermost shared subexpression gets a slot.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    private static final class SlotAssigner implements Expression.ResultVisitor<Boolean> {
+
+        private final Map<Expression, Boolean> visited = new IdentityHashMap<>();
+        private final Map<Expression, Integer> slots = new IdentityHashMap<>();
+
+        private boolean visitRepeated(Expression e) {
+            if (!visited.containsKey(e)) {
+                return false;
+            }
+            if (!slots.containsKey(e)) {
+                slots.put(e, slots.size());
+            }
+            return true;
+        }
+
+        private Boolean visitFirst(Expression e, boolean deterministic) {
+            if (deterministic) {
+                visited.put(e, Boolean.TRUE);
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(ArithmeticFactor e) {
+            return e.getExpression().accept(this);
+        }
+
+        @Override
+        public Boolean visit(ExpressionPredicate e) {
+            return e.getExpression().accept(this);
+        }
+
+        @Override
+        public Boolean visit(BetweenPredicate e) {
+            return e.getLeft().accept(this) & e.getLower().accept(this) & e.getUpper().accept(this);
+        }
+
+        @Override
+        public Boolean visit(InPredicate e) {
+            boolean deterministic = e.getLeft().accept(this);
+            List<ArithmeticExpression> inItems = e.getInItems();
+            for (int i = 0; i < inItems.size(); i++) {
+                deterministic &= inItems.get(i).accept(this);
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(ChainingArithmeticExpression e) {
+            if (visitRepeated(e)) {
+                return true;
+            }
+            return visitFirst(e, e.getLeft().accept(this) & e.getRight().accept(this));
+        }
+
+        @Override
+        public Boolean visit(CompoundPredicate e) {
+            boolean deterministic = true;
+            List<Predicate> predicates = e.getPredicates();
+            for (int i = 0; i < predicates.size(); i++) {
+                deterministic &= predicates.get(i).accept(this);
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(ComparisonPredicate e) {
+            return e.getLeft().accept(this) & e.getRight().accept(this);
+        }
+
+        @Override
+        public Boolean visit(IsNullPredicate e) {
+            return e.getLeft().accept(this);
+        }
+
+        @Override
+        public Boolean visit(IsEmptyPredicate e) {
+            return e.getLeft().accept(this);
+        }
+
+        @Override
+        public Boolean visit(Path e) {
+            // Root variables are cheap to access and not worth a slot
+            if (!e.getAttributes().isEmpty() && !visitRepeated(e)) {
+                visitFirst(e, true);
+            }
+            return true;
+        }
+
+        @Override
+        public Boolean visit(FunctionInvocation e) {
+            if (visitRepeated(e)) {
+                return true;
+            }
+            boolean deterministic = e.getFunction().getMetadata(FunctionVolatility.class) != FunctionVolatility.VOLATILE;
+            for (Map.Entry<DomainFunctionArgument, Expression> entry : e.getArguments().entrySet()) {
+                deterministic &= entry.getValue().accept(this);
+            }
+            return visitFirst(e, deterministic);
+        }
+
+        @Override
+        public Boolean visit(Literal e) {
+            boolean deterministic = true;
+            if (e.getType().getKind() == DomainType.DomainTypeKind.COLLECTION) {
+                for (Object element : (Collection<?>) e.getValue()) {
+                    deterministic &= ((Expression) element).accept(this);
+                }
+            }
+            return deterministic;
+        }
+
+        @Override
+        public Boolean visit(Parameter e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.Predicate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A compiled expression that evaluates a tree of evaluators until it was evaluated a configurable number of times
+ * and then switches to a JVM class generated by {@link BytecodeCompiler}. Like in a tiered JIT, this avoids paying the cost
+ * of class generation for expressions that are only evaluated a few times. The generated evaluator is owned by this object,
+ * so the generated class can be unloaded once this object and all other users of the class are garbage collected.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+class TieredCompiledExpression implements CompiledExpression {
+
+    private final Expression expression;
+    private final int compilationThreshold;
+    private final int reorderingInterval;
+    private final AtomicInteger invocationCount = new AtomicInteger();
+    private final AtomicBoolean generating = new AtomicBoolean();
+    private volatile CompiledExpression compiledExpression;
+    private volatile boolean generated;
+
+    public TieredCompiledExpression(Expression expression, CompiledExpression compiledExpression, int compilationThreshold, int reorderingInterval) {
+        this.expression = expression;
+        this.compiledExpression = compiledExpression;
+        this.compilationThreshold = compilationThreshold;
+        this.reorderingInterval = reorderingInterval;
+    }
+
+    @Override
+    public Expression getExpression() {
+        return expression;
+    }
+
+    /**
+     * Returns whether the expression was evaluated by a generated class yet.
+     *
+     * @return whether the expression was evaluated by a generated class
+     */
+    public boolean isGenerated() {
+        return generated;
+    }
+
+    /**
+     * Returns the compiled expression of the current tier, generating a class for the expression once the threshold is passed.
+     * If the class can't be generated, the expression stays on the evaluators.
+     *
+     * @return the compiled expression
+     */
+    protected CompiledExpression getCompiledExpression() {
+        if (!generated && invocationCount.incrementAndGet() > compilationThreshold && generating.compareAndSet(false, true)) {
+            CompiledExpression generatedExpression;
+            try {
+                generatedExpression = generate();
+            } catch (RuntimeException | LinkageError ex) {
+                // A class that can't be generated or defined must not fail the evaluation, the evaluators still work
+                generatedExpression = null;
+            }
+            // Expressions too large for a generated method stay on the evaluators
+            if (generatedExpression != null) {
+                compiledExpression = generatedExpression;
+                generated = true;
+            }
+        }
+        return compiledExpression;
+    }
+
+    /**
+     * Compiles the expression to a generated class.
+     *
+     * @return the compiled expression or <code>null</code> if the expression is too large for a generated method
+     */
+    protected CompiledExpression generate() {
+        return BytecodeCompiler.compile(expression, reorderingInterval);
+    }
+
+    /**
+     * Returns the number of compound predicate evaluations after which the operands are reordered.
+     *
+     * @return the reordering interval or <code>0</code> if operands are not reordered
+     */
+    protected int getReorderingInterval() {
+        return reorderingInterval;
+    }
+
+    @Override
+    public <T> T evaluate(ExpressionInterpreter.Context interpreterContext) {
+        return getCompiledExpression().evaluate(interpreterContext);
+    }
+
+    /**
+     * A compiled predicate that evaluates a tree of evaluators until it was evaluated a configurable number of times
+     * and then switches to a generated class.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class TieredCompiledPredicate extends TieredCompiledExpression implements CompiledPredicate {
+
+        public TieredCompiledPredicate(Predicate predicate, CompiledPredicate compiledPredicate, int compilationThreshold, int reorderingInterval) {
+            super(predicate, compiledPredicate, compilationThreshold, reorderingInterval);
+        }
+
+        @Override
+        public Predicate getExpression() {
+            return (Predicate) super.getExpression();
+        }
+
+        @Override
+        protected CompiledExpression generate() {
+            return BytecodeCompiler.compile(getExpression(), getReorderingInterval());
+        }
+
+        @Override
+        public boolean test(ExpressionInterpreter.Context interpreterContext) {
+            return Boolean.TRUE.equals(evaluate(interpreterContext));
+        }
+    }
+}
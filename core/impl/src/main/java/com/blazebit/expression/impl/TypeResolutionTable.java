@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainOperationTypeResolver;
+import com.blazebit.domain.runtime.model.DomainOperator;
+import com.blazebit.domain.runtime.model.DomainPredicate;
+import com.blazebit.domain.runtime.model.DomainPredicateTypeResolver;
+import com.blazebit.domain.runtime.model.DomainType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A thread-safe table of the result types of domain operators and domain predicates for operand types, which is filled lazily.
+ *
+ * The table assumes that the operation and predicate type resolvers of the domain model are pure functions of the operand types.
+ * Lookups use a mutable probe key that is owned by the caller, so a lookup for a known entry does not allocate.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public final class TypeResolutionTable {
+
+    /**
+     * The result of a lookup for which the domain model has no type resolver.
+     */
+    static final Object NO_RESOLVER = new Object();
+    /**
+     * The result of a lookup for which the type resolver returned <code>null</code>.
+     */
+    static final Object UNRESOLVABLE = new Object();
+    // Varying operand counts of IN predicates would fill the table with entries that are unlikely to be hit again
+    private static final int MAX_OPERAND_COUNT = 8;
+
+    private final DomainModel domainModel;
+    private final ConcurrentMap<Key, Object> table = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new empty resolution table for the given domain model.
+     *
+     * @param domainModel The domain model
+     */
+    public TypeResolutionTable(DomainModel domainModel) {
+        this.domainModel = domainModel;
+    }
+
+    /**
+     * Returns the domain model of this table.
+     *
+     * @return the domain model
+     */
+    public DomainModel getDomainModel() {
+        return domainModel;
+    }
+
+    /**
+     * Returns the number of resolved entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+     * Returns the resolved type for the operation and operand types of the given probe key,
+     * or {@link #NO_RESOLVER} or {@link #UNRESOLVABLE} if the type can't be resolved.
+     *
+     * @param probe The probe key
+     * @return the resolved type or a marker object
+     */
+    Object resolve(Key probe) {
+        if (probe.operandTypes != null && probe.operandTypes.size() > MAX_OPERAND_COUNT) {
+            return compute(probe);
+        }
+        Object result = table.get(probe);
+        if (result == null) {
+            // Resolvers are pure, so concurrently computing the same entry is harmless
+            result = compute(probe);
+            table.putIfAbsent(probe.copy(), result);
+        }
+        return result;
+    }
+
+    private Object compute(Key key) {
+        DomainType result;
+        if (key.operation instanceof DomainPredicate) {
+            DomainPredicateTypeResolver resolver = domainModel.getPredicateTypeResolver(key.first.getName(), (DomainPredicate) key.operation);
+            if (resolver == null) {
+                return NO_RESOLVER;
+            }
+            result = resolver.resolveType(domainModel, key.getOperandTypes());
+        } else {
+            DomainOperationTypeResolver resolver = domainModel.getOperationTypeResolver(key.first.getName(), (DomainOperator) key.operation);
+            if (resolver == null) {
+                return NO_RESOLVER;
+            }
+            result = resolver.resolveType(domainModel, key.getOperandTypes());
+        }
+        return result == null ? UNRESOLVABLE : result;
+    }
+
+    /**
+     * A key for a domain operator or domain predicate and its operand types, which is reused for lookups.
+     *
+     * @author Christian Beikov
+     * @since 1.0.0
+     */
+    static final class Key {
+
+        private Object operation;
+        private DomainType first;
+        private DomainType second;
+        private DomainType third;
+        private List<DomainType> operandTypes;
+        private int hash;
+
+        /**
+         * Sets the operation and up to three operand types, where absent operand types are <code>null</code>.
+         *
+         * @param operation The domain operator or domain predicate
+         * @param first The first operand type
+         * @param second The second operand type or <code>null</code>
+         * @param third The third operand type or <code>null</code>
+         * @return this key
+         */
+        Key set(Object operation, DomainType first, DomainType second, DomainType third) {
+            this.operation = operation;
+            this.first = first;
+            this.second = second;
+            this.third = third;
+            this.operandTypes = null;
+            int h = operation.hashCode();
+            h = 31 * h + first.hashCode();
+            h = 31 * h + Objects.hashCode(second);
+            h = 31 * h + Objects.hashCode(third);
+            this.hash = h;
+            return this;
+        }
+
+        /**
+         * Sets the operation and an arbitrary number of operand types.
+         *
+         * @param operation The domain operator or domain predicate
+         * @param operandTypes The operand types
+         * @return this key
+         */
+        Key set(Object operation, List<DomainType> operandTypes) {
+            this.operation = operation;
+            this.first = operandTypes.get(0);
+            this.second = null;
+            this.third = null;
+            this.operandTypes = operandTypes;
+            this.hash = 31 * operation.hashCode() + operandTypes.hashCode();
+            return this;
+        }
+
+        /**
+         * Returns the domain operator or domain predicate.
+         *
+         * @return the operation
+         */
+        Object getOperation() {
+            return operation;
+        }
+
+        /**
+         * Returns the operand types as list.
+         *
+         * @return the operand types
+         */
+        List<DomainType> getOperandTypes() {
+            if (operandTypes != null) {
+                return operandTypes;
+            } else if (second == null) {
+                return Collections.singletonList(first);
+            } else if (third == null) {
+                return Arrays.asList(first, second);
+            }
+            return Arrays.asList(first, second, third);
+        }
+
+        private Key copy() {
+            Key key = new Key();
+            key.operation = operation;
+            key.first = first;
+            key.second = second;
+            key.third = third;
+            key.operandTypes = operandTypes == null ? null : new ArrayList<>(operandTypes);
+            key.hash = hash;
+            return key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash
+                    && operation == key.operation
+                    && first.equals(key.first)
+                    && Objects.equals(second, key.second)
+                    && Objects.equals(third, key.third)
+                    && Objects.equals(operandTypes, key.operandTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
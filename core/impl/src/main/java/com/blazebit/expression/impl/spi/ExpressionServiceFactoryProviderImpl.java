@@ -49,4 +49,9 @@ public class ExpressionServiceFactoryProviderImpl implements ExpressionServiceFa
         return new ExpressionServiceFactoryImpl(model, expressionSerializers);
     }
 
+    @Override
+    public ExpressionServiceFactory create(DomainModel model, Map<String, Object> properties) {
+        return new ExpressionServiceFactoryImpl(model, expressionSerializers, properties);
+    }
+
 }
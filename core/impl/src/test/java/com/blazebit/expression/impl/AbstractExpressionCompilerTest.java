@@ -62,6 +62,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * @author Christian Beikov
  * @since 1.0.0
@@ -69,11 +71,16 @@ import java.util.Map;
 public abstract class AbstractExpressionCompilerTest {
 
     private ExpressionCompilerImpl expressionCompiler;
+    private PrattExpressionCompiler prattExpressionCompiler;
     private static DomainModel defaultDomainModel;
     private DomainModel domainModel;
 
     @BeforeClass
     public static void createDefaultTestDomainModel() {
+        defaultDomainModel = createDefaultDomainBuilder().build();
+    }
+
+    protected static DomainBuilder createDefaultDomainBuilder() {
         DomainBuilder builder = new DomainBuilderImpl()
                 .createBasicType("boolean", Boolean.class)
                 .withOperator("boolean", new DomainOperator[]{ DomainOperator.NOT })
@@ -120,13 +127,14 @@ public abstract class AbstractExpressionCompilerTest {
             }
         }
 
-        defaultDomainModel = builder.build();
+        return builder;
     }
 
     @Before
     public void setup() {
         domainModel = createDomainModel();
         expressionCompiler = new ExpressionCompilerImpl(domainModel, new LiteralFactory(domainModel));
+        prattExpressionCompiler = new PrattExpressionCompiler(domainModel, new LiteralFactory(domainModel));
     }
 
     protected DomainModel createDomainModel() {
@@ -138,11 +146,37 @@ public abstract class AbstractExpressionCompilerTest {
     }
 
     protected Predicate parsePredicate(String input) {
-        return expressionCompiler.createPredicate(input, getCompileContext());
+        Predicate predicate;
+        try {
+            predicate = expressionCompiler.createPredicate(input, getCompileContext());
+        } catch (RuntimeException ex) {
+            try {
+                prattExpressionCompiler.createPredicate(input, getCompileContext());
+            } catch (RuntimeException prattException) {
+                assertEquals("Different error for: " + input, ex.getClass(), prattException.getClass());
+                throw ex;
+            }
+            throw new AssertionError("Expected " + ex.getClass().getName() + " for: " + input, ex);
+        }
+        assertEquals("Different predicate for: " + input, predicate, prattExpressionCompiler.createPredicate(input, getCompileContext()));
+        return predicate;
     }
 
     protected Expression parseArithmeticExpression(String input) {
-        return expressionCompiler.createExpression(input, getCompileContext());
+        Expression expression;
+        try {
+            expression = expressionCompiler.createExpression(input, getCompileContext());
+        } catch (RuntimeException ex) {
+            try {
+                prattExpressionCompiler.createExpression(input, getCompileContext());
+            } catch (RuntimeException prattException) {
+                assertEquals("Different error for: " + input, ex.getClass(), prattException.getClass());
+                throw ex;
+            }
+            throw new AssertionError("Expected " + ex.getClass().getName() + " for: " + input, ex);
+        }
+        assertEquals("Different expression for: " + input, expression, prattExpressionCompiler.createExpression(input, getCompileContext()));
+        return expression;
     }
 
     protected CompoundPredicate or(Predicate... disjuncts) {
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.CompilationResult;
+import com.blazebit.expression.DomainModelException;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.SyntaxErrorException;
+import com.blazebit.expression.TypeErrorException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class BulkCompilationTest extends AbstractExpressionCompilerTest {
+
+    @Test
+    public void testFailuresAreCapturedPerItem() {
+        ExpressionCompilerImpl compiler = new ExpressionCompilerImpl(createDomainModel(), new LiteralFactory(createDomainModel()));
+        List<CompilationResult<Predicate>> results = compiler.createPredicates(Arrays.asList("user.age > 1", "user.age >", "user.age AND user.active", "user.unknown = 1", "user.age + 'a' > 1", "user.email = 'x'"), getCompileContext());
+
+        assertEquals(6, results.size());
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(parsePredicate("user.age > 1"), results.get(0).getExpression());
+        assertEquals("user.age >", results.get(1).getExpressionString());
+        assertNull(results.get(1).getExpression());
+        assertEquals(SyntaxErrorException.class, results.get(1).getException().getClass());
+        assertEquals(TypeErrorException.class, results.get(2).getException().getClass());
+        assertEquals(DomainModelException.class, results.get(3).getException().getClass());
+        assertEquals(TypeErrorException.class, results.get(4).getException().getClass());
+        assertTrue(results.get(5).isSuccessful());
+    }
+
+    @Test
+    public void testResultOrderWithExecutor() {
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputs.add(i % 7 == 0 ? "user.age > " : "user.age > " + i);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            PrattExpressionCompiler compiler = new PrattExpressionCompiler(createDomainModel(), new LiteralFactory(createDomainModel()));
+            List<CompilationResult<Predicate>> results = compiler.createPredicates(inputs, getCompileContext(), executor);
+            assertEquals(inputs.size(), results.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                CompilationResult<Predicate> result = results.get(i);
+                assertEquals(inputs.get(i), result.getExpressionString());
+                if (i % 7 == 0) {
+                    assertFalse(result.isSuccessful());
+                } else {
+                    assertEquals(parsePredicate(inputs.get(i)), result.getExpression());
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        ExpressionCompilerImpl compiler = new ExpressionCompilerImpl(createDomainModel(), new LiteralFactory(createDomainModel()));
+        assertTrue(compiler.createPredicates(Collections.<String>emptyList(), getCompileContext()).isEmpty());
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.CompiledExpression;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class BytecodeCompilerTest extends AbstractExpressionCompilerTest {
+
+    private static Class<?> generatedClass(CompiledExpression compiledExpression) throws Exception {
+        Field evaluator = CompiledExpressionImpl.class.getDeclaredField("evaluator");
+        evaluator.setAccessible(true);
+        return evaluator.get(compiledExpression).getClass();
+    }
+
+    @Test
+    public void testStringLiteralsShareClass() throws Exception {
+        CompiledExpression first = BytecodeCompiler.compile(string("first"), 0);
+        CompiledExpression second = BytecodeCompiler.compile(string("second"), 0);
+
+        assertEquals("first", first.evaluate(null));
+        assertEquals("second", second.evaluate(null));
+        assertSame(generatedClass(first), generatedClass(second));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.ChainingArithmeticExpression;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.spi.FunctionVolatility;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class CommonSubexpressionEliminatorTest extends AbstractExpressionCompilerTest {
+
+    private static DomainModel testDomainModel;
+
+    @BeforeClass
+    public static void defineTestDomainModel() {
+        testDomainModel = createDefaultDomainBuilder()
+                .createFunction("ABS_VALUE")
+                    .withArgument("value", Integer.class)
+                    .withResultType(Integer.class)
+                    .build()
+                .createFunction("RANDOM_INT")
+                    .withResultType(Integer.class)
+                    .withMetadata(FunctionVolatility.VOLATILE)
+                    .build()
+                .build();
+    }
+
+    @Override
+    protected DomainModel createDomainModel() {
+        return testDomainModel;
+    }
+
+    private CompoundPredicate compile(String input) {
+        ExpressionCompiler.Context compileContext = new ExpressionCompilerImpl.CompileContext(
+            Collections.singletonMap("user", testDomainModel.getType("user")),
+            Collections.<String, Object>singletonMap(ConfigurationProperties.COMMON_SUBEXPRESSION_ELIMINATION, Boolean.TRUE)
+        );
+        LiteralFactory literalFactory = new LiteralFactory(testDomainModel);
+        CompoundPredicate predicate = (CompoundPredicate) new ExpressionCompilerImpl(testDomainModel, literalFactory).createPredicate(input, compileContext);
+        assertEquals(predicate, new PrattExpressionCompiler(testDomainModel, literalFactory).createPredicate(input, compileContext));
+        assertEquals(parsePredicate(input), predicate);
+        return predicate;
+    }
+
+    private static Expression left(CompoundPredicate predicate, int index) {
+        return ((ComparisonPredicate) predicate.getPredicates().get(index)).getLeft();
+    }
+
+    @Test
+    public void testShareFunctionInvocations() {
+        CompoundPredicate predicate = compile("ABS_VALUE(user.age) > 1 OR ABS_VALUE(user.age) < -1");
+        assertSame(left(predicate, 0), left(predicate, 1));
+        assertSame(FunctionInvocation.class, left(predicate, 0).getClass());
+        SharedSlots sharedSlots = SharedSlots.of(predicate);
+        assertEquals(0, sharedSlots.getSlot(left(predicate, 0)));
+        // Only the outermost common subexpression needs a slot
+        Expression argument = ((FunctionInvocation) left(predicate, 0)).getArguments().values().iterator().next();
+        assertEquals(-1, sharedSlots.getSlot(argument));
+        assertEquals(1, sharedSlots.size());
+    }
+
+    @Test
+    public void testShareArithmeticExpressionsAndPaths() {
+        CompoundPredicate predicate = compile("user.age + 1 > 2 AND user.age + 1 < 5 AND user.age <> 3");
+        assertSame(left(predicate, 0), left(predicate, 1));
+        assertSame(ChainingArithmeticExpression.class, left(predicate, 0).getClass());
+        assertSame(((ChainingArithmeticExpression) left(predicate, 0)).getLeft(), left(predicate, 2));
+        assertSame(Path.class, left(predicate, 2).getClass());
+        assertEquals(2, SharedSlots.of(predicate).size());
+        assertEquals(Collections.singleton(attr("user", "age")), predicate.getAnalysis().getUsedPaths());
+    }
+
+    @Test
+    public void testDontShareVolatileFunctionInvocations() {
+        CompoundPredicate predicate = compile("RANDOM_INT() > 1 AND RANDOM_INT() > 1");
+        assertNotSame(left(predicate, 0), left(predicate, 1));
+        assertEquals(0, SharedSlots.of(predicate).size());
+        predicate = compile("ABS_VALUE(RANDOM_INT()) > 1 AND ABS_VALUE(RANDOM_INT()) > 1");
+        assertNotSame(left(predicate, 0), left(predicate, 1));
+    }
+
+    @Test
+    public void testDontShareReusedVolatileFunctionInvocations() {
+        ComparisonPredicate comparison = (ComparisonPredicate) parsePredicate("ABS_VALUE(RANDOM_INT()) > 1");
+        // The same instance used by multiple parents only gets a slot if it is deterministic
+        CompoundPredicate predicate = and(comparison, comparison);
+        assertEquals(0, SharedSlots.of(predicate).size());
+    }
+}
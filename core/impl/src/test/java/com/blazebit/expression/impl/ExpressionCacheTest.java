@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.Predicate;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionCacheTest extends AbstractExpressionCompilerTest {
+
+    private ExpressionCompilerImpl createCachingCompiler(int maximumSize, long maximumWeight) {
+        DomainModel domainModel = createDomainModel();
+        return new ExpressionCompilerImpl(domainModel, new LiteralFactory(domainModel), new ExpressionCache(maximumSize, maximumWeight));
+    }
+
+    @Test
+    public void testCacheHit() {
+        ExpressionCompilerImpl compiler = createCachingCompiler(10, Long.MAX_VALUE);
+        Predicate first = compiler.createPredicate("user.age > 1", compiler.createContext(Collections.singletonMap("user", createDomainModel().getType("user"))));
+        Predicate second = compiler.createPredicate("user.age > 1", compiler.createContext(Collections.singletonMap("user", createDomainModel().getType("user"))));
+        assertSame(first, second);
+        assertEquals(1, compiler.getExpressionCache().getHitCount());
+        assertEquals(1, compiler.getExpressionCache().getMissCount());
+    }
+
+    @Test
+    public void testCacheKeyContainsRuleAndContext() {
+        ExpressionCompilerImpl compiler = createCachingCompiler(10, Long.MAX_VALUE);
+        ExpressionCompiler.Context emptyContext = compiler.createContext(Collections.emptyMap());
+        Expression expression = compiler.createExpression("1 + 2", emptyContext);
+        Expression expressionOrPredicate = compiler.createExpressionOrPredicate("1 + 2", emptyContext);
+        assertNotSame(expression, expressionOrPredicate);
+        assertEquals(expression, expressionOrPredicate);
+
+        Predicate predicate = compiler.createPredicate("1 = 1", emptyContext);
+        Predicate predicateWithUser = compiler.createPredicate("1 = 1", getCompileContext());
+        assertNotSame(predicate, predicateWithUser);
+        assertEquals(0, compiler.getExpressionCache().getHitCount());
+        assertEquals(4, compiler.getExpressionCache().getMissCount());
+    }
+
+    @Test
+    public void testSizeEviction() {
+        ExpressionCompilerImpl compiler = createCachingCompiler(2, Long.MAX_VALUE);
+        ExpressionCompiler.Context context = compiler.createContext(Collections.emptyMap());
+        Expression one = compiler.createExpression("1", context);
+        compiler.createExpression("2", context);
+        // Touch the first entry so that the second one becomes the least recently used
+        assertSame(one, compiler.createExpression("1", context));
+        compiler.createExpression("3", context);
+
+        ExpressionCache cache = compiler.getExpressionCache();
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(one, compiler.createExpression("1", context));
+        long misses = cache.getMissCount();
+        compiler.createExpression("2", context);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void testWeightEviction() {
+        ExpressionCompilerImpl compiler = createCachingCompiler(10, 10);
+        ExpressionCompiler.Context context = compiler.createContext(Collections.emptyMap());
+        compiler.createExpression("1 + 2", context);
+        compiler.createExpression("3 + 4", context);
+        compiler.createExpression("5 + 6", context);
+
+        ExpressionCache cache = compiler.getExpressionCache();
+        assertEquals(2, cache.size());
+        assertEquals(10, cache.weight());
+        assertEquals(1, cache.getEvictionCount());
+    }
+}
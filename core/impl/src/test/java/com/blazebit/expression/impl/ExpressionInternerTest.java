@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.ExpressionSerializerFactory;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionInternerTest extends AbstractExpressionCompilerTest {
+
+    private ExpressionServiceFactory createServiceFactory(Map<String, Object> properties) {
+        return new ExpressionServiceFactoryImpl(createDomainModel(), Collections.<Class<?>, ExpressionSerializerFactory>emptyMap(), properties);
+    }
+
+    private void assertSharedSubtrees(ExpressionCompiler compiler) {
+        ExpressionCompiler.Context context = compiler.createContext(Collections.singletonMap("user", createDomainModel().getType("user")));
+        CompoundPredicate first = (CompoundPredicate) compiler.createPredicate("user.age > 1 AND user.email = 'a'", context);
+        CompoundPredicate second = (CompoundPredicate) compiler.createPredicate("user.age > 2 OR user.email = 'a'", context);
+        ComparisonPredicate firstAge = (ComparisonPredicate) first.getPredicates().get(0);
+        ComparisonPredicate secondAge = (ComparisonPredicate) second.getPredicates().get(0);
+
+        assertNotSame(first, second);
+        assertNotSame(firstAge, secondAge);
+        assertSame(firstAge.getLeft(), secondAge.getLeft());
+        assertSame(first.getPredicates().get(1), second.getPredicates().get(1));
+        assertSame(first, compiler.createPredicate("user.age > 1 AND user.email = 'a'", context));
+    }
+
+    @Test
+    public void testSharedSubtrees() {
+        assertSharedSubtrees(createServiceFactory(Collections.<String, Object>singletonMap(ConfigurationProperties.EXPRESSION_INTERNING, true)).createCompiler());
+    }
+
+    @Test
+    public void testSharedSubtreesPratt() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationProperties.EXPRESSION_INTERNING, "true");
+        properties.put(ConfigurationProperties.COMPILER, "pratt");
+        ExpressionServiceFactory serviceFactory = createServiceFactory(properties);
+        assertSharedSubtrees(serviceFactory.createCompiler());
+    }
+
+    @Test
+    public void testSharedAcrossCompilersOfFactory() {
+        ExpressionServiceFactory serviceFactory = createServiceFactory(Collections.<String, Object>singletonMap(ConfigurationProperties.EXPRESSION_INTERNING, true));
+        Predicate first = serviceFactory.createCompiler().createPredicate("user.age > 1", getCompileContext());
+        Predicate second = serviceFactory.createCompiler().createPredicate("user.age > 1", getCompileContext());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        ExpressionServiceFactory serviceFactory = createServiceFactory(Collections.<String, Object>emptyMap());
+        ExpressionCompiler compiler = serviceFactory.createCompiler();
+        Predicate first = compiler.createPredicate("user.age > 1", getCompileContext());
+        Predicate second = compiler.createPredicate("user.age > 1", getCompileContext());
+        assertNotSame(first, second);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testInternKeepsStructure() {
+        ExpressionInterner interner = new ExpressionInterner();
+        Predicate predicate = parsePredicate("user.age > 1 AND (user.age < 10 OR user.age IS NULL)");
+        Predicate interned = (Predicate) interner.intern(predicate);
+        assertEquals(predicate, interned);
+        assertSame(interned, interner.intern(parsePredicate("user.age > 1 AND (user.age < 10 OR user.age IS NULL)")));
+        // user.age, 1, 10, the comparisons, the null check, the inner and the outer compound
+        assertEquals(8, interner.size());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionOptimizer;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.EvaluationCost;
+import com.blazebit.expression.spi.FunctionVolatility;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionOptimizerTest extends AbstractExpressionCompilerTest {
+
+    private static DomainModel testDomainModel;
+
+    @BeforeClass
+    public static void defineTestDomainModel() {
+        testDomainModel = createDefaultDomainBuilder()
+                .createFunction("ABS_VALUE")
+                    .withArgument("value", Integer.class)
+                    .withResultType(Integer.class)
+                    .build()
+                .createFunction("CHEAP_ABS_VALUE")
+                    .withArgument("value", Integer.class)
+                    .withResultType(Integer.class)
+                    .withMetadata(EvaluationCost.of(0))
+                    .build()
+                .createFunction("RANDOM_INT")
+                    .withResultType(Integer.class)
+                    .withMetadata(FunctionVolatility.VOLATILE)
+                    .build()
+                .createEntityType("document")
+                    .addAttribute("title", String.class)
+                    .addAttribute("content", String.class, EvaluationCost.of(100))
+                    .build()
+                .build();
+    }
+
+    @Override
+    protected DomainModel createDomainModel() {
+        return testDomainModel;
+    }
+
+    @Override
+    protected ExpressionCompiler.Context getCompileContext() {
+        Map<String, DomainType> rootDomainTypes = new HashMap<>();
+        rootDomainTypes.put("user", testDomainModel.getType("user"));
+        rootDomainTypes.put("document", testDomainModel.getType("document"));
+        return new ExpressionCompilerImpl.CompileContext(rootDomainTypes, Collections.<String, Object>emptyMap());
+    }
+
+    private ExpressionOptimizer createOptimizer() {
+        return new ExpressionOptimizerImpl(testDomainModel, new LiteralFactory(testDomainModel));
+    }
+
+    private Predicate optimize(String input) {
+        Predicate predicate = parsePredicate(input);
+        Predicate optimized = createOptimizer().optimize(predicate);
+        assertEquals("Optimization mutated the predicate: " + input, parsePredicate(input), predicate);
+        return optimized;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Predicate> T negated(T predicate) {
+        return (T) predicate.negate();
+    }
+
+    @Test
+    public void testFlattenNestedCompoundPredicates() {
+        Predicate a = gt(attr("user", "age"), number(1));
+        Predicate b = lt(attr("user", "age"), number(5));
+        Predicate c = eq(attr("user", "email"), string("a"));
+        ExpressionOptimizer optimizer = createOptimizer();
+        assertEquals(and(a, b, c), optimizer.optimize(and(a, and(b, c))));
+        assertEquals(or(a, b, c), optimizer.optimize(or(or(a, b), c)));
+        assertEquals(a, optimizer.optimize(and(or(a))));
+        assertEquals(and(a, or(b, c)), optimizer.optimize(and(a, or(b, c))));
+    }
+
+    @Test
+    public void testPushDownNegation() {
+        assertEquals(parsePredicate("NOT(user.age > 1) OR NOT(user.email = 'a')"), optimize("NOT(user.age > 1 AND user.email = 'a')"));
+        assertEquals(parsePredicate("user.email IS NOT NULL AND user.age NOT IN (1, 2)"), optimize("NOT(user.age IN (1, 2) OR user.email IS NULL)"));
+    }
+
+    @Test
+    public void testPushDownNegationKeepsLeafNegation() {
+        Predicate a = gt(attr("user", "age"), number(1));
+        Predicate b = lt(attr("user", "age"), number(5));
+        Predicate expected = or(negated(gt(attr("user", "age"), number(1))), b);
+        assertEquals(expected, createOptimizer().optimize(negated(and(a, negated(lt(attr("user", "age"), number(5)))))));
+    }
+
+    @Test
+    public void testEliminateDuplicates() {
+        assertEquals(parsePredicate("user.age > 1 AND user.email = 'a'"), optimize("user.age > 1 AND user.email = 'a' AND user.age > 1"));
+        assertEquals(parsePredicate("user.age > 1"), optimize("user.age > 1 OR user.age > 1"));
+        assertEquals(parsePredicate("NOT(user.age > 1)"), optimize("NOT(user.age > 1 OR user.age > 1)"));
+    }
+
+    @Test
+    public void testKeepDuplicatesWithVolatileFunctions() {
+        Predicate optimized = optimize("RANDOM_INT() > 1 AND RANDOM_INT() > 1");
+        assertTrue(optimized instanceof CompoundPredicate);
+        assertEquals(2, ((CompoundPredicate) optimized).getPredicates().size());
+    }
+
+    @Test
+    public void testOrderByCost() {
+        assertEquals(parsePredicate("user.age > 1 AND ABS_VALUE(user.age) > 1"), optimize("ABS_VALUE(user.age) > 1 AND user.age > 1"));
+        assertEquals(parsePredicate("user.age > 1 OR user.email = 'a' OR ABS_VALUE(user.age) > 1"), optimize("ABS_VALUE(user.age) > 1 OR user.age > 1 OR user.email = 'a'"));
+    }
+
+    @Test
+    public void testOrderByCostMetadata() {
+        assertEquals(parsePredicate("CHEAP_ABS_VALUE(user.age) > 1 AND user.age + 1 > 1"), optimize("user.age + 1 > 1 AND CHEAP_ABS_VALUE(user.age) > 1"));
+        assertEquals(parsePredicate("document.title = 'a' AND document.content = 'a'"), optimize("document.content = 'a' AND document.title = 'a'"));
+    }
+
+    @Test
+    public void testUnchangedPredicateIsReturned() {
+        Predicate predicate = parsePredicate("user.age > 1 AND user.email = 'a'");
+        assertSame(predicate, createOptimizer().optimize(predicate));
+    }
+
+    @Test
+    public void testExplain() {
+        String explanation = createOptimizer().explain(parsePredicate("NOT(ABS_VALUE(user.age) > 1 AND user.age > 1)"));
+        assertEquals(
+            "Before:\n" +
+            "  NOT AND [cost=14]\n" +
+            "    ABS_VALUE(value = user.age) > 1 [cost=12]\n" +
+            "    user.age > 1 [cost=2]\n" +
+            "Applied rules: negation-pushdown, cost-ordering\n" +
+            "After:\n" +
+            "  OR [cost=14]\n" +
+            "    NOT(user.age > 1) [cost=2]\n" +
+            "    NOT(ABS_VALUE(value = user.age) > 1) [cost=12]\n",
+            explanation
+        );
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.impl.boot.model.DomainBuilderImpl;
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ArithmeticExpression;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.FunctionInvocation;
+import com.blazebit.expression.InPredicate;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ImmutableExpressionTest extends AbstractExpressionCompilerTest {
+
+    @Test
+    public void testNegationCreatesCopy() {
+        Predicate predicate = parsePredicate("user.age > 1 AND user.age < 5");
+        int hashCode = predicate.hashCode();
+        Predicate negated = predicate.negate();
+        assertFalse(predicate.isNegated());
+        assertTrue(negated.isNegated());
+        assertEquals(hashCode, predicate.hashCode());
+        assertNotEquals(predicate, negated);
+        assertEquals(predicate, negated.negate());
+        assertEquals(parsePredicate("NOT(user.age > 1 AND user.age < 5)"), negated);
+    }
+
+    @Test
+    public void testFlatteningDoesNotModifyOperands() {
+        ExpressionModelFactory modelFactory = new ExpressionModelFactory(createDomainModel(), new LiteralFactory(createDomainModel()), getCompileContext());
+        CompoundPredicate left = (CompoundPredicate) parsePredicate("user.age > 1 OR user.age < 5");
+        int hashCode = left.hashCode();
+        Predicate flattened = modelFactory.createDisjunction(left, eq(attr("user", "age"), number(3)));
+        assertEquals(2, left.getPredicates().size());
+        assertEquals(hashCode, left.hashCode());
+        assertEquals(parsePredicate("user.age > 1 OR user.age < 5 OR user.age = 3"), flattened);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testCompoundPredicateOperandsAreUnmodifiable() {
+        ((CompoundPredicate) parsePredicate("user.age > 1 OR user.age < 5")).getPredicates().clear();
+    }
+
+    @Test
+    public void testConstructorsCopyCollections() {
+        CompoundPredicate compoundPredicate = (CompoundPredicate) parsePredicate("user.age > 1 OR user.age < 5");
+        List<Predicate> predicates = new ArrayList<>(compoundPredicate.getPredicates());
+        CompoundPredicate copiedPredicate = new CompoundPredicate(compoundPredicate.getType(), predicates, false);
+        predicates.clear();
+        assertEquals(compoundPredicate, copiedPredicate);
+
+        Path path = (Path) parseArithmeticExpression("user.age");
+        List<EntityDomainTypeAttribute> attributes = new ArrayList<>(path.getAttributes());
+        Path copiedPath = new Path(path.getAlias(), attributes, path.getType());
+        attributes.clear();
+        assertEquals(path, copiedPath);
+
+        DomainFunction function = new DomainBuilderImpl()
+                .createBasicType("integer", Integer.class)
+                .createFunction("IDENTITY")
+                    .withArgument("value", Integer.class)
+                    .withResultType(Integer.class)
+                    .build()
+                .build()
+                .getFunction("IDENTITY");
+        Map<DomainFunctionArgument, Expression> arguments = new LinkedHashMap<>();
+        arguments.put(function.getArgument(0), path);
+        FunctionInvocation functionInvocation = new FunctionInvocation(function, arguments, path.getType());
+        arguments.clear();
+        assertEquals(Collections.singletonMap(function.getArgument(0), path), functionInvocation.getArguments());
+    }
+
+    @Test
+    public void testInPredicateCopiesItems() {
+        InPredicate inPredicate = (InPredicate) parsePredicate("user.age IN (1, 2)");
+        List<ArithmeticExpression> inItems = new ArrayList<>(inPredicate.getInItems());
+        InPredicate copiedPredicate = new InPredicate(inPredicate.getType(), inPredicate.getLeft(), inItems, false);
+        inItems.clear();
+        assertEquals(inPredicate, copiedPredicate);
+        assertEquals(2, copiedPredicate.getInItems().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testInPredicateItemsAreUnmodifiable() {
+        ((InPredicate) parsePredicate("user.age IN (1, 2)")).getInItems().clear();
+    }
+
+    @Test
+    public void testInPredicateKeepsLiteralInItems() {
+        InPredicate inPredicate = (InPredicate) parsePredicate("user.age IN (1, 2, 3, 4, 5, 6, 7, 8)");
+        assertTrue(inPredicate.getInItems() instanceof LiteralInItems);
+        assertSame(inPredicate.getInItems(), new InPredicate(inPredicate.getType(), inPredicate.getLeft(), inPredicate.getInItems(), false).getInItems());
+        assertSame(inPredicate.getInItems(), inPredicate.negate().getInItems());
+    }
+
+    @Test
+    public void testStructurallyEqualExpressionsAsKeys() {
+        Set<Predicate> predicates = new HashSet<>();
+        predicates.add(parsePredicate("user.age > 1 OR user.email = 'A'"));
+        assertTrue(predicates.contains(parsePredicate("user.age > 1 OR user.email = 'A'")));
+        assertFalse(predicates.contains(parsePredicate("user.age > 1 OR user.email = 'B'")));
+        assertFalse(predicates.contains(parsePredicate("user.age > 1 AND user.email = 'A'")));
+    }
+}
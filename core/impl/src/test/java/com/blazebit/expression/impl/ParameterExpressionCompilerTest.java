@@ -0,0 +1,167 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionPredicate;
+import com.blazebit.expression.ExpressionSerializer;
+import com.blazebit.expression.Parameter;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.TypeErrorException;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ParameterExpressionCompilerTest extends AbstractExpressionCompilerTest {
+
+    @Override
+    protected ExpressionCompiler.Context getCompileContext() {
+        DomainModel domainModel = createDomainModel();
+        return new ExpressionCompilerImpl.CompileContext(
+                Collections.singletonMap("user", domainModel.getType("user")),
+                Collections.<String, Object>emptyMap(),
+                Collections.singletonMap("limit", domainModel.getType(Integer.class))
+        );
+    }
+
+    private Parameter parameter(String name, Class<?> javaType) {
+        return new Parameter(name, type(javaType));
+    }
+
+    private DomainType type(Class<?> javaType) {
+        return createDomainModel().getType(javaType);
+    }
+
+    @Test
+    public void testInferFromComparison() {
+        assertEquals(gt(attr("user", "age"), parameter("minAge", Integer.class)), parsePredicate("user.age > :minAge"));
+        assertEquals(lt(parameter("minAge", Integer.class), attr("user", "age")), parsePredicate(":minAge < user.age"));
+    }
+
+    @Test
+    public void testInferFromInAndBetween() {
+        assertEquals(
+                in(attr("user", "email"), parameter("first", String.class), parameter("second", String.class)),
+                parsePredicate("user.email IN (:first, :second)")
+        );
+        assertEquals(
+                between(attr("user", "age"), parameter("lower", Integer.class), parameter("upper", Integer.class)),
+                parsePredicate("user.age BETWEEN :lower AND :upper")
+        );
+    }
+
+    @Test
+    public void testDeclaredType() {
+        assertEquals(
+                gt(attr("user", "id"), plus(parameter("limit", Integer.class), pos(number(1L)))),
+                parsePredicate("user.id > :limit + 1")
+        );
+        assertEquals(gt(parameter("limit", Integer.class), attr("user", "age")), parsePredicate(":limit > user.age"));
+    }
+
+    @Test
+    public void testBooleanParameterPredicate() {
+        Predicate flag = new ExpressionPredicate(type(Boolean.class), parameter("flag", Boolean.class), false);
+        assertEquals(flag, parsePredicate(":flag"));
+        assertEquals(and(flag, new ExpressionPredicate(type(Boolean.class), attr("user", "active"), false)), parsePredicate(":flag AND user.active"));
+    }
+
+    @Test
+    public void testReuseInferredType() {
+        assertEquals(
+                and(gt(attr("user", "age"), parameter("age", Integer.class)), eq(parameter("age", Integer.class), parameter("age", Integer.class))),
+                parsePredicate("user.age > :age AND :age = :age")
+        );
+    }
+
+    @Test(expected = TypeErrorException.class)
+    public void testUninferableType() {
+        parsePredicate("user.age > :offset + 1");
+    }
+
+    @Test
+    public void testContextsWithoutParameterSupport() {
+        ExpressionSerializer<StringBuilder> serializer = new ExpressionSerializer<StringBuilder>() {
+            @Override
+            public Context createContext(final Map<String, Object> contextParameters) {
+                return new Context() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <X> X getContextParameter(String contextParameterName) {
+                        return (X) contextParameters.get(contextParameterName);
+                    }
+                };
+            }
+
+            @Override
+            public void serializeTo(Expression expression, StringBuilder target) {
+            }
+
+            @Override
+            public void serializeTo(Context context, Expression expression, StringBuilder target) {
+            }
+        };
+        ExpressionSerializer.Context serializerContext = serializer.createContext(
+                Collections.<String, Object>singletonMap("key", "value"),
+                Collections.<String, Object>singletonMap("limit", 1)
+        );
+        assertEquals("value", serializerContext.getContextParameter("key"));
+        assertEquals(1, (int) serializerContext.<Integer>getParameter("limit"));
+
+        ExpressionInterpreter.Context interpreterContext = new ExpressionInterpreter.Context() {
+            @Override
+            public <X> X getProperty(String key) {
+                return null;
+            }
+
+            @Override
+            public void setProperty(String key, Object value) {
+            }
+
+            @Override
+            public <X> X getRoot(String alias) {
+                return null;
+            }
+
+            @Override
+            public DomainType getRootDomainType(String alias) {
+                return null;
+            }
+        };
+        assertNull(interpreterContext.getParameter("limit"));
+        try {
+            interpreterContext.setParameter("limit", 1);
+            fail("Expected failure");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.SyntaxErrorException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ParsingStrategyTest extends AbstractExpressionCompilerTest {
+
+    private ExpressionCompilerImpl createCompiler(ParsingStrategy parsingStrategy) {
+        DomainModel domainModel = createDomainModel();
+        return new ExpressionCompilerImpl(domainModel, new LiteralFactory(domainModel), null, parsingStrategy);
+    }
+
+    private void assertSameResult(String input) {
+        ExpressionCompilerImpl llCompiler = createCompiler(ParsingStrategy.LL);
+        ExpressionCompilerImpl twoStageCompiler = createCompiler(ParsingStrategy.TWO_STAGE);
+        Expression expected = llCompiler.createExpressionOrPredicate(input, getCompileContext());
+        Expression actual = twoStageCompiler.createExpressionOrPredicate(input, getCompileContext());
+        assertEquals(expected, actual);
+    }
+
+    private void assertSameSyntaxError(String input) {
+        String expectedMessage = getSyntaxErrorMessage(createCompiler(ParsingStrategy.LL), input);
+        String actualMessage = getSyntaxErrorMessage(createCompiler(ParsingStrategy.TWO_STAGE), input);
+        assertEquals(expectedMessage, actualMessage);
+    }
+
+    private String getSyntaxErrorMessage(ExpressionCompiler compiler, String input) {
+        try {
+            compiler.createPredicate(input, getCompileContext());
+            fail("Expected syntax error for: " + input);
+            return null;
+        } catch (SyntaxErrorException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    @Test
+    public void testDeepArithmetic() {
+        StringBuilder sb = new StringBuilder();
+        int depth = 100;
+        for (int i = 0; i < depth; i++) {
+            sb.append("(user.age ").append("+-*/".charAt(i % 4)).append(' ');
+        }
+        sb.append('1');
+        for (int i = 0; i < depth; i++) {
+            sb.append(')');
+        }
+        assertSameResult(sb.toString());
+    }
+
+    @Test
+    public void testLongArithmeticChain() {
+        StringBuilder sb = new StringBuilder("user.age");
+        for (int i = 0; i < 500; i++) {
+            sb.append(' ').append("+-*/".charAt(i % 4)).append(' ').append(i + 1);
+        }
+        assertSameResult(sb.toString());
+    }
+
+    @Test
+    public void testLongAndOrChain() {
+        StringBuilder sb = new StringBuilder("user.age > 0");
+        for (int i = 0; i < 500; i++) {
+            sb.append(i % 3 == 0 ? " OR " : " AND ");
+            if (i % 5 == 0) {
+                sb.append("NOT ");
+            }
+            sb.append("(user.age < ").append(i).append(" OR user.email = 'a')");
+        }
+        assertSameResult(sb.toString());
+    }
+
+    @Test
+    public void testSyntaxErrors() {
+        assertSameSyntaxError("user.age >");
+        assertSameSyntaxError("user.age > 1 AND");
+        assertSameSyntaxError("(user.age > 1");
+        assertSameSyntaxError("user.age + * 1 > 1");
+        assertSameSyntaxError("user.age > 1 user.age > 2");
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Compares the results of the hand-written parser with the ones of the generated parser for all parse rules.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class PrattExpressionCompilerTest extends AbstractExpressionCompilerTest {
+
+    private static DomainModel testDomainModel;
+
+    @BeforeClass
+    public static void defineTestDomainModel() {
+        testDomainModel = createDefaultDomainBuilder()
+                .createFunction("IS_ADULT")
+                    .withArgument("age", Integer.class)
+                    .withResultType(Boolean.class)
+                    .build()
+                .createFunction("ABS_VALUE")
+                    .withArgument("value", Integer.class)
+                    .withResultType(Integer.class)
+                    .build()
+                .createFunction("MAXIMUM")
+                    .withArgument("first", Integer.class)
+                    .withArgument("second", Integer.class)
+                    .withResultType(Integer.class)
+                    .build()
+                .createFunction("ALWAYS")
+                    .withResultType(Boolean.class)
+                    .build()
+                .build();
+    }
+
+    @Override
+    protected DomainModel createDomainModel() {
+        return testDomainModel;
+    }
+
+    private void assertSameResult(String input) {
+        DomainModel domainModel = createDomainModel();
+        ExpressionCompilerImpl expected = new ExpressionCompilerImpl(domainModel, new LiteralFactory(domainModel));
+        PrattExpressionCompiler actual = new PrattExpressionCompiler(domainModel, new LiteralFactory(domainModel));
+        for (int rule = 0; rule < 3; rule++) {
+            Object expectedResult = compile(expected, input, rule);
+            Object actualResult = compile(actual, input, rule);
+            if (expectedResult instanceof RuntimeException) {
+                assertNotNull("Expected " + expectedResult + " for rule " + rule + ": " + input, actualResult);
+                assertEquals("Different error for rule " + rule + ": " + input, expectedResult.getClass(), actualResult.getClass());
+            } else {
+                assertEquals("Different result for rule " + rule + ": " + input, expectedResult, actualResult);
+            }
+        }
+    }
+
+    private Object compile(ExpressionCompiler compiler, String input, int rule) {
+        try {
+            Expression expression;
+            switch (rule) {
+                case 0:
+                    expression = compiler.createPredicate(input, getCompileContext());
+                    break;
+                case 1:
+                    expression = compiler.createExpression(input, getCompileContext());
+                    break;
+                default:
+                    expression = compiler.createExpressionOrPredicate(input, getCompileContext());
+                    break;
+            }
+            return expression;
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    @Test
+    public void testArithmeticPrecedence() {
+        assertSameResult("1 - 2 + 3");
+        assertSameResult("1 / 2 * 3");
+        assertSameResult("1 * 2 / 3 % 4 + 5 - 6");
+        assertSameResult("1 - 2 * 3 + 4 % 5 / 6");
+        assertSameResult("-1 * 2");
+        assertSameResult("-1 + 2");
+        assertSameResult("+1 - 2");
+        assertSameResult("+1 * 2");
+        assertSameResult("-user.age * -2 + +3");
+        assertSameResult("1 > --(2 + 3)");
+        assertSameResult("(1 + 2) * (3 - user.age)");
+    }
+
+    @Test
+    public void testLogicalPrecedence() {
+        assertSameResult("user.age > 1 OR user.age < 2 AND user.age = 3 OR user.age <> 4");
+        assertSameResult("NOT user.age > 1 AND user.active");
+        assertSameResult("!user.active OR NOT (user.active AND user.age != 2)");
+        assertSameResult("NOT NOT user.active");
+        assertSameResult("user.active AND (user.active OR user.active) AND NOT user.active");
+        assertSameResult("!true");
+        assertSameResult("NOT 1 = 1");
+        assertSameResult("user.age > 1 AND");
+    }
+
+    @Test
+    public void testGroupedPredicatesAndExpressions() {
+        assertSameResult("(user.age) > 1");
+        assertSameResult("(user.age + 1) * 2 > 1");
+        assertSameResult("((user.active))");
+        assertSameResult("((user.active)) AND user.active");
+        assertSameResult("(user.age > 1)");
+        assertSameResult("(user.age > 1) = true");
+        assertSameResult("(user.age) IS NULL");
+        assertSameResult("(user.age) NOT IN (1, 2)");
+        assertSameResult("(user.age) BETWEEN 1 AND 2");
+        assertSameResult("((user.age) + 1) >= 2");
+        assertSameResult("(1 + 2");
+        assertSameResult("user.age > (1");
+    }
+
+    @Test
+    public void testSuffixPredicates() {
+        assertSameResult("user.email IS NULL");
+        assertSameResult("user.email IS NOT NULL");
+        assertSameResult("user.email IS EMPTY");
+        assertSameResult("user.email IS NOT EMPTY");
+        assertSameResult("user.age IN (1, 2, 3)");
+        assertSameResult("user.age NOT IN (1)");
+        assertSameResult("user.age IN (1) + 2");
+        assertSameResult("user.age IN 1");
+        assertSameResult("user.age IN ()");
+        assertSameResult("user.age BETWEEN 1 AND 2 + 3");
+        assertSameResult("user.age NOT BETWEEN 1 AND 2");
+        assertSameResult("user.age + 1 <= 2 * 3");
+        assertSameResult("user.age IS 1");
+    }
+
+    @Test
+    public void testKeywordsAsIdentifiers() {
+        assertSameResult("user.age > 1 AND NOT.age > 1");
+        assertSameResult("not.age");
+        assertSameResult("user.in");
+        assertSameResult("user.and = 1");
+        assertSameResult("between.days > 1");
+        assertSameResult("timestamp.years");
+        assertSameResult("NOT");
+        assertSameResult("NOT = 1");
+    }
+
+    @Test
+    public void testFunctions() {
+        assertSameResult("IS_ADULT(user.age)");
+        assertSameResult("IS_ADULT(user.age) AND user.active");
+        assertSameResult("IS_ADULT(age = user.age)");
+        assertSameResult("IS_ADULT(age = user.age) OR IS_ADULT(user.age)");
+        assertSameResult("IS_ADULT(age = 1 AND user.active)");
+        assertSameResult("ABS_VALUE(user.age) + 1 > 2");
+        assertSameResult("ABS_VALUE(value = user.age) + 1 > 2");
+        assertSameResult("MAXIMUM(1, ABS_VALUE(-2)) * 3");
+        assertSameResult("MAXIMUM(first = 1, second = 2)");
+        assertSameResult("MAXIMUM(second = 1, first = 2) > 1");
+        assertSameResult("ALWAYS()");
+        assertSameResult("ALWAYS() OR ALWAYS()");
+        assertSameResult("UNKNOWN(1)");
+        assertSameResult("UNKNOWN(a = 1)");
+        assertSameResult("user(id = 1)");
+        assertSameResult("user(id = 1) = user(id = 2)");
+        assertSameResult("IS_ADULT(user.age");
+    }
+
+    @Test
+    public void testLiterals() {
+        assertSameResult("'abc' = \"abc\"");
+        assertSameResult("'it''s' = 'a\\'b\\n\\u0041'");
+        assertSameResult("1.5e3 + 007");
+        assertSameResult("TRUE = false");
+        assertSameResult("TIMESTAMP(2020-01-01)");
+        assertSameResult("TIMESTAMP(2020-01-01 10:00:00)");
+        assertSameResult("TIMESTAMP(2020-01-01 10:00:00.123)");
+        assertSameResult("TIMESTAMP('2020-01-01 10:00:00')");
+        assertSameResult("TIMESTAMP(2020-01-)");
+        assertSameResult("INTERVAL 1 YEARS 2 DAYS 3 SECONDS");
+        assertSameResult("INTERVAL 1 DAYS 2 YEARS");
+        assertSameResult("INTERVAL 1 MINUTES");
+        assertSameResult("INTERVAL");
+        assertSameResult("[1, 2]");
+        assertSameResult("[]");
+        assertSameResult("[user.age]");
+        assertSameResult("user.gender = gender(key = 'FEMALE')");
+        assertSameResult("'unterminated");
+        assertSameResult("user.age # 1");
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionInterpreter;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class TieredCompiledExpressionTest {
+
+    private final CompiledExpression evaluators = new CompiledExpression() {
+        @Override
+        public Expression getExpression() {
+            return null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T evaluate(ExpressionInterpreter.Context interpreterContext) {
+            return (T) "evaluators";
+        }
+    };
+
+    @Test
+    public void testStayOnEvaluatorsWhenGenerationFails() {
+        final AtomicInteger generations = new AtomicInteger();
+        TieredCompiledExpression compiledExpression = new TieredCompiledExpression(null, evaluators, 0, 0) {
+            @Override
+            protected CompiledExpression generate() {
+                generations.incrementAndGet();
+                throw new VerifyError("Bad generated class");
+            }
+        };
+
+        assertEquals("evaluators", compiledExpression.evaluate(null));
+        assertEquals("evaluators", compiledExpression.evaluate(null));
+        assertFalse(compiledExpression.isGenerated());
+        // A failed generation is not retried on every evaluation
+        assertEquals(1, generations.get());
+    }
+
+    @Test
+    public void testStayOnEvaluatorsWhenCompilerFails() {
+        TieredCompiledExpression compiledExpression = new TieredCompiledExpression(null, evaluators, 0, 0) {
+            @Override
+            protected CompiledExpression generate() {
+                throw new IllegalStateException("Unsupported expression");
+            }
+        };
+
+        assertEquals("evaluators", compiledExpression.evaluate(null));
+        assertFalse(compiledExpression.isGenerated());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.impl;
+
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.expression.DomainModelException;
+import com.blazebit.expression.TypeErrorException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class TypeResolutionTableTest extends AbstractExpressionCompilerTest {
+
+    @Test
+    public void testSharedAcrossCompilers() {
+        DomainModel domainModel = createDomainModel();
+        TypeResolutionTable table = new TypeResolutionTable(domainModel);
+        ExpressionCompilerImpl antlrCompiler = new ExpressionCompilerImpl(domainModel, new LiteralFactory(domainModel), null, ParsingStrategy.TWO_STAGE, table);
+        PrattExpressionCompiler prattCompiler = new PrattExpressionCompiler(domainModel, new LiteralFactory(domainModel), null, table);
+
+        assertEquals(parsePredicate("user.age + 1 > 2 AND user.age IN (1, 2)"), antlrCompiler.createPredicate("user.age + 1 > 2 AND user.age IN (1, 2)", getCompileContext()));
+        int size = table.size();
+        assertEquals(parsePredicate("user.age + 3 > 4 OR user.age IN (3, 4)"), prattCompiler.createPredicate("user.age + 3 > 4 OR user.age IN (3, 4)", getCompileContext()));
+        assertEquals(size, table.size());
+    }
+
+    @Test
+    public void testErrorsAreReportedForCachedEntries() {
+        DomainModel domainModel = createDomainModel();
+        TypeResolutionTable table = new TypeResolutionTable(domainModel);
+        ExpressionCompilerImpl compiler = new ExpressionCompilerImpl(domainModel, new LiteralFactory(domainModel), null, ParsingStrategy.TWO_STAGE, table);
+        for (int i = 0; i < 2; i++) {
+            try {
+                compiler.createPredicate("user.email IS EMPTY", getCompileContext());
+                fail("Expected exception");
+            } catch (DomainModelException ex) {
+                assertEquals("Missing predicate type resolver for type string and predicate COLLECTION", ex.getMessage());
+            }
+            try {
+                compiler.createExpression("user.birthday * 2", getCompileContext());
+                fail("Expected exception");
+            } catch (DomainModelException | TypeErrorException ex) {
+                // Expected
+            }
+        }
+        assertEquals(2, table.size());
+    }
+}
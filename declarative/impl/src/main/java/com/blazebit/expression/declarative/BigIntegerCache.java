@@ -0,0 +1,56 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.declarative;
+
+import java.math.BigInteger;
+
+/**
+ * A cache for the <code>BigInteger</code> representation of small integral values, which are the most common attribute values,
+ * so that type adapters don't have to allocate a new object for every conversion.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+final class BigIntegerCache {
+
+    private static final int LOW = -128;
+    private static final int HIGH = 1024;
+    private static final BigInteger[] CACHE = new BigInteger[HIGH - LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = BigInteger.valueOf(i + LOW);
+        }
+    }
+
+    private BigIntegerCache() {
+    }
+
+    /**
+     * Returns the <code>BigInteger</code> for the given value, which is cached for small values.
+     *
+     * @param value The value
+     * @return the <code>BigInteger</code>
+     */
+    static BigInteger valueOf(long value) {
+        if (value >= LOW && value <= HIGH) {
+            return CACHE[(int) value - LOW];
+        }
+        return BigInteger.valueOf(value);
+    }
+}
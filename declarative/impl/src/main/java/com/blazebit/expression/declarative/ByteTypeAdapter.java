@@ -39,7 +39,7 @@ public class ByteTypeAdapter implements TypeAdapter<Byte, BigInteger>, Serializa
         if (value == null) {
             return null;
         }
-        return BigInteger.valueOf(value);
+        return BigIntegerCache.valueOf(value);
     }
 
     @Override
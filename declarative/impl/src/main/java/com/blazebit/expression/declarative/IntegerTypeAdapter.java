@@ -39,7 +39,7 @@ public class IntegerTypeAdapter implements TypeAdapter<Integer, BigInteger>, Ser
         if (value == null) {
             return null;
         }
-        return BigInteger.valueOf(value);
+        return BigIntegerCache.valueOf(value);
     }
 
     @Override
@@ -39,7 +39,7 @@ public class LongTypeAdapter implements TypeAdapter<Long, BigInteger>, Serializa
         if (value == null) {
             return null;
         }
-        return BigInteger.valueOf(value);
+        return BigIntegerCache.valueOf(value);
     }
 
     @Override
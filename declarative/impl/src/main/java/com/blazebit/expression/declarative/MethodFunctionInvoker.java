@@ -19,23 +19,23 @@ package com.blazebit.expression.declarative;
 import com.blazebit.domain.boot.model.MetadataDefinition;
 import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
 import com.blazebit.domain.runtime.model.DomainFunction;
-import com.blazebit.domain.runtime.model.DomainFunctionArgument;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Map;
 
 /**
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class MethodFunctionInvoker implements MetadataDefinition<FunctionInvoker>, FunctionInvoker, Serializable {
+public class MethodFunctionInvoker implements MetadataDefinition<FunctionInvoker>, IndexedFunctionInvoker, Serializable {
 
     private static final Field FUNCTION;
     private static final Field VAR_ARG_COMPONENT_TYPE;
@@ -67,7 +67,7 @@ public class MethodFunctionInvoker implements MetadataDefinition<FunctionInvoker
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         try {
             Object[] args = new Object[parameterCount];
             int i = 0;
@@ -79,20 +79,24 @@ public class MethodFunctionInvoker implements MetadataDefinition<FunctionInvoker
             int argumentCount = function.getArguments().size();
             int end = Math.min(parameterCount - offset, argumentCount) - 1;
             for (; i < end; i++) {
-                args[i + offset] = arguments.get(function.getArgument(i));
+                args[i + offset] = argument(arguments, i);
             }
             if (varArgComponentType == null) {
-                args[i + offset] = arguments.get(function.getArgument(i));
+                args[i + offset] = argument(arguments, i);
             } else {
-                Collection<Object> varArgs = (Collection<Object>) arguments.get(function.getArgument(i));
+                Collection<Object> varArgs = (Collection<Object>) argument(arguments, i);
                 args[i + offset] = varArgs.toArray((Object[]) Array.newInstance(varArgComponentType, varArgs.size()));
             }
             return this.function.invoke(null, args);
         } catch (Exception e) {
-            throw new RuntimeException("Couldn't invoke function " + function + " with arguments [" + arguments + "]", e);
+            throw new RuntimeException("Couldn't invoke function " + function + " with arguments " + Arrays.toString(arguments), e);
         }
     }
 
+    private static Object argument(Object[] arguments, int position) {
+        return position < arguments.length ? arguments[position] : null;
+    }
+
     @Override
     public Class<FunctionInvoker> getJavaType() {
         return FunctionInvoker.class;
@@ -39,7 +39,7 @@ public class ShortTypeAdapter implements TypeAdapter<Short, BigInteger>, Seriali
         if (value == null) {
             return null;
         }
-        return BigInteger.valueOf(value);
+        return BigIntegerCache.valueOf(value);
     }
 
     @Override
@@ -101,6 +101,18 @@ public class ModelTest {
         Assert.assertEquals("u.age > 18", whereBuilderMock.predicate);
     }
 
+    @Test
+    public void test4() {
+        ExpressionCompiler compiler = expressionServiceFactory.createCompiler();
+        ExpressionCompiler.Context compilerContext = compiler.createContext(Collections.singletonMap("user", domainType));
+        Expression expression = compiler.createExpression("IS_OLDER(user, :minAge)", compilerContext);
+        ExpressionSerializer<WhereBuilder> serializer = expressionServiceFactory.createSerializer(WhereBuilder.class);
+        ExpressionSerializer.Context serializerContext = serializer.createContext(Collections.singletonMap("user", "u"));
+        WhereBuilderMock whereBuilderMock = new WhereBuilderMock();
+        serializer.serializeTo(serializerContext, expression, whereBuilderMock);
+        Assert.assertEquals("u.age > :minAge", whereBuilderMock.predicate);
+    }
+
     @DomainFunctions
     static class Functions {
         @DomainFunction("IS_OLD")
@@ -108,6 +120,12 @@ public class ModelTest {
         static Boolean isOld(ExpressionInterpreter.Context context, @DomainFunctionParam("person") User user, String... args) {
             return user.getAge() > 18;
         }
+
+        @DomainFunction("IS_OLDER")
+        @FunctionExpression("?1.age > ?2")
+        static Boolean isOlder(ExpressionInterpreter.Context context, @DomainFunctionParam("person") User user, @DomainFunctionParam("age") long age) {
+            return user.getAge() > age;
+        }
     }
 
     @com.blazebit.domain.declarative.DomainType
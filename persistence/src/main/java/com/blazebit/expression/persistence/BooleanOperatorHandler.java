@@ -20,6 +20,7 @@ import com.blazebit.domain.runtime.model.DomainOperator;
 import com.blazebit.domain.runtime.model.DomainType;
 import com.blazebit.expression.ComparisonOperator;
 import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
 import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
 
 import java.io.Serializable;
@@ -28,7 +29,7 @@ import java.io.Serializable;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class BooleanOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, Serializable {
+public class BooleanOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, EqualityKeyProvider, Serializable {
 
     public static final BooleanOperatorHandler INSTANCE = new BooleanOperatorHandler();
 
@@ -56,6 +57,11 @@ public class BooleanOperatorHandler implements ComparisonOperatorInterpreter, Do
         throw new IllegalArgumentException("Can't handle the operator " + operator + " for the arguments [" + leftValue + ", " + rightValue + "]!");
     }
 
+    @Override
+    public Object getEqualityKey(DomainType domainType, Object value) {
+        return value instanceof Boolean ? value : null;
+    }
+
     @Override
     public Object interpret(DomainType targetType, DomainType leftType, DomainType rightType, Object leftValue, Object rightValue, DomainOperator operator) {
         if (operator == DomainOperator.NOT) {
@@ -21,6 +21,7 @@ import com.blazebit.domain.runtime.model.DomainType;
 import com.blazebit.expression.ComparisonOperator;
 import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
 import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -30,7 +31,7 @@ import java.math.BigInteger;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class NumericOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, Serializable {
+public class NumericOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, EqualityKeyProvider, Serializable {
 
     public static final NumericOperatorHandler INSTANCE = new NumericOperatorHandler();
 
@@ -44,7 +45,9 @@ public class NumericOperatorHandler implements ComparisonOperatorInterpreter, Do
         }
         Comparable l;
         Comparable r;
-        if (leftValue instanceof BigDecimal && rightValue instanceof BigInteger) {
+        if (leftValue instanceof BigInteger && rightValue instanceof BigInteger && fitsLong((BigInteger) leftValue) && fitsLong((BigInteger) rightValue)) {
+            return interpret(Long.compare(((BigInteger) leftValue).longValue(), ((BigInteger) rightValue).longValue()), operator, leftValue, rightValue);
+        } else if (leftValue instanceof BigDecimal && rightValue instanceof BigInteger) {
             l = (Comparable) leftValue;
             r = new BigDecimal((BigInteger) rightValue);
         } else if (leftValue instanceof BigInteger && rightValue instanceof BigDecimal) {
@@ -55,19 +58,23 @@ public class NumericOperatorHandler implements ComparisonOperatorInterpreter, Do
             r = (Comparable) rightValue;
         }
 
+        return interpret(l.compareTo(r), operator, leftValue, rightValue);
+    }
+
+    private static Boolean interpret(int comparison, ComparisonOperator operator, Object leftValue, Object rightValue) {
         switch (operator) {
             case EQUAL:
-                return l.compareTo(r) == 0;
+                return comparison == 0;
             case NOT_EQUAL:
-                return l.compareTo(r) != 0;
+                return comparison != 0;
             case GREATER_OR_EQUAL:
-                return l.compareTo(r) > -1;
+                return comparison > -1;
             case GREATER:
-                return l.compareTo(r) > 0;
+                return comparison > 0;
             case LOWER_OR_EQUAL:
-                return l.compareTo(r) < 1;
+                return comparison < 1;
             case LOWER:
-                return l.compareTo(r) < 0;
+                return comparison < 0;
             default:
                 break;
         }
@@ -75,6 +82,59 @@ public class NumericOperatorHandler implements ComparisonOperatorInterpreter, Do
         throw new IllegalArgumentException("Can't handle the operator " + operator + " for the arguments [" + leftValue + ", " + rightValue + "]!");
     }
 
+    private static boolean fitsLong(BigInteger value) {
+        return value.bitLength() < Long.SIZE;
+    }
+
+    /**
+     * Computes the result of the operator for the given values that fit into a <code>long</code> without going through <code>BigInteger</code> arithmetic,
+     * or returns <code>null</code> if the result overflows or the operation should be left to <code>BigInteger</code>, e.g. to throw the same exceptions.
+     */
+    private static BigInteger interpret(long l, long r, DomainOperator operator) {
+        try {
+            switch (operator) {
+                case PLUS:
+                    return BigInteger.valueOf(Math.addExact(l, r));
+                case MINUS:
+                    return BigInteger.valueOf(Math.subtractExact(l, r));
+                case MULTIPLICATION:
+                    return BigInteger.valueOf(Math.multiplyExact(l, r));
+                case DIVISION:
+                    // Long.MIN_VALUE / -1 overflows
+                    if (r == 0L || r == -1L) {
+                        return null;
+                    }
+                    return BigInteger.valueOf(l / r);
+                case MODULO:
+                    if (r == 0L) {
+                        return null;
+                    }
+                    return BigInteger.valueOf(l % r);
+                default:
+                    return null;
+            }
+        } catch (ArithmeticException ex) {
+            return null;
+        }
+    }
+
+    @Override
+    public Object getEqualityKey(DomainType domainType, Object value) {
+        // Widen to BigDecimal like the comparison does and strip the scale, because compareTo ignores it but equals doesn't
+        BigDecimal decimal;
+        if (value instanceof BigDecimal) {
+            decimal = (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            decimal = new BigDecimal((BigInteger) value);
+        } else {
+            return null;
+        }
+        if (decimal.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return decimal.stripTrailingZeros();
+    }
+
     @Override
     public Object interpret(DomainType targetType, DomainType leftType, DomainType rightType, Object leftValue, Object rightValue, DomainOperator operator) {
         if (rightValue == null) {
@@ -98,6 +158,12 @@ public class NumericOperatorHandler implements ComparisonOperatorInterpreter, Do
             } else if (leftValue instanceof BigInteger && rightValue instanceof BigInteger) {
                 BigInteger l = (BigInteger) leftValue;
                 BigInteger r = (BigInteger) rightValue;
+                if (fitsLong(l) && fitsLong(r)) {
+                    BigInteger result = interpret(l.longValue(), r.longValue(), operator);
+                    if (result != null) {
+                        return result;
+                    }
+                }
 
                 switch (operator) {
                     case PLUS:
@@ -34,10 +34,12 @@ import com.blazebit.expression.InPredicate;
 import com.blazebit.expression.IsEmptyPredicate;
 import com.blazebit.expression.IsNullPredicate;
 import com.blazebit.expression.Literal;
+import com.blazebit.expression.Parameter;
 import com.blazebit.expression.Path;
 import com.blazebit.expression.Predicate;
 import com.blazebit.persistence.CriteriaBuilder;
 import com.blazebit.persistence.MultipleSubqueryInitiator;
+import com.blazebit.persistence.ParameterHolder;
 import com.blazebit.persistence.WhereBuilder;
 
 import java.util.Collections;
@@ -64,6 +66,7 @@ public class PersistenceExpressionSerializer implements Expression.Visitor, Expr
     private StringBuilder sb;
     private WhereBuilder<?> whereBuilder;
     private Context context;
+    private Map<String, Object> parameterValues;
 
     /**
      * Creates a new serializer for serializing to a Blaze-Persistence Core WhereBuilder.
@@ -79,11 +82,21 @@ public class PersistenceExpressionSerializer implements Expression.Visitor, Expr
 
     @Override
     public Context createContext(Map<String, Object> contextParameters) {
+        return createContext(contextParameters, Collections.<String, Object>emptyMap());
+    }
+
+    @Override
+    public Context createContext(Map<String, Object> contextParameters, Map<String, Object> parameters) {
         return new Context() {
             @Override
             public Object getContextParameter(String contextParameterName) {
                 return contextParameters.get(contextParameterName);
             }
+
+            @Override
+            public Object getParameter(String name) {
+                return parameters.get(name);
+            }
         };
     }
 
@@ -144,8 +157,10 @@ public class PersistenceExpressionSerializer implements Expression.Visitor, Expr
     public void serializeTo(Context newContext, Expression expression, WhereBuilder<?> target) {
         WhereBuilder old = whereBuilder;
         Context oldContext = context;
+        Map<String, Object> oldParameterValues = parameterValues;
         whereBuilder = target;
         context = newContext;
+        parameterValues = null;
         try {
             sb.setLength(0);
             expression.accept(this);
@@ -154,9 +169,15 @@ public class PersistenceExpressionSerializer implements Expression.Visitor, Expr
                 entry.getValue().createSubquery(multiSubqueryInitiator.with(entry.getKey()));
             }
             multiSubqueryInitiator.end();
+            if (parameterValues != null && target instanceof ParameterHolder<?>) {
+                for (Map.Entry<String, Object> entry : parameterValues.entrySet()) {
+                    ((ParameterHolder<?>) target).setParameter(entry.getKey(), entry.getValue());
+                }
+            }
         } finally {
             whereBuilder = old;
             context = oldContext;
+            parameterValues = oldParameterValues;
         }
     }
 
@@ -210,6 +231,24 @@ public class PersistenceExpressionSerializer implements Expression.Visitor, Expr
         }
     }
 
+    /**
+     * Renders the parameter as JPQL named parameter, so that the query string is independent of the parameter value.
+     * The value bound in the serialization context is set on the query builder, otherwise it must be set by the caller.
+     *
+     * @param e The parameter
+     */
+    @Override
+    public void visit(Parameter e) {
+        sb.append(':').append(e.getName());
+        Object value = context == null ? null : context.getParameter(e.getName());
+        if (value != null) {
+            if (parameterValues == null) {
+                parameterValues = new HashMap<>();
+            }
+            parameterValues.put(e.getName(), value);
+        }
+    }
+
     @Override
     public void visit(Path e) {
         tempSb.setLength(0);
@@ -22,6 +22,7 @@ import com.blazebit.expression.ChainingArithmeticExpression;
 import com.blazebit.expression.ComparisonOperator;
 import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
 import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
 
 import java.io.Serializable;
 
@@ -29,7 +30,7 @@ import java.io.Serializable;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class StringOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, DomainOperatorRenderer, Serializable {
+public class StringOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, EqualityKeyProvider, DomainOperatorRenderer, Serializable {
 
     public static final StringOperatorHandler INSTANCE = new StringOperatorHandler();
 
@@ -67,6 +68,11 @@ public class StringOperatorHandler implements ComparisonOperatorInterpreter, Dom
         throw new IllegalArgumentException("Can't handle the operator " + operator + " for the arguments [" + leftValue + ", " + rightValue + "]!");
     }
 
+    @Override
+    public Object getEqualityKey(DomainType domainType, Object value) {
+        return value instanceof String ? value : null;
+    }
+
     @Override
     public Object interpret(DomainType targetType, DomainType leftType, DomainType rightType, Object leftValue, Object rightValue, DomainOperator operator) {
         if (operator == DomainOperator.PLUS) {
@@ -24,6 +24,7 @@ import com.blazebit.expression.ComparisonOperator;
 import com.blazebit.expression.Expression;
 import com.blazebit.expression.Literal;
 import com.blazebit.expression.spi.DomainOperatorInterpreter;
+import com.blazebit.expression.spi.EqualityKeyProvider;
 import com.blazebit.expression.spi.ComparisonOperatorInterpreter;
 
 import java.io.Serializable;
@@ -33,7 +34,7 @@ import java.time.Instant;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class TimestampOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, DomainOperatorRenderer, Serializable {
+public class TimestampOperatorHandler implements ComparisonOperatorInterpreter, DomainOperatorInterpreter, EqualityKeyProvider, DomainOperatorRenderer, Serializable {
 
     public static final TimestampOperatorHandler INSTANCE = new TimestampOperatorHandler();
 
@@ -68,6 +69,11 @@ public class TimestampOperatorHandler implements ComparisonOperatorInterpreter,
         throw new IllegalArgumentException("Can't handle the operator " + operator + " for the arguments [" + leftValue + ", " + rightValue + "]!");
     }
 
+    @Override
+    public Object getEqualityKey(DomainType domainType, Object value) {
+        return value instanceof Instant ? value : null;
+    }
+
     @Override
     public Object interpret(DomainType targetType, DomainType leftType, DomainType rightType, Object leftValue, Object rightValue, DomainOperator operator) {
         if (leftValue instanceof TemporalInterval && rightValue instanceof TemporalInterval) {
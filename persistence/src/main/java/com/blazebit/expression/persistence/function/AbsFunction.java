@@ -25,7 +25,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -37,7 +37,7 @@ import java.util.function.Consumer;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class AbsFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class AbsFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final AbsFunction INSTANCE = new AbsFunction();
 
@@ -61,8 +61,8 @@ public class AbsFunction implements FunctionRenderer, FunctionInvoker, Serializa
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object argument = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object argument = arguments[0];
         if (argument == null) {
             return null;
         }
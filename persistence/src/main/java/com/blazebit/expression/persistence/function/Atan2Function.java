@@ -25,7 +25,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -38,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.N
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class Atan2Function implements FunctionRenderer, FunctionInvoker, Serializable {
+public class Atan2Function implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final Atan2Function INSTANCE = new Atan2Function();
 
@@ -62,12 +62,12 @@ public class Atan2Function implements FunctionRenderer, FunctionInvoker, Seriali
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object y = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object y = arguments[0];
         if (y == null) {
             return null;
         }
-        Object x = arguments.get(function.getArgument(1));
+        Object x = arguments[1];
         if (x == null) {
             return null;
         }
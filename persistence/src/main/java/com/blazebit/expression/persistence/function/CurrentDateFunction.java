@@ -24,7 +24,8 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.FunctionVolatility;
 
 import java.io.Serializable;
 import java.time.Instant;
@@ -37,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.T
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class CurrentDateFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class CurrentDateFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final CurrentDateFunction INSTANCE = new CurrentDateFunction();
     private static final int SECONDS_PER_DAY = 86400;
@@ -54,6 +55,7 @@ public class CurrentDateFunction implements FunctionRenderer, FunctionInvoker, S
         domainBuilder.createFunction("CURRENT_DATE")
                 .withMetadata(new FunctionRendererMetadataDefinition(INSTANCE))
                 .withMetadata(new FunctionInvokerMetadataDefinition(INSTANCE))
+                .withMetadata(FunctionVolatility.STABLE)
                 .withMetadata(DocumentationMetadataDefinition.localized("CURRENT_DATE"))
                 .withExactArgumentCount(0)
                 .withResultType(TIMESTAMP)
@@ -61,7 +63,7 @@ public class CurrentDateFunction implements FunctionRenderer, FunctionInvoker, S
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         Instant instant = CurrentTimestampFunction.get(context);
         return Instant.ofEpochSecond(Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_DAY) * SECONDS_PER_DAY);
     }
@@ -24,7 +24,8 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.FunctionVolatility;
 
 import java.io.Serializable;
 import java.time.Instant;
@@ -38,7 +39,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.T
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class CurrentTimeFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class CurrentTimeFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final CurrentTimeFunction INSTANCE = new CurrentTimeFunction();
     private static final int SECONDS_PER_DAY = 86400;
@@ -55,6 +56,7 @@ public class CurrentTimeFunction implements FunctionRenderer, FunctionInvoker, S
         domainBuilder.createFunction("CURRENT_TIME")
                 .withMetadata(new FunctionRendererMetadataDefinition(INSTANCE))
                 .withMetadata(new FunctionInvokerMetadataDefinition(INSTANCE))
+                .withMetadata(FunctionVolatility.STABLE)
                 .withMetadata(DocumentationMetadataDefinition.localized("CURRENT_TIME"))
                 .withExactArgumentCount(0)
                 .withResultType(TIME)
@@ -62,7 +64,7 @@ public class CurrentTimeFunction implements FunctionRenderer, FunctionInvoker, S
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         Instant instant = CurrentTimestampFunction.get(context);
         return LocalTime.ofSecondOfDay(Math.floorMod(instant.getEpochSecond(), SECONDS_PER_DAY));
     }
@@ -24,7 +24,8 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.FunctionVolatility;
 
 import java.io.Serializable;
 import java.time.Instant;
@@ -37,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.T
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class CurrentTimestampFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class CurrentTimestampFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     public static final String INSTANT_PROPERTY = "instant";
     private static final CurrentTimestampFunction INSTANCE = new CurrentTimestampFunction();
@@ -54,6 +55,7 @@ public class CurrentTimestampFunction implements FunctionRenderer, FunctionInvok
         domainBuilder.createFunction("CURRENT_TIMESTAMP")
                 .withMetadata(new FunctionRendererMetadataDefinition(INSTANCE))
                 .withMetadata(new FunctionInvokerMetadataDefinition(INSTANCE))
+                .withMetadata(FunctionVolatility.STABLE)
                 .withMetadata(DocumentationMetadataDefinition.localized("CURRENT_TIMESTAMP"))
                 .withExactArgumentCount(0)
                 .withResultType(TIMESTAMP)
@@ -77,7 +79,7 @@ public class CurrentTimestampFunction implements FunctionRenderer, FunctionInvok
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         return get(context);
     }
 
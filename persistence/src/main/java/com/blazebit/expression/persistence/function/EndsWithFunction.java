@@ -24,7 +24,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -37,7 +37,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class EndsWithFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class EndsWithFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final EndsWithFunction INSTANCE = new EndsWithFunction();
 
@@ -62,12 +62,12 @@ public class EndsWithFunction implements FunctionRenderer, FunctionInvoker, Seri
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        String string = (String) arguments.get(function.getArgument(1));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        String string = (String) arguments[1];
         if (string == null) {
             return null;
         }
-        String substring = (String) arguments.get(function.getArgument(0));
+        String substring = (String) arguments[0];
         if (substring == null) {
             return null;
         }
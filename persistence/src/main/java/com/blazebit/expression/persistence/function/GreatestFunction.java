@@ -24,7 +24,7 @@ import com.blazebit.domain.runtime.model.StaticDomainFunctionTypeResolvers;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 import com.blazebit.expression.persistence.FunctionRenderer;
 
 import java.io.Serializable;
@@ -37,7 +37,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.N
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class GreatestFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class GreatestFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final GreatestFunction INSTANCE = new GreatestFunction();
 
@@ -63,9 +63,9 @@ public class GreatestFunction implements FunctionRenderer, FunctionInvoker, Seri
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         Comparable greatest = null;
-        for (Object value : arguments.values()) {
+        for (Object value : arguments) {
             // TODO: automatic widening of arguments?
             if (greatest == null || greatest.compareTo(value) < 0) {
                 greatest = (Comparable) value;
@@ -24,7 +24,7 @@ import com.blazebit.domain.runtime.model.StaticDomainFunctionTypeResolvers;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 import com.blazebit.expression.persistence.FunctionRenderer;
 
 import java.io.Serializable;
@@ -37,7 +37,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.N
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class LeastFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class LeastFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final LeastFunction INSTANCE = new LeastFunction();
 
@@ -63,9 +63,9 @@ public class LeastFunction implements FunctionRenderer, FunctionInvoker, Seriali
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         Comparable least = null;
-        for (Object value : arguments.values()) {
+        for (Object value : arguments) {
             // TODO: automatic widening of arguments?
             if (least == null || least.compareTo(value) > 0) {
                 least = (Comparable) value;
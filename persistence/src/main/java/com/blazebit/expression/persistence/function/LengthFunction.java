@@ -24,7 +24,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.math.BigInteger;
@@ -38,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class LengthFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class LengthFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final LengthFunction INSTANCE = new LengthFunction();
 
@@ -62,8 +62,8 @@ public class LengthFunction implements FunctionRenderer, FunctionInvoker, Serial
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object string = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object string = arguments[0];
         if (string == null) {
             return null;
         }
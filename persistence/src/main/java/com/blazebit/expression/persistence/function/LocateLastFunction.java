@@ -24,7 +24,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.math.BigInteger;
@@ -38,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class LocateLastFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class LocateLastFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final LocateLastFunction INSTANCE = new LocateLastFunction();
 
@@ -64,16 +64,16 @@ public class LocateLastFunction implements FunctionRenderer, FunctionInvoker, Se
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object substring = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object substring = arguments[0];
         if (substring == null) {
             return null;
         }
-        Object string = arguments.get(function.getArgument(1));
+        Object string = arguments[1];
         if (string == null) {
             return null;
         }
-        Object start = arguments.getOrDefault(function.getArgument(2), 0);
+        Object start = arguments.length > 2 ? arguments[2] : 0;
         if (start == null) {
             return null;
         }
@@ -24,7 +24,7 @@ import com.blazebit.domain.runtime.model.StaticDomainFunctionTypeResolvers;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 import com.blazebit.expression.persistence.FunctionRenderer;
 
 import java.io.Serializable;
@@ -40,7 +40,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.N
  * @author Christian Beikov
  * @since 1.0.0
  */
-public abstract class NumericFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public abstract class NumericFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final List<NumericFunction> FUNCTIONS = Arrays.asList(
             new NumericFunction("SQRT") {
@@ -136,8 +136,8 @@ public abstract class NumericFunction implements FunctionRenderer, FunctionInvok
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object argument = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object argument = arguments[0];
         if (argument == null) {
             return null;
         }
@@ -24,7 +24,7 @@ import com.blazebit.domain.runtime.model.StaticDomainFunctionTypeResolvers;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 import com.blazebit.expression.persistence.FunctionRenderer;
 
 import java.io.Serializable;
@@ -38,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.N
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class PowFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class PowFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final PowFunction INSTANCE = new PowFunction();
 
@@ -62,12 +62,12 @@ public class PowFunction implements FunctionRenderer, FunctionInvoker, Serializa
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object base = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object base = arguments[0];
         if (base == null) {
             return null;
         }
-        Object power = arguments.get(function.getArgument(1));
+        Object power = arguments[1];
         if (power == null) {
             return null;
         }
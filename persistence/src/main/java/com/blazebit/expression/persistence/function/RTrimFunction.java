@@ -23,7 +23,7 @@ import com.blazebit.domain.runtime.model.DomainType;
 import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 import com.blazebit.expression.persistence.FunctionRenderer;
 
 import java.io.Serializable;
@@ -36,7 +36,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class RTrimFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class RTrimFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final RTrimFunction INSTANCE = new RTrimFunction();
 
@@ -61,12 +61,12 @@ public class RTrimFunction implements FunctionRenderer, FunctionInvoker, Seriali
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object string = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object string = arguments[0];
         if (string == null) {
             return null;
         }
-        String character = (String) arguments.getOrDefault(function.getArgument(1), " ");
+        String character = (String) (arguments.length > 1 ? arguments[1] : " ");
         if (character == null) {
             return null;
         }
@@ -26,7 +26,8 @@ import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceDomainContributor;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
+import com.blazebit.expression.spi.FunctionVolatility;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -38,7 +39,7 @@ import java.util.function.Consumer;
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class RandomFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class RandomFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final RandomFunction INSTANCE = new RandomFunction();
 
@@ -54,13 +55,14 @@ public class RandomFunction implements FunctionRenderer, FunctionInvoker, Serial
         domainBuilder.createFunction("RANDOM")
                 .withMetadata(new FunctionRendererMetadataDefinition(INSTANCE))
                 .withMetadata(new FunctionInvokerMetadataDefinition(INSTANCE))
+                .withMetadata(FunctionVolatility.VOLATILE)
                 .withMetadata(DocumentationMetadataDefinition.localized("RANDOM"))
                 .build();
         domainBuilder.withFunctionTypeResolver("RANDOM", StaticDomainFunctionTypeResolvers.returning(PersistenceDomainContributor.NUMERIC));
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
         return new BigDecimal(ThreadLocalRandom.current().nextDouble());
     }
 
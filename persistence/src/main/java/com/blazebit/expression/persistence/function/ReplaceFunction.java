@@ -24,7 +24,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -36,7 +36,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class ReplaceFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class ReplaceFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final ReplaceFunction INSTANCE = new ReplaceFunction();
 
@@ -61,16 +61,16 @@ public class ReplaceFunction implements FunctionRenderer, FunctionInvoker, Seria
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        String string = (String) arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        String string = (String) arguments[0];
         if (string == null) {
             return null;
         }
-        String target = (String) arguments.get(function.getArgument(1));
+        String target = (String) arguments[1];
         if (target == null) {
             return null;
         }
-        String replacement = (String) arguments.get(function.getArgument(2));
+        String replacement = (String) arguments[2];
         if (replacement == null) {
             return null;
         }
@@ -25,7 +25,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -41,7 +41,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.I
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class RoundFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class RoundFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final RoundFunction INSTANCE = new RoundFunction();
 
@@ -66,14 +66,14 @@ public class RoundFunction implements FunctionRenderer, FunctionInvoker, Seriali
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object value = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object value = arguments[0];
         if (value == null) {
             return null;
         }
         int prec = 0;
-        if (arguments.size() > 1) {
-            Object precision = arguments.get(function.getArgument(1));
+        if (arguments.length > 1) {
+            Object precision = arguments[1];
             if (precision == null) {
                 return null;
             }
@@ -27,7 +27,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.math.BigInteger;
@@ -41,7 +41,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.I
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class SizeFunction implements FunctionRenderer, FunctionInvoker, DomainFunctionTypeResolver, Serializable {
+public class SizeFunction implements FunctionRenderer, IndexedFunctionInvoker, DomainFunctionTypeResolver, Serializable {
 
     private static final SizeFunction INSTANCE = new SizeFunction();
 
@@ -75,8 +75,8 @@ public class SizeFunction implements FunctionRenderer, FunctionInvoker, DomainFu
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object argument = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object argument = arguments[0];
         if (argument == null) {
             return null;
         }
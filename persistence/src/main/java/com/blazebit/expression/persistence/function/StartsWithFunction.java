@@ -24,7 +24,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -38,7 +38,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class StartsWithFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class StartsWithFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final StartsWithFunction INSTANCE = new StartsWithFunction();
 
@@ -64,18 +64,18 @@ public class StartsWithFunction implements FunctionRenderer, FunctionInvoker, Se
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        String string = (String) arguments.get(function.getArgument(1));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        String string = (String) arguments[1];
         if (string == null) {
             return null;
         }
-        String substring = (String) arguments.get(function.getArgument(0));
+        String substring = (String) arguments[0];
         if (substring == null) {
             return null;
         }
         int startIndex = 0;
-        if (arguments.size() > 2) {
-            Object start = arguments.get(function.getArgument(2));
+        if (arguments.length > 2) {
+            Object start = arguments[2];
             if (start == null) {
                 return null;
             }
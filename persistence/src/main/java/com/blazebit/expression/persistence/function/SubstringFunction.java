@@ -24,7 +24,7 @@ import com.blazebit.expression.ExpressionInterpreter;
 import com.blazebit.expression.persistence.DocumentationMetadataDefinition;
 import com.blazebit.expression.persistence.FunctionRenderer;
 import com.blazebit.expression.persistence.PersistenceExpressionSerializer;
-import com.blazebit.expression.spi.FunctionInvoker;
+import com.blazebit.expression.spi.IndexedFunctionInvoker;
 
 import java.io.Serializable;
 import java.util.Map;
@@ -37,7 +37,7 @@ import static com.blazebit.expression.persistence.PersistenceDomainContributor.S
  * @author Christian Beikov
  * @since 1.0.0
  */
-public class SubstringFunction implements FunctionRenderer, FunctionInvoker, Serializable {
+public class SubstringFunction implements FunctionRenderer, IndexedFunctionInvoker, Serializable {
 
     private static final SubstringFunction INSTANCE = new SubstringFunction();
 
@@ -63,12 +63,12 @@ public class SubstringFunction implements FunctionRenderer, FunctionInvoker, Ser
     }
 
     @Override
-    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Map<DomainFunctionArgument, Object> arguments) {
-        Object string = arguments.get(function.getArgument(0));
+    public Object invoke(ExpressionInterpreter.Context context, DomainFunction function, Object[] arguments) {
+        Object string = arguments[0];
         if (string == null) {
             return null;
         }
-        Object start = arguments.get(function.getArgument(1));
+        Object start = arguments[1];
         if (start == null) {
             return null;
         }
@@ -80,7 +80,7 @@ public class SubstringFunction implements FunctionRenderer, FunctionInvoker, Ser
         }
         String s = string.toString();
         int endIndex;
-        Object count = arguments.get(function.getArgument(2));
+        Object count = arguments.length > 2 ? arguments[2] : null;
         if (count == null) {
             endIndex = s.length() - endIndexOffset;
         } else {
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.boot.model.EntityDomainTypeBuilder;
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.spi.AttributeAccessor;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for tests that evaluate expressions against a <code>user</code> entity type with a name, an age and an active flag.
+ *
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public abstract class AbstractUserDomainTest {
+
+    protected static final String[] PREDICATES = {
+        "user.age > 18",
+        "NOT(user.age > 18)",
+        "user.age BETWEEN 10 AND 30",
+        "user.age NOT BETWEEN :minAge AND 30",
+        "user.age IN (1, 5, 10, 15, 20, 25, 30, 35, 40, 45)",
+        "user.age NOT IN (1, 5, 10, 15, 20, 25, 30, 35, 40, 45)",
+        "user.age IN (1, 5, :minAge)",
+        "user.name IS NULL",
+        "user.name IS NOT NULL",
+        "user.age + 1 > :minAge OR user.name = 'Anna'",
+        "user.age + 1 > :minAge AND user.age + 1 < 40",
+        "UPPER(user.name) IN ('ANNA', 'ALEX') OR LENGTH(UPPER(user.name)) > 4",
+        "-user.age < -10 AND user.age * 2 <> 20",
+        "user.active",
+        "NOT(user.active) OR user.age = 0",
+        "user.age NOT IN (1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20)"
+    };
+    protected static final String[] EXPRESSIONS = {
+        "user.age",
+        "user.age * 2 + :minAge",
+        "-user.age",
+        "UPPER(user.name)",
+        "LENGTH(user.name) + LENGTH(user.name)",
+        "SUBSTRING(user.name, 2)",
+        "SUBSTRING(user.name, 1, 2)",
+        "TRIM(user.name)",
+        "LTRIM(user.name, 'A')",
+        "LOCATE('a', user.name)",
+        "LOCATE('a', user.name, 2)"
+    };
+
+    protected final DomainModel domainModel;
+    protected final ExpressionServiceFactory expressionServiceFactory;
+    protected final ExpressionCompiler compiler;
+    protected final ExpressionInterpreter interpreter;
+    protected final Map<String, DomainType> testTypes = new HashMap<>();
+    protected final DomainType integerType;
+
+    public static class User {
+        final String name;
+        final BigInteger age;
+        final Boolean active;
+        public User(String name, BigInteger age) {
+            this(name, age, null);
+        }
+        public User(String name, BigInteger age, Boolean active) {
+            this.name = name;
+            this.age = age;
+            this.active = active;
+        }
+    }
+    public static class UserAttributeAccessor implements MetadataDefinition<AttributeAccessor>, AttributeAccessor {
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            User user = (User) value;
+            switch (attribute.getName()) {
+                case "name":
+                    return user.name;
+                case "age":
+                    return user.age;
+                default:
+                    return user.active;
+            }
+        }
+        @Override
+        public Class<AttributeAccessor> getJavaType() {
+            return AttributeAccessor.class;
+        }
+        @Override
+        public AttributeAccessor build(MetadataDefinitionHolder<?> definitionHolder) {
+            return this;
+        }
+    }
+
+    protected AbstractUserDomainTest() {
+        this(createUserType(new UserAttributeAccessor()).build().build());
+    }
+
+    protected AbstractUserDomainTest(DomainModel domainModel) {
+        this.domainModel = domainModel;
+        this.expressionServiceFactory = Expressions.forModel(domainModel);
+        this.compiler = expressionServiceFactory.createCompiler();
+        this.interpreter = expressionServiceFactory.createInterpreter();
+        this.testTypes.put("user", domainModel.getType("user"));
+        this.integerType = domainModel.getType(BigInteger.class);
+    }
+
+    protected static EntityDomainTypeBuilder createUserType(UserAttributeAccessor accessor) {
+        return Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("name", String.class, accessor)
+                .addAttribute("age", BigInteger.class, accessor)
+                .addAttribute("active", Boolean.class, accessor);
+    }
+
+    protected ExpressionCompiler.Context createCompileContext(boolean commonSubexpressionElimination) {
+        return compiler.createContext(
+                testTypes,
+                Collections.<String, Object>singletonMap(ConfigurationProperties.COMMON_SUBEXPRESSION_ELIMINATION, commonSubexpressionElimination),
+                Collections.singletonMap("minAge", integerType)
+        );
+    }
+
+    protected ExpressionInterpreter.Context createContext(User user) {
+        return interpreter.createContext(testTypes, Collections.<String, Object>singletonMap("user", user));
+    }
+
+    protected List<ExpressionInterpreter.Context> contexts() {
+        String[] names = { "Anna", "Bob", "Charlotte", null };
+        BigInteger[] ages = { null, BigInteger.ZERO, BigInteger.valueOf(10), BigInteger.valueOf(19), BigInteger.valueOf(45) };
+        Boolean[] actives = { null, Boolean.TRUE, Boolean.FALSE };
+        BigInteger[] minAges = { null, BigInteger.valueOf(5), BigInteger.valueOf(19) };
+        List<ExpressionInterpreter.Context> contexts = new ArrayList<>();
+        for (String name : names) {
+            for (BigInteger age : ages) {
+                for (Boolean active : actives) {
+                    for (BigInteger minAge : minAges) {
+                        ExpressionInterpreter.Context context = createContext(new User(name, age, active));
+                        context.setParameter("minAge", minAge);
+                        contexts.add(context);
+                    }
+                }
+            }
+        }
+        return contexts;
+    }
+}
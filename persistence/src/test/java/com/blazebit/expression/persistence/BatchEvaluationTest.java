@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class BatchEvaluationTest extends AbstractUserDomainTest {
+
+    private final List<User> users = new ArrayList<>();
+
+    public BatchEvaluationTest() {
+        this.testTypes.put("other", domainModel.getType("user"));
+        String[] names = { "Anna", "Bob", null, "Charlotte" };
+        for (int i = 0; i < 5_000; i++) {
+            users.add(new User(names[i % names.length], i % 7 == 0 ? null : BigInteger.valueOf(i % 90)));
+        }
+    }
+
+    private BitSet expected(Predicate predicate, ExpressionInterpreter.Context baseContext) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < users.size(); i++) {
+            Map<String, Object> roots = new HashMap<>();
+            roots.put("user", users.get(i));
+            roots.put("other", baseContext.getRoot("other"));
+            ExpressionInterpreter.Context context = interpreter.createContext(testTypes, roots);
+            context.setParameter("minAge", baseContext.getParameter("minAge"));
+            if (interpreter.evaluate(predicate, context)) {
+                expected.set(i);
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void testBatchMatchesSingleEvaluation() {
+        Predicate predicate = compiler.createPredicate(
+                "(user.age >= :minAge OR user.name = other.name) AND LENGTH(user.name) > 3",
+                compiler.createContext(testTypes)
+        );
+        CompiledPredicate compiledPredicate = interpreter.compile(predicate);
+        ExpressionInterpreter.Context context = interpreter.createContext(testTypes, Collections.<String, Object>singletonMap("other", new User("Anna", null)));
+        context.setParameter("minAge", BigInteger.valueOf(40));
+        BitSet expected = expected(predicate, context);
+        Assert.assertFalse(expected.isEmpty());
+
+        Assert.assertEquals(expected, compiledPredicate.testAll(context, "user", users));
+        Assert.assertEquals(expected, compiledPredicate.testAll(context, "user", new LinkedHashSet<>(users)));
+        Assert.assertEquals(expected, compiledPredicate.testAll(context, "user", users, ForkJoinPool.commonPool()));
+
+        List<User> filtered = compiledPredicate.filter(context, "user", users, ForkJoinPool.commonPool());
+        Assert.assertEquals(expected.cardinality(), filtered.size());
+        int index = 0;
+        for (int i = expected.nextSetBit(0); i >= 0; i = expected.nextSetBit(i + 1)) {
+            Assert.assertSame(users.get(i), filtered.get(index++));
+        }
+        Assert.assertEquals(filtered, compiledPredicate.filter(context, "user", new LinkedHashSet<>(users)));
+    }
+
+    @Test
+    public void testConcurrentBatchKeepsWritesLocal() {
+        final Predicate predicate = compiler.createPredicate("user.name = other.name", compiler.createContext(testTypes));
+        CompiledPredicate writingPredicate = new CompiledPredicate() {
+            @Override
+            public Predicate getExpression() {
+                return predicate;
+            }
+
+            @Override
+            public boolean test(ExpressionInterpreter.Context interpreterContext) {
+                Object user = interpreterContext.getRoot("user");
+                interpreterContext.setProperty("current", user);
+                interpreterContext.setParameter("current", user);
+                return interpreterContext.getProperty("current") == user && interpreterContext.getParameter("current") == user;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T evaluate(ExpressionInterpreter.Context interpreterContext) {
+                return (T) Boolean.valueOf(test(interpreterContext));
+            }
+        };
+        ExpressionInterpreter.Context context = interpreter.createContext(testTypes, Collections.<String, Object>emptyMap());
+
+        BitSet result = writingPredicate.testAll(context, "user", users, ForkJoinPool.commonPool());
+        Assert.assertEquals(users.size(), result.cardinality());
+        Assert.assertNull(context.getProperty("current"));
+        Assert.assertNull(context.getParameter("current"));
+    }
+}
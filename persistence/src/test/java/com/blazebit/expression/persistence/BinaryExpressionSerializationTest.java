@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.DomainModelException;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionDeserializer;
+import com.blazebit.expression.ExpressionSerializer;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class BinaryExpressionSerializationTest {
+
+    private final ExpressionServiceFactory expressionServiceFactory;
+    private final ExpressionCompiler compiler;
+    private final ExpressionCompiler.Context compileContext;
+
+    public BinaryExpressionSerializationTest() {
+        this.expressionServiceFactory = Expressions.forModel(createDomainModel("name"));
+        this.compiler = expressionServiceFactory.createCompiler();
+        this.compileContext = createCompileContext(expressionServiceFactory);
+    }
+
+    private static DomainModel createDomainModel(String nameAttribute) {
+        return Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute(nameAttribute, String.class)
+                .addAttribute("age", BigInteger.class)
+                .addAttribute("created", Instant.class)
+                .build()
+                .build();
+    }
+
+    private static ExpressionCompiler.Context createCompileContext(ExpressionServiceFactory expressionServiceFactory) {
+        Map<String, DomainType> rootTypes = new HashMap<>();
+        rootTypes.put("user", expressionServiceFactory.getDomainModel().getType("user"));
+        Map<String, DomainType> parameterTypes = new HashMap<>();
+        parameterTypes.put("minAge", expressionServiceFactory.getDomainModel().getType(BigInteger.class));
+        return expressionServiceFactory.createCompiler().createContext(rootTypes, new HashMap<>(), parameterTypes);
+    }
+
+    private static byte[] serialize(ExpressionServiceFactory expressionServiceFactory, List<? extends Expression> expressions) throws Exception {
+        ExpressionSerializer<DataOutput> serializer = expressionServiceFactory.createSerializer(DataOutput.class);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        for (Expression expression : expressions) {
+            serializer.serializeTo(expression, out);
+        }
+        out.flush();
+        return baos.toByteArray();
+    }
+
+    private static List<Expression> deserialize(ExpressionServiceFactory expressionServiceFactory, byte[] bytes, int count) {
+        ExpressionDeserializer<DataInput> deserializer = expressionServiceFactory.createDeserializer(DataInput.class);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        List<Expression> expressions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            expressions.add(deserializer.deserialize(in));
+        }
+        return expressions;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<Expression> expressions = new ArrayList<>();
+        for (String predicate : Arrays.asList(
+                "user.age > 18 AND NOT(UPPER(user.name) = 'ANNA' OR user.name IS NULL)",
+                "user.age BETWEEN -1 AND :minAge * 2.5",
+                "user.name NOT IN ('A', 'B', user.name)",
+                "user.created < TIMESTAMP(2020-01-01 10:15:30.123) OR user.created IS NOT NULL",
+                "NOT(user.age - 3 >= 1 / 7)",
+                "user.name = 'Ünïcödé ''quoted'''"
+        )) {
+            expressions.add(compiler.createPredicate(predicate, compileContext));
+        }
+        expressions.add(compiler.createExpression("UPPER(user.name)", compileContext));
+        int renderableCount = expressions.size();
+        // Interval literals have no string form
+        expressions.add(compiler.createExpression("INTERVAL 1 DAYS 2 HOURS", compileContext));
+
+        List<Expression> deserialized = deserialize(expressionServiceFactory, serialize(expressionServiceFactory, expressions), expressions.size());
+        Assert.assertEquals(expressions, deserialized);
+        for (int i = 0; i < renderableCount; i++) {
+            Assert.assertEquals(expressionServiceFactory.serialize(expressions.get(i)), expressionServiceFactory.serialize(deserialized.get(i)));
+        }
+    }
+
+    @Test
+    public void testSymbolsAreWrittenOnce() throws Exception {
+        Expression expression = compiler.createPredicate("user.name = 'A' OR user.name = 'B' OR user.name = 'C' OR user.name = 'D' OR user.name IS NULL AND user.age > 18", compileContext);
+        byte[] once = serialize(expressionServiceFactory, Arrays.asList(expression));
+        String name = "name";
+        int occurrences = 0;
+        for (int i = 0; i + name.length() <= once.length; i++) {
+            if (new String(once, i, name.length(), "UTF-8").equals(name)) {
+                occurrences++;
+            }
+        }
+        Assert.assertEquals(1, occurrences);
+        // The fixed size header is amortized through symbol references as the expression grows
+        Assert.assertTrue(once.length < expressionServiceFactory.serialize(expression).length());
+    }
+
+    @Test
+    public void testDifferentDomainModel() throws Exception {
+        byte[] bytes = serialize(expressionServiceFactory, Arrays.asList(compiler.createPredicate("user.age > 18", compileContext)));
+        ExpressionServiceFactory otherFactory = Expressions.forModel(createDomainModel("fullName"));
+        try {
+            deserialize(otherFactory, bytes, 1);
+            Assert.fail("Expected a domain model mismatch");
+        } catch (DomainModelException ex) {
+            // Expected
+        }
+        // An equivalent domain model has the same fingerprint
+        ExpressionServiceFactory equivalentFactory = Expressions.forModel(createDomainModel("name"));
+        Assert.assertEquals("user.age > 18", equivalentFactory.serialize(deserialize(equivalentFactory, bytes, 1).get(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidInput() {
+        deserialize(expressionServiceFactory, "user.age > 18".getBytes(), 1);
+    }
+}
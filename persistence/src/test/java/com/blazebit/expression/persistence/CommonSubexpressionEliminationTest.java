@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class CommonSubexpressionEliminationTest extends AbstractUserDomainTest {
+
+    private final CountingUserAttributeAccessor accessor;
+
+    public static class CountingUserAttributeAccessor extends UserAttributeAccessor {
+        int invocations;
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            invocations++;
+            return super.getAttribute(value, attribute);
+        }
+    }
+
+    public CommonSubexpressionEliminationTest() {
+        this(new CountingUserAttributeAccessor());
+    }
+
+    private CommonSubexpressionEliminationTest(CountingUserAttributeAccessor accessor) {
+        super(createUserType(accessor).build().build());
+        this.accessor = accessor;
+    }
+
+    private Predicate compile(String input, boolean eliminate) {
+        return compiler.createPredicate(input, compiler.createContext(testTypes, Collections.<String, Object>singletonMap(ConfigurationProperties.COMMON_SUBEXPRESSION_ELIMINATION, eliminate)));
+    }
+
+    private Boolean evaluate(Predicate predicate, String name) {
+        return interpreter.evaluate(predicate, createContext(new User(name, null)));
+    }
+
+    @Test
+    public void testEvaluateCommonSubexpressionsOnce() {
+        String input = "UPPER(TRIM(user.name)) = 'A' OR UPPER(TRIM(user.name)) = 'B' OR LENGTH(user.name) > 5";
+        Predicate predicate = compile(input, false);
+        Assert.assertEquals(Boolean.FALSE, evaluate(predicate, " c "));
+        Assert.assertEquals(3, accessor.invocations);
+
+        accessor.invocations = 0;
+        Predicate sharedPredicate = compile(input, true);
+        Assert.assertEquals(predicate, sharedPredicate);
+        Assert.assertEquals(Boolean.FALSE, evaluate(sharedPredicate, " c "));
+        Assert.assertEquals(1, accessor.invocations);
+    }
+
+    @Test
+    public void testValuesAreNotSharedAcrossEvaluations() {
+        Predicate predicate = compile("UPPER(user.name) = 'A' OR UPPER(user.name) = 'B'", true);
+        Assert.assertEquals(Boolean.TRUE, evaluate(predicate, "a"));
+        Assert.assertEquals(Boolean.TRUE, evaluate(predicate, "b"));
+        Assert.assertEquals(Boolean.FALSE, evaluate(predicate, "c"));
+        Assert.assertEquals(Boolean.FALSE, evaluate(predicate, null));
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.runtime.model.DomainFunction;
+import com.blazebit.domain.runtime.model.DomainFunctionArgument;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.CompiledExpression;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.FunctionInvoker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class CompiledExpressionTest extends AbstractUserDomainTest {
+
+    private void assertSameResults(boolean commonSubexpressionElimination) {
+        assertSameResults(interpreter, commonSubexpressionElimination);
+    }
+
+    private void assertSameResults(ExpressionInterpreter compilingInterpreter, boolean commonSubexpressionElimination) {
+        ExpressionCompiler.Context compileContext = createCompileContext(commonSubexpressionElimination);
+        List<ExpressionInterpreter.Context> contexts = contexts();
+        for (String expressionString : PREDICATES) {
+            Predicate predicate = compiler.createPredicate(expressionString, compileContext);
+            CompiledPredicate compiledPredicate = compilingInterpreter.compile(predicate);
+            Assert.assertSame(predicate, compiledPredicate.getExpression());
+            for (ExpressionInterpreter.Context context : contexts) {
+                Boolean interpreted = interpreter.evaluate(predicate, context);
+                Assert.assertEquals(expressionString, interpreted, compiledPredicate.test(context));
+                Assert.assertEquals(expressionString, interpreter.<Object>evaluate((Expression) predicate, context), compiledPredicate.evaluate(context));
+            }
+        }
+        for (String expressionString : EXPRESSIONS) {
+            Expression expression = compiler.createExpression(expressionString, compileContext);
+            CompiledExpression compiledExpression = compilingInterpreter.compile(expression);
+            for (ExpressionInterpreter.Context context : contexts) {
+                Assert.assertEquals(expressionString, interpreter.<Object>evaluate(expression, context), compiledExpression.evaluate(context));
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        assertSameResults(false);
+    }
+
+    @Test
+    public void testCompiledMatchesInterpretedWithSharedSubexpressions() {
+        assertSameResults(true);
+    }
+
+    @Test
+    public void testMapInvocationOfIndexedFunction() {
+        DomainFunction function = expressionServiceFactory.getDomainModel().getFunction("SUBSTRING");
+        FunctionInvoker invoker = function.getMetadata(FunctionInvoker.class);
+        Map<DomainFunctionArgument, Object> arguments = new HashMap<>();
+        arguments.put(function.getArgument(0), "Charlotte");
+        arguments.put(function.getArgument(1), BigInteger.valueOf(3));
+        Assert.assertEquals("arlotte", invoker.invoke(null, function, arguments));
+        arguments.put(function.getArgument(2), BigInteger.valueOf(2));
+        Assert.assertEquals("ar", invoker.invoke(null, function, arguments));
+    }
+
+    private ExpressionInterpreter generatingInterpreter(int reorderingInterval) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(ConfigurationProperties.COMPILATION_THRESHOLD, 0);
+        properties.put(ConfigurationProperties.PREDICATE_REORDERING_INTERVAL, reorderingInterval);
+        return Expressions.forModel(expressionServiceFactory.getDomainModel(), properties).createInterpreter();
+    }
+
+    @Test
+    public void testGeneratedMatchesInterpreted() {
+        assertSameResults(generatingInterpreter(0), false);
+    }
+
+    @Test
+    public void testGeneratedMatchesInterpretedWithSharedSubexpressions() {
+        assertSameResults(generatingInterpreter(0), true);
+    }
+
+    @Test
+    public void testGeneratedMatchesInterpretedWithReordering() {
+        assertSameResults(generatingInterpreter(2), true);
+    }
+
+    @Test
+    public void testGeneratedFallsBackForLargePredicates() {
+        StringBuilder sb = new StringBuilder("user.age = 0");
+        for (int i = 1; i < 500; i++) {
+            sb.append(" OR user.age = ").append(i);
+        }
+        Predicate predicate = compiler.createPredicate(sb.toString(), compiler.createContext(testTypes));
+        CompiledPredicate compiledPredicate = generatingInterpreter(0).compile(predicate);
+        for (ExpressionInterpreter.Context context : contexts()) {
+            Assert.assertEquals(interpreter.evaluate(predicate, context), compiledPredicate.test(context));
+        }
+    }
+
+    @Test
+    public void testTieredCompilation() {
+        final List<Boolean> generatedCalls = new ArrayList<>();
+        UserAttributeAccessor accessor = new UserAttributeAccessor() {
+            @Override
+            public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+                boolean generated = false;
+                for (StackTraceElement element : new Throwable().getStackTrace()) {
+                    generated |= element.getClassName().endsWith(".GeneratedEvaluator");
+                }
+                generatedCalls.add(generated);
+                return super.getAttribute(value, attribute);
+            }
+        };
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("age", BigInteger.class, accessor)
+                .build()
+                .build();
+        ExpressionServiceFactory serviceFactory = Expressions.forModel(
+                domainModel,
+                Collections.<String, Object>singletonMap(ConfigurationProperties.COMPILATION_THRESHOLD, "3")
+        );
+        ExpressionInterpreter tieredInterpreter = serviceFactory.createInterpreter();
+        Map<String, DomainType> types = Collections.singletonMap("user", domainModel.getType("user"));
+        Predicate predicate = serviceFactory.createCompiler().createPredicate("user.age > 18", serviceFactory.createCompiler().createContext(types));
+        CompiledPredicate compiledPredicate = tieredInterpreter.compile(predicate);
+        for (int i = 0; i < 5; i++) {
+            User user = new User(null, BigInteger.valueOf(17 + i), null);
+            Assert.assertEquals(i > 1, compiledPredicate.test(tieredInterpreter.createContext(types, Collections.<String, Object>singletonMap("user", user))));
+        }
+        // The first evaluations use the evaluators and the remaining ones the generated class
+        Assert.assertEquals(Arrays.asList(false, false, false, true, true), generatedCalls);
+    }
+
+    @Test
+    public void testMissingMetadataIsReportedOnEvaluation() {
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("age", BigInteger.class)
+                .build()
+                .build();
+        ExpressionServiceFactory serviceFactory = Expressions.forModel(domainModel);
+        Map<String, DomainType> types = Collections.singletonMap("user", domainModel.getType("user"));
+        Predicate predicate = serviceFactory.createCompiler().createPredicate("user.age > 1", serviceFactory.createCompiler().createContext(types));
+        ExpressionInterpreter expressionInterpreter = serviceFactory.createInterpreter();
+        CompiledPredicate compiledPredicate = expressionInterpreter.compile(predicate);
+        try {
+            compiledPredicate.test(expressionInterpreter.createContext(types, Collections.<String, Object>singletonMap("user", new User(null, BigInteger.ONE, null))));
+            Assert.fail("Expected failure");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertTrue(ex.getMessage().startsWith("No attribute accessor available for attribute: "));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ConcurrentInterpretationTest extends AbstractUserDomainTest {
+
+    private static final int THREADS = 8;
+    private static final int ITERATIONS = 2_000;
+
+    public static class NestingUserAttributeAccessor extends UserAttributeAccessor {
+        private Predicate nestedPredicate;
+        private ExpressionInterpreter nestedInterpreter;
+        private Map<String, DomainType> nestedTypes;
+
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            if (!"nested".equals(attribute.getName())) {
+                return super.getAttribute(value, attribute);
+            }
+            // Evaluates another expression with the same interpreter in the middle of an evaluation
+            User user = (User) value;
+            ExpressionInterpreter.Context context = nestedInterpreter.createContext(nestedTypes, Collections.<String, Object>singletonMap("user", new User("nested", user.age.negate())));
+            return nestedInterpreter.evaluate(nestedPredicate, context);
+        }
+    }
+
+    public ConcurrentInterpretationTest() {
+        this(new NestingUserAttributeAccessor());
+    }
+
+    private ConcurrentInterpretationTest(NestingUserAttributeAccessor accessor) {
+        super(createUserType(accessor).addAttribute("nested", Boolean.class, accessor).build().build());
+        accessor.nestedInterpreter = interpreter;
+        accessor.nestedTypes = testTypes;
+        accessor.nestedPredicate = compiler.createPredicate("user.age < 0 AND user.name = 'nested'", compiler.createContext(testTypes));
+    }
+
+    private static boolean expected(String name, int age, int minAge) {
+        // The nested predicate is evaluated for the negated age
+        return age >= minAge && age > 0 && ("ANNA".equals(name.toUpperCase()) || "ALEX".equals(name.toUpperCase()) || name.toUpperCase().length() > 4);
+    }
+
+    @Test
+    public void testSharedInterpreter() throws Exception {
+        Assert.assertSame(interpreter, expressionServiceFactory.createInterpreter());
+        ExpressionCompiler.Context compileContext = compiler.createContext(
+                testTypes,
+                Collections.<String, Object>singletonMap(ConfigurationProperties.COMMON_SUBEXPRESSION_ELIMINATION, true)
+        );
+        Predicate predicate = compiler.createPredicate(
+                "user.age >= :minAge AND (UPPER(user.name) IN ('ANNA', 'ALEX') OR LENGTH(UPPER(user.name)) > 4) AND user.nested",
+                compileContext
+        );
+        String[] names = { "Anna", "Bob", "Charlotte", "alex", "Eve" };
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                final int seed = t;
+                futures.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int mismatches = 0;
+                        for (int i = 0; i < ITERATIONS; i++) {
+                            String name = names[(seed + i) % names.length];
+                            int age = (seed * 7 + i) % 50;
+                            int minAge = (seed + i * 3) % 40;
+                            ExpressionInterpreter.Context context = createContext(new User(name, BigInteger.valueOf(age)));
+                            context.setParameter("minAge", BigInteger.valueOf(minAge));
+                            if (interpreter.evaluate(predicate, context) != expected(name, age, minAge)) {
+                                mismatches++;
+                            }
+                        }
+                        return mismatches;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                Assert.assertEquals(Integer.valueOf(0), future.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Literal;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ConstantFoldingTest {
+
+    private final DomainModel domainModel;
+    private final ExpressionServiceFactory expressionServiceFactory;
+    private final ExpressionCompiler compiler;
+    private final ExpressionInterpreter interpreter;
+    private final Map<String, DomainType> testTypes = new HashMap<>();
+    private final Map<String, Object> testData = new HashMap<>();
+
+    public static class User {
+        final Boolean status;
+        public User(Boolean status) {
+            this.status = status;
+        }
+    }
+    public static class UserStatusAttributeAccessor implements MetadataDefinition<AttributeAccessor>, AttributeAccessor {
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            return ((User) value).status;
+        }
+        @Override
+        public Class<AttributeAccessor> getJavaType() {
+            return AttributeAccessor.class;
+        }
+        @Override
+        public AttributeAccessor build(MetadataDefinitionHolder<?> definitionHolder) {
+            return this;
+        }
+    }
+
+    public ConstantFoldingTest() {
+        this.domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("status", Boolean.class, new UserStatusAttributeAccessor())
+                .build()
+                .build();
+        this.expressionServiceFactory = Expressions.forModel(domainModel);
+        this.compiler = expressionServiceFactory.createCompiler();
+        this.interpreter = expressionServiceFactory.createInterpreter();
+        this.testTypes.put("user", domainModel.getType("user"));
+    }
+
+    private ExpressionCompiler.Context foldingContext() {
+        return compiler.createContext(testTypes, Collections.<String, Object>singletonMap(ConfigurationProperties.CONSTANT_FOLDING, "true"));
+    }
+
+    private Object evaluate(Expression expression, Boolean status) {
+        testData.put("user", new User(status));
+        return interpreter.evaluate(expression, interpreter.createContext(testTypes, testData));
+    }
+
+    private void assertSameResult(String predicate) {
+        Predicate folded = compiler.createPredicate(predicate, foldingContext());
+        Predicate unfolded = compiler.createPredicate(predicate, compiler.createContext(testTypes));
+        for (Boolean status : new Boolean[]{ Boolean.TRUE, Boolean.FALSE, null }) {
+            Assert.assertEquals(predicate + " with status " + status, evaluate(unfolded, status), evaluate(folded, status));
+        }
+    }
+
+    private Expression binaryRoundTrip(Expression expression) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        expressionServiceFactory.createSerializer(DataOutput.class).serializeTo(expression, out);
+        out.flush();
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        return expressionServiceFactory.createDeserializer(DataInput.class).deserialize(in);
+    }
+
+    @Test
+    public void testFoldedLiteralsEqualWrittenLiterals() throws Exception {
+        Expression folded = compiler.createExpression("1.5 * 2", foldingContext());
+        Assert.assertEquals(compiler.createExpression("3.0", foldingContext()), folded);
+        Assert.assertEquals(folded, binaryRoundTrip(folded));
+
+        Expression integral = compiler.createExpression("4.0 / 2.0", foldingContext());
+        Assert.assertTrue(integral instanceof Literal);
+        Assert.assertEquals(compiler.createExpression("4.0 / 2.0", compiler.createContext(testTypes)).getType(), integral.getType());
+        Assert.assertEquals(integral, compiler.createExpression(expressionServiceFactory.serialize(integral), foldingContext()));
+        Assert.assertEquals(integral, binaryRoundTrip(integral));
+
+        Assert.assertEquals(compiler.createExpression("UPPER('b')", foldingContext()), compiler.createExpression("'B'", foldingContext()));
+    }
+
+    @Test
+    public void testFoldArithmetic() {
+        Expression expression = compiler.createExpression("2 * 60 * 60", foldingContext());
+        Assert.assertTrue(expression instanceof Literal);
+        Assert.assertEquals(evaluate(compiler.createExpression("2 * 60 * 60", compiler.createContext(testTypes)), null), ((Literal) expression).getValue());
+    }
+
+    @Test
+    public void testFoldingDisabledByDefault() {
+        Assert.assertFalse(compiler.createExpression("2 * 60 * 60", compiler.createContext(testTypes)) instanceof Literal);
+    }
+
+    @Test
+    public void testFoldImmutableFunction() {
+        Assert.assertTrue(compiler.createExpression("ABS(-2) + 1", foldingContext()) instanceof Literal);
+    }
+
+    @Test
+    public void testKeepStableAndVolatileFunctions() {
+        Assert.assertFalse(compiler.createExpression("CURRENT_TIMESTAMP()", foldingContext()) instanceof Literal);
+        Assert.assertFalse(compiler.createExpression("RANDOM()", foldingContext()) instanceof Literal);
+        Assert.assertFalse(compiler.createExpression("RANDOM() * 2", foldingContext()) instanceof Literal);
+    }
+
+    @Test
+    public void testRemoveIdentityOperands() {
+        Assert.assertEquals(
+                compiler.createPredicate("user.status", compiler.createContext(testTypes)),
+                compiler.createPredicate("1 = 1 AND user.status AND 2 > 1", foldingContext())
+        );
+        Assert.assertEquals(
+                compiler.createPredicate("NOT(user.status)", compiler.createContext(testTypes)),
+                compiler.createPredicate("NOT(1 = 2 OR user.status)", foldingContext())
+        );
+    }
+
+    @Test
+    public void testSimplifiedPredicatesEvaluateTheSame() {
+        assertSameResult("1 = 1 AND user.status");
+        assertSameResult("1 = 2 AND user.status");
+        assertSameResult("user.status AND 1 = 2");
+        assertSameResult("user.status OR 1 = 1");
+        assertSameResult("1 = 1 OR user.status");
+        assertSameResult("NOT(1 = 1 AND user.status)");
+        assertSameResult("NOT(user.status OR 1 = 2) AND 3 BETWEEN 1 AND 5");
+        assertSameResult("user.status AND 1 IN (1, 2, 3)");
+        assertSameResult("user.status OR 4 NOT IN (1, 2, 3)");
+        assertSameResult("'b' IS NULL OR 1 = 2");
+        assertSameResult("'b' IS NULL AND user.status");
+        assertSameResult("'b' IS NOT NULL AND user.status");
+        assertSameResult("'b' IS NOT NULL OR 1 = 2");
+    }
+}
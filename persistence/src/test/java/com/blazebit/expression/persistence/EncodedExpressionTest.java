@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.ComparisonPredicate;
+import com.blazebit.expression.CompoundPredicate;
+import com.blazebit.expression.EncodedExpression;
+import com.blazebit.expression.EncodedPredicate;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class EncodedExpressionTest extends AbstractUserDomainTest {
+
+    private void assertSameResults(boolean commonSubexpressionElimination) {
+        ExpressionCompiler.Context compileContext = createCompileContext(commonSubexpressionElimination);
+        List<ExpressionInterpreter.Context> contexts = contexts();
+        for (String expressionString : PREDICATES) {
+            Predicate predicate = compiler.createPredicate(expressionString, compileContext);
+            EncodedPredicate encodedPredicate = interpreter.encode(predicate);
+            Assert.assertEquals(expressionString, predicate, encodedPredicate.getExpression());
+            for (ExpressionInterpreter.Context context : contexts) {
+                Boolean interpreted = interpreter.evaluate(predicate, context);
+                Assert.assertEquals(expressionString, interpreted, encodedPredicate.test(context));
+                Assert.assertEquals(expressionString, interpreter.<Object>evaluate((Expression) predicate, context), encodedPredicate.evaluate(context));
+            }
+        }
+        for (String expressionString : EXPRESSIONS) {
+            Expression expression = compiler.createExpression(expressionString, compileContext);
+            EncodedExpression encodedExpression = interpreter.encode(expression);
+            Assert.assertEquals(expressionString, expression, encodedExpression.getExpression());
+            for (ExpressionInterpreter.Context context : contexts) {
+                Assert.assertEquals(expressionString, interpreter.<Object>evaluate(expression, context), encodedExpression.evaluate(context));
+            }
+        }
+    }
+
+    @Test
+    public void testEncodedMatchesInterpreted() {
+        assertSameResults(false);
+    }
+
+    @Test
+    public void testEncodedMatchesInterpretedWithSharedSubexpressions() {
+        assertSameResults(true);
+    }
+
+    @Test
+    public void testConstantsAreShared() {
+        Predicate predicate = compiler.createPredicate("user.age > 18 OR user.age < 18", compiler.createContext(testTypes));
+        EncodedPredicate encodedPredicate = interpreter.encode(predicate);
+        CompoundPredicate decoded = (CompoundPredicate) encodedPredicate.getExpression();
+        ComparisonPredicate first = (ComparisonPredicate) decoded.getPredicates().get(0);
+        ComparisonPredicate second = (ComparisonPredicate) decoded.getPredicates().get(1);
+        Assert.assertEquals(predicate, decoded);
+        Assert.assertNotSame(decoded, encodedPredicate.getExpression());
+        Assert.assertSame(first.getLeft(), second.getLeft());
+        Assert.assertSame(first.getRight(), second.getRight());
+    }
+
+    @Test
+    public void testMissingMetadataIsReportedOnEvaluation() {
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("age", BigInteger.class)
+                .build()
+                .build();
+        ExpressionServiceFactory serviceFactory = Expressions.forModel(domainModel);
+        Map<String, DomainType> types = Collections.singletonMap("user", domainModel.getType("user"));
+        Predicate predicate = serviceFactory.createCompiler().createPredicate("user.age > 1", serviceFactory.createCompiler().createContext(types));
+        ExpressionInterpreter expressionInterpreter = serviceFactory.createInterpreter();
+        EncodedPredicate encodedPredicate = expressionInterpreter.encode(predicate);
+        try {
+            encodedPredicate.test(expressionInterpreter.createContext(types, Collections.<String, Object>singletonMap("user", new User(null, BigInteger.ONE, null))));
+            Assert.fail("Expected failure");
+        } catch (IllegalArgumentException ex) {
+            Assert.assertTrue(ex.getMessage().startsWith("No attribute accessor available for attribute: "));
+        }
+    }
+}
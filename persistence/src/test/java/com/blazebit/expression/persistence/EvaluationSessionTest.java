@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.EvaluationSession;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class EvaluationSessionTest {
+
+    private static final String[] RULES = {
+        "order.customer.segment = 'GOLD'",
+        "order.customer.segment = 'GOLD' AND order.total > 100",
+        "order.customer.segment IN ('SILVER', 'BRONZE') OR order.total < 10",
+        "order.total BETWEEN 50 AND 500",
+        "UPPER(order.customer.name) = 'ANNA'",
+        "order.customer.segment IS NULL",
+        "LENGTH(order.customer.name) > 3 AND order.total <> 0"
+    };
+
+    private final ExpressionCompiler compiler;
+    private final ExpressionInterpreter interpreter;
+    private final Map<String, DomainType> testTypes = new HashMap<>();
+    private final CountingAccessor accessor = new CountingAccessor();
+    private final List<Predicate> predicates = new ArrayList<>();
+
+    public static class Customer {
+        final String name;
+        final String segment;
+        public Customer(String name, String segment) {
+            this.name = name;
+            this.segment = segment;
+        }
+    }
+    public static class Order {
+        final Customer customer;
+        final BigInteger total;
+        public Order(Customer customer, BigInteger total) {
+            this.customer = customer;
+            this.total = total;
+        }
+    }
+    public static class CountingAccessor implements MetadataDefinition<AttributeAccessor>, AttributeAccessor {
+        final Map<String, Integer> invocations = new HashMap<>();
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            Integer count = invocations.get(attribute.getName());
+            invocations.put(attribute.getName(), count == null ? 1 : count + 1);
+            switch (attribute.getName()) {
+                case "customer":
+                    return ((Order) value).customer;
+                case "total":
+                    return ((Order) value).total;
+                case "name":
+                    return ((Customer) value).name;
+                default:
+                    return ((Customer) value).segment;
+            }
+        }
+        @Override
+        public Class<AttributeAccessor> getJavaType() {
+            return AttributeAccessor.class;
+        }
+        @Override
+        public AttributeAccessor build(MetadataDefinitionHolder<?> definitionHolder) {
+            return this;
+        }
+    }
+
+    public EvaluationSessionTest() {
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("customer")
+                .addAttribute("name", String.class, accessor)
+                .addAttribute("segment", String.class, accessor)
+                .build()
+                .createEntityType("order")
+                .addAttribute("customer", "customer", accessor)
+                .addAttribute("total", BigInteger.class, accessor)
+                .build()
+                .build();
+        ExpressionServiceFactory expressionServiceFactory = Expressions.forModel(domainModel);
+        this.compiler = expressionServiceFactory.createCompiler();
+        this.interpreter = expressionServiceFactory.createInterpreter();
+        this.testTypes.put("order", domainModel.getType("order"));
+        for (String rule : RULES) {
+            predicates.add(compiler.createPredicate(rule, compiler.createContext(testTypes)));
+        }
+    }
+
+    private ExpressionInterpreter.Context createContext(Order order) {
+        return interpreter.createContext(testTypes, Collections.<String, Object>singletonMap("order", order));
+    }
+
+    private BitSet expected(Order order) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < predicates.size(); i++) {
+            if (interpreter.evaluate(predicates.get(i), createContext(order))) {
+                expected.set(i);
+            }
+        }
+        accessor.invocations.clear();
+        return expected;
+    }
+
+    private void assertResolvedOnce() {
+        Assert.assertEquals(Integer.valueOf(1), accessor.invocations.get("customer"));
+        Assert.assertEquals(Integer.valueOf(1), accessor.invocations.get("segment"));
+        Assert.assertEquals(Integer.valueOf(1), accessor.invocations.get("name"));
+        Assert.assertEquals(Integer.valueOf(1), accessor.invocations.get("total"));
+    }
+
+    @Test
+    public void testPathsAreResolvedOncePerSession() {
+        Order order = new Order(new Customer("Anna", "GOLD"), BigInteger.valueOf(120));
+        BitSet expected = expected(order);
+        EvaluationSession session = interpreter.createSession(createContext(order));
+        BitSet actual = new BitSet();
+        for (int i = 0; i < predicates.size(); i++) {
+            if (session.evaluate(predicates.get(i))) {
+                actual.set(i);
+            }
+        }
+        Assert.assertEquals(expected, actual);
+        assertResolvedOnce();
+    }
+
+    @Test
+    public void testCompiledPredicatesShareSessionCache() {
+        List<CompiledPredicate> compiledPredicates = new ArrayList<>();
+        for (Predicate predicate : predicates) {
+            compiledPredicates.add(interpreter.compile(predicate));
+        }
+        Order order = new Order(new Customer("Bob", "SILVER"), BigInteger.valueOf(5));
+        BitSet expected = expected(order);
+        EvaluationSession session = interpreter.createSession(createContext(order));
+        Assert.assertEquals(expected, session.testAll(compiledPredicates));
+        assertResolvedOnce();
+    }
+
+    @Test
+    public void testNullPrefix() {
+        Order order = new Order(null, null);
+        BitSet expected = expected(order);
+        EvaluationSession session = interpreter.createSession(createContext(order));
+        BitSet actual = new BitSet();
+        for (int i = 0; i < predicates.size(); i++) {
+            if (session.evaluate(predicates.get(i))) {
+                actual.set(i);
+            }
+        }
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(Integer.valueOf(1), accessor.invocations.get("customer"));
+        Assert.assertNull(accessor.invocations.get("segment"));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.expression.EncodedPredicate;
+import com.blazebit.expression.ExpressionAnalysis;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Path;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionAnalysisTest {
+
+    private final ExpressionServiceFactory expressionServiceFactory;
+    private final ExpressionCompiler compiler;
+    private final ExpressionCompiler.Context compileContext;
+
+    public ExpressionAnalysisTest() {
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("name", String.class)
+                .addAttribute("age", BigInteger.class)
+                .build()
+                .build();
+        this.expressionServiceFactory = Expressions.forModel(domainModel);
+        this.compiler = expressionServiceFactory.createCompiler();
+        Map<String, DomainType> rootTypes = new HashMap<>();
+        rootTypes.put("user", domainModel.getType("user"));
+        rootTypes.put("other", domainModel.getType("user"));
+        this.compileContext = compiler.createContext(rootTypes);
+    }
+
+    private Path path(Predicate predicate, String alias, String attribute) {
+        for (Path path : predicate.getUsedPaths()) {
+            if (path.getAlias().equals(alias) && path.getAttributes().get(0).getName().equals(attribute)) {
+                return path;
+            }
+        }
+        throw new AssertionError("Path not found: " + alias + "." + attribute);
+    }
+
+    @Test
+    public void testAnalysis() {
+        Predicate predicate = compiler.createPredicate("user.age > 18 AND (UPPER(user.name) = 'ANNA' OR other.age IS NULL)", compileContext);
+        ExpressionAnalysis analysis = predicate.getAnalysis();
+        Assert.assertEquals(3, analysis.getUsedPaths().size());
+        Assert.assertTrue(analysis.getUsedPaths().contains(path(predicate, "other", "age")));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("user", "other")), analysis.getUsedRootAliases());
+        Assert.assertEquals(Collections.singleton(expressionServiceFactory.getDomainModel().getFunction("UPPER")), analysis.getUsedFunctions());
+        // AND, >, user.age, 18, OR, =, UPPER, user.name, 'ANNA', IS NULL, other.age
+        Assert.assertEquals(11, analysis.getNodeCount());
+        // AND -> OR -> = -> UPPER -> user.name
+        Assert.assertEquals(5, analysis.getDepth());
+        Assert.assertTrue(analysis.isDeterministic());
+        Assert.assertTrue(analysis.isPushdownable());
+    }
+
+    @Test
+    public void testAnalysisIsCached() {
+        Predicate predicate = compiler.createPredicate("user.age > 18", compileContext);
+        Assert.assertSame(predicate.getAnalysis(), predicate.getAnalysis());
+        Assert.assertSame(predicate.getUsedPaths(), predicate.getUsedPaths());
+        try {
+            predicate.getUsedPaths().clear();
+            Assert.fail("Expected unmodifiable set");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testVolatility() {
+        ExpressionAnalysis stable = compiler.createPredicate("CURRENT_TIMESTAMP() IS NULL", compileContext).getAnalysis();
+        Assert.assertTrue(stable.isDeterministic());
+        Assert.assertFalse(stable.isPushdownable());
+        ExpressionAnalysis volatileAnalysis = compiler.createExpression("RANDOM() * 2", compileContext).getAnalysis();
+        Assert.assertFalse(volatileAnalysis.isDeterministic());
+        Assert.assertFalse(volatileAnalysis.isPushdownable());
+        Assert.assertTrue(volatileAnalysis.getUsedPaths().isEmpty());
+    }
+
+    @Test
+    public void testEncodedExpressionAnalysisIsCached() {
+        Predicate predicate = compiler.createPredicate("user.age > 18 OR user.name IS NULL", compileContext);
+        EncodedPredicate encodedPredicate = expressionServiceFactory.createInterpreter().encode(predicate);
+        ExpressionAnalysis analysis = encodedPredicate.getAnalysis();
+        Assert.assertSame(analysis, encodedPredicate.getAnalysis());
+        Assert.assertEquals(predicate.getUsedPaths(), analysis.getUsedPaths());
+        Assert.assertEquals(predicate.getAnalysis().getNodeCount(), analysis.getNodeCount());
+    }
+}
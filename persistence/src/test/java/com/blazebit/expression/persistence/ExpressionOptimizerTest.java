@@ -0,0 +1,119 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionOptimizer;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionOptimizerTest {
+
+    private final DomainModel domainModel;
+    private final ExpressionCompiler compiler;
+    private final ExpressionInterpreter interpreter;
+    private final ExpressionOptimizer optimizer;
+    private final Map<String, DomainType> testTypes = new HashMap<>();
+    private final Map<String, Object> testData = new HashMap<>();
+
+    public static class User {
+        final Boolean status;
+        public User(Boolean status) {
+            this.status = status;
+        }
+    }
+    public static class UserStatusAttributeAccessor implements MetadataDefinition<AttributeAccessor>, AttributeAccessor {
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            return ((User) value).status;
+        }
+        @Override
+        public Class<AttributeAccessor> getJavaType() {
+            return AttributeAccessor.class;
+        }
+        @Override
+        public AttributeAccessor build(MetadataDefinitionHolder<?> definitionHolder) {
+            return this;
+        }
+    }
+
+    public ExpressionOptimizerTest() {
+        this.domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("user")
+                .addAttribute("status", Boolean.class, new UserStatusAttributeAccessor())
+                .build()
+                .build();
+        ExpressionServiceFactory expressionServiceFactory = Expressions.forModel(domainModel);
+        this.compiler = expressionServiceFactory.createCompiler();
+        this.interpreter = expressionServiceFactory.createInterpreter();
+        this.optimizer = expressionServiceFactory.createOptimizer();
+        this.testTypes.put("user", domainModel.getType("user"));
+    }
+
+    private Object evaluate(Predicate predicate, Boolean status) {
+        testData.put("user", new User(status));
+        // Evaluate as expression so that an unknown result is not turned into false
+        return interpreter.evaluate((Expression) predicate, interpreter.createContext(testTypes, testData));
+    }
+
+    private void assertSameResult(String input) {
+        Predicate predicate = compiler.createPredicate(input, compiler.createContext(testTypes));
+        Predicate optimized = optimizer.optimize(predicate);
+        for (Boolean status : new Boolean[]{ Boolean.TRUE, Boolean.FALSE, null }) {
+            Assert.assertEquals(input + " with status " + status, evaluate(predicate, status), evaluate(optimized, status));
+        }
+    }
+
+    @Test
+    public void testThreeValuedLogic() {
+        Predicate predicate = compiler.createPredicate("NOT(user.status AND 1 = 2)", compiler.createContext(testTypes));
+        testData.put("user", new User(null));
+        Assert.assertTrue(interpreter.evaluate(predicate, interpreter.createContext(testTypes, testData)));
+        predicate = compiler.createPredicate("NOT(user.status OR 1 = 1)", compiler.createContext(testTypes));
+        Assert.assertFalse(interpreter.evaluate(predicate, interpreter.createContext(testTypes, testData)));
+    }
+
+    @Test
+    public void testOptimizedPredicatesEvaluateTheSame() {
+        assertSameResult("NOT(user.status AND 1 = 2)");
+        assertSameResult("NOT(user.status OR 1 = 1)");
+        assertSameResult("NOT(ABS(-1) = 1 AND user.status) OR (user.status AND user.status)");
+        assertSameResult("user.status AND (1 = 1 AND (user.status OR 2 > 3))");
+        assertSameResult("NOT(NOT(user.status) OR user.status IS NULL) AND UPPER('a') = 'A'");
+        assertSameResult("user.status IS NOT NULL OR NOT(user.status AND 1 IN (1, 2))");
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionProfile;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ExpressionProfileTest extends AbstractUserDomainTest {
+
+    private ExpressionInterpreter.Context context(String name, int age) {
+        return createContext(new User(name, BigInteger.valueOf(age)));
+    }
+
+    @Test
+    public void testProfile() {
+        Predicate predicate = compiler.createPredicate("user.age > 18 AND UPPER(user.name) = 'ANNA'", compiler.createContext(testTypes));
+        ExpressionProfile profile = interpreter.createProfile(predicate);
+        Assert.assertEquals(Boolean.TRUE, profile.evaluate(context("Anna", 20)));
+        Assert.assertEquals(Boolean.FALSE, profile.evaluate(context("Bob", 20)));
+        Assert.assertEquals(Boolean.FALSE, profile.evaluate(context("Anna", 10)));
+        Assert.assertNull(profile.evaluate(context(null, 20)));
+
+        ExpressionProfile.Node root = profile.getRoot();
+        Assert.assertSame(predicate, root.getExpression());
+        Assert.assertEquals(4, root.getInvocationCount());
+        Assert.assertEquals(1, root.getTrueCount());
+        Assert.assertEquals(2, root.getFalseCount());
+        Assert.assertEquals(1, root.getNullCount());
+
+        List<ExpressionProfile.Node> children = root.getChildren();
+        Assert.assertEquals(2, children.size());
+        Assert.assertEquals("user.age > 18", children.get(0).getExpressionString());
+        Assert.assertEquals(4, children.get(0).getInvocationCount());
+        Assert.assertEquals(3, children.get(0).getTrueCount());
+        Assert.assertEquals(1, children.get(0).getFalseCount());
+        // The second operand is skipped when the first one is false
+        Assert.assertEquals("UPPER(string = user.name) = 'ANNA'", children.get(1).getExpressionString());
+        Assert.assertEquals(3, children.get(1).getInvocationCount());
+
+        ExpressionProfile.Statistics upper = profile.getFunctionStatistics().get(domainModel.getFunction("UPPER"));
+        Assert.assertEquals(3, upper.getInvocationCount());
+        Assert.assertEquals(1, upper.getNullCount());
+        Assert.assertTrue(profile.getReport().contains("UPPER(string = user.name) = 'ANNA' [invocations=3"));
+
+        profile.reset();
+        Assert.assertEquals(0, root.getInvocationCount());
+        Assert.assertEquals(0, upper.getInvocationCount());
+    }
+
+    @Test
+    public void testProfilingDoesNotAffectOtherEvaluations() {
+        Predicate predicate = compiler.createPredicate("user.age > 18", compiler.createContext(testTypes));
+        ExpressionProfile profile = interpreter.createProfile(predicate);
+        Assert.assertTrue(interpreter.evaluate(predicate, context("Anna", 20)));
+        Assert.assertEquals(0, profile.getRoot().getInvocationCount());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.expression.Expression;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class InPredicateTest extends AbstractUserDomainTest {
+
+    private static final String LARGE_IN_LIST = "(1, 2.0, 3.50, 4, 5, 6, 7, 8, 9, 10)";
+    private static final String SMALL_IN_LIST = "(1, 2.0, 3.50, 4)";
+
+    private Object evaluate(String predicate, Integer age) {
+        Expression expression = compiler.createPredicate(predicate, compiler.createContext(testTypes));
+        return interpreter.evaluate(expression, createContext(new User(null, age == null ? null : BigInteger.valueOf(age))));
+    }
+
+    @Test
+    public void testLargeInListWidensNumericValues() {
+        Assert.assertEquals(Boolean.TRUE, evaluate("user.age IN " + LARGE_IN_LIST, 1));
+        Assert.assertEquals(Boolean.TRUE, evaluate("user.age IN " + LARGE_IN_LIST, 2));
+        Assert.assertEquals(Boolean.FALSE, evaluate("user.age IN " + LARGE_IN_LIST, 3));
+        Assert.assertEquals(Boolean.FALSE, evaluate("user.age IN " + LARGE_IN_LIST, 11));
+    }
+
+    @Test
+    public void testLargeNotInList() {
+        Assert.assertEquals(Boolean.FALSE, evaluate("user.age NOT IN " + LARGE_IN_LIST, 10));
+        Assert.assertEquals(Boolean.TRUE, evaluate("user.age NOT IN " + LARGE_IN_LIST, 11));
+    }
+
+    @Test
+    public void testNullLeftValueIsUnknown() {
+        Assert.assertNull(evaluate("user.age IN " + LARGE_IN_LIST, null));
+        Assert.assertNull(evaluate("user.age NOT IN " + LARGE_IN_LIST, null));
+        Assert.assertNull(evaluate("user.age IN " + SMALL_IN_LIST, null));
+    }
+
+    @Test
+    public void testNotInChecksAllItems() {
+        Assert.assertEquals(Boolean.FALSE, evaluate("user.age NOT IN " + SMALL_IN_LIST, 4));
+        Assert.assertEquals(Boolean.TRUE, evaluate("user.age NOT IN " + SMALL_IN_LIST, 5));
+    }
+
+    @Test
+    public void testLargeAndSmallInListAgree() {
+        for (int age = 0; age < 5; age++) {
+            Assert.assertEquals(evaluate("user.age IN " + SMALL_IN_LIST, age), evaluate("user.age IN " + LARGE_IN_LIST, age));
+            Assert.assertEquals(evaluate("user.age NOT IN " + SMALL_IN_LIST, age), evaluate("user.age NOT IN " + LARGE_IN_LIST, age));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.runtime.model.DomainOperator;
+import com.blazebit.expression.ComparisonOperator;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class NumericOperatorHandlerTest {
+
+    private static final BigInteger[] VALUES = {
+        BigInteger.ZERO,
+        BigInteger.ONE,
+        BigInteger.valueOf(-1),
+        BigInteger.valueOf(7),
+        BigInteger.valueOf(-13),
+        BigInteger.valueOf(Integer.MAX_VALUE),
+        BigInteger.valueOf(Long.MAX_VALUE),
+        BigInteger.valueOf(Long.MIN_VALUE),
+        BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE),
+        BigInteger.valueOf(Long.MIN_VALUE).subtract(BigInteger.TEN)
+    };
+
+    private final NumericOperatorHandler handler = NumericOperatorHandler.INSTANCE;
+
+    private static BigInteger expected(BigInteger l, BigInteger r, DomainOperator operator) {
+        switch (operator) {
+            case PLUS:
+                return l.add(r);
+            case MINUS:
+                return l.subtract(r);
+            case MULTIPLICATION:
+                return l.multiply(r);
+            case DIVISION:
+                return l.divide(r);
+            default:
+                return l.remainder(r);
+        }
+    }
+
+    @Test
+    public void testIntegralArithmeticPromotesOnOverflow() {
+        DomainOperator[] operators = { DomainOperator.PLUS, DomainOperator.MINUS, DomainOperator.MULTIPLICATION, DomainOperator.DIVISION, DomainOperator.MODULO };
+        for (BigInteger l : VALUES) {
+            for (BigInteger r : VALUES) {
+                for (DomainOperator operator : operators) {
+                    if (r.signum() == 0 && (operator == DomainOperator.DIVISION || operator == DomainOperator.MODULO)) {
+                        try {
+                            handler.interpret(null, null, null, l, r, operator);
+                            Assert.fail("Expected division by zero to fail");
+                        } catch (ArithmeticException ex) {
+                            Assert.assertEquals("BigInteger divide by zero", ex.getMessage());
+                        }
+                    } else {
+                        Assert.assertEquals(l + " " + operator + " " + r, expected(l, r, operator), handler.interpret(null, null, null, l, r, operator));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testComparison() {
+        for (BigInteger l : VALUES) {
+            for (BigInteger r : VALUES) {
+                int comparison = l.compareTo(r);
+                Assert.assertEquals(comparison == 0, handler.interpret(null, null, l, r, ComparisonOperator.EQUAL));
+                Assert.assertEquals(comparison != 0, handler.interpret(null, null, l, r, ComparisonOperator.NOT_EQUAL));
+                Assert.assertEquals(comparison < 0, handler.interpret(null, null, l, r, ComparisonOperator.LOWER));
+                Assert.assertEquals(comparison <= 0, handler.interpret(null, null, l, r, ComparisonOperator.LOWER_OR_EQUAL));
+                Assert.assertEquals(comparison > 0, handler.interpret(null, null, l, r, ComparisonOperator.GREATER));
+                Assert.assertEquals(comparison >= 0, handler.interpret(null, null, l, r, ComparisonOperator.GREATER_OR_EQUAL));
+                BigDecimal decimal = new BigDecimal(r).add(new BigDecimal("0.5"));
+                Assert.assertEquals(new BigDecimal(l).compareTo(decimal) < 0, handler.interpret(null, null, l, decimal, ComparisonOperator.LOWER));
+            }
+        }
+    }
+}
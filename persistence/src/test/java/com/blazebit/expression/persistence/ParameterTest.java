@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionSerializer;
+import com.blazebit.expression.Predicate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class ParameterTest extends AbstractUserDomainTest {
+
+    private Object evaluate(Expression expression, int age, Object... parameters) {
+        ExpressionInterpreter.Context context = createContext(new User(null, BigInteger.valueOf(age)));
+        for (int i = 0; i < parameters.length; i += 2) {
+            context.setParameter((String) parameters[i], parameters[i + 1]);
+        }
+        return interpreter.evaluate(expression, context);
+    }
+
+    @Test
+    public void testBindValuesAtEvaluation() {
+        Predicate predicate = compiler.createPredicate("user.age >= :minAge", compiler.createContext(testTypes));
+        Assert.assertEquals(Boolean.TRUE, evaluate(predicate, 20, "minAge", BigInteger.valueOf(18)));
+        Assert.assertEquals(Boolean.FALSE, evaluate(predicate, 20, "minAge", BigInteger.valueOf(21)));
+        Assert.assertNull(evaluate(predicate, 20));
+    }
+
+    @Test
+    public void testDeclaredParameterType() {
+        ExpressionCompiler.Context compileContext = compiler.createContext(
+                testTypes,
+                Collections.<String, Object>emptyMap(),
+                Collections.singletonMap("factor", domainModel.getType(BigDecimal.class))
+        );
+        Expression expression = compiler.createExpression("user.age * :factor", compileContext);
+        Assert.assertEquals(0, new BigDecimal("30").compareTo((BigDecimal) evaluate(expression, 20, "factor", new BigDecimal("1.5"))));
+    }
+
+    @Test
+    public void testSerializeParameter() {
+        Predicate predicate = compiler.createPredicate("user.age BETWEEN :lower AND :upper", compiler.createContext(testTypes));
+        ExpressionSerializer<StringBuilder> serializer = expressionServiceFactory.createSerializer(StringBuilder.class);
+        StringBuilder sb = new StringBuilder();
+        serializer.serializeTo(predicate, sb);
+        Assert.assertEquals("user.age BETWEEN :lower AND :upper", sb.toString());
+    }
+}
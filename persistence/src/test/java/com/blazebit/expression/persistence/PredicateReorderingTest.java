@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.CompiledPredicate;
+import com.blazebit.expression.ConfigurationProperties;
+import com.blazebit.expression.Expression;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.spi.AttributeAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class PredicateReorderingTest {
+
+    private static final String[] PREDICATES = {
+        "ticket.title <> 'x' AND ticket.status = 'CLOSED'",
+        "NOT(ticket.title <> 'x' AND ticket.status = 'CLOSED')",
+        "ticket.title = 'x' OR ticket.status <> 'CLOSED'",
+        "ticket.title IS NULL OR ticket.status <> 'CLOSED' OR ticket.title = 'Ticket 3'",
+        "NOT(ticket.title IS NULL OR ticket.status <> 'CLOSED')"
+    };
+
+    private final ExpressionCompiler compiler;
+    private final ExpressionInterpreter interpreter;
+    private final ExpressionInterpreter reorderingInterpreter;
+    private final Map<String, DomainType> testTypes = new HashMap<>();
+    private final TicketAttributeAccessor accessor = new TicketAttributeAccessor();
+
+    public static class Ticket {
+        final String title;
+        final String status;
+        public Ticket(String title, String status) {
+            this.title = title;
+            this.status = status;
+        }
+    }
+    public static class TicketAttributeAccessor implements MetadataDefinition<AttributeAccessor>, AttributeAccessor {
+        private int titleAccesses;
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            Ticket ticket = (Ticket) value;
+            if ("title".equals(attribute.getName())) {
+                titleAccesses++;
+                return ticket.title;
+            }
+            return ticket.status;
+        }
+        @Override
+        public Class<AttributeAccessor> getJavaType() {
+            return AttributeAccessor.class;
+        }
+        @Override
+        public AttributeAccessor build(MetadataDefinitionHolder<?> definitionHolder) {
+            return this;
+        }
+    }
+
+    public PredicateReorderingTest() {
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("ticket")
+                .addAttribute("title", String.class, accessor)
+                .addAttribute("status", String.class, accessor)
+                .build()
+                .build();
+        this.compiler = Expressions.forModel(domainModel).createCompiler();
+        this.interpreter = Expressions.forModel(domainModel).createInterpreter();
+        this.reorderingInterpreter = Expressions.forModel(
+                domainModel,
+                Collections.<String, Object>singletonMap(ConfigurationProperties.PREDICATE_REORDERING_INTERVAL, "10")
+        ).createInterpreter();
+        this.testTypes.put("ticket", domainModel.getType("ticket"));
+    }
+
+    private ExpressionInterpreter.Context context(String title, String status) {
+        return interpreter.createContext(testTypes, Collections.<String, Object>singletonMap("ticket", new Ticket(title, status)));
+    }
+
+    @Test
+    public void testReorderingKeepsResults() {
+        String[] titles = { null, "x", "Ticket 3" };
+        String[] statuses = { null, "OPEN", "CLOSED" };
+        for (String expressionString : PREDICATES) {
+            Predicate predicate = compiler.createPredicate(expressionString, compiler.createContext(testTypes));
+            CompiledPredicate compiledPredicate = reorderingInterpreter.compile(predicate);
+            for (int i = 0; i < 10; i++) {
+                for (String title : titles) {
+                    for (String status : statuses) {
+                        ExpressionInterpreter.Context context = context(title, status);
+                        Assert.assertEquals(expressionString, interpreter.<Object>evaluate((Expression) predicate, context), compiledPredicate.evaluate(context));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSelectiveOperandIsMovedToFront() {
+        Predicate predicate = compiler.createPredicate(PREDICATES[0], compiler.createContext(testTypes));
+        CompiledPredicate compiledPredicate = reorderingInterpreter.compile(predicate);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertFalse(compiledPredicate.test(context("Ticket " + i, "OPEN")));
+        }
+        Assert.assertEquals(10, accessor.titleAccesses);
+        // After the reordering, the status comparison decides the result without accessing the title
+        accessor.titleAccesses = 0;
+        for (int i = 0; i < 100; i++) {
+            Assert.assertFalse(compiledPredicate.test(context("Ticket " + i, "OPEN")));
+        }
+        Assert.assertTrue(compiledPredicate.test(context("Ticket", "CLOSED")));
+        Assert.assertEquals(1, accessor.titleAccesses);
+    }
+}
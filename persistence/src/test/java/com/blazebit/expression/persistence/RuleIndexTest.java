@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 - 2020 Blazebit.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazebit.expression.persistence;
+
+import com.blazebit.domain.Domain;
+import com.blazebit.domain.boot.model.MetadataDefinition;
+import com.blazebit.domain.boot.model.MetadataDefinitionHolder;
+import com.blazebit.domain.runtime.model.DomainModel;
+import com.blazebit.domain.runtime.model.DomainType;
+import com.blazebit.domain.runtime.model.EntityDomainTypeAttribute;
+import com.blazebit.expression.ExpressionCompiler;
+import com.blazebit.expression.ExpressionInterpreter;
+import com.blazebit.expression.ExpressionServiceFactory;
+import com.blazebit.expression.Expressions;
+import com.blazebit.expression.Predicate;
+import com.blazebit.expression.RuleIndex;
+import com.blazebit.expression.spi.AttributeAccessor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Christian Beikov
+ * @since 1.0.0
+ */
+public class RuleIndexTest {
+
+    private static final String[] TYPES = { "ORDER", "REFUND", "PAYMENT", null };
+    private static final String[] REGIONS = { "EU", "US", "APAC", null };
+
+    private final ExpressionCompiler compiler;
+    private final ExpressionInterpreter interpreter;
+    private final Map<String, DomainType> testTypes = new HashMap<>();
+    private final List<Predicate> rules = new ArrayList<>();
+
+    public static class Event {
+        final String type;
+        final String region;
+        final BigInteger amount;
+        public Event(String type, String region, BigInteger amount) {
+            this.type = type;
+            this.region = region;
+            this.amount = amount;
+        }
+    }
+    public static class EventAttributeAccessor implements MetadataDefinition<AttributeAccessor>, AttributeAccessor {
+        @Override
+        public Object getAttribute(Object value, EntityDomainTypeAttribute attribute) {
+            Event event = (Event) value;
+            switch (attribute.getName()) {
+                case "type":
+                    return event.type;
+                case "region":
+                    return event.region;
+                default:
+                    return event.amount;
+            }
+        }
+        @Override
+        public Class<AttributeAccessor> getJavaType() {
+            return AttributeAccessor.class;
+        }
+        @Override
+        public AttributeAccessor build(MetadataDefinitionHolder<?> definitionHolder) {
+            return this;
+        }
+    }
+
+    public RuleIndexTest() {
+        EventAttributeAccessor accessor = new EventAttributeAccessor();
+        DomainModel domainModel = Domain.getDefaultProvider().createDefaultBuilder()
+                .createEntityType("event")
+                .addAttribute("type", String.class, accessor)
+                .addAttribute("region", String.class, accessor)
+                .addAttribute("amount", BigInteger.class, accessor)
+                .build()
+                .build();
+        ExpressionServiceFactory expressionServiceFactory = Expressions.forModel(domainModel);
+        this.compiler = expressionServiceFactory.createCompiler();
+        this.interpreter = expressionServiceFactory.createInterpreter();
+        this.testTypes.put("event", domainModel.getType("event"));
+        for (int i = 0; i < 3; i++) {
+            String type = TYPES[i];
+            rule("event.type = '" + type + "'");
+            rule("event.type = '" + type + "' AND event.amount > " + (i * 100));
+            rule("event.region IN ('EU', 'US') AND event.type = '" + type + "'");
+            rule("event.amount >= " + (i * 50) + " AND event.region <> 'EU'");
+            rule("event.amount < " + (i * 70) + " AND (event.type = 'ORDER' OR event.region = 'APAC')");
+            rule("event.amount BETWEEN " + (i * 30) + " AND " + (i * 30 + 100));
+            rule("event.amount <= " + (i * 90));
+            rule("NOT(event.type = '" + type + "')");
+        }
+        rule("event.type = 'ORDER' OR event.region = 'EU'");
+        rule("event.region IS NULL");
+        rule("event.region = 'EU' AND (event.type = 'ORDER' AND event.amount > 10)");
+    }
+
+    private void rule(String rule) {
+        rules.add(compiler.createPredicate(rule, compiler.createContext(testTypes)));
+    }
+
+    private ExpressionInterpreter.Context createContext(Event event) {
+        return interpreter.createContext(testTypes, Collections.<String, Object>singletonMap("event", event));
+    }
+
+    @Test
+    public void testMatchAgreesWithFullEvaluation() {
+        RuleIndex ruleIndex = interpreter.createRuleIndex(rules);
+        Assert.assertEquals(rules, ruleIndex.getPredicates());
+        BigInteger[] amounts = { null, BigInteger.ZERO, BigInteger.valueOf(45), BigInteger.valueOf(70), BigInteger.valueOf(101), BigInteger.valueOf(500) };
+        for (String type : TYPES) {
+            for (String region : REGIONS) {
+                for (BigInteger amount : amounts) {
+                    ExpressionInterpreter.Context context = createContext(new Event(type, region, amount));
+                    BitSet expected = new BitSet();
+                    for (int i = 0; i < rules.size(); i++) {
+                        if (interpreter.evaluate(rules.get(i), context)) {
+                            expected.set(i);
+                        }
+                    }
+                    Assert.assertEquals(type + ", " + region + ", " + amount, expected, ruleIndex.match(context));
+                }
+            }
+        }
+    }
+}